@@ -0,0 +1,36 @@
+package br.com.comercialpereira.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USER_STATISTICS = "userStatistics";
+    public static final String SUPPLIER_STATISTICS = "supplierStatistics";
+    public static final String CATEGORY_STATISTICS = "categoryStatistics";
+    public static final String APPROXIMATE_COUNTS = "approximateCounts";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${comercial.cache.ttl.statistics:60}") long statisticsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of(USER_STATISTICS, SUPPLIER_STATISTICS, CATEGORY_STATISTICS, APPROXIMATE_COUNTS));
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(statisticsTtl))
+                .maximumSize(100));
+        cacheManager.setAllowNullValues(false);
+
+        // Evicções disparadas dentro de uma transação só são aplicadas após o commit
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.comercialpereira.config;
+
+import br.com.comercialpereira.services.cache.CacheInvalidationSubscriber;
+import br.com.comercialpereira.services.cache.EntityVersionRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+
+/**
+ * ETag forte para os GETs públicos do catálogo, calculada a partir das versões
+ * dos conjuntos de entidades que compõem a resposta.
+ *
+ * A versão é lida antes do controller: um If-None-Match igual é respondido com
+ * 304 sem nenhuma consulta ao banco nem serialização do corpo.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEtagInterceptor implements HandlerInterceptor {
+
+    // Produtos exibem categoria, fornecedor e estoque; categorias exibem contagem de produtos
+    private static final List<String> PRODUCT_SETS = List.of("products", "categories", "suppliers", "inventory");
+    private static final List<String> CATEGORY_SETS = List.of("categories", "products");
+
+    private final EntityVersionRegistry versionRegistry;
+    private final CacheInvalidationSubscriber invalidationSubscriber;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+
+        // Sem o listener em dia as versões locais podem estar atrasadas
+        if (!invalidationSubscriber.isConnected()) {
+            return true;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        List<String> entitySets = path.startsWith("/api/categories") ? CATEGORY_SETS : PRODUCT_SETS;
+        String etag = buildEtag(entitySets);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        return true;
+    }
+
+    private String buildEtag(List<String> entitySets) {
+        StringBuilder etag = new StringBuilder("\"");
+        for (int i = 0; i < entitySets.size(); i++) {
+            if (i > 0) {
+                etag.append('.');
+            }
+            etag.append(versionRegistry.getVersion(entitySets.get(i)));
+        }
+        return etag.append('"').toString();
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
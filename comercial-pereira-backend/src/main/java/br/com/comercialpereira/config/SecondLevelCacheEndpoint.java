@@ -0,0 +1,63 @@
+package br.com.comercialpereira.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Estatísticas do cache de segundo nível do Hibernate em /actuator/l2cache.
+ * Depende de hibernate.generate_statistics=true.
+ */
+@Component
+@Endpoint(id = "l2cache")
+@RequiredArgsConstructor
+public class SecondLevelCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Object> cacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, toMap(region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), region.getElementCountInMemory()));
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevel", toMap(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount(), -1));
+        result.put("queryCache", toMap(statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount(), -1));
+        result.put("regions", regions);
+        return result;
+    }
+
+    private Map<String, Object> toMap(long hits, long misses, long puts, long elements) {
+        long requests = hits + misses;
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", hits);
+        map.put("misses", misses);
+        map.put("puts", puts);
+        map.put("hitRatio", requests > 0 ? (double) hits / requests : 0.0);
+        if (elements >= 0) {
+            map.put("elementsInMemory", elements);
+        }
+        return map;
+    }
+}
@@ -68,7 +68,8 @@ public class SecurityConfig {
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
 
         // Define os cabeçalhos permitidos
-        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With"));
+        configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-Requested-With", "If-None-Match"));
+        configuration.setExposedHeaders(List.of("ETag"));
 
         // Permite o envio de credenciais (cookies, cabeçalhos de autorização)
         configuration.setAllowCredentials(true);
@@ -0,0 +1,70 @@
+package br.com.comercialpereira.controller;
+
+import br.com.comercialpereira.dto.audit.AuditFilters;
+import br.com.comercialpereira.dto.audit.AuditLogResponse;
+import br.com.comercialpereira.services.audit.AuditService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/audit")
+@RequiredArgsConstructor
+@Tag(name = "Auditoria", description = "Consulta do registro de auditoria")
+public class AuditController {
+
+    private final AuditService auditService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Buscar registros de auditoria",
+            description = "Filtra por entidade, usuário e período. Operações recentes aparecem com alguns segundos de atraso.")
+    public ResponseEntity<Page<AuditLogResponse>> search(
+            @Parameter(description = "Entidade (ex.: INVENTORY, CATEGORIES, USERS)")
+            @RequestParam(required = false) String entity,
+
+            @Parameter(description = "ID do registro auditado")
+            @RequestParam(required = false) Long entityId,
+
+            @Parameter(description = "ID do usuário que executou a operação")
+            @RequestParam(required = false) Long userId,
+
+            @Parameter(description = "Ação (ex.: CREATE, UPDATE, DELETE)")
+            @RequestParam(required = false) String action,
+
+            @Parameter(description = "Data início (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
+
+            @Parameter(description = "Data fim (yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        AuditFilters filters = AuditFilters.builder()
+                .entity(entity)
+                .entityId(entityId)
+                .userId(userId)
+                .action(action)
+                .dateFrom(dateFrom)
+                .dateTo(dateTo)
+                .page(page)
+                .size(Math.min(size, 100))
+                .build();
+
+        return ResponseEntity.ok(auditService.search(filters));
+    }
+}
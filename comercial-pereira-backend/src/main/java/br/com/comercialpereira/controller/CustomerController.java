@@ -25,7 +25,7 @@ public class CustomerController {
 
     /**
      * Endpoint para listar clientes com filtros e paginação.
-     * Exemplo: GET /api/customers?search=João&state=SP&page=0&size=10&sort=name,asc
+     * Exemplo: GET /api/customers?search=João&state=SP&page=0&size=10&sort=name,asc&count=false
      */
     @GetMapping
     public ResponseEntity<PageResponse<CustomerResponse>> getAllCustomers(
@@ -34,9 +34,13 @@ public class CustomerController {
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String state,
             @RequestParam(required = false, defaultValue = "true") Boolean isActive,
+            @RequestParam(defaultValue = "true") boolean count,
             @PageableDefault(size = 10, sort = "name") Pageable pageable) {
 
-        PageResponse<CustomerResponse> response = customerService.findAll(search, type, city, state, isActive, pageable);
+        // count=false evita o COUNT(*) e devolve hasNext; o total estimado só vem sem filtro
+        PageResponse<CustomerResponse> response = count
+                ? customerService.findAll(search, type, city, state, isActive, pageable)
+                : customerService.findAllWithoutCount(search, type, city, state, isActive, pageable);
         return ResponseEntity.ok(response);
     }
 
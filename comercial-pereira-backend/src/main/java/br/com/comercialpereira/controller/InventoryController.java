@@ -1,10 +1,19 @@
 package br.com.comercialpereira.controller;
 
+import br.com.comercialpereira.dto.PageResponse;
 import br.com.comercialpereira.dto.inventory.*;
 import br.com.comercialpereira.dto.movement.*;
 import br.com.comercialpereira.dto.user.UserResponse;
+import br.com.comercialpereira.enums.FlowGranularity;
+import br.com.comercialpereira.enums.MovementType;
 import br.com.comercialpereira.exception.ApiException;
 import br.com.comercialpereira.services.InventoryService;
+import br.com.comercialpereira.services.alert.StockAlertService;
+import br.com.comercialpereira.services.analytics.MovementFlowService;
+import br.com.comercialpereira.services.hotsku.HotSkuService;
+import br.com.comercialpereira.services.reconciliation.ReconciliationService;
+import br.com.comercialpereira.services.replenishment.ReplenishmentService;
+import br.com.comercialpereira.services.snapshot.InventorySnapshotService;
 import br.com.comercialpereira.services.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,11 +27,15 @@ import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -32,6 +45,12 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final InventorySnapshotService inventorySnapshotService;
+    private final ReconciliationService reconciliationService;
+    private final MovementFlowService movementFlowService;
+    private final ReplenishmentService replenishmentService;
+    private final HotSkuService hotSkuService;
+    private final StockAlertService stockAlertService;
     private final UserService userService;
 
     // =================== CRUD BÁSICO ===================
@@ -59,7 +78,7 @@ public class InventoryController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Lista de estoques retornada com sucesso")
     })
-    public ResponseEntity<Page<InventoryResponse>> getInventories(
+    public ResponseEntity<?> getInventories(
             @Parameter(description = "Termo de busca (nome ou código do produto)")
             @RequestParam(required = false) String search,
 
@@ -97,7 +116,10 @@ public class InventoryController {
             @RequestParam(defaultValue = "productName") String sortBy,
 
             @Parameter(description = "Direção da ordenação (asc/desc)")
-            @RequestParam(defaultValue = "asc") String sortOrder) {
+            @RequestParam(defaultValue = "asc") String sortOrder,
+
+            @Parameter(description = "Quando false, não executa COUNT; total estimado só sem filtro")
+            @RequestParam(defaultValue = "true") boolean count) {
 
         InventoryFilters filters = InventoryFilters.builder()
                 .search(search)
@@ -115,6 +137,10 @@ public class InventoryController {
                 .sortOrder(sortOrder)
                 .build();
 
+        if (!count) {
+            return ResponseEntity.ok(inventoryService.findManyWithoutCount(filters));
+        }
+
         Page<InventoryResponse> response = inventoryService.findMany(filters);
         return ResponseEntity.ok(response);
     }
@@ -149,6 +175,41 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/product/{productId}/locations")
+    @Operation(summary = "Estoque do produto por local",
+            description = "Retorna a quantidade do produto em cada local de estoque e o total")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Estoque por local encontrado"),
+            @ApiResponse(responseCode = "404", description = "Estoque não encontrado para este produto")
+    })
+    public ResponseEntity<InventoryLocationResponse> getInventoryLocationsByProduct(
+            @Parameter(description = "ID do produto")
+            @PathVariable Long productId) {
+
+        InventoryLocationResponse response = inventoryService.findLocationsByProductId(productId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/product/{productId}/at")
+    @Operation(summary = "Estoque do produto em uma data",
+            description = "Retorna o estoque ao fim do dia informado, a partir do snapshot diário mais próximo")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Estoque na data calculado"),
+            @ApiResponse(responseCode = "400", description = "Data no futuro"),
+            @ApiResponse(responseCode = "404", description = "Estoque não encontrado para este produto"),
+            @ApiResponse(responseCode = "422", description = "Sem snapshot próximo da data informada")
+    })
+    public ResponseEntity<StockAtDateResponse> getStockAt(
+            @Parameter(description = "ID do produto")
+            @PathVariable Long productId,
+
+            @Parameter(description = "Data (yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        StockAtDateResponse response = inventorySnapshotService.stockAt(productId, date);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar configurações do estoque",
             description = "Atualiza as configurações de um estoque (min/max/localização)")
@@ -206,10 +267,13 @@ public class InventoryController {
             @Parameter(description = "Motivo da adição")
             @RequestParam String reason,
 
+            @Parameter(description = "ID do local de estoque (padrão se omitido)")
+            @RequestParam(required = false) Long locationId,
+
             Authentication authentication) {
 
         Long currentUserId = getCurrentUserId(authentication);
-        InventoryResponse response = inventoryService.addStock(productId, quantity, reason, currentUserId);
+        InventoryResponse response = inventoryService.addStock(productId, quantity, reason, currentUserId, locationId);
         return ResponseEntity.ok(response);
     }
 
@@ -234,13 +298,109 @@ public class InventoryController {
             @Parameter(description = "ID da venda (opcional)")
             @RequestParam(required = false) Long saleId,
 
+            @Parameter(description = "ID do local de estoque (padrão se omitido)")
+            @RequestParam(required = false) Long locationId,
+
+            Authentication authentication) {
+
+        Long currentUserId = getCurrentUserId(authentication);
+        InventoryResponse response = inventoryService.removeStock(productId, quantity, reason, currentUserId, saleId,
+                locationId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/transfers")
+    @Operation(summary = "Transferir estoque entre locais",
+            description = "Move quantidade de um local para outro; o total do produto não muda")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transferência realizada"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos ou estoque insuficiente na origem"),
+            @ApiResponse(responseCode = "404", description = "Produto, estoque ou local não encontrado"),
+            @ApiResponse(responseCode = "409", description = "Local bloqueado por contagem de estoque")
+    })
+    public ResponseEntity<InventoryLocationResponse> transferStock(
+            @Valid @RequestBody TransferStockRequest request,
             Authentication authentication) {
 
         Long currentUserId = getCurrentUserId(authentication);
-        InventoryResponse response = inventoryService.removeStock(productId, quantity, reason, currentUserId, saleId);
+        InventoryLocationResponse response = inventoryService.transfer(request, currentUserId);
         return ResponseEntity.ok(response);
     }
 
+    // =================== LOCAIS DE ESTOQUE ===================
+
+    @GetMapping("/locations")
+    @Operation(summary = "Listar locais de estoque",
+            description = "Lista os locais de estoque, com o local padrão primeiro")
+    public ResponseEntity<List<StockLocationResponse>> getStockLocations() {
+        return ResponseEntity.ok(inventoryService.findLocations());
+    }
+
+    @PostMapping("/locations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Criar local de estoque",
+            description = "Cadastra um novo local (depósito, filial) para separar o estoque")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Local criado"),
+            @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+            @ApiResponse(responseCode = "409", description = "Código já utilizado")
+    })
+    public ResponseEntity<StockLocationResponse> createStockLocation(
+            @Valid @RequestBody CreateStockLocationRequest request,
+            Authentication authentication) {
+
+        Long currentUserId = getCurrentUserId(authentication);
+        StockLocationResponse response = inventoryService.createLocation(request, currentUserId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    // =================== ALTA CONCORRÊNCIA ===================
+
+    @GetMapping("/hot-skus")
+    @Operation(summary = "Listar produtos em modo de alta concorrência",
+            description = "Saldo em memória, saldo já gravado e movimentações aguardando o próximo lote")
+    public ResponseEntity<List<HotSkuResponse>> getHotSkus() {
+        return ResponseEntity.ok(hotSkuService.findAll());
+    }
+
+    @PostMapping("/hot-skus/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Ativar modo de alta concorrência",
+            description = "Passa o estoque do produto no local padrão para contadores em memória com gravação em lote")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Modo ativado"),
+            @ApiResponse(responseCode = "404", description = "Estoque não encontrado"),
+            @ApiResponse(responseCode = "409", description = "Produto já está no modo ou local bloqueado por contagem"),
+            @ApiResponse(responseCode = "503", description = "Recuperação do WAL em andamento")
+    })
+    public ResponseEntity<HotSkuResponse> enableHotSku(
+            @Parameter(description = "ID do produto") @PathVariable Long productId,
+            Authentication authentication) {
+
+        Long currentUserId = getCurrentUserId(authentication);
+        HotSkuResponse response = hotSkuService.enable(productId, currentUserId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @DeleteMapping("/hot-skus/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Desativar modo de alta concorrência",
+            description = "Grava as movimentações pendentes e devolve o produto ao controle pela linha de estoque")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Modo desativado"),
+            @ApiResponse(responseCode = "404", description = "Produto não está no modo"),
+            @ApiResponse(responseCode = "409", description = "Movimentações ainda em andamento"),
+            @ApiResponse(responseCode = "503", description = "Falha ao gravar movimentações pendentes")
+    })
+    public ResponseEntity<Void> disableHotSku(
+            @Parameter(description = "ID do produto") @PathVariable Long productId,
+            Authentication authentication) {
+
+        Long currentUserId = getCurrentUserId(authentication);
+        hotSkuService.disable(productId, currentUserId);
+        return ResponseEntity.noContent().build();
+    }
+
     // =================== HISTÓRICO DE MOVIMENTAÇÕES ===================
 
     @GetMapping("/movements")
@@ -333,6 +493,98 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/valuation")
+    @Operation(summary = "Valorização de fechamento do mês",
+            description = "Retorna quantidade e valor do estoque de cada produto no último dia do mês")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Mês no futuro")
+    })
+    public ResponseEntity<InventoryValuationResponse> getMonthEndValuation(
+            @Parameter(description = "Mês (yyyy-MM)")
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+
+        InventoryValuationResponse response = inventorySnapshotService.monthEndValuation(month);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/analytics/flow")
+    @Operation(summary = "Fluxo de movimentações",
+            description = "Série de entradas, saídas e ajustes por hora ou por dia, lida dos agregados de movimentações")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Série retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Período inválido")
+    })
+    public ResponseEntity<List<MovementFlowPoint>> getMovementFlow(
+            @Parameter(description = "Data inicial (yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @Parameter(description = "Data final (yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @Parameter(description = "Granularidade da série")
+            @RequestParam(defaultValue = "DAY") FlowGranularity granularity,
+            @Parameter(description = "Filtrar por produto")
+            @RequestParam(required = false) Long productId,
+            @Parameter(description = "Filtrar por tipo de movimentação")
+            @RequestParam(required = false) MovementType type) {
+
+        List<MovementFlowPoint> response = movementFlowService.getFlow(dateFrom, dateTo, granularity, productId, type);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/analytics/flow/products")
+    @Operation(summary = "Fluxo de movimentações por produto",
+            description = "Totais de entradas, saídas e ajustes por produto no período, lidos dos agregados diários")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ranking retornado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Período ou ordenação inválidos")
+    })
+    public ResponseEntity<List<ProductFlowResponse>> getProductFlow(
+            @Parameter(description = "Data inicial (yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @Parameter(description = "Data final (yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @Parameter(description = "Ordenação: OUTBOUND, INBOUND, NET ou MOVEMENTS")
+            @RequestParam(defaultValue = "OUTBOUND") String orderBy,
+            @Parameter(description = "Número máximo de produtos (até 100)")
+            @RequestParam(defaultValue = "20") int limit) {
+
+        List<ProductFlowResponse> response = movementFlowService.getProductFlow(dateFrom, dateTo, orderBy, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconciliar estoque com movimentações",
+            description = "Compara a quantidade de cada produto com a soma das movimentações e, se solicitado, " +
+                    "registra ajustes corretivos para as divergências")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Relatório de divergências gerado"),
+            @ApiResponse(responseCode = "409", description = "Reconciliação já em andamento")
+    })
+    public ResponseEntity<ReconciliationReport> reconcile(
+            @Parameter(description = "Registrar ajustes corretivos para as divergências")
+            @RequestParam(defaultValue = "false") boolean apply,
+            Authentication authentication) {
+
+        Long currentUserId = getCurrentUserId(authentication);
+        ReconciliationReport response = reconciliationService.run(apply, currentUserId);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/reconciliation/last")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Último relatório de reconciliação",
+            description = "Retorna o relatório da última reconciliação executada nesta instância")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Relatório retornado"),
+            @ApiResponse(responseCode = "404", description = "Nenhuma reconciliação executada")
+    })
+    public ResponseEntity<ReconciliationReport> getLastReconciliation() {
+        return reconciliationService.getLastReport()
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ApiException("Nenhuma reconciliação executada", HttpStatus.NOT_FOUND));
+    }
+
     @GetMapping("/alerts/low-stock")
     @Operation(summary = "Alertas de estoque baixo",
             description = "Retorna produtos com estoque abaixo do mínimo")
@@ -355,6 +607,57 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/alerts/history")
+    @Operation(summary = "Alertas de estoque registrados",
+            description = "Retorna os alertas abertos a partir dos eventos de estoque; com includeResolved, " +
+                    "também os já resolvidos")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Alertas retornados com sucesso")
+    })
+    public ResponseEntity<List<StockAlertResponse>> getStockAlerts(
+            @Parameter(description = "Incluir alertas já resolvidos")
+            @RequestParam(defaultValue = "false") boolean includeResolved,
+            @Parameter(description = "Número máximo de alertas (até 500)")
+            @RequestParam(defaultValue = "100") int limit) {
+
+        List<StockAlertResponse> response = stockAlertService.findAlerts(includeResolved, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/replenishment")
+    @Operation(summary = "Sugestões de reposição",
+            description = "Retorna produtos cuja cobertura, pela velocidade de saída, termina dentro da janela de alerta")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Sugestões retornadas com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Janela de alerta inválida")
+    })
+    public ResponseEntity<List<ReplenishmentSuggestion>> getReplenishment(
+            @Parameter(description = "Janela de alerta em dias (padrão: min-stock-alert-days)")
+            @RequestParam(required = false) Integer days,
+            @Parameter(description = "Número máximo de produtos (até 500)")
+            @RequestParam(defaultValue = "100") int limit) {
+
+        List<ReplenishmentSuggestion> response = replenishmentService.getAtRisk(days, limit);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/replenishment/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Atualizar velocidade de saída",
+            description = "Atualiza a velocidade de saída dos produtos até o dia anterior; " +
+                    "com full=true recalcula a janela inteira de todos os produtos")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Velocidade atualizada"),
+            @ApiResponse(responseCode = "409", description = "Atualização já em andamento")
+    })
+    public ResponseEntity<Map<String, Object>> refreshReplenishment(
+            @Parameter(description = "Recalcular a janela inteira")
+            @RequestParam(defaultValue = "false") boolean full) {
+
+        Map<String, Object> response = replenishmentService.refresh(full);
+        return ResponseEntity.ok(response);
+    }
+
     // =================== UTILITÁRIOS ===================
 
     @GetMapping("/check/{productId}")
@@ -371,6 +674,20 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/check")
+    @Operation(summary = "Verificar estoque do carrinho",
+            description = "Verifica a disponibilidade de vários produtos em uma única consulta")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Disponibilidade por produto retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Itens inválidos")
+    })
+    public ResponseEntity<Map<Long, StockCheckResponse>> checkCartStock(
+            @Valid @RequestBody CartStockCheckRequest request) {
+
+        Map<Long, StockCheckResponse> response = inventoryService.checkStock(request.getItems());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/exists/{productId}")
     @Operation(summary = "Verificar se produto tem estoque",
             description = "Verifica se existe registro de estoque para o produto")
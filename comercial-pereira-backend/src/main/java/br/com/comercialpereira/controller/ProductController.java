@@ -1,14 +1,18 @@
 package br.com.comercialpereira.controller;
 
+import br.com.comercialpereira.dto.PageResponse;
 import br.com.comercialpereira.dto.product.*;
+import br.com.comercialpereira.services.ProductImportService;
 import br.com.comercialpereira.services.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 import java.util.Map;
@@ -21,6 +25,7 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @PostMapping
     public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody CreateProductRequest request) {
@@ -30,8 +35,16 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductImportResponse> importProducts(@RequestParam("file") MultipartFile file) {
+        log.info("Importing products from file: {}", file.getOriginalFilename());
+
+        ProductImportResponse response = productImportService.importCsv(file);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getProducts(
+    public ResponseEntity<?> getProducts(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Long supplierId,
@@ -45,7 +58,8 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortOrder) {
+            @RequestParam(defaultValue = "asc") String sortOrder,
+            @RequestParam(defaultValue = "true") boolean count) {
 
         log.debug("Getting products with filters - page: {}, size: {}", page, size);
 
@@ -66,10 +80,23 @@ public class ProductController {
                 .sortOrder(sortOrder)
                 .build();
 
+        // count=false evita o COUNT(*) e devolve hasNext; o total estimado só vem sem filtro
+        if (!count) {
+            return ResponseEntity.ok(productService.findByFiltersWithoutCount(filters));
+        }
+
         Page<ProductResponse> response = productService.findByFilters(filters);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/batch")
+    public ResponseEntity<Map<Long, ProductResponse>> getProductsByIds(@RequestParam List<Long> ids) {
+        log.debug("Getting {} products by ID", ids.size());
+
+        Map<Long, ProductResponse> response = productService.findByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
         log.debug("Getting product by ID: {}", id);
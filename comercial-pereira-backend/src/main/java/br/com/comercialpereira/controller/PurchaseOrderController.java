@@ -0,0 +1,95 @@
+package br.com.comercialpereira.controller;
+
+import br.com.comercialpereira.dto.PageResponse;
+import br.com.comercialpereira.dto.purchase.PurchaseOrderGenerationResponse;
+import br.com.comercialpereira.dto.purchase.PurchaseOrderResponse;
+import br.com.comercialpereira.dto.purchase.UpdatePurchaseOrderStatusRequest;
+import br.com.comercialpereira.enums.PurchaseOrderStatus;
+import br.com.comercialpereira.services.purchase.PurchaseOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/purchase-orders")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Pedidos de Compra", description = "Rascunhos de pedidos de compra por fornecedor")
+public class PurchaseOrderController {
+
+    private final PurchaseOrderService purchaseOrderService;
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Listar pedidos de compra",
+            description = "Lista pedidos com fornecedor e itens, mais recentes primeiro")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Pedidos retornados com sucesso")
+    })
+    public ResponseEntity<PageResponse<PurchaseOrderResponse>> getPurchaseOrders(
+            @Parameter(description = "Filtrar por status")
+            @RequestParam(required = false) PurchaseOrderStatus status,
+            @Parameter(description = "Filtrar por fornecedor")
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        PageResponse<PurchaseOrderResponse> response = purchaseOrderService.findAll(status, supplierId, page, size);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Buscar pedido de compra")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Pedido encontrado"),
+            @ApiResponse(responseCode = "404", description = "Pedido não encontrado")
+    })
+    public ResponseEntity<PurchaseOrderResponse> getPurchaseOrder(
+            @Parameter(description = "ID do pedido")
+            @PathVariable Long id) {
+
+        PurchaseOrderResponse response = purchaseOrderService.findById(id);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/generate")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Gerar rascunhos de pedidos",
+            description = "Substitui os rascunhos atuais por novos, a partir do estoque baixo e da ruptura prevista")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Rascunhos gerados")
+    })
+    public ResponseEntity<PurchaseOrderGenerationResponse> generateDrafts() {
+        log.info("Gerando rascunhos de pedidos de compra manualmente");
+
+        PurchaseOrderGenerationResponse response = purchaseOrderService.generateDrafts();
+        return ResponseEntity.ok(response);
+    }
+
+    @PatchMapping("/{id}/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Atualizar status do pedido",
+            description = "Rascunho pode ser enviado ou cancelado; pedido enviado pode ser recebido ou cancelado")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status atualizado"),
+            @ApiResponse(responseCode = "400", description = "Transição de status inválida"),
+            @ApiResponse(responseCode = "404", description = "Pedido não encontrado")
+    })
+    public ResponseEntity<PurchaseOrderResponse> updateStatus(
+            @Parameter(description = "ID do pedido")
+            @PathVariable Long id,
+            @Valid @RequestBody UpdatePurchaseOrderStatusRequest request) {
+
+        PurchaseOrderResponse response = purchaseOrderService.updateStatus(id, request);
+        return ResponseEntity.ok(response);
+    }
+}
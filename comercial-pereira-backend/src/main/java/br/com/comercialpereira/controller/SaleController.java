@@ -51,8 +51,11 @@ public class SaleController {
             @RequestParam(required = false) Long customerId,
             @RequestParam(required = false) Long userId,
             @RequestParam(required = false) SaleStatus status,
+            @RequestParam(defaultValue = "true") boolean count,
             @PageableDefault(size = 10, sort = "saleDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        PageResponse<SaleResponse> response = saleService.findAll(customerId, userId, status, pageable);
+        PageResponse<SaleResponse> response = count
+                ? saleService.findAll(customerId, userId, status, pageable)
+                : saleService.findAllWithoutCount(customerId, userId, status, pageable);
         return ResponseEntity.ok(response);
     }
 
@@ -73,6 +76,15 @@ public class SaleController {
         SaleResponse cancelledSale = saleService.cancel(id);
         return ResponseEntity.ok(cancelledSale);
     }
+
+    /**
+     * Endpoint para concluir uma venda, baixando o estoque dos itens.
+     */
+    @PatchMapping("/{id}/complete")
+    public ResponseEntity<SaleResponse> completeSale(@PathVariable Long id) {
+        SaleResponse completedSale = saleService.complete(id);
+        return ResponseEntity.ok(completedSale);
+    }
     /**
      * Endpoint para adicionar um item a uma venda existente.
      */
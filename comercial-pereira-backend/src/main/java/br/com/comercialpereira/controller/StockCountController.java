@@ -0,0 +1,132 @@
+package br.com.comercialpereira.controller;
+
+import br.com.comercialpereira.dto.count.CreateStockCountRequest;
+import br.com.comercialpereira.dto.count.StockCountResult;
+import br.com.comercialpereira.dto.count.StockCountSessionResponse;
+import br.com.comercialpereira.dto.count.StockScanResult;
+import br.com.comercialpereira.entity.User;
+import br.com.comercialpereira.services.count.LocationFreezeRegistry;
+import br.com.comercialpereira.services.count.StockCountService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/inventory/counts")
+@RequiredArgsConstructor
+@Tag(name = "Contagem de Estoque", description = "Contagem física com coletores e bloqueio por local")
+public class StockCountController {
+
+    private final StockCountService stockCountService;
+    private final LocationFreezeRegistry locationFreezeRegistry;
+
+    // Método auxiliar para obter User-ID do contexto de segurança
+    private Long getCurrentUserId(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return user.getId();
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Iniciar contagem",
+            description = "Abre uma sessão de contagem e bloqueia as movimentações dos produtos dos locais informados")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Contagem iniciada"),
+            @ApiResponse(responseCode = "409", description = "Algum local já está em contagem")
+    })
+    public ResponseEntity<StockCountSessionResponse> start(
+            @Valid @RequestBody CreateStockCountRequest request,
+            Authentication authentication) {
+
+        StockCountSessionResponse response = stockCountService.start(request, getCurrentUserId(authentication));
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping
+    @Operation(summary = "Contagens abertas")
+    public ResponseEntity<List<StockCountSessionResponse>> findOpen() {
+        return ResponseEntity.ok(stockCountService.findOpen());
+    }
+
+    @GetMapping("/frozen-locations")
+    @Operation(summary = "Locais bloqueados", description = "Locais em contagem e a sessão que os bloqueia")
+    public ResponseEntity<Map<String, Long>> getFrozenLocations() {
+        return ResponseEntity.ok(locationFreezeRegistry.snapshot());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Andamento da contagem")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Sessão encontrada"),
+            @ApiResponse(responseCode = "404", description = "Sessão não encontrada")
+    })
+    public ResponseEntity<StockCountSessionResponse> findById(
+            @Parameter(description = "ID da sessão")
+            @PathVariable Long id) {
+
+        return ResponseEntity.ok(stockCountService.findById(id));
+    }
+
+    @PostMapping(value = "/{id}/scans", consumes = {"application/x-ndjson", "text/plain"})
+    @Operation(summary = "Enviar bipagens",
+            description = "Recebe bipagens em NDJSON, uma por linha: {\"barcode\":\"...\",\"location\":\"...\",\"quantity\":1}. " +
+                    "Linhas inválidas são rejeitadas individualmente")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Bipagens processadas"),
+            @ApiResponse(responseCode = "404", description = "Sessão não encontrada"),
+            @ApiResponse(responseCode = "409", description = "Sessão já fechada")
+    })
+    public ResponseEntity<StockScanResult> ingestScans(
+            @Parameter(description = "ID da sessão")
+            @PathVariable Long id,
+            InputStream body) {
+
+        return ResponseEntity.ok(stockCountService.ingest(id, body));
+    }
+
+    @PostMapping("/{id}/commit")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Fechar contagem",
+            description = "Aplica as diferenças entre o contado e o estoque numa única transação e libera os locais")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Contagem aplicada"),
+            @ApiResponse(responseCode = "404", description = "Sessão não encontrada"),
+            @ApiResponse(responseCode = "409", description = "Sessão já fechada")
+    })
+    public ResponseEntity<StockCountResult> commit(
+            @Parameter(description = "ID da sessão")
+            @PathVariable Long id,
+            Authentication authentication) {
+
+        return ResponseEntity.ok(stockCountService.commit(id, getCurrentUserId(authentication)));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    @Operation(summary = "Cancelar contagem", description = "Descarta as bipagens e libera os locais")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Contagem cancelada"),
+            @ApiResponse(responseCode = "404", description = "Sessão não encontrada")
+    })
+    public ResponseEntity<Void> cancel(
+            @Parameter(description = "ID da sessão")
+            @PathVariable Long id,
+            Authentication authentication) {
+
+        stockCountService.cancel(id, getCurrentUserId(authentication));
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.comercialpereira.controller;
 
+import br.com.comercialpereira.dto.PageResponse;
 import br.com.comercialpereira.dto.supplier.*;
 import br.com.comercialpereira.services.SupplierService;
 import jakarta.validation.Valid;
@@ -31,7 +32,7 @@ public class SupplierController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<SupplierResponse>> getSuppliers(
+    public ResponseEntity<?> getSuppliers(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) Boolean isActive,
             @RequestParam(required = false) String state,
@@ -40,7 +41,8 @@ public class SupplierController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortOrder) {
+            @RequestParam(defaultValue = "asc") String sortOrder,
+            @RequestParam(defaultValue = "true") boolean count) {
 
         log.debug("Getting suppliers with filters - page: {}, size: {}", page, size);
 
@@ -56,6 +58,11 @@ public class SupplierController {
                 .sortOrder(sortOrder)
                 .build();
 
+        // count=false evita o COUNT(*) e devolve hasNext; o total estimado só vem sem filtro
+        if (!count) {
+            return ResponseEntity.ok(supplierService.findByFiltersWithoutCount(filters));
+        }
+
         Page<SupplierResponse> response = supplierService.findByFilters(filters);
         return ResponseEntity.ok(response);
     }
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -23,6 +24,22 @@ public class PageResponse<T> {
                 .build();
     }
 
+    // Página sem COUNT e sem filtro: o total informado é a estimativa da tabela inteira
+    public static <T> PageResponse<T> from(Slice<T> slice, long estimatedTotal) {
+        return PageResponse.<T>builder()
+                .data(slice.getContent())
+                .pagination(PaginationInfo.from(slice, estimatedTotal))
+                .build();
+    }
+
+    // Página sem COUNT de uma busca filtrada: sem total, a navegação segue por hasNext
+    public static <T> PageResponse<T> from(Slice<T> slice) {
+        return PageResponse.<T>builder()
+                .data(slice.getContent())
+                .pagination(PaginationInfo.from(slice))
+                .build();
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -30,10 +47,11 @@ public class PageResponse<T> {
     public static class PaginationInfo {
         private int page;
         private int size;
-        private long total;
-        private int totalPages;
+        private Long total;
+        private Integer totalPages;
         private boolean hasNext;
         private boolean hasPrevious;
+        private boolean approximate;
 
         public static PaginationInfo from(Page<?> page) {
             return PaginationInfo.builder()
@@ -45,5 +63,27 @@ public class PageResponse<T> {
                     .hasPrevious(page.hasPrevious())
                     .build();
         }
+
+        public static PaginationInfo from(Slice<?> slice, long estimatedTotal) {
+            int size = slice.getSize();
+            return PaginationInfo.builder()
+                    .page(slice.getNumber())
+                    .size(size)
+                    .total(estimatedTotal)
+                    .totalPages(size > 0 ? (int) Math.ceil((double) estimatedTotal / size) : 0)
+                    .hasNext(slice.hasNext())
+                    .hasPrevious(slice.hasPrevious())
+                    .approximate(true)
+                    .build();
+        }
+
+        public static PaginationInfo from(Slice<?> slice) {
+            return PaginationInfo.builder()
+                    .page(slice.getNumber())
+                    .size(slice.getSize())
+                    .hasNext(slice.hasNext())
+                    .hasPrevious(slice.hasPrevious())
+                    .build();
+        }
     }
 }
\ No newline at end of file
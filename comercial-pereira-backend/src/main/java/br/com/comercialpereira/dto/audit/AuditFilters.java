@@ -0,0 +1,25 @@
+package br.com.comercialpereira.dto.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditFilters {
+    private String entity;
+    private Long entityId;
+    private Long userId;
+    private String action;
+    private LocalDateTime dateFrom;
+    private LocalDateTime dateTo;
+    @Builder.Default
+    private int page = 0;
+    @Builder.Default
+    private int size = 20;
+}
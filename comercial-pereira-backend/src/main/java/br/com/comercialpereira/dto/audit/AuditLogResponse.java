@@ -0,0 +1,26 @@
+package br.com.comercialpereira.dto.audit;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogResponse {
+    private Long id;
+    private LocalDateTime occurredAt;
+    private Long userId;
+    private String action;
+    private String entity;
+    private Long entityId;
+
+    // JSON gravado pela operação, devolvido como objeto
+    @JsonRawValue
+    private String data;
+}
@@ -0,0 +1,28 @@
+package br.com.comercialpereira.dto.count;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateStockCountRequest {
+
+    @NotEmpty(message = "Informe ao menos um local para contagem")
+    @Size(max = 50, message = "Máximo de 50 locais por contagem")
+    private List<@Size(min = 2, max = 100) String> locations;
+
+    // Local de estoque contado; sem valor, usa o local padrão
+    private Long stockLocationId;
+
+    // Produtos dos locais contados que não forem bipados ficam com quantidade zero; só quando pedido
+    @Builder.Default
+    private Boolean zeroUncounted = false;
+}
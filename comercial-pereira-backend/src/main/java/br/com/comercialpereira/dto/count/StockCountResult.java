@@ -0,0 +1,40 @@
+package br.com.comercialpereira.dto.count;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCountResult {
+    private Long sessionId;
+    private String stockLocationCode;
+    private List<String> locations;
+    private LocalDateTime committedAt;
+    private Long elapsedMs;
+    private Integer productsCounted;
+    private Integer productsAdjusted;
+    private Long unitsAdded;
+    private Long unitsRemoved;
+    private List<Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String productCode;
+        private String productName;
+        private String location;
+        private Integer quantityBefore;
+        private Integer counted;
+        private Integer difference;
+    }
+}
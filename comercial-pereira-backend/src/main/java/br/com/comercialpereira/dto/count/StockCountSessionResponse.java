@@ -0,0 +1,30 @@
+package br.com.comercialpereira.dto.count;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCountSessionResponse {
+    private Long id;
+    private Long stockLocationId;
+    private String stockLocationCode;
+    private List<String> locations;
+    private Boolean zeroUncounted;
+    private String status;
+    private Long startedBy;
+    private LocalDateTime startedAt;
+    private LocalDateTime closedAt;
+    private Long scansAccepted;
+    private Long scansRejected;
+    private Integer productsCounted;
+    private Long unitsCounted;
+    private List<String> unknownBarcodes;
+}
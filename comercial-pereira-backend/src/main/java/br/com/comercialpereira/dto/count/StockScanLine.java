@@ -0,0 +1,17 @@
+package br.com.comercialpereira.dto.count;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Uma linha NDJSON do coletor: {"barcode":"789...","location":"A1","quantity":1}
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockScanLine {
+    private String barcode;
+    private String location;
+    private Integer quantity;
+}
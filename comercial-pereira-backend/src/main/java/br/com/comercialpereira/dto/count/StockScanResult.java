@@ -0,0 +1,21 @@
+package br.com.comercialpereira.dto.count;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockScanResult {
+    private Long sessionId;
+    private Long accepted;
+    private Long rejected;
+
+    // Primeiras linhas rejeitadas, com o número da linha no envio
+    private List<String> errors;
+}
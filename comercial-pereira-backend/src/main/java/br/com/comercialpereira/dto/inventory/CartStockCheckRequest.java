@@ -0,0 +1,23 @@
+package br.com.comercialpereira.dto.inventory;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartStockCheckRequest {
+
+    @NotEmpty(message = "Informe ao menos um item")
+    @Size(max = 500, message = "Máximo de 500 itens por verificação")
+    @Valid
+    private List<StockCheckItemRequest> items;
+}
@@ -30,4 +30,7 @@ public class CreateInventoryRequest {
 
     @Size(min = 2, max = 100, message = "Localização deve ter entre 2 e 100 caracteres")
     private String location;
-}
\ No newline at end of file
+
+    // Local do estoque; sem valor, usa o local padrão
+    private Long locationId;
+}
@@ -0,0 +1,24 @@
+package br.com.comercialpereira.dto.inventory;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateStockLocationRequest {
+
+    @NotBlank(message = "Código é obrigatório")
+    @Pattern(regexp = "^[A-Za-z0-9_-]{2,20}$", message = "Código deve ter entre 2 e 20 letras, números, '-' ou '_'")
+    private String code;
+
+    @NotBlank(message = "Nome é obrigatório")
+    @Size(min = 2, max = 100, message = "Nome deve ter entre 2 e 100 caracteres")
+    private String name;
+}
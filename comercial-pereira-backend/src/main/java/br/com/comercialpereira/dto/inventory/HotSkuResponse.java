@@ -0,0 +1,29 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSkuResponse {
+    private Long productId;
+    private String productCode;
+    private String productName;
+    private Long locationId;
+    private String locationCode;
+
+    // Saldo do contador em memória; o gravado fica para trás até o próximo lote
+    private Long quantity;
+    private Integer persistedQuantity;
+    private Integer pendingMovements;
+    // Instância que guarda o contador e o WAL do produto
+    private String ownerNode;
+    private Long enabledBy;
+    private LocalDateTime enabledAt;
+}
@@ -0,0 +1,34 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Estoque de um produto aberto por local; quantity é a soma dos locais
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLocationResponse {
+    private Long inventoryId;
+    private Long productId;
+    private Integer quantity;
+    private List<Line> locations;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long locationId;
+        private String code;
+        private String name;
+        private Boolean isDefault;
+        private Integer quantity;
+        private LocalDateTime updatedAt;
+    }
+}
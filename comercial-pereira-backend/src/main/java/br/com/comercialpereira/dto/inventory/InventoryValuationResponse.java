@@ -0,0 +1,44 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryValuationResponse {
+    private YearMonth month;
+    private LocalDate date;
+    private Long totalProducts;
+    private Long totalQuantity;
+    private BigDecimal totalValue;
+
+    // Produtos sem snapshot próximo da data ficam fora do relatório
+    private Long productsWithoutHistory;
+    // Linhas cuja quantidade passou por ajustes com sinal deduzido na migração
+    private Long approximateProducts;
+    private List<Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String productCode;
+        private String productName;
+        private String categoryName;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal totalValue;
+        private Boolean approximate;
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+    private LocalDateTime startedAt;
+    private Long elapsedMs;
+    private Integer parallelism;
+    private Integer shards;
+
+    private Long productsChecked;
+    private Long movementsReplayed;
+    private Long matched;
+    private Long drifted;
+    private Long totalAbsoluteDrift;
+    // Produtos com movimentações de sinal deduzido na migração
+    private Long approximateProducts;
+
+    private Boolean correctionsRequested;
+    private Long correctionsApplied;
+
+    // Apenas os produtos com maior divergência; drifted traz o total
+    private List<Line> lines;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private Long inventoryId;
+        private Integer quantity;
+        private Long inbound;
+        private Long outbound;
+        // SUM(delta) das movimentações
+        private Long ledgerQuantity;
+        // quantity - ledgerQuantity
+        private Long drift;
+        // Movimentações com sinal deduzido; com alguma, ledgerQuantity é aproximado
+        private Long inferredMovements;
+        private Boolean approximate;
+        private Boolean corrected;
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplenishmentSuggestion {
+    private Long productId;
+    private String productCode;
+    private String productName;
+    private Integer quantity;
+    private Integer minStock;
+    private Integer maxStock;
+
+    // Média diária de saídas na janela
+    private BigDecimal dailyVelocity;
+    private BigDecimal daysOfCover;
+    private LocalDate estimatedStockoutDate;
+
+    // Saídas esperadas dentro da janela de alerta
+    private Integer reorderPoint;
+    private Integer suggestedQuantity;
+    private LocalDate velocityComputedThrough;
+}
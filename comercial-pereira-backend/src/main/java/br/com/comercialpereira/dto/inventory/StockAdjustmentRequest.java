@@ -1,6 +1,5 @@
 package br.com.comercialpereira.dto.inventory;
 
-import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -18,11 +17,14 @@ public class StockAdjustmentRequest {
     @NotNull(message = "Produto é obrigatório")
     private Long productId;
 
+    // Positiva para entrada, negativa para saída
     @NotNull(message = "Quantidade é obrigatória")
-    @Min(value = 1, message = "Quantidade deve ser maior que zero")
     private Integer quantity;
 
     @NotBlank(message = "Motivo é obrigatório")
     @Size(min = 3, max = 500, message = "Motivo deve ter entre 3 e 500 caracteres")
     private String reason;
-}
\ No newline at end of file
+
+    // Local do estoque; sem valor, usa o local padrão
+    private Long locationId;
+}
@@ -0,0 +1,27 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertResponse {
+    private Long id;
+    private Long productId;
+    private String productCode;
+    private String productName;
+
+    // LOW (no mínimo ou abaixo) ou OUT (zerado)
+    private String level;
+    private Integer quantity;
+    private Integer minStock;
+    private LocalDateTime openedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime resolvedAt;
+}
@@ -0,0 +1,29 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAtDateResponse {
+    private Long productId;
+    private String productName;
+    private String productCode;
+
+    // Estoque ao fim do dia (hoje: quantidade atual)
+    private LocalDate date;
+    private Integer quantity;
+
+    // SNAPSHOT, SNAPSHOT_REPLAY ou CURRENT_REPLAY
+    private String source;
+    private LocalDate anchorDate;
+    private Long replayedMovements;
+    // A reaplicação passou por ajustes com sinal deduzido na migração
+    private Boolean approximate;
+}
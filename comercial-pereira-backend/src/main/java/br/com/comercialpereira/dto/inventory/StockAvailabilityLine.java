@@ -0,0 +1,31 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado da verificação de uma linha do carrinho. Quando o mesmo produto
+ * aparece em várias linhas, o estoque é consumido na ordem das linhas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailabilityLine {
+    private int lineNumber;
+    private Long productId;
+    private String productName;
+    private boolean productExists;
+    private boolean hasInventory;
+    private Integer requestedQuantity;
+    private Integer requestedTotal;
+    private Integer onHand;
+    private Integer minStock;
+    private Integer shortfall;
+
+    public boolean isSatisfied() {
+        return productExists && shortfall == 0;
+    }
+}
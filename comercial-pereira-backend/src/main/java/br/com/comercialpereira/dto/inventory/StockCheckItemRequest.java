@@ -0,0 +1,22 @@
+package br.com.comercialpereira.dto.inventory;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCheckItemRequest {
+
+    @NotNull(message = "Produto é obrigatório")
+    private Long productId;
+
+    @NotNull(message = "Quantidade é obrigatória")
+    @Min(value = 1, message = "Quantidade deve ser maior que zero")
+    private Integer quantity;
+}
@@ -5,7 +5,12 @@ package br.com.comercialpereira.dto.inventory;
 @lombok.NoArgsConstructor
 @lombok.AllArgsConstructor
 public class StockCheckResponse {
+    private Long productId;
     private Boolean available;
     private Integer quantity;
     private Boolean isLowStock;
+
+    // Preenchidos apenas na verificação de carrinho
+    private Integer requestedQuantity;
+    private Integer shortfall;
 }
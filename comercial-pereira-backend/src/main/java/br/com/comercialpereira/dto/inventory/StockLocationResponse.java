@@ -0,0 +1,21 @@
+package br.com.comercialpereira.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLocationResponse {
+    private Long id;
+    private String code;
+    private String name;
+    private Boolean isDefault;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+}
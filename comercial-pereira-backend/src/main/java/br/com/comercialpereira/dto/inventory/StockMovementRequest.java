@@ -15,4 +15,5 @@ public class StockMovementRequest {
     private Integer quantity;
     private String reason;
     private Long saleId;
+    private Long locationId;
 }
@@ -0,0 +1,34 @@
+package br.com.comercialpereira.dto.inventory;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferStockRequest {
+
+    @NotNull(message = "Produto é obrigatório")
+    private Long productId;
+
+    @NotNull(message = "Local de origem é obrigatório")
+    private Long fromLocationId;
+
+    @NotNull(message = "Local de destino é obrigatório")
+    private Long toLocationId;
+
+    @NotNull(message = "Quantidade é obrigatória")
+    @Min(value = 1, message = "Quantidade deve ser maior que zero")
+    private Integer quantity;
+
+    @NotBlank(message = "Motivo é obrigatório")
+    @Size(min = 3, max = 500, message = "Motivo deve ter entre 3 e 500 caracteres")
+    private String reason;
+}
@@ -24,4 +24,7 @@ public class UpdateInventoryRequest {
 
     @Size(min = 2, max = 100, message = "Localização deve ter entre 2 e 100 caracteres")
     private String location;
-}
\ No newline at end of file
+
+    // Local cuja quantidade é alterada; sem valor, usa o local padrão
+    private Long locationId;
+}
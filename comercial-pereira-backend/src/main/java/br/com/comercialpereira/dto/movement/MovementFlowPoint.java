@@ -0,0 +1,24 @@
+package br.com.comercialpereira.dto.movement;
+
+import br.com.comercialpereira.enums.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementFlowPoint {
+    // Início da hora ou do dia
+    private LocalDateTime bucket;
+    private MovementType type;
+    private Long movementCount;
+    private Long quantity;
+    private Long netQuantity;
+    // Inclui ajustes com sinal deduzido na migração
+    private Boolean approximate;
+}
@@ -16,6 +16,11 @@ public class MovementResponse {
     private Long id;
     private MovementType type;
     private Integer quantity;
+    private Integer delta;
+    private Integer quantityBefore;
+    private Integer quantityAfter;
+    // Sinal deduzido na migração para o razão com sinal: delta aproximado
+    private Boolean signInferred;
     private String reason;
     private LocalDateTime createdAt;
 
@@ -23,6 +28,7 @@ public class MovementResponse {
     private ProductInfo product;
     private UserInfo user;
     private SaleInfo sale;
+    private LocationInfo location;
 
     @Data
     @Builder
@@ -51,4 +57,14 @@ public class MovementResponse {
         private Long id;
         private String customerName;
     }
-}
\ No newline at end of file
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LocationInfo {
+        private Long id;
+        private String code;
+        private String name;
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.comercialpereira.dto.movement;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFlowResponse {
+    private Long productId;
+    private String productCode;
+    private String productName;
+    private Long movementCount;
+    private Long inbound;
+    private Long outbound;
+    // Saldo líquido dos ajustes
+    private Long adjustments;
+    private Long netQuantity;
+    // Inclui ajustes com sinal deduzido na migração
+    private Boolean approximate;
+}
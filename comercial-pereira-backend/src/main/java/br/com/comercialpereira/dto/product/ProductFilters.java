@@ -26,4 +26,12 @@ public class ProductFilters {
     private int size = 20;
     private String sortBy = "name";
     private String sortOrder = "asc";
+
+    // Algum critério que restringe o resultado (mesmas condições de ProductSpecification)
+    public boolean hasFilters() {
+        return (search != null && !search.trim().isEmpty())
+                || categoryId != null || supplierId != null || isActive != null
+                || minPrice != null || maxPrice != null || hasBarcode != null
+                || Boolean.TRUE.equals(hasStock) || Boolean.TRUE.equals(lowStock) || Boolean.TRUE.equals(noStock);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package br.com.comercialpereira.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private long totalRows;
+    private long importedRows;
+    private long rejectedRows;
+    private long elapsedMs;
+    private double rowsPerSecond;
+
+    // Apenas os primeiros erros são devolvidos; rejectedRows traz o total
+    private List<RowError> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String code;
+        private String message;
+    }
+}
@@ -0,0 +1,20 @@
+package br.com.comercialpereira.dto.purchase;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderGenerationResponse {
+    private LocalDate referenceDate;
+    private Integer draftsReplaced;
+    private Integer ordersCreated;
+    private Integer itemsCreated;
+    private Long elapsedMs;
+}
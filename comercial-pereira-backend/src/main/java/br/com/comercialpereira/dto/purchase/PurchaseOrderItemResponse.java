@@ -0,0 +1,25 @@
+package br.com.comercialpereira.dto.purchase;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderItemResponse {
+    private Long id;
+    private Long productId;
+    private String productCode;
+    private String productName;
+    private Integer currentQuantity;
+    private Integer minStock;
+    private Integer maxStock;
+    private BigDecimal dailyVelocity;
+    private Boolean predicted;
+    private Integer suggestedQuantity;
+}
@@ -0,0 +1,31 @@
+package br.com.comercialpereira.dto.purchase;
+
+import br.com.comercialpereira.enums.PurchaseOrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseOrderResponse {
+    private Long id;
+    private Long supplierId;
+    private String supplierName;
+    private String supplierEmail;
+    private PurchaseOrderStatus status;
+    private String statusDisplayName;
+    private LocalDate referenceDate;
+    private Integer itemCount;
+    private Integer totalQuantity;
+    private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<PurchaseOrderItemResponse> items;
+}
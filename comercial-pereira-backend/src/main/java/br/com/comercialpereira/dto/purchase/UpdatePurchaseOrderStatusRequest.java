@@ -0,0 +1,22 @@
+package br.com.comercialpereira.dto.purchase;
+
+import br.com.comercialpereira.enums.PurchaseOrderStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdatePurchaseOrderStatusRequest {
+
+    @NotNull(message = "Status é obrigatório")
+    private PurchaseOrderStatus status;
+
+    @Size(max = 1000, message = "Observações devem ter no máximo 1000 caracteres")
+    private String notes;
+}
@@ -19,4 +19,10 @@ public class SupplierFilters {
     private int size = 20;
     private String sortBy = "name";
     private String sortOrder = "asc";
+
+    // Algum critério que restringe o resultado (mesmas condições de SupplierSpecification)
+    public boolean hasFilters() {
+        return (search != null && !search.trim().isEmpty()) || isActive != null
+                || (state != null && !state.isEmpty()) || hasEmail != null || hasCnpj != null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package br.com.comercialpereira.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro de auditoria. Somente leitura: as linhas são inseridas em lote pelo
+ * envio do journal de auditoria.
+ */
+@Entity
+@Immutable
+@Table(name = "audit_log")
+@Getter
+@NoArgsConstructor
+public class AuditLog {
+
+    @Id
+    private Long id;
+
+    @Column(name = "journal_id", nullable = false)
+    private String journalId;
+
+    @Column(nullable = false)
+    private Long sequence;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private String action;
+
+    @Column(nullable = false)
+    private String entity;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String data;
+}
@@ -5,6 +5,7 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,10 +23,9 @@ public class Inventory extends BaseEntity {
     @JoinColumn(name = "product_id", nullable = false, unique = true)
     private Product product;
 
-    @NotNull
-    @Min(value = 0, message = "Quantidade não pode ser negativa")
-    @Column(nullable = false)
-    private Integer quantity = 0;
+    // Soma dos locais (inventory_locations); movimentações gravam só a linha do local
+    @Formula("(SELECT COALESCE(SUM(il.quantity), 0) FROM inventory_locations il WHERE il.inventory_id = id)")
+    private Integer quantity;
 
     @NotNull
     @Min(value = 0, message = "Estoque mínimo não pode ser negativo")
@@ -39,18 +39,17 @@ public class Inventory extends BaseEntity {
     @Size(min = 2, max = 100)
     private String location;
 
-    @Column(name = "last_update", nullable = false)
+    // Mais recente entre a linha de inventory e as dos locais; movimentações não escrevem em inventory
+    @Formula("GREATEST(last_update, updated_at, "
+            + "(SELECT MAX(il.updated_at) FROM inventory_locations il WHERE il.inventory_id = id))")
     private LocalDateTime lastUpdate;
 
     // Relacionamentos
     @OneToMany(mappedBy = "inventory", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<InventoryMovement> movements;
 
-    @PrePersist
-    @PreUpdate
-    private void updateLastUpdate() {
-        this.lastUpdate = LocalDateTime.now();
-    }
+    @OneToMany(mappedBy = "inventory", fetch = FetchType.LAZY)
+    private List<InventoryLocation> locations;
 
     // Métodos utilitários
     public boolean isLowStock() {
@@ -33,9 +33,26 @@ public class InventoryMovement extends BaseEntity {
     @Column(nullable = false)
     private Integer quantity;
 
+    // Quantidade com sinal: positiva entra, negativa sai
+    @NotNull
+    @Column(nullable = false)
+    private Integer delta;
+
+    @NotNull
+    @Column(name = "quantity_before", nullable = false)
+    private Integer quantityBefore;
+
+    @NotNull
+    @Column(name = "quantity_after", nullable = false)
+    private Integer quantityAfter;
+
     @Size(min = 3, max = 500)
     private String reason;
 
+    // Ajuste anterior ao razão com sinal, cujo sinal foi deduzido na migração
+    @Column(name = "sign_inferred", nullable = false, insertable = false, updatable = false)
+    private Boolean signInferred;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
@@ -43,4 +60,9 @@ public class InventoryMovement extends BaseEntity {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sale_id")
     private Sale sale;
+
+    // Local movimentado; nulo nas movimentações anteriores ao estoque por local (local padrão)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id")
+    private StockLocation location;
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package br.com.comercialpereira.entity;
+
+import br.com.comercialpereira.enums.PurchaseOrderStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Entity
+@Table(name = "purchase_orders")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseOrder extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "supplier_id", nullable = false)
+    private Supplier supplier;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PurchaseOrderStatus status = PurchaseOrderStatus.DRAFT;
+
+    @Column(name = "reference_date", nullable = false)
+    private LocalDate referenceDate;
+
+    @Column(name = "item_count", nullable = false)
+    private Integer itemCount;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Integer totalQuantity;
+
+    @Size(max = 1000)
+    private String notes;
+
+    // Relacionamentos
+    @OneToMany(mappedBy = "purchaseOrder", fetch = FetchType.LAZY)
+    private List<PurchaseOrderItem> items;
+
+    public boolean canTransitionTo(PurchaseOrderStatus target) {
+        return switch (status) {
+            case DRAFT -> target == PurchaseOrderStatus.SENT || target == PurchaseOrderStatus.CANCELLED;
+            case SENT -> target == PurchaseOrderStatus.RECEIVED || target == PurchaseOrderStatus.CANCELLED;
+            case RECEIVED, CANCELLED -> false;
+        };
+    }
+}
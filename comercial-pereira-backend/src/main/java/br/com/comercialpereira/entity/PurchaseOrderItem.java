@@ -0,0 +1,44 @@
+package br.com.comercialpereira.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "purchase_order_items")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseOrderItem extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "purchase_order_id", nullable = false)
+    private PurchaseOrder purchaseOrder;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    // Estoque no momento da geração
+    @Column(name = "current_quantity", nullable = false)
+    private Integer currentQuantity;
+
+    @Column(name = "min_stock", nullable = false)
+    private Integer minStock;
+
+    @Column(name = "max_stock")
+    private Integer maxStock;
+
+    @Column(name = "daily_velocity", precision = 12, scale = 4)
+    private BigDecimal dailyVelocity;
+
+    // Acima do mínimo, mas com ruptura prevista na janela de alerta
+    @Column(nullable = false)
+    private Boolean predicted = false;
+
+    @Column(name = "suggested_quantity", nullable = false)
+    private Integer suggestedQuantity;
+}
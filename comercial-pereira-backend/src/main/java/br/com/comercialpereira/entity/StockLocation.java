@@ -0,0 +1,33 @@
+package br.com.comercialpereira.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+@Entity
+@Table(name = "stock_locations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLocation extends BaseEntity {
+
+    @NotBlank
+    @Size(min = 2, max = 20)
+    @Column(nullable = false, unique = true, length = 20)
+    private String code;
+
+    @NotBlank
+    @Size(min = 2, max = 100)
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    // Local usado pelas vendas e quando nenhum local é informado
+    @Column(name = "is_default", nullable = false)
+    private Boolean isDefault = false;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+}
@@ -0,0 +1,14 @@
+package br.com.comercialpereira.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum FlowGranularity {
+    HOUR("Hora", "Agregado por hora"),
+    DAY("Dia", "Agregado por dia");
+
+    private final String displayName;
+    private final String description;
+}
@@ -8,7 +8,8 @@ import lombok.RequiredArgsConstructor;
 public enum MovementType {
     IN("Entrada", "Entrada de produtos no estoque"),
     OUT("Saída", "Saída de produtos do estoque"),
-    ADJUSTMENT("Ajuste", "Ajuste de estoque");
+    ADJUSTMENT("Ajuste", "Ajuste de estoque"),
+    TRANSFER("Transferência", "Transferência de estoque entre locais");
 
     private final String displayName;
     private final String description;
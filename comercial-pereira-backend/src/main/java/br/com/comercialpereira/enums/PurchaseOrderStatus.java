@@ -0,0 +1,16 @@
+package br.com.comercialpereira.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum PurchaseOrderStatus {
+    DRAFT("Rascunho", "Sugestão gerada automaticamente"),
+    SENT("Enviado", "Pedido enviado ao fornecedor"),
+    RECEIVED("Recebido", "Mercadoria recebida"),
+    CANCELLED("Cancelado", "Pedido cancelado");
+
+    private final String displayName;
+    private final String description;
+}
@@ -0,0 +1,30 @@
+package br.com.comercialpereira.repository;
+
+import br.com.comercialpereira.entity.AuditLog;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+
+    @Query("SELECT a FROM AuditLog a WHERE " +
+            "(:entity IS NULL OR a.entity = :entity) AND " +
+            "(:entityId IS NULL OR a.entityId = :entityId) AND " +
+            "(:userId IS NULL OR a.userId = :userId) AND " +
+            "(:action IS NULL OR a.action = :action) AND " +
+            "(:dateFrom IS NULL OR a.occurredAt >= :dateFrom) AND " +
+            "(:dateTo IS NULL OR a.occurredAt <= :dateTo)")
+    Page<AuditLog> findByFilters(@Param("entity") String entity,
+                                 @Param("entityId") Long entityId,
+                                 @Param("userId") Long userId,
+                                 @Param("action") String action,
+                                 @Param("dateFrom") LocalDateTime dateFrom,
+                                 @Param("dateTo") LocalDateTime dateTo,
+                                 Pageable pageable);
+}
@@ -1,10 +1,14 @@
 package br.com.comercialpereira.repository;
 
 import br.com.comercialpereira.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,7 +16,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
 
     Optional<Category> findByName(String name);
 
@@ -26,30 +30,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByCnaeAndIdNot(String cnae, Long id);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Category> findByIsActiveOrderByName(Boolean isActive);
 
-    // SOLUÇÃO APLICADA: Query SQL nativa com CAST explícito para resolver o erro bytea
-    @Query(value = "SELECT * FROM categories c WHERE " +
-            "(:search IS NULL OR :search = '' OR " +
-            "LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-            "(c.description IS NOT NULL AND LOWER(CAST(c.description AS TEXT)) LIKE LOWER(CONCAT('%', :search, '%')))) AND " +
-            "(:isActive IS NULL OR c.is_active = :isActive) AND " +
-            "(:hasCnae IS NULL OR " +
-            "(:hasCnae = true AND c.cnae IS NOT NULL AND c.cnae != '') OR " +
-            "(:hasCnae = false AND (c.cnae IS NULL OR c.cnae = '')))",
-            countQuery = "SELECT COUNT(*) FROM categories c WHERE " +
-                    "(:search IS NULL OR :search = '' OR " +
-                    "LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-                    "(c.description IS NOT NULL AND LOWER(CAST(c.description AS TEXT)) LIKE LOWER(CONCAT('%', :search, '%')))) AND " +
-                    "(:isActive IS NULL OR c.is_active = :isActive) AND " +
-                    "(:hasCnae IS NULL OR " +
-                    "(:hasCnae = true AND c.cnae IS NOT NULL AND c.cnae != '') OR " +
-                    "(:hasCnae = false AND (c.cnae IS NULL OR c.cnae = '')))",
-            nativeQuery = true)
-    Page<Category> findByFilters(@Param("search") String search,
-                                 @Param("isActive") Boolean isActive,
-                                 @Param("hasCnae") Boolean hasCnae,
-                                 Pageable pageable);
 
     @Query(value = "SELECT c.id, c.name, c.description, c.cnae, c.is_active, c.created_at, c.updated_at, " +
             "COALESCE(p.product_count, 0) as product_count " +
@@ -61,6 +44,16 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
             nativeQuery = true)
     List<Object[]> findCategoriesWithProductCount();
 
+    @Query(value = "SELECT c.id, c.name, c.is_active, " +
+            "(c.cnae IS NOT NULL AND c.cnae <> '') AS has_cnae, " +
+            "COALESCE(p.product_count, 0) AS product_count " +
+            "FROM categories c " +
+            "LEFT JOIN (SELECT category_id, COUNT(*) AS product_count FROM products WHERE is_active = true GROUP BY category_id) p " +
+            "ON c.id = p.category_id " +
+            "ORDER BY COALESCE(p.product_count, 0) DESC, c.name",
+            nativeQuery = true)
+    List<Object[]> findStatisticsRows();
+
     @Query("SELECT COUNT(c) FROM Category c WHERE c.isActive = :isActive")
     long countByIsActive(@Param("isActive") Boolean isActive);
 
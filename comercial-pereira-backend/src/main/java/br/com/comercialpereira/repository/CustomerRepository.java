@@ -5,6 +5,7 @@ import br.com.comercialpereira.enums.CustomerType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,7 +15,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer> {
 
     Optional<Customer> findByDocument(String document);
 
@@ -28,24 +29,6 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     List<Customer> findByStateAndIsActive(String state, Boolean isActive);
 
-    // Query corrigida usando SQL nativo para evitar problemas de conversão de tipos
-    @Query(value = """
-        SELECT * FROM customers c 
-        WHERE (:search IS NULL 
-               OR LOWER(CAST(c.name AS VARCHAR)) LIKE LOWER(CONCAT('%', CAST(:search AS VARCHAR), '%'))
-               OR LOWER(CAST(c.email AS VARCHAR)) LIKE LOWER(CONCAT('%', CAST(:search AS VARCHAR), '%')))
-        AND (:type IS NULL OR c.type = CAST(:type AS VARCHAR))
-        AND (:city IS NULL OR LOWER(CAST(c.city AS VARCHAR)) LIKE LOWER(CONCAT('%', CAST(:city AS VARCHAR), '%')))
-        AND (:state IS NULL OR c.state = :state)
-        AND (:isActive IS NULL OR c.is_active = :isActive)
-        ORDER BY c.name
-        """, nativeQuery = true)
-    Page<Customer> findByFilters(@Param("search") String search,
-                                 @Param("type") String type,
-                                 @Param("city") String city,
-                                 @Param("state") String state,
-                                 @Param("isActive") Boolean isActive,
-                                 Pageable pageable);
 
     @Query("SELECT c FROM Customer c JOIN c.sales s WHERE s.createdAt >= :dateFrom " +
             "GROUP BY c.id HAVING COUNT(s) > 0 ORDER BY COUNT(s) DESC")
@@ -0,0 +1,36 @@
+package br.com.comercialpereira.repository;
+
+import br.com.comercialpereira.entity.InventoryLocation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InventoryLocationRepository extends JpaRepository<InventoryLocation, Long> {
+
+    // Trava só a linha do local; outros locais do mesmo produto seguem livres
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT il FROM InventoryLocation il WHERE il.product.id = :productId AND il.location.id = :locationId")
+    Optional<InventoryLocation> findForUpdate(@Param("productId") Long productId,
+                                              @Param("locationId") Long locationId);
+
+    // Cria a linha zerada do local se ainda não existir, sem conflito entre transações concorrentes
+    @Modifying
+    @Query(value = "INSERT INTO inventory_locations (inventory_id, product_id, location_id, quantity) " +
+            "VALUES (:inventoryId, :productId, :locationId, 0) " +
+            "ON CONFLICT (product_id, location_id) DO NOTHING", nativeQuery = true)
+    int ensureExists(@Param("inventoryId") Long inventoryId,
+                     @Param("productId") Long productId,
+                     @Param("locationId") Long locationId);
+
+    @Query("SELECT il FROM InventoryLocation il JOIN FETCH il.location l " +
+            "WHERE il.product.id = :productId ORDER BY l.isDefault DESC, l.code")
+    List<InventoryLocation> findByProductIdWithLocation(@Param("productId") Long productId);
+}
@@ -3,6 +3,7 @@ package br.com.comercialpereira.repository;
 import br.com.comercialpereira.entity.Inventory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -26,17 +27,27 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Query("SELECT i FROM Inventory i WHERE i.maxStock IS NOT NULL AND i.quantity > i.maxStock")
     List<Inventory> findOverstockItems();
 
-    @Query("SELECT i FROM Inventory i JOIN i.product p WHERE " +
+    String FILTERS_QUERY = "SELECT i FROM Inventory i JOIN i.product p WHERE " +
             "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
             "(:supplierId IS NULL OR p.supplier.id = :supplierId) AND " +
             "(:lowStock IS NULL OR (:lowStock = true AND i.quantity <= i.minStock) OR (:lowStock = false AND i.quantity > i.minStock)) AND " +
-            "(:outOfStock IS NULL OR (:outOfStock = true AND i.quantity = 0) OR (:outOfStock = false AND i.quantity > 0))")
+            "(:outOfStock IS NULL OR (:outOfStock = true AND i.quantity = 0) OR (:outOfStock = false AND i.quantity > 0))";
+
+    @Query(FILTERS_QUERY)
     Page<Inventory> findByFilters(@Param("categoryId") Long categoryId,
                                   @Param("supplierId") Long supplierId,
                                   @Param("lowStock") Boolean lowStock,
                                   @Param("outOfStock") Boolean outOfStock,
                                   Pageable pageable);
 
+    // Mesmo filtro sem a consulta de contagem
+    @Query(FILTERS_QUERY)
+    Slice<Inventory> findSliceByFilters(@Param("categoryId") Long categoryId,
+                                        @Param("supplierId") Long supplierId,
+                                        @Param("lowStock") Boolean lowStock,
+                                        @Param("outOfStock") Boolean outOfStock,
+                                        Pageable pageable);
+
     @Query("SELECT COUNT(i) FROM Inventory i WHERE i.quantity <= i.minStock")
     long countLowStockItems();
 
@@ -4,16 +4,18 @@ import br.com.comercialpereira.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     Optional<Product> findByCode(String code);
 
@@ -29,32 +31,24 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findBySupplierIdAndIsActive(Long supplierId, Boolean isActive);
 
+    long countBySupplierId(Long supplierId);
+
+    @Query("SELECT p FROM Product p " +
+            "LEFT JOIN FETCH p.category LEFT JOIN FETCH p.supplier LEFT JOIN FETCH p.inventory " +
+            "WHERE p.id IN :ids")
+    List<Product> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    boolean existsBySupplierId(Long supplierId);
+
+    @Query("SELECT p.supplier.id, COUNT(p) FROM Product p WHERE p.supplier.id IN :supplierIds GROUP BY p.supplier.id")
+    List<Object[]> countBySupplierIds(@Param("supplierIds") Collection<Long> supplierIds);
+
     @Query("SELECT p FROM Product p JOIN p.inventory i WHERE i.quantity <= i.minStock AND p.isActive = true")
     List<Product> findProductsWithLowStock();
 
     @Query("SELECT p FROM Product p JOIN p.inventory i WHERE i.quantity = 0 AND p.isActive = true")
     List<Product> findProductsOutOfStock();
 
-    // Query corrigida usando SQL nativo para evitar problemas de conversão de tipos
-    @Query(value = """
-        SELECT * FROM products p 
-        WHERE (:search IS NULL 
-               OR LOWER(CAST(p.name AS VARCHAR)) LIKE LOWER(CONCAT('%', CAST(:search AS VARCHAR), '%'))
-               OR LOWER(CAST(p.code AS VARCHAR)) LIKE LOWER(CONCAT('%', CAST(:search AS VARCHAR), '%')))
-        AND (:categoryId IS NULL OR p.category_id = :categoryId)
-        AND (:supplierId IS NULL OR p.supplier_id = :supplierId)
-        AND (:isActive IS NULL OR p.is_active = :isActive)
-        AND (:minPrice IS NULL OR p.price >= :minPrice)
-        AND (:maxPrice IS NULL OR p.price <= :maxPrice)
-        ORDER BY p.name
-        """, nativeQuery = true)
-    Page<Product> findByFilters(@Param("search") String search,
-                                @Param("categoryId") Long categoryId,
-                                @Param("supplierId") Long supplierId,
-                                @Param("isActive") Boolean isActive,
-                                @Param("minPrice") BigDecimal minPrice,
-                                @Param("maxPrice") BigDecimal maxPrice,
-                                Pageable pageable);
 
     // Corrigindo também esta query
     @Query(value = """
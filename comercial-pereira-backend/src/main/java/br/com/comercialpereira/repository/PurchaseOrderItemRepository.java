@@ -0,0 +1,19 @@
+package br.com.comercialpereira.repository;
+
+import br.com.comercialpereira.entity.PurchaseOrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PurchaseOrderItemRepository extends JpaRepository<PurchaseOrderItem, Long> {
+
+    // Itens de uma página inteira de pedidos, com o produto, numa só consulta
+    @Query("SELECT poi FROM PurchaseOrderItem poi JOIN FETCH poi.product p " +
+            "WHERE poi.purchaseOrder.id IN :orderIds ORDER BY poi.purchaseOrder.id, p.name")
+    List<PurchaseOrderItem> findWithProductByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,23 @@
+package br.com.comercialpereira.repository;
+
+import br.com.comercialpereira.entity.PurchaseOrder;
+import br.com.comercialpereira.enums.PurchaseOrderStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PurchaseOrderRepository extends JpaRepository<PurchaseOrder, Long> {
+
+    @EntityGraph(attributePaths = "supplier")
+    @Query("SELECT po FROM PurchaseOrder po " +
+            "WHERE (:status IS NULL OR po.status = :status) " +
+            "AND (:supplierId IS NULL OR po.supplier.id = :supplierId)")
+    Page<PurchaseOrder> findByFilters(@Param("status") PurchaseOrderStatus status,
+                                      @Param("supplierId") Long supplierId,
+                                      Pageable pageable);
+}
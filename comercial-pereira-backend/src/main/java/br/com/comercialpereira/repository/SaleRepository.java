@@ -2,10 +2,12 @@ package br.com.comercialpereira.repository;
 
 import br.com.comercialpereira.entity.Sale;
 import br.com.comercialpereira.enums.SaleStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,10 +15,16 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long>, JpaSpecificationExecutor<Sale> {
 
+    // Trava a venda até o commit: conclusão, cancelamento e edição de itens conferem o status em série
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Sale s WHERE s.id = :id")
+    Optional<Sale> findByIdForUpdate(@Param("id") Long id);
+
     List<Sale> findByUserIdAndStatus(Long userId, SaleStatus status);
 
     List<Sale> findByCustomerIdAndStatus(Long customerId, SaleStatus status);
@@ -0,0 +1,20 @@
+package br.com.comercialpereira.repository;
+
+import br.com.comercialpereira.entity.StockLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockLocationRepository extends JpaRepository<StockLocation, Long> {
+
+    Optional<StockLocation> findByCode(String code);
+
+    Optional<StockLocation> findByIsDefaultTrue();
+
+    boolean existsByCode(String code);
+
+    List<StockLocation> findAllByOrderByIsDefaultDescCodeAsc();
+}
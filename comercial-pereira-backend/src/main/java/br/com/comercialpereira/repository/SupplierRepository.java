@@ -1,10 +1,14 @@
 package br.com.comercialpereira.repository;
 
 import br.com.comercialpereira.entity.Supplier;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,38 +16,42 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SupplierRepository extends JpaRepository<Supplier, Long> {
+public interface SupplierRepository extends JpaRepository<Supplier, Long>, JpaSpecificationExecutor<Supplier> {
 
     Optional<Supplier> findByCnpj(String cnpj);
 
     boolean existsByCnpj(String cnpj);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Supplier> findByIsActiveOrderByName(Boolean isActive);
 
     List<Supplier> findByStateAndIsActive(String state, Boolean isActive);
 
-    // Query corrigida usando query nativa para evitar problemas de conversão de tipos
+
+    // Os índices trigram (V2) atendem o ILIKE com curinga nos dois lados
     @Query(value = """
-        SELECT * FROM suppliers s 
-        WHERE (:search IS NULL 
-               OR LOWER(CAST(s.name AS VARCHAR)) LIKE LOWER(CONCAT('%', CAST(:search AS VARCHAR), '%'))
-               OR LOWER(CAST(s.contact_person AS VARCHAR)) LIKE LOWER(CONCAT('%', CAST(:search AS VARCHAR), '%')))
-        AND (:isActive IS NULL OR s.is_active = :isActive)
-        AND (:state IS NULL OR s.state = :state)
-        AND (:hasEmail IS NULL 
-             OR (:hasEmail = true AND s.email IS NOT NULL)
-             OR (:hasEmail = false AND s.email IS NULL))
-        AND (:hasCnpj IS NULL 
-             OR (:hasCnpj = true AND s.cnpj IS NOT NULL)
-             OR (:hasCnpj = false AND s.cnpj IS NULL))
+        SELECT * FROM suppliers s
+        WHERE (:includeInactive = true OR s.is_active = true)
+        AND (s.name ILIKE :pattern
+             OR s.contact_person ILIKE :pattern
+             OR s.email ILIKE :pattern
+             OR s.city ILIKE :pattern)
         ORDER BY s.name
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Supplier> search(@Param("pattern") String pattern,
+                          @Param("includeInactive") boolean includeInactive,
+                          @Param("limit") int limit);
+
+    @Query(value = """
+        SELECT s.state,
+               s.is_active,
+               EXISTS (SELECT 1 FROM products p WHERE p.supplier_id = s.id) AS has_products,
+               COUNT(*)
+        FROM suppliers s
+        GROUP BY 1, 2, 3
         """, nativeQuery = true)
-    Page<Supplier> findByFilters(@Param("search") String search,
-                                 @Param("isActive") Boolean isActive,
-                                 @Param("state") String state,
-                                 @Param("hasEmail") Boolean hasEmail,
-                                 @Param("hasCnpj") Boolean hasCnpj,
-                                 Pageable pageable);
+    List<Object[]> countGroupedByStateStatusAndProducts();
 
     @Query("SELECT s.state, COUNT(s) FROM Supplier s WHERE s.isActive = true GROUP BY s.state")
     List<Object[]> countByState();
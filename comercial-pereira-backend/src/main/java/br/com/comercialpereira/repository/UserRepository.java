@@ -26,6 +26,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     long countByIsActive(Boolean isActive);
 
+    @Query("SELECT u.role, u.isActive, COUNT(u) FROM User u GROUP BY u.role, u.isActive")
+    List<Object[]> countGroupedByRoleAndStatus();
+
     @Query("SELECT u FROM User u WHERE u.isActive = :isActive")
     Page<User> findByIsActive(@Param("isActive") Boolean isActive, Pageable pageable);
 
@@ -9,9 +9,11 @@ import br.com.comercialpereira.enums.CustomerType;
 import br.com.comercialpereira.exception.ApiException;
 import br.com.comercialpereira.repository.CustomerRepository;
 import br.com.comercialpereira.repository.SaleRepository;
+import br.com.comercialpereira.services.stats.ApproximateCountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,17 +27,36 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final SaleRepository saleRepository;
+    private final ApproximateCountService approximateCountService;
 
     /**
      * Lista todos os clientes com base nos filtros fornecidos, de forma paginada.
      */
     @Transactional(readOnly = true)
     public PageResponse<CustomerResponse> findAll(String search, CustomerType type, String city, String state, Boolean isActive, Pageable pageable) {
-        Page<Customer> customerPage = customerRepository.findByFilters(search, String.valueOf(type), city, state, isActive, pageable);
+        Page<Customer> customerPage = customerRepository.findAll(
+                CustomerSpecification.withFilters(search, type, city, state, isActive), pageable);
         Page<CustomerResponse> customerResponsePage = customerPage.map(this::toCustomerResponse);
         return PageResponse.from(customerResponsePage);
     }
 
+    /**
+     * Lista clientes sem executar COUNT. Sem filtro, o total retornado é uma
+     * estimativa da tabela; com filtro, a página vai sem total.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<CustomerResponse> findAllWithoutCount(String search, CustomerType type, String city, String state, Boolean isActive, Pageable pageable) {
+        Slice<Customer> customerSlice = customerRepository.findBy(
+                CustomerSpecification.withFilters(search, type, city, state, isActive),
+                query -> query.slice(pageable));
+        Slice<CustomerResponse> page = customerSlice.map(this::toCustomerResponse);
+        boolean filtered = (search != null && !search.trim().isEmpty()) || type != null
+                || (city != null && !city.trim().isEmpty()) || (state != null && !state.isEmpty()) || isActive != null;
+        return filtered
+                ? PageResponse.from(page)
+                : PageResponse.from(page, approximateCountService.estimate("customers"));
+    }
+
     /**
      * Busca um cliente pelo seu ID.
      */
@@ -0,0 +1,47 @@
+package br.com.comercialpereira.services;
+
+import br.com.comercialpereira.entity.Customer;
+import br.com.comercialpereira.enums.CustomerType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CustomerSpecification {
+
+    public static Specification<Customer> withFilters(String search, CustomerType type, String city,
+                                                      String state, Boolean isActive) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // Filtro de busca por nome ou email
+            if (search != null && !search.trim().isEmpty()) {
+                String searchTerm = "%" + search.trim().toLowerCase() + "%";
+                predicates.add(criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), searchTerm),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), searchTerm)
+                ));
+            }
+
+            if (type != null) {
+                predicates.add(criteriaBuilder.equal(root.get("type"), type));
+            }
+
+            if (city != null && !city.trim().isEmpty()) {
+                predicates.add(criteriaBuilder.like(
+                        criteriaBuilder.lower(root.get("city")), "%" + city.trim().toLowerCase() + "%"));
+            }
+
+            if (state != null && !state.isEmpty()) {
+                predicates.add(criteriaBuilder.equal(root.get("state"), state));
+            }
+
+            if (isActive != null) {
+                predicates.add(criteriaBuilder.equal(root.get("isActive"), isActive));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -1,23 +1,37 @@
 package br.com.comercialpereira.services;
 
+import br.com.comercialpereira.dto.PageResponse;
 import br.com.comercialpereira.dto.inventory.*;
 import br.com.comercialpereira.dto.movement.*;
 import br.com.comercialpereira.entity.*;
 import br.com.comercialpereira.enums.MovementType;
 import br.com.comercialpereira.exception.ApiException;
 import br.com.comercialpereira.repository.*;
+import br.com.comercialpereira.services.archive.ArchiveStore;
+import br.com.comercialpereira.services.audit.AuditService;
+import br.com.comercialpereira.services.count.LocationFreezeRegistry;
+import br.com.comercialpereira.services.hotsku.HotSkuService;
+import br.com.comercialpereira.services.outbox.OutboxEventType;
+import br.com.comercialpereira.services.outbox.OutboxPublisher;
+import br.com.comercialpereira.services.outbox.StockChangedEvent;
+import br.com.comercialpereira.services.stats.ApproximateCountService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -29,9 +43,18 @@ public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final InventoryMovementRepository movementRepository;
+    private final InventoryLocationRepository inventoryLocationRepository;
+    private final StockLocationRepository stockLocationRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final SaleRepository saleRepository;
+    private final ApproximateCountService approximateCountService;
+    private final StockAvailabilityService stockAvailabilityService;
+    private final OutboxPublisher outboxPublisher;
+    private final AuditService auditService;
+    private final ArchiveStore archiveStore;
+    private final LocationFreezeRegistry locationFreezeRegistry;
+    private final HotSkuService hotSkuService;
 
     // =================== CREATE ===================
 
@@ -53,17 +76,17 @@ public class InventoryService {
 
         // Validar regras de negócio
         validateInventoryBusinessRules(request);
+        StockLocation location = resolveLocation(request.getLocationId());
 
         // Criar estoque
         Inventory inventory = Inventory.builder()
                 .product(product)
-                .quantity(Optional.ofNullable(request.getQuantity()).orElse(0))
                 .minStock(Optional.ofNullable(request.getMinStock()).orElse(10))
                 .maxStock(request.getMaxStock())
                 .location(request.getLocation())
                 .build();
 
-        inventory = inventoryRepository.save(inventory);
+        initializeStock(inventory, location, Optional.ofNullable(request.getQuantity()).orElse(0));
         log.info("Estoque criado com sucesso. ID: {}", inventory.getId());
 
         return mapToInventoryResponse(inventory);
@@ -89,6 +112,30 @@ public class InventoryService {
         return inventories.map(this::mapToInventoryResponse);
     }
 
+    @Transactional(readOnly = true)
+    public PageResponse<InventoryResponse> findManyWithoutCount(InventoryFilters filters) {
+        log.debug("Buscando estoques sem contagem com filtros: {}", filters);
+
+        Pageable pageable = createPageable(filters.getPage(), filters.getSize(),
+                filters.getSortBy(), filters.getSortOrder());
+
+        Slice<Inventory> inventories = inventoryRepository.findSliceByFilters(
+                filters.getCategoryId(),
+                filters.getSupplierId(),
+                filters.getLowStock(),
+                filters.getOutOfStock(),
+                pageable
+        );
+
+        // A estimativa é da tabela inteira: com filtro, a página vai sem total
+        Slice<InventoryResponse> page = inventories.map(this::mapToInventoryResponse);
+        boolean filtered = filters.getCategoryId() != null || filters.getSupplierId() != null
+                || filters.getLowStock() != null || filters.getOutOfStock() != null;
+        return filtered
+                ? PageResponse.from(page)
+                : PageResponse.from(page, approximateCountService.estimate("inventory"));
+    }
+
     @Transactional(readOnly = true)
     public InventoryResponse findByProductId(Long productId) {
         log.debug("Buscando estoque para produto ID: {}", productId);
@@ -109,6 +156,33 @@ public class InventoryService {
         return mapToInventoryResponse(inventory);
     }
 
+    @Transactional(readOnly = true)
+    public InventoryLocationResponse findLocationsByProductId(Long productId) {
+        log.debug("Buscando estoque por local do produto ID: {}", productId);
+
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new ApiException("Estoque não encontrado para este produto", HttpStatus.NOT_FOUND));
+
+        List<InventoryLocationResponse.Line> lines = inventoryLocationRepository.findByProductIdWithLocation(productId)
+                .stream()
+                .map(row -> InventoryLocationResponse.Line.builder()
+                        .locationId(row.getLocation().getId())
+                        .code(row.getLocation().getCode())
+                        .name(row.getLocation().getName())
+                        .isDefault(row.getLocation().getIsDefault())
+                        .quantity(row.getQuantity())
+                        .updatedAt(row.getUpdatedAt())
+                        .build())
+                .collect(Collectors.toList());
+
+        return InventoryLocationResponse.builder()
+                .inventoryId(inventory.getId())
+                .productId(productId)
+                .quantity(lines.stream().mapToInt(InventoryLocationResponse.Line::getQuantity).sum())
+                .locations(lines)
+                .build();
+    }
+
     // =================== UPDATE ===================
 
     public InventoryResponse update(Long id, UpdateInventoryRequest request, Long currentUserId) {
@@ -123,15 +197,27 @@ public class InventoryService {
 
         validateInventoryBusinessRules(request);
 
+        StockLocation stockLocation = resolveLocation(request.getLocationId());
+        if (request.getLocation() != null) {
+            locationFreezeRegistry.requireNotFrozen(inventory.getLocation());
+            locationFreezeRegistry.requireNotFrozen(request.getLocation());
+        }
+
         // Capturar valores antigos para log
         Integer oldQuantity = inventory.getQuantity();
         Integer oldMinStock = inventory.getMinStock();
         Integer oldMaxStock = inventory.getMaxStock();
         String oldLocation = inventory.getLocation();
 
-        // Atualizar apenas campos não nulos
+        // Quantidade informada é a do local; o total do produto é recalculado na leitura
         if (request.getQuantity() != null) {
-            inventory.setQuantity(request.getQuantity());
+            InventoryLocation row = lockLocationRow(inventory, stockLocation);
+            int delta = request.getQuantity() - row.getQuantity();
+            if (delta != 0) {
+                moveAtLocation(inventory, stockLocation, row, delta, MovementType.ADJUSTMENT,
+                        "Atualização manual do estoque",
+                        currentUserId != null ? userRepository.getReferenceById(currentUserId) : null, null);
+            }
         }
         if (request.getMinStock() != null) {
             inventory.setMinStock(request.getMinStock());
@@ -173,50 +259,61 @@ public class InventoryService {
         User user = userRepository.findById(currentUserId)
                 .orElseThrow(() -> new ApiException("Usuário não encontrado", HttpStatus.NOT_FOUND));
 
-        Integer oldQuantity = inventory.getQuantity();
-        Integer newQuantity = oldQuantity + request.getQuantity();
+        if (request.getQuantity() == 0) {
+            throw new ApiException("Quantidade do ajuste deve ser diferente de zero", HttpStatus.BAD_REQUEST);
+        }
 
-        if (newQuantity < 0) {
+        StockLocation location = resolveLocation(request.getLocationId());
+        InventoryLocation row = hotSkuService.isHot(product.getId(), location.getId())
+                ? null : lockLocationRow(inventory, location);
+        // O produto pode ter entrado no modo de alta concorrência enquanto esperava a trava
+        if (row == null || hotSkuService.isHot(product.getId(), location.getId())) {
+            moveHot(inventory, location, request.getQuantity(), MovementType.ADJUSTMENT, request.getReason(), user,
+                    null, "Ajuste resultaria em estoque negativo");
+            return mapToInventoryResponse(inventory);
+        }
+        if (row.getQuantity() + request.getQuantity() < 0) {
             throw new ApiException("Ajuste resultaria em estoque negativo", HttpStatus.BAD_REQUEST);
         }
 
-        inventory.setQuantity(newQuantity);
-        inventory = inventoryRepository.save(inventory);
-
-        // Registrar movimentação
-        InventoryMovement movement = InventoryMovement.builder()
-                .inventory(inventory)
-                .product(product)
-                .type(MovementType.ADJUSTMENT)
-                .quantity(Math.abs(request.getQuantity()))
-                .reason(request.getReason())
-                .user(user)
-                .build();
-
-        movementRepository.save(movement);
+        int oldQuantity = row.getQuantity();
+        moveAtLocation(inventory, location, row, request.getQuantity(), MovementType.ADJUSTMENT,
+                request.getReason(), user, null);
 
-        log.info("Ajuste de estoque realizado com sucesso. Produto ID: {}, Quantidade anterior: {}, Nova quantidade: {}",
-                request.getProductId(), oldQuantity, newQuantity);
+        log.info("Ajuste de estoque realizado com sucesso. Produto ID: {}, Local: {}, Quantidade anterior: {}, Nova quantidade: {}",
+                request.getProductId(), location.getCode(), oldQuantity, row.getQuantity());
 
         return mapToInventoryResponse(inventory);
     }
 
     public InventoryResponse addStock(Long productId, Integer quantity, String reason, Long currentUserId) {
+        return addStock(productId, quantity, reason, currentUserId, null);
+    }
+
+    public InventoryResponse addStock(Long productId, Integer quantity, String reason, Long currentUserId,
+                                      Long locationId) {
         return processStockMovement(StockMovementRequest.builder()
                 .productId(productId)
                 .type(MovementType.IN)
                 .quantity(quantity)
                 .reason(reason)
+                .locationId(locationId)
                 .build(), currentUserId);
     }
 
     public InventoryResponse removeStock(Long productId, Integer quantity, String reason, Long currentUserId, Long saleId) {
+        return removeStock(productId, quantity, reason, currentUserId, saleId, null);
+    }
+
+    public InventoryResponse removeStock(Long productId, Integer quantity, String reason, Long currentUserId, Long saleId,
+                                         Long locationId) {
         return processStockMovement(StockMovementRequest.builder()
                 .productId(productId)
                 .type(MovementType.OUT)
                 .quantity(quantity)
                 .reason(reason)
                 .saleId(saleId)
+                .locationId(locationId)
                 .build(), currentUserId);
     }
 
@@ -237,42 +334,114 @@ public class InventoryService {
         User user = userRepository.findById(currentUserId)
                 .orElseThrow(() -> new ApiException("Usuário não encontrado", HttpStatus.NOT_FOUND));
 
-        Integer oldQuantity = inventory.getQuantity();
-        Integer newQuantity;
-
+        int delta;
         if (request.getType() == MovementType.IN) {
-            newQuantity = oldQuantity + request.getQuantity();
+            delta = request.getQuantity();
         } else if (request.getType() == MovementType.OUT) {
-            newQuantity = oldQuantity - request.getQuantity();
-            if (newQuantity < 0) {
-                throw new ApiException("Estoque insuficiente para a operação", HttpStatus.BAD_REQUEST);
-            }
+            delta = -request.getQuantity();
         } else {
             throw new ApiException("Tipo de movimentação inválido", HttpStatus.BAD_REQUEST);
         }
 
-        inventory.setQuantity(newQuantity);
-        inventory = inventoryRepository.save(inventory);
+        // Vendas não informam local e saem do local padrão
+        StockLocation location = resolveLocation(request.getLocationId());
+        InventoryLocation row = hotSkuService.isHot(product.getId(), location.getId())
+                ? null : lockLocationRow(inventory, location);
+        // O produto pode ter entrado no modo de alta concorrência enquanto esperava a trava
+        if (row == null || hotSkuService.isHot(product.getId(), location.getId())) {
+            moveHot(inventory, location, delta, request.getType(), request.getReason(), user, request.getSaleId(),
+                    "Estoque insuficiente para a operação");
+            return mapToInventoryResponse(inventory);
+        }
+        if (row.getQuantity() + delta < 0) {
+            throw new ApiException("Estoque insuficiente para a operação", HttpStatus.BAD_REQUEST);
+        }
 
-        // Registrar movimentação
-        InventoryMovement movement = InventoryMovement.builder()
-                .inventory(inventory)
-                .product(product)
-                .type(request.getType())
-                .quantity(request.getQuantity())
-                .reason(request.getReason())
-                .user(user)
-                .sale(request.getSaleId() != null ?
-                        saleRepository.getReferenceById(request.getSaleId()) : null)
-                .build();
+        int oldQuantity = row.getQuantity();
+        moveAtLocation(inventory, location, row, delta, request.getType(), request.getReason(), user,
+                request.getSaleId());
+
+        log.info("Movimentação de estoque processada com sucesso. Produto ID: {}, Local: {}, Quantidade anterior: {}, Nova quantidade: {}",
+                request.getProductId(), location.getCode(), oldQuantity, row.getQuantity());
 
+        return mapToInventoryResponse(inventory);
+    }
 
-        movementRepository.save(movement);
+    // Duas movimentações TRANSFER (saída na origem, entrada no destino); o total do produto não muda
+    public InventoryLocationResponse transfer(TransferStockRequest request, Long currentUserId) {
+        log.info("Transferindo {} unidades do produto ID: {} do local {} para o local {} por usuário ID: {}",
+                request.getQuantity(), request.getProductId(), request.getFromLocationId(),
+                request.getToLocationId(), currentUserId);
 
-        log.info("Movimentação de estoque processada com sucesso. Produto ID: {}, Quantidade anterior: {}, Nova quantidade: {}",
-                request.getProductId(), oldQuantity, newQuantity);
+        if (request.getFromLocationId().equals(request.getToLocationId())) {
+            throw new ApiException("Locais de origem e destino devem ser diferentes", HttpStatus.BAD_REQUEST);
+        }
 
-        return mapToInventoryResponse(inventory);
+        Product product = productRepository.findById(request.getProductId())
+                .orElseThrow(() -> new ApiException("Produto não encontrado", HttpStatus.NOT_FOUND));
+
+        if (!product.getIsActive()) {
+            throw new ApiException("Produto inativo não pode ter estoque movimentado", HttpStatus.BAD_REQUEST);
+        }
+
+        Inventory inventory = inventoryRepository.findByProductId(request.getProductId())
+                .orElseThrow(() -> new ApiException("Estoque não encontrado para este produto", HttpStatus.NOT_FOUND));
+
+        User user = userRepository.findById(currentUserId)
+                .orElseThrow(() -> new ApiException("Usuário não encontrado", HttpStatus.NOT_FOUND));
+
+        StockLocation from = resolveLocation(request.getFromLocationId());
+        StockLocation to = resolveLocation(request.getToLocationId());
+
+        // Trava as duas linhas sempre na ordem do local, evitando deadlock entre transferências opostas
+        Map<Long, InventoryLocation> rows = new LinkedHashMap<>();
+        List.of(from, to).stream()
+                .sorted(Comparator.comparing(StockLocation::getId))
+                .forEach(location -> rows.put(location.getId(), lockLocationRow(inventory, location)));
+
+        InventoryLocation source = rows.get(from.getId());
+        if (source.getQuantity() < request.getQuantity()) {
+            throw new ApiException("Estoque insuficiente no local de origem", HttpStatus.BAD_REQUEST);
+        }
+
+        moveAtLocation(inventory, from, source, -request.getQuantity(), MovementType.TRANSFER,
+                request.getReason(), user, null);
+        moveAtLocation(inventory, to, rows.get(to.getId()), request.getQuantity(), MovementType.TRANSFER,
+                request.getReason(), user, null);
+
+        logInventoryOperation(currentUserId, "TRANSFER", inventory.getId(),
+                String.format("Produto %d: %d unidades de %s para %s",
+                        product.getId(), request.getQuantity(), from.getCode(), to.getCode()));
+
+        return findLocationsByProductId(product.getId());
+    }
+
+    // =================== LOCATIONS ===================
+
+    @Transactional(readOnly = true)
+    public List<StockLocationResponse> findLocations() {
+        return stockLocationRepository.findAllByOrderByIsDefaultDescCodeAsc()
+                .stream()
+                .map(this::mapToStockLocationResponse)
+                .collect(Collectors.toList());
+    }
+
+    public StockLocationResponse createLocation(CreateStockLocationRequest request, Long currentUserId) {
+        String code = request.getCode().trim().toUpperCase();
+        if (stockLocationRepository.existsByCode(code)) {
+            throw new ApiException("Já existe um local com este código", HttpStatus.CONFLICT);
+        }
+
+        StockLocation location = stockLocationRepository.save(StockLocation.builder()
+                .code(code)
+                .name(request.getName().trim())
+                .isDefault(false)
+                .isActive(true)
+                .build());
+
+        auditService.log(currentUserId, "CREATE", "STOCK_LOCATION", location.getId(), Map.of("code", code));
+        log.info("Local de estoque {} criado. ID: {}", code, location.getId());
+        return mapToStockLocationResponse(location);
     }
 
     // =================== MOVEMENTS HISTORY ===================
@@ -301,12 +470,19 @@ public class InventoryService {
     public List<MovementResponse> getProductMovements(Long productId, Integer limit) {
         log.debug("Buscando movimentações do produto ID: {}, limite: {}", productId, limit);
 
+        int max = Optional.ofNullable(limit).orElse(20);
         List<InventoryMovement> movements = movementRepository.findByProductIdOrderByCreatedAtDesc(productId);
 
-        return movements.stream()
-                .limit(Optional.ofNullable(limit).orElse(20))
+        List<MovementResponse> result = movements.stream()
+                .limit(max)
                 .map(this::mapToMovementResponse)
                 .collect(Collectors.toList());
+
+        // Meses já arquivados são mais antigos que qualquer movimentação no banco
+        if (result.size() < max) {
+            result.addAll(archiveStore.findProductMovements(productId, max - result.size()));
+        }
+        return result;
     }
 
     // =================== ANALYTICS ===================
@@ -392,6 +568,24 @@ public class InventoryService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
+    public Map<Long, StockCheckResponse> checkStock(List<StockCheckItemRequest> items) {
+        // A última linha de cada produto carrega o total pedido, somando linhas repetidas
+        Map<Long, StockCheckResponse> response = new LinkedHashMap<>();
+        for (StockAvailabilityLine line : stockAvailabilityService.check(items)) {
+            int shortfall = Math.max(0, line.getRequestedTotal() - line.getOnHand());
+            response.put(line.getProductId(), StockCheckResponse.builder()
+                    .productId(line.getProductId())
+                    .available(line.isHasInventory() && shortfall == 0)
+                    .quantity(line.getOnHand())
+                    .isLowStock(!line.isHasInventory() || line.getOnHand() <= line.getMinStock())
+                    .requestedQuantity(line.getRequestedTotal())
+                    .shortfall(shortfall)
+                    .build());
+        }
+        return response;
+    }
+
     @Transactional(readOnly = true)
     public boolean hasInventory(Long productId) {
         return inventoryRepository.findByProductId(productId).isPresent();
@@ -399,8 +593,12 @@ public class InventoryService {
 
     @Transactional(readOnly = true)
     public boolean reserveStock(Long productId, Integer quantity) {
-        StockCheckResponse stockCheck = checkStock(productId);
-        return stockCheck.getAvailable() && stockCheck.getQuantity() >= quantity;
+        StockCheckItemRequest line = StockCheckItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+        return stockAvailabilityService.check(List.of(line)).stream()
+                .allMatch(result -> result.isHasInventory() && result.isSatisfied());
     }
 
     // =================== PRIVATE METHODS ===================
@@ -422,7 +620,109 @@ public class InventoryService {
         }
     }
 
-    private InventoryResponse mapToInventoryResponse(Inventory inventory) {
+    // Cria o estoque do produto com a quantidade inicial no local informado
+    public void initializeStock(Inventory inventory, StockLocation location, int quantity) {
+        inventory.setQuantity(0);
+        inventoryRepository.save(inventory);
+
+        InventoryLocation row = lockLocationRow(inventory, location);
+        if (quantity > 0) {
+            moveAtLocation(inventory, location, row, quantity, MovementType.IN, "Estoque inicial", null, null);
+        }
+    }
+
+    public StockLocation resolveLocation(Long locationId) {
+        if (locationId == null) {
+            return stockLocationRepository.findByIsDefaultTrue()
+                    .orElseThrow(() -> new ApiException("Local de estoque padrão não configurado",
+                            HttpStatus.INTERNAL_SERVER_ERROR));
+        }
+
+        StockLocation location = stockLocationRepository.findById(locationId)
+                .orElseThrow(() -> new ApiException("Local de estoque não encontrado", HttpStatus.NOT_FOUND));
+        if (!location.getIsActive()) {
+            throw new ApiException("Local de estoque inativo", HttpStatus.BAD_REQUEST);
+        }
+        return location;
+    }
+
+    // Trava a linha do produto no local, criando-a na primeira movimentação; a linha de inventory não é travada
+    private InventoryLocation lockLocationRow(Inventory inventory, StockLocation location) {
+        Long productId = inventory.getProduct().getId();
+        Optional<InventoryLocation> row = inventoryLocationRepository.findForUpdate(productId, location.getId());
+        if (row.isPresent()) {
+            return row.get();
+        }
+
+        // Se outra transação criou a linha antes, o INSERT espera o commit dela e a nova leitura travada a encontra
+        inventoryLocationRepository.ensureExists(inventory.getId(), productId, location.getId());
+        return inventoryLocationRepository.findForUpdate(productId, location.getId())
+                .orElseThrow(() -> new ApiException("Estoque do local não encontrado", HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    // Aplica a variação na linha já travada, grava o razão e o evento com as quantidades do local
+    private void moveAtLocation(Inventory inventory, StockLocation location, InventoryLocation row, int delta,
+                                MovementType type, String reason, User user, Long saleId) {
+        // Com a linha travada: a abertura da contagem e a ativação do modo de alta concorrência
+        // travam a mesma linha antes de confirmar
+        locationFreezeRegistry.requireNotFrozen(location.getId(), inventory.getLocation());
+        hotSkuService.requireNotHot(inventory.getProduct().getId(), location.getId());
+
+        int quantityBefore = row.getQuantity();
+        row.setQuantity(quantityBefore + delta);
+        inventoryLocationRepository.save(row);
+
+        // Só atualiza em memória para a resposta: o total e a última atualização persistidos vêm dos
+        // locais, e a linha compartilhada de inventory não é escrita (nem travada) pela movimentação
+        inventory.setQuantity(inventory.getQuantity() + delta);
+        inventory.setLastUpdate(LocalDateTime.now());
+
+        movementRepository.save(InventoryMovement.builder()
+                .inventory(inventory)
+                .product(inventory.getProduct())
+                .location(location)
+                .type(type)
+                .quantity(Math.abs(delta))
+                .delta(delta)
+                .quantityBefore(quantityBefore)
+                .quantityAfter(row.getQuantity())
+                .reason(reason)
+                .user(user)
+                .sale(saleId != null ? saleRepository.getReferenceById(saleId) : null)
+                .build());
+
+        outboxPublisher.publish("inventory", inventory.getId(), OutboxEventType.STOCK_CHANGED,
+                StockChangedEvent.builder()
+                        .productId(inventory.getProduct().getId())
+                        .inventoryId(inventory.getId())
+                        .locationId(location.getId())
+                        .movementType(type)
+                        .delta(delta)
+                        .quantityBefore(quantityBefore)
+                        .quantityAfter(row.getQuantity())
+                        .saleId(saleId)
+                        .userId(user != null ? user.getId() : null)
+                        .occurredAt(LocalDateTime.now())
+                        .build());
+    }
+
+    // Saldo no contador do modo de alta concorrência; a linha do local é gravada depois, em lote
+    private void moveHot(Inventory inventory, StockLocation location, int delta, MovementType type, String reason,
+                         User user, Long saleId, String insufficientMessage) {
+        // Sem conferência de bloqueio: a contagem recusa posições com produto no modo e a ativação recusa posições em contagem
+        if (!hotSkuService.move(inventory.getProduct().getId(), location.getId(), delta, type, reason,
+                user != null ? user.getId() : null, saleId)) {
+            throw new ApiException(insufficientMessage, HttpStatus.BAD_REQUEST);
+        }
+
+        // Só para a resposta: o total gravado ainda não inclui movimentações pendentes do lote
+        inventory.setQuantity(inventory.getQuantity() + delta);
+        log.debug("Movimentação em alta concorrência. Produto ID: {}, Local: {}, Variação: {}",
+                inventory.getProduct().getId(), location.getCode(), delta);
+    }
+
+    // Visível no pacote para o módulo de benchmarks (comercial-pereira-benchmarks)
+    InventoryResponse mapToInventoryResponse(Inventory inventory) {
         Product product = inventory.getProduct();
 
         // Calcular status do estoque
@@ -472,6 +772,10 @@ public class InventoryService {
                 .id(movement.getId())
                 .type(movement.getType())
                 .quantity(movement.getQuantity())
+                .delta(movement.getDelta())
+                .quantityBefore(movement.getQuantityBefore())
+                .quantityAfter(movement.getQuantityAfter())
+                .signInferred(Boolean.TRUE.equals(movement.getSignInferred()))
                 .reason(movement.getReason())
                 .createdAt(movement.getCreatedAt())
                 .product(movement.getProduct() != null ?
@@ -490,6 +794,23 @@ public class InventoryService {
                                 .id(movement.getSale().getId())
                                 .customerName(movement.getSale().getCustomer().getName())
                                 .build() : null)
+                .location(movement.getLocation() != null ?
+                        MovementResponse.LocationInfo.builder()
+                                .id(movement.getLocation().getId())
+                                .code(movement.getLocation().getCode())
+                                .name(movement.getLocation().getName())
+                                .build() : null)
+                .build();
+    }
+
+    private StockLocationResponse mapToStockLocationResponse(StockLocation location) {
+        return StockLocationResponse.builder()
+                .id(location.getId())
+                .code(location.getCode())
+                .name(location.getName())
+                .isDefault(location.getIsDefault())
+                .isActive(location.getIsActive())
+                .createdAt(location.getCreatedAt())
                 .build();
     }
 
@@ -514,7 +835,7 @@ public class InventoryService {
         log.info("[INVENTORY_AUDIT] User {} performed {} on inventory {} - {}",
                 userId, action, targetId, details);
 
-        // TODO: Implementar tabela de auditoria se necessário
+        auditService.log(userId, action, "INVENTORY", targetId, Map.of("details", details));
     }
 }
 
@@ -0,0 +1,500 @@
+package br.com.comercialpereira.services;
+
+import br.com.comercialpereira.config.CacheConfig;
+import br.com.comercialpereira.dto.product.CreateProductRequest;
+import br.com.comercialpereira.dto.product.ProductImportResponse;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.services.cache.CacheInvalidationService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de produtos a partir de CSV.
+ *
+ * As linhas são validadas em uma única passada e as válidas são enviadas via
+ * COPY para uma tabela temporária; produtos e estoque inicial são inseridos a
+ * partir dela com dois INSERT ... SELECT, na mesma transação.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int COPY_FLUSH_BYTES = 64 * 1024;
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "price", "code", "categoryId");
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE product_import_staging (
+                line_no BIGINT NOT NULL,
+                name VARCHAR(255) NOT NULL,
+                description TEXT,
+                price DECIMAL(8,2) NOT NULL,
+                code VARCHAR(20) NOT NULL,
+                barcode VARCHAR(14),
+                category_id BIGINT NOT NULL,
+                supplier_id BIGINT,
+                is_active BOOLEAN NOT NULL,
+                initial_stock INTEGER NOT NULL,
+                min_stock INTEGER NOT NULL,
+                max_stock INTEGER,
+                location VARCHAR(100)
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING = "COPY product_import_staging (line_no, name, description, price, code, " +
+            "barcode, category_id, supplier_id, is_active, initial_stock, min_stock, max_stock, location) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERT_PRODUCTS = """
+            INSERT INTO products (name, description, price, code, barcode, category_id, supplier_id, is_active, created_at, updated_at)
+            SELECT s.name, s.description, s.price, s.code, s.barcode, s.category_id, s.supplier_id, s.is_active,
+                   CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM product_import_staging s
+            ORDER BY s.line_no
+            """;
+
+    private static final String INSERT_INVENTORY = """
+            INSERT INTO inventory (product_id, min_stock, max_stock, location, last_update, created_at, updated_at)
+            SELECT p.id, s.min_stock, s.max_stock, s.location,
+                   CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM product_import_staging s
+            JOIN products p ON p.code = s.code
+            """;
+
+    // Estoque inicial fica no local padrão
+    private static final String INSERT_INVENTORY_LOCATIONS = """
+            INSERT INTO inventory_locations (inventory_id, product_id, location_id, quantity)
+            SELECT i.id, i.product_id, sl.id, s.initial_stock
+            FROM product_import_staging s
+            JOIN products p ON p.code = s.code
+            JOIN inventory i ON i.product_id = p.id
+            JOIN stock_locations sl ON sl.is_default
+            """;
+
+    // Estoque inicial entra no razão como no cadastro individual
+    private static final String INSERT_INITIAL_MOVEMENTS = """
+            INSERT INTO inventory_movements (inventory_id, product_id, location_id, type, quantity, delta,
+                                             quantity_before, quantity_after, reason, created_at, updated_at)
+            SELECT il.inventory_id, il.product_id, il.location_id, 'IN', il.quantity, il.quantity, 0, il.quantity,
+                   'Estoque inicial', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM product_import_staging s
+            JOIN products p ON p.code = s.code
+            JOIN inventory_locations il ON il.product_id = p.id
+            WHERE s.initial_stock > 0
+            """;
+
+    // Estoque inicial também gera STOCK_CHANGED no outbox, como no cadastro individual
+    private static final String INSERT_STOCK_EVENTS = """
+            INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload)
+            SELECT 'inventory', il.inventory_id, 'STOCK_CHANGED',
+                   jsonb_build_object(
+                       'productId', il.product_id,
+                       'inventoryId', il.inventory_id,
+                       'locationId', il.location_id,
+                       'movementType', 'IN',
+                       'delta', il.quantity,
+                       'quantityBefore', 0,
+                       'quantityAfter', il.quantity,
+                       'occurredAt', LOCALTIMESTAMP)
+            FROM product_import_staging s
+            JOIN products p ON p.code = s.code
+            JOIN inventory_locations il ON il.product_id = p.id
+            WHERE s.initial_stock > 0
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final CacheInvalidationService cacheInvalidationService;
+
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_STATISTICS, CacheConfig.SUPPLIER_STATISTICS}, allEntries = true)
+    @Transactional
+    public ProductImportResponse importCsv(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ApiException("Arquivo de importação é obrigatório", HttpStatus.BAD_REQUEST);
+        }
+
+        log.info("Iniciando importação de produtos: {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+
+        try (InputStream input = file.getInputStream()) {
+            return importCsv(input);
+        } catch (IOException e) {
+            log.error("Erro ao abrir arquivo de importação", e);
+            throw new ApiException("Erro ao ler arquivo de importação", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_STATISTICS, CacheConfig.SUPPLIER_STATISTICS}, allEntries = true)
+    @Transactional
+    public ProductImportResponse importCsv(InputStream input) {
+        long start = System.nanoTime();
+
+        // Lookups carregados uma única vez: id -> ativo
+        Map<Long, Boolean> categories = loadActiveFlags("SELECT id, is_active FROM categories");
+        Map<Long, Boolean> suppliers = loadActiveFlags("SELECT id, is_active FROM suppliers");
+        Set<String> codes = new HashSet<>(jdbcTemplate.queryForList("SELECT code FROM products", String.class));
+        Set<String> barcodes = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT barcode FROM products WHERE barcode IS NOT NULL", String.class));
+
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+
+        ImportState state = jdbcTemplate.execute((ConnectionCallback<ImportState>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+            try {
+                ImportState result = streamRows(input, copyIn, categories, suppliers, codes, barcodes);
+                copyIn.endCopy();
+                return result;
+            } catch (IOException | RuntimeException e) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                if (e instanceof ApiException apiException) {
+                    throw apiException;
+                }
+                log.error("Erro ao ler arquivo de importação", e);
+                throw new ApiException("Erro ao ler arquivo de importação", HttpStatus.BAD_REQUEST);
+            }
+        });
+
+        long imported = 0;
+        if (state.accepted > 0) {
+            imported = jdbcTemplate.update(INSERT_PRODUCTS);
+            jdbcTemplate.update(INSERT_INVENTORY);
+            jdbcTemplate.update(INSERT_INVENTORY_LOCATIONS);
+            jdbcTemplate.update(INSERT_INITIAL_MOVEMENTS);
+            jdbcTemplate.update(INSERT_STOCK_EVENTS);
+
+            // Inserções via JDBC não passam pelos eventos do Hibernate
+            cacheInvalidationService.publish("products", null);
+            cacheInvalidationService.publish("inventory", null);
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = state.total * 1000.0 / elapsedMs;
+
+        log.info("Importação de produtos concluída: {} linhas, {} importadas, {} rejeitadas em {} ms ({} linhas/s)",
+                state.total, imported, state.rejected, elapsedMs, Math.round(rowsPerSecond));
+
+        return ProductImportResponse.builder()
+                .totalRows(state.total)
+                .importedRows(imported)
+                .rejectedRows(state.rejected)
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(Math.round(rowsPerSecond * 100.0) / 100.0)
+                .errors(state.errors)
+                .build();
+    }
+
+    private ImportState streamRows(InputStream input, CopyIn copyIn,
+                                   Map<Long, Boolean> categories, Map<Long, Boolean> suppliers,
+                                   Set<String> codes, Set<String> barcodes) throws IOException, SQLException {
+        ImportState state = new ImportState();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new ApiException("Arquivo vazio", HttpStatus.BAD_REQUEST);
+        }
+        if (headerLine.startsWith("﻿")) {
+            headerLine = headerLine.substring(1);
+        }
+
+        // Planilhas exportadas em pt-BR costumam usar ';' como separador
+        char delimiter = headerLine.indexOf(';') >= 0 ? ';' : ',';
+        Map<String, Integer> header = parseHeader(splitLine(headerLine, delimiter));
+
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                .filter(column -> !header.containsKey(column))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new ApiException("Colunas obrigatórias ausentes: " + String.join(", ", missing), HttpStatus.BAD_REQUEST);
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(COPY_FLUSH_BYTES * 2);
+        String line;
+        long lineNo = 1;
+
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            state.total++;
+
+            List<String> fields = splitLine(line, delimiter);
+            String code = formatProductCode(field(fields, header, "code"));
+
+            String error;
+            CreateProductRequest request = null;
+            try {
+                request = toRequest(fields, header, code);
+                error = validate(request, categories, suppliers, codes, barcodes);
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+
+            if (error != null) {
+                state.reject(lineNo, code, error);
+                continue;
+            }
+
+            codes.add(request.getCode());
+            if (request.getBarcode() != null) {
+                barcodes.add(request.getBarcode());
+            }
+
+            writeCopyRow(buffer, lineNo, request);
+            state.accepted++;
+
+            if (buffer.size() >= COPY_FLUSH_BYTES) {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                buffer.reset();
+            }
+        }
+
+        if (buffer.size() > 0) {
+            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+        }
+
+        return state;
+    }
+
+    private CreateProductRequest toRequest(List<String> fields, Map<String, Integer> header, String code) {
+        String name = field(fields, header, "name");
+        String description = field(fields, header, "description");
+        String barcode = field(fields, header, "barcode");
+        String isActive = field(fields, header, "isActive");
+
+        CreateProductRequest request = CreateProductRequest.builder()
+                .name(name != null ? name.trim() : null)
+                .description(description != null ? description.trim() : null)
+                .price(parseDecimal(field(fields, header, "price"), "price"))
+                .code(code)
+                .barcode(barcode)
+                .categoryId(parseLong(field(fields, header, "categoryId"), "categoryId"))
+                .supplierId(parseLong(field(fields, header, "supplierId"), "supplierId"))
+                .isActive(isActive == null || Boolean.parseBoolean(isActive) || "1".equals(isActive))
+                .maxStock(parseInteger(field(fields, header, "maxStock"), "maxStock"))
+                .location(field(fields, header, "location"))
+                .build();
+
+        Integer initialStock = parseInteger(field(fields, header, "initialStock"), "initialStock");
+        if (initialStock != null) {
+            request.setInitialStock(initialStock);
+        }
+        Integer minStock = parseInteger(field(fields, header, "minStock"), "minStock");
+        if (minStock != null) {
+            request.setMinStock(minStock);
+        }
+        return request;
+    }
+
+    private String validate(CreateProductRequest request,
+                            Map<Long, Boolean> categories, Map<Long, Boolean> suppliers,
+                            Set<String> codes, Set<String> barcodes) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        Boolean categoryActive = categories.get(request.getCategoryId());
+        if (categoryActive == null) {
+            return "Categoria não encontrada";
+        }
+        if (!categoryActive) {
+            return "Categoria está inativa";
+        }
+
+        if (request.getSupplierId() != null) {
+            Boolean supplierActive = suppliers.get(request.getSupplierId());
+            if (supplierActive == null) {
+                return "Fornecedor não encontrado";
+            }
+            if (!supplierActive) {
+                return "Fornecedor está inativo";
+            }
+        }
+
+        if (codes.contains(request.getCode())) {
+            return "Código já está em uso";
+        }
+        if (request.getBarcode() != null && barcodes.contains(request.getBarcode())) {
+            return "Código de barras já está em uso";
+        }
+
+        if (request.getMaxStock() != null && request.getMaxStock() <= request.getMinStock()) {
+            return "Estoque máximo deve ser maior que o mínimo";
+        }
+        return null;
+    }
+
+    private void writeCopyRow(ByteArrayOutputStream buffer, long lineNo, CreateProductRequest request) {
+        StringBuilder row = new StringBuilder(128);
+        row.append(lineNo).append(',');
+        appendCsv(row, request.getName()).append(',');
+        appendCsv(row, request.getDescription()).append(',');
+        row.append(request.getPrice().toPlainString()).append(',');
+        appendCsv(row, request.getCode()).append(',');
+        appendCsv(row, request.getBarcode()).append(',');
+        row.append(request.getCategoryId()).append(',');
+        row.append(request.getSupplierId() != null ? request.getSupplierId() : "").append(',');
+        row.append(request.getIsActive()).append(',');
+        row.append(request.getInitialStock()).append(',');
+        row.append(request.getMinStock()).append(',');
+        row.append(request.getMaxStock() != null ? request.getMaxStock() : "").append(',');
+        appendCsv(row, request.getLocation()).append('\n');
+
+        byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    // Campo vazio sem aspas é NULL para o COPY; textos vão sempre entre aspas
+    private StringBuilder appendCsv(StringBuilder row, String value) {
+        if (value == null) {
+            return row;
+        }
+        return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private Map<Long, Boolean> loadActiveFlags(String sql) {
+        Map<Long, Boolean> flags = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            flags.put(rs.getLong(1), rs.getBoolean(2));
+        });
+        return flags;
+    }
+
+    private Map<String, Integer> parseHeader(List<String> columns) {
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            header.put(columns.get(i).trim(), i);
+        }
+        return header;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private BigDecimal parseDecimal(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + column + ": " + value);
+        }
+    }
+
+    private Long parseLong(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + column + ": " + value);
+        }
+    }
+
+    private Integer parseInteger(String value, String column) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + column + ": " + value);
+        }
+    }
+
+    private String formatProductCode(String code) {
+        return code != null ? code.toUpperCase().trim() : null;
+    }
+
+    private static List<String> splitLine(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static class ImportState {
+        private long total;
+        private long accepted;
+        private long rejected;
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+
+        private void reject(long line, String code, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ProductImportResponse.RowError.builder()
+                        .line(line)
+                        .code(code)
+                        .message(message)
+                        .build());
+            }
+        }
+    }
+}
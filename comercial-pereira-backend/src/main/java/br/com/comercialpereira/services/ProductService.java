@@ -1,5 +1,6 @@
 package br.com.comercialpereira.services;
 
+import br.com.comercialpereira.dto.PageResponse;
 import br.com.comercialpereira.dto.product.*;
 import br.com.comercialpereira.entity.Category;
 import br.com.comercialpereira.entity.Product;
@@ -9,17 +10,26 @@ import br.com.comercialpereira.exception.ApiException;
 import br.com.comercialpereira.repository.CategoryRepository;
 import br.com.comercialpereira.repository.ProductRepository;
 import br.com.comercialpereira.repository.SupplierRepository;
+import br.com.comercialpereira.services.stats.ApproximateCountService;
+import br.com.comercialpereira.config.CacheConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,10 +37,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ProductService {
 
+    private static final int MAX_BATCH_IDS = 200;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final SupplierRepository supplierRepository;
+    private final ApproximateCountService approximateCountService;
+    private final InventoryService inventoryService;
 
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_STATISTICS, CacheConfig.SUPPLIER_STATISTICS}, allEntries = true)
     @Transactional
     public ProductResponse create(CreateProductRequest request) {
         log.info("Creating product with code: {}", request.getCode());
@@ -81,16 +96,17 @@ public class ProductService {
 
         Product savedProduct = productRepository.save(product);
 
-        // Criar estoque inicial
+        // Criar estoque inicial no local padrão
         Inventory inventory = Inventory.builder()
                 .product(savedProduct)
-                .quantity(request.getInitialStock())
                 .minStock(request.getMinStock())
                 .maxStock(request.getMaxStock())
                 .location(request.getLocation())
                 .build();
 
         savedProduct.setInventory(inventory);
+        inventoryService.initializeStock(inventory, inventoryService.resolveLocation(null),
+                Optional.ofNullable(request.getInitialStock()).orElse(0));
 
         log.info("Product created successfully with ID: {}", savedProduct.getId());
         return convertToProductResponse(savedProduct);
@@ -106,19 +122,33 @@ public class ProductService {
                 buildSort(filters.getSortBy(), filters.getSortOrder())
         );
 
-        Page<Product> products = productRepository.findByFilters(
-                filters.getSearch(),
-                filters.getCategoryId(),
-                filters.getSupplierId(),
-                filters.getIsActive(),
-                filters.getMinPrice(),
-                filters.getMaxPrice(),
-                pageable
-        );
+        Page<Product> products = productRepository.findAll(ProductSpecification.withFilters(filters), pageable);
 
         return products.map(this::convertToProductResponse);
     }
 
+    @Transactional(readOnly = true)
+    public PageResponse<ProductResponse> findByFiltersWithoutCount(ProductFilters filters) {
+        log.debug("Finding products without count with filters: {}", filters);
+
+        Pageable pageable = PageRequest.of(
+                filters.getPage(),
+                filters.getSize(),
+                buildSort(filters.getSortBy(), filters.getSortOrder())
+        );
+
+        Slice<Product> products = productRepository.findBy(
+                ProductSpecification.withFilters(filters),
+                query -> query.slice(pageable)
+        );
+
+        // A estimativa é da tabela inteira: com filtro, a página vai sem total
+        Slice<ProductResponse> page = products.map(this::convertToProductResponse);
+        return filters.hasFilters()
+                ? PageResponse.from(page)
+                : PageResponse.from(page, approximateCountService.estimate("products"));
+    }
+
     @Transactional(readOnly = true)
     public ProductResponse findById(Long id) {
         log.debug("Finding product by ID: {}", id);
@@ -129,6 +159,33 @@ public class ProductService {
         return convertToProductResponse(product);
     }
 
+    @Transactional(readOnly = true)
+    public Map<Long, ProductResponse> findByIds(List<Long> ids) {
+        log.debug("Finding products by IDs: {}", ids);
+
+        if (ids == null || ids.isEmpty()) {
+            throw new ApiException("Informe ao menos um ID", HttpStatus.BAD_REQUEST);
+        }
+
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_BATCH_IDS) {
+            throw new ApiException("Máximo de " + MAX_BATCH_IDS + " IDs por consulta", HttpStatus.BAD_REQUEST);
+        }
+
+        Map<Long, Product> productsById = productRepository.findAllWithDetailsByIdIn(uniqueIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        // Mantém a ordem pedida; IDs inexistentes ficam de fora
+        Map<Long, ProductResponse> response = new LinkedHashMap<>();
+        for (Long id : uniqueIds) {
+            Product product = productsById.get(id);
+            if (product != null) {
+                response.put(id, convertToProductResponse(product));
+            }
+        }
+        return response;
+    }
+
     @Transactional(readOnly = true)
     public ProductResponse findByCode(String code) {
         log.debug("Finding product by code: {}", code);
@@ -140,6 +197,7 @@ public class ProductService {
         return convertToProductResponse(product);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_STATISTICS, CacheConfig.SUPPLIER_STATISTICS}, allEntries = true)
     @Transactional
     public ProductResponse update(Long id, UpdateProductRequest request) {
         log.info("Updating product with ID: {}", id);
@@ -208,6 +266,7 @@ public class ProductService {
         return convertToProductResponse(updatedProduct);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORY_STATISTICS, CacheConfig.SUPPLIER_STATISTICS}, allEntries = true)
     @Transactional
     public void delete(Long id) {
         log.info("Deleting product with ID: {}", id);
@@ -313,7 +372,8 @@ public class ProductService {
         return !productRepository.existsByCode(formattedCode);
     }
 
-    private ProductResponse convertToProductResponse(Product product) {
+    // Visível no pacote para o módulo de benchmarks (comercial-pereira-benchmarks)
+    ProductResponse convertToProductResponse(Product product) {
         ProductResponse.CategoryInfo categoryInfo = null;
         if (product.getCategory() != null) {
             categoryInfo = ProductResponse.CategoryInfo.builder()
@@ -0,0 +1,75 @@
+package br.com.comercialpereira.services;
+
+import br.com.comercialpereira.dto.product.ProductFilters;
+import br.com.comercialpereira.entity.Inventory;
+import br.com.comercialpereira.entity.Product;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductSpecification {
+
+    public static Specification<Product> withFilters(ProductFilters filters) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // Filtro de busca por nome ou código
+            if (filters.getSearch() != null && !filters.getSearch().trim().isEmpty()) {
+                String searchTerm = "%" + filters.getSearch().trim().toLowerCase() + "%";
+                predicates.add(criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), searchTerm),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("code")), searchTerm)
+                ));
+            }
+
+            if (filters.getCategoryId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("category").get("id"), filters.getCategoryId()));
+            }
+
+            if (filters.getSupplierId() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("supplier").get("id"), filters.getSupplierId()));
+            }
+
+            if (filters.getIsActive() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("isActive"), filters.getIsActive()));
+            }
+
+            if (filters.getMinPrice() != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("price"), filters.getMinPrice()));
+            }
+
+            if (filters.getMaxPrice() != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("price"), filters.getMaxPrice()));
+            }
+
+            if (filters.getHasBarcode() != null) {
+                predicates.add(filters.getHasBarcode()
+                        ? criteriaBuilder.isNotNull(root.get("barcode"))
+                        : criteriaBuilder.isNull(root.get("barcode")));
+            }
+
+            // Filtros de estoque só fazem o join com inventory quando usados
+            if (Boolean.TRUE.equals(filters.getHasStock())
+                    || Boolean.TRUE.equals(filters.getLowStock())
+                    || Boolean.TRUE.equals(filters.getNoStock())) {
+                Join<Product, Inventory> inventory = root.join("inventory", JoinType.INNER);
+
+                if (Boolean.TRUE.equals(filters.getHasStock())) {
+                    predicates.add(criteriaBuilder.greaterThan(inventory.get("quantity"), 0));
+                }
+                if (Boolean.TRUE.equals(filters.getLowStock())) {
+                    predicates.add(criteriaBuilder.lessThanOrEqualTo(inventory.get("quantity"), inventory.get("minStock")));
+                }
+                if (Boolean.TRUE.equals(filters.getNoStock())) {
+                    predicates.add(criteriaBuilder.equal(inventory.get("quantity"), 0));
+                }
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
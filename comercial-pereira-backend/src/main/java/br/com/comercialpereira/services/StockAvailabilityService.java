@@ -0,0 +1,115 @@
+package br.com.comercialpereira.services;
+
+import br.com.comercialpereira.dto.inventory.StockAvailabilityLine;
+import br.com.comercialpereira.dto.inventory.StockCheckItemRequest;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.services.hotsku.HotSkuService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Verificação de disponibilidade de estoque para um carrinho inteiro.
+ *
+ * Todas as linhas vão em uma única consulta (arrays + unnest); somas por produto
+ * e o consumo acumulado linha a linha são calculados com funções de janela.
+ * O saldo considerado é o do local padrão, de onde as vendas saem; para
+ * produtos em modo de alta concorrência nesta instância vale o contador em
+ * memória, já que a linha gravada fica para trás até o próximo lote.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockAvailabilityService {
+
+    private static final String AVAILABILITY_SQL = """
+            SELECT r.line_no,
+                   r.product_id,
+                   r.qty,
+                   SUM(r.qty) OVER (PARTITION BY r.product_id) AS requested_total,
+                   SUM(r.qty) OVER (PARTITION BY r.product_id ORDER BY r.line_no) AS requested_cumulative,
+                   p.id IS NOT NULL AS product_exists,
+                   p.name,
+                   i.id IS NOT NULL AS has_inventory,
+                   sl.id AS location_id,
+                   COALESCE(il.quantity, 0) AS on_hand,
+                   COALESCE(i.min_stock, 0) AS min_stock
+            FROM unnest(?::bigint[], ?::int[]) WITH ORDINALITY AS r(product_id, qty, line_no)
+            LEFT JOIN products p ON p.id = r.product_id
+            LEFT JOIN inventory i ON i.product_id = r.product_id
+            LEFT JOIN stock_locations sl ON sl.is_default
+            LEFT JOIN inventory_locations il ON il.product_id = r.product_id AND il.location_id = sl.id
+            ORDER BY r.line_no
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HotSkuService hotSkuService;
+
+    @Transactional(readOnly = true)
+    public List<StockAvailabilityLine> check(List<StockCheckItemRequest> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return List.of();
+        }
+
+        Long[] productIds = new Long[lines.size()];
+        Integer[] quantities = new Integer[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            productIds[i] = lines.get(i).getProductId();
+            quantities[i] = lines.get(i).getQuantity();
+        }
+
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(AVAILABILITY_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", productIds));
+            statement.setArray(2, connection.createArrayOf("integer", quantities));
+            return statement;
+        }, (rs, rowNum) -> {
+            int quantity = rs.getInt("qty");
+            int cumulative = rs.getInt("requested_cumulative");
+            Long counter = hotSkuService.counterQuantity(rs.getLong("product_id"), rs.getLong("location_id"));
+            int onHand = counter != null ? counter.intValue() : rs.getInt("on_hand");
+
+            // A linha só fica sem estoque na parte que excede o que as anteriores já consumiram
+            int shortfall = Math.min(quantity, Math.max(0, cumulative - onHand));
+
+            return StockAvailabilityLine.builder()
+                    .lineNumber(rs.getInt("line_no"))
+                    .productId(rs.getLong("product_id"))
+                    .productName(rs.getString("name"))
+                    .productExists(rs.getBoolean("product_exists"))
+                    .hasInventory(rs.getBoolean("has_inventory"))
+                    .requestedQuantity(quantity)
+                    .requestedTotal(rs.getInt("requested_total"))
+                    .onHand(onHand)
+                    .minStock(rs.getInt("min_stock"))
+                    .shortfall(shortfall)
+                    .build();
+        });
+    }
+
+    /**
+     * Falha na primeira linha que não pode ser atendida: produto inexistente (404)
+     * ou estoque insuficiente (409).
+     */
+    @Transactional(readOnly = true)
+    public List<StockAvailabilityLine> requireAvailable(List<StockCheckItemRequest> lines) {
+        List<StockAvailabilityLine> result = check(lines);
+
+        for (StockAvailabilityLine line : result) {
+            if (!line.isProductExists()) {
+                throw new ApiException("Produto com ID " + line.getProductId() + " não encontrado.", HttpStatus.NOT_FOUND);
+            }
+            if (line.getShortfall() > 0) {
+                log.debug("Estoque insuficiente para produto {}: pedido {}, disponível {}",
+                        line.getProductId(), line.getRequestedTotal(), line.getOnHand());
+                throw new ApiException("Estoque insuficiente para o produto: " + line.getProductName(), HttpStatus.CONFLICT);
+            }
+        }
+        return result;
+    }
+}
@@ -1,19 +1,27 @@
 package br.com.comercialpereira.services;
 
+import br.com.comercialpereira.dto.PageResponse;
 import br.com.comercialpereira.dto.supplier.*;
 import br.com.comercialpereira.entity.Supplier;
 import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.repository.ProductRepository;
 import br.com.comercialpereira.repository.SupplierRepository;
+import br.com.comercialpereira.config.CacheConfig;
+import br.com.comercialpereira.services.stats.ApproximateCountService;
+import br.com.comercialpereira.services.stats.StatisticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -24,7 +32,11 @@ import java.util.stream.Collectors;
 public class SupplierService {
 
     private final SupplierRepository supplierRepository;
+    private final ProductRepository productRepository;
+    private final StatisticsService statisticsService;
+    private final ApproximateCountService approximateCountService;
 
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIER_STATISTICS, allEntries = true)
     @Transactional
     public SupplierResponse create(CreateSupplierRequest request) {
         log.info("Creating supplier: {}", request.getName());
@@ -61,7 +73,7 @@ public class SupplierService {
         Supplier savedSupplier = supplierRepository.save(supplier);
 
         log.info("Supplier created successfully with ID: {}", savedSupplier.getId());
-        return convertToSupplierResponse(savedSupplier);
+        return convertToSupplierResponse(savedSupplier, 0L);
     }
 
     @Transactional(readOnly = true)
@@ -74,16 +86,33 @@ public class SupplierService {
                 buildSort(filters.getSortBy(), filters.getSortOrder())
         );
 
-        Page<Supplier> suppliers = supplierRepository.findByFilters(
-                filters.getSearch(),
-                filters.getIsActive(),
-                filters.getState(),
-                filters.getHasEmail(),
-                filters.getHasCnpj(),
-                pageable
+        Page<Supplier> suppliers = supplierRepository.findAll(SupplierSpecification.withFilters(filters), pageable);
+
+        Map<Long, Long> productCounts = countProducts(suppliers.getContent());
+        return suppliers.map(supplier -> convertToSupplierResponse(supplier, productCounts));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<SupplierResponse> findByFiltersWithoutCount(SupplierFilters filters) {
+        log.debug("Finding suppliers without count with filters: {}", filters);
+
+        Pageable pageable = PageRequest.of(
+                filters.getPage(),
+                filters.getSize(),
+                buildSort(filters.getSortBy(), filters.getSortOrder())
         );
 
-        return suppliers.map(this::convertToSupplierResponse);
+        Slice<Supplier> suppliers = supplierRepository.findBy(
+                SupplierSpecification.withFilters(filters),
+                query -> query.slice(pageable)
+        );
+
+        Map<Long, Long> productCounts = countProducts(suppliers.getContent());
+        // A estimativa é da tabela inteira: com filtro, a página vai sem total
+        Slice<SupplierResponse> page = suppliers.map(supplier -> convertToSupplierResponse(supplier, productCounts));
+        return filters.hasFilters()
+                ? PageResponse.from(page)
+                : PageResponse.from(page, approximateCountService.estimate("suppliers"));
     }
 
     @Transactional(readOnly = true)
@@ -111,6 +140,7 @@ public class SupplierService {
         return convertToSupplierResponse(supplier);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIER_STATISTICS, allEntries = true)
     @Transactional
     public SupplierResponse update(Long id, UpdateSupplierRequest request) {
         log.info("Updating supplier with ID: {}", id);
@@ -168,6 +198,7 @@ public class SupplierService {
         return convertToSupplierResponse(updatedSupplier);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.SUPPLIER_STATISTICS, allEntries = true)
     @Transactional
     public void delete(Long id) {
         log.info("Deleting supplier with ID: {}", id);
@@ -176,7 +207,7 @@ public class SupplierService {
                 .orElseThrow(() -> new ApiException("Fornecedor não encontrado", HttpStatus.NOT_FOUND));
 
         // Verificar se tem produtos associados
-        if (supplier.getProducts() != null && !supplier.getProducts().isEmpty()) {
+        if (productRepository.existsBySupplierId(id)) {
             throw new ApiException("Não é possível excluir fornecedor que possui produtos cadastrados", HttpStatus.BAD_REQUEST);
         }
 
@@ -191,20 +222,17 @@ public class SupplierService {
     public List<SupplierResponse> search(String query, Integer limit, Boolean includeInactive) {
         log.debug("Searching suppliers with query: {}", query);
 
-        List<Supplier> suppliers = supplierRepository.findAll().stream()
-                .filter(supplier -> includeInactive || supplier.getIsActive())
-                .filter(supplier ->
-                        supplier.getName().toLowerCase().contains(query.toLowerCase()) ||
-                                (supplier.getContactPerson() != null && supplier.getContactPerson().toLowerCase().contains(query.toLowerCase())) ||
-                                (supplier.getEmail() != null && supplier.getEmail().toLowerCase().contains(query.toLowerCase())) ||
-                                (supplier.getCity() != null && supplier.getCity().toLowerCase().contains(query.toLowerCase()))
-                )
-                .limit(limit != null ? limit : 20)
-                .toList();
+        if (query == null || query.trim().isEmpty()) {
+            throw new ApiException("Termo de busca é obrigatório", HttpStatus.BAD_REQUEST);
+        }
 
-        return suppliers.stream()
-                .map(this::convertToSupplierResponse)
-                .collect(Collectors.toList());
+        List<Supplier> suppliers = supplierRepository.search(
+                toLikePattern(query.trim()),
+                Boolean.TRUE.equals(includeInactive),
+                limit != null ? limit : 20
+        );
+
+        return convertToSupplierResponses(suppliers);
     }
 
     @Transactional(readOnly = true)
@@ -213,9 +241,7 @@ public class SupplierService {
 
         List<Supplier> suppliers = supplierRepository.findByIsActiveOrderByName(true);
 
-        return suppliers.stream()
-                .map(this::convertToSupplierResponse)
-                .collect(Collectors.toList());
+        return convertToSupplierResponses(suppliers);
     }
 
     @Transactional(readOnly = true)
@@ -224,9 +250,7 @@ public class SupplierService {
 
         List<Supplier> suppliers = supplierRepository.findByStateAndIsActive(state.toUpperCase(), true);
 
-        return suppliers.stream()
-                .map(this::convertToSupplierResponse)
-                .collect(Collectors.toList());
+        return convertToSupplierResponses(suppliers);
     }
 
     @Transactional(readOnly = true)
@@ -235,41 +259,44 @@ public class SupplierService {
 
         List<Supplier> suppliers = supplierRepository.findSuppliersWithProducts();
 
-        return suppliers.stream()
-                .map(this::convertToSupplierResponse)
-                .collect(Collectors.toList());
+        return convertToSupplierResponses(suppliers);
     }
 
     @Transactional(readOnly = true)
     public Map<String, Object> getStatistics() {
-        log.debug("Getting supplier statistics");
-
-        long totalSuppliers = supplierRepository.count();
-        long activeSuppliers = supplierRepository.findByIsActiveOrderByName(true).size();
-        long inactiveSuppliers = totalSuppliers - activeSuppliers;
-
-        List<Object[]> countByState = supplierRepository.countByState();
-        Map<String, Long> stateDistribution = countByState.stream()
-                .collect(Collectors.toMap(
-                        record -> record[0] != null ? record[0].toString() : "N/A",
-                        record -> (Long) record[1]
-                ));
-
-        List<Supplier> suppliersWithProducts = supplierRepository.findSuppliersWithProducts();
-        long suppliersWithProductsCount = suppliersWithProducts.size();
-        long suppliersWithoutProductsCount = activeSuppliers - suppliersWithProductsCount;
-
-        return Map.of(
-                "total", totalSuppliers,
-                "active", activeSuppliers,
-                "inactive", inactiveSuppliers,
-                "withProducts", suppliersWithProductsCount,
-                "withoutProducts", suppliersWithoutProductsCount,
-                "byState", stateDistribution
-        );
+        return statisticsService.getSupplierStatistics();
     }
 
     private SupplierResponse convertToSupplierResponse(Supplier supplier) {
+        return convertToSupplierResponse(supplier, productRepository.countBySupplierId(supplier.getId()));
+    }
+
+    private List<SupplierResponse> convertToSupplierResponses(List<Supplier> suppliers) {
+        Map<Long, Long> productCounts = countProducts(suppliers);
+        return suppliers.stream()
+                .map(supplier -> convertToSupplierResponse(supplier, productCounts))
+                .collect(Collectors.toList());
+    }
+
+    private SupplierResponse convertToSupplierResponse(Supplier supplier, Map<Long, Long> productCounts) {
+        return convertToSupplierResponse(supplier, productCounts.getOrDefault(supplier.getId(), 0L));
+    }
+
+    // Contagem de produtos em uma única consulta agrupada, sem carregar a coleção products
+    private Map<Long, Long> countProducts(List<Supplier> suppliers) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (suppliers.isEmpty()) {
+            return counts;
+        }
+
+        List<Long> ids = suppliers.stream().map(Supplier::getId).toList();
+        for (Object[] row : productRepository.countBySupplierIds(ids)) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    private SupplierResponse convertToSupplierResponse(Supplier supplier, long productCount) {
         return SupplierResponse.builder()
                 .id(supplier.getId())
                 .name(supplier.getName())
@@ -286,7 +313,7 @@ public class SupplierService {
                 .isActive(supplier.getIsActive())
                 .createdAt(supplier.getCreatedAt())
                 .updatedAt(supplier.getUpdatedAt())
-                .productCount(supplier.getProducts() != null ? supplier.getProducts().size() : 0)
+                .productCount((int) productCount)
                 .build();
     }
 
@@ -311,6 +338,14 @@ public class SupplierService {
         }
     }
 
+    private String toLikePattern(String query) {
+        String escaped = query
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
     // Métodos de formatação
     private String formatCNPJ(String cnpj) {
         if (cnpj == null || cnpj.trim().isEmpty()) {
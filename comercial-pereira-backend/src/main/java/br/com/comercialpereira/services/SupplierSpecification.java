@@ -0,0 +1,49 @@
+package br.com.comercialpereira.services;
+
+import br.com.comercialpereira.dto.supplier.SupplierFilters;
+import br.com.comercialpereira.entity.Supplier;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SupplierSpecification {
+
+    public static Specification<Supplier> withFilters(SupplierFilters filters) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            // Filtro de busca por nome ou pessoa de contato
+            if (filters.getSearch() != null && !filters.getSearch().trim().isEmpty()) {
+                String searchTerm = "%" + filters.getSearch().trim().toLowerCase() + "%";
+                predicates.add(criteriaBuilder.or(
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), searchTerm),
+                        criteriaBuilder.like(criteriaBuilder.lower(root.get("contactPerson")), searchTerm)
+                ));
+            }
+
+            if (filters.getIsActive() != null) {
+                predicates.add(criteriaBuilder.equal(root.get("isActive"), filters.getIsActive()));
+            }
+
+            if (filters.getState() != null && !filters.getState().isEmpty()) {
+                predicates.add(criteriaBuilder.equal(root.get("state"), filters.getState().toUpperCase()));
+            }
+
+            if (filters.getHasEmail() != null) {
+                predicates.add(filters.getHasEmail()
+                        ? criteriaBuilder.isNotNull(root.get("email"))
+                        : criteriaBuilder.isNull(root.get("email")));
+            }
+
+            if (filters.getHasCnpj() != null) {
+                predicates.add(filters.getHasCnpj()
+                        ? criteriaBuilder.isNotNull(root.get("cnpj"))
+                        : criteriaBuilder.isNull(root.get("cnpj")));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.comercialpereira.services.alert;
+
+import br.com.comercialpereira.dto.inventory.StockAlertResponse;
+import br.com.comercialpereira.services.outbox.OutboxEvent;
+import br.com.comercialpereira.services.outbox.OutboxEventListener;
+import br.com.comercialpereira.services.outbox.OutboxEventType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consumidor do outbox que mantém os alertas de estoque em stock_alerts.
+ *
+ * Para cada estoque citado em STOCK_CHANGED, recalcula a situação a partir do
+ * total atual (não do payload): reentregas e lotes fora de ordem levam ao
+ * mesmo resultado. Abre o alerta ao chegar no mínimo, troca LOW/OUT enquanto
+ * aberto e resolve quando o estoque volta acima do mínimo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockAlertService implements OutboxEventListener {
+
+    private static final String REFRESH_SQL = """
+            WITH current AS (
+                SELECT s.product_id, s.quantity, s.min_stock,
+                       CASE WHEN s.quantity <= 0 THEN 'OUT'
+                            WHEN s.quantity <= s.min_stock THEN 'LOW' END AS level
+                FROM inventory_stock s
+                WHERE s.id = ANY(?)
+            ),
+            resolved AS (
+                UPDATE stock_alerts a
+                SET resolved_at = CURRENT_TIMESTAMP, updated_at = CURRENT_TIMESTAMP,
+                    quantity = c.quantity, last_event_id = ?
+                FROM current c
+                WHERE a.product_id = c.product_id AND a.resolved_at IS NULL AND c.level IS NULL
+                RETURNING a.id
+            ),
+            changed AS (
+                UPDATE stock_alerts a
+                SET level = c.level, quantity = c.quantity, min_stock = c.min_stock,
+                    updated_at = CURRENT_TIMESTAMP, last_event_id = ?
+                FROM current c
+                WHERE a.product_id = c.product_id AND a.resolved_at IS NULL AND c.level IS NOT NULL
+                  AND (a.level <> c.level OR a.quantity <> c.quantity OR a.min_stock <> c.min_stock)
+                RETURNING a.id
+            )
+            INSERT INTO stock_alerts (product_id, level, quantity, min_stock, last_event_id)
+            SELECT c.product_id, c.level, c.quantity, c.min_stock, ?
+            FROM current c
+            WHERE c.level IS NOT NULL
+              AND NOT EXISTS (SELECT 1 FROM stock_alerts a WHERE a.product_id = c.product_id AND a.resolved_at IS NULL)
+            ON CONFLICT (product_id) WHERE resolved_at IS NULL DO NOTHING
+            """;
+
+    private static final String FIND_SQL = """
+            SELECT a.id, a.product_id, p.code, p.name, a.level, a.quantity, a.min_stock,
+                   a.opened_at, a.updated_at, a.resolved_at
+            FROM stock_alerts a
+            JOIN products p ON p.id = a.product_id
+            WHERE (? OR a.resolved_at IS NULL)
+            ORDER BY a.level DESC, a.opened_at DESC
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public String consumerName() {
+        return "stock-alerts";
+    }
+
+    @Override
+    public boolean accepts(OutboxEvent event) {
+        return event.is(OutboxEventType.STOCK_CHANGED) && event.getAggregateId() != null;
+    }
+
+    // Roda na transação do relay, junto com o avanço da posição do consumidor
+    @Override
+    public void onEvents(List<OutboxEvent> events) {
+        // O agregado de STOCK_CHANGED é o registro de estoque (inventory.id)
+        Long[] inventoryIds = events.stream()
+                .map(OutboxEvent::getAggregateId)
+                .distinct()
+                .toArray(Long[]::new);
+        long lastEventId = events.get(events.size() - 1).getId();
+
+        int opened = jdbcTemplate.update(REFRESH_SQL, inventoryIds, lastEventId, lastEventId, lastEventId);
+        log.debug("Alertas de estoque: {} estoques verificados, {} alertas abertos", inventoryIds.length, opened);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockAlertResponse> findAlerts(boolean includeResolved, int limit) {
+        return jdbcTemplate.query(FIND_SQL, (rs, rowNum) -> StockAlertResponse.builder()
+                        .id(rs.getLong("id"))
+                        .productId(rs.getLong("product_id"))
+                        .productCode(rs.getString("code"))
+                        .productName(rs.getString("name"))
+                        .level(rs.getString("level"))
+                        .quantity(rs.getInt("quantity"))
+                        .minStock(rs.getInt("min_stock"))
+                        .openedAt(toLocalDateTime(rs.getTimestamp("opened_at")))
+                        .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                        .resolvedAt(toLocalDateTime(rs.getTimestamp("resolved_at")))
+                        .build(),
+                includeResolved, Math.max(1, Math.min(limit, 500)));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,158 @@
+package br.com.comercialpereira.services.analytics;
+
+import br.com.comercialpereira.dto.movement.MovementFlowPoint;
+import br.com.comercialpereira.dto.movement.ProductFlowResponse;
+import br.com.comercialpereira.enums.FlowGranularity;
+import br.com.comercialpereira.enums.MovementType;
+import br.com.comercialpereira.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fluxo de movimentações lido apenas dos agregados por hora e por dia
+ * (movement_rollup_hourly / movement_rollup_daily, mantidos por trigger nas
+ * migrações V9 e V17, com uma linha por local que as consultas somam). O custo depende do período e do número de produtos, não do
+ * tamanho do razão. Ajustes legados com sinal deduzido na migração
+ * (sign_inferred) não estão separados nos agregados; os pontos e produtos que
+ * os incluem saem marcados como aproximados.
+ */
+@Service
+@Slf4j
+public class MovementFlowService {
+
+    private static final Map<String, String> PRODUCT_ORDER = Map.of(
+            "OUTBOUND", "outbound DESC",
+            "INBOUND", "inbound DESC",
+            "NET", "net_quantity DESC",
+            "MOVEMENTS", "movement_count DESC");
+
+    private static final String PRODUCT_FLOW_SQL = """
+            SELECT r.product_id, p.code, p.name,
+                   SUM(r.movement_count) AS movement_count,
+                   COALESCE(SUM(r.quantity_sum) FILTER (WHERE r.type = 'IN'), 0) AS inbound,
+                   COALESCE(SUM(r.quantity_sum) FILTER (WHERE r.type = 'OUT'), 0) AS outbound,
+                   COALESCE(SUM(r.delta_sum) FILTER (WHERE r.type = 'ADJUSTMENT'), 0) AS adjustments,
+                   SUM(r.delta_sum) AS net_quantity,
+                   bool_or(r.type = 'ADJUSTMENT' AND %s) AS approximate
+            FROM movement_rollup_daily r
+            JOIN products p ON p.id = r.product_id
+            WHERE r.bucket >= ? AND r.bucket <= ?
+            GROUP BY r.product_id, p.code, p.name
+            ORDER BY %s, r.product_id
+            LIMIT ?
+            """;
+
+    // Existe ajuste de sinal deduzido no produto e no intervalo do agregado r
+    private static final String INFERRED_IN_BUCKET = """
+            EXISTS (SELECT 1 FROM inventory_movements m
+                    WHERE m.sign_inferred AND m.product_id = r.product_id
+                      AND m.created_at >= r.bucket AND m.created_at < r.bucket + INTERVAL '%s')""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxDays;
+    private final int hourlyRetentionDays;
+
+    public MovementFlowService(JdbcTemplate jdbcTemplate,
+                               @Value("${comercial.inventory.rollups.max-days:366}") int maxDays,
+                               @Value("${comercial.inventory.rollups.hourly-retention-days:90}") int hourlyRetentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxDays = maxDays;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MovementFlowPoint> getFlow(LocalDate dateFrom, LocalDate dateTo, FlowGranularity granularity,
+                                           Long productId, MovementType type) {
+        validatePeriod(dateFrom, dateTo);
+        if (granularity == FlowGranularity.HOUR && dateFrom.isBefore(LocalDate.now().minusDays(hourlyRetentionDays))) {
+            throw new ApiException("Dados por hora disponíveis apenas para os últimos " + hourlyRetentionDays + " dias",
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        boolean hourly = granularity == FlowGranularity.HOUR;
+        StringBuilder sql = new StringBuilder("SELECT r.bucket, r.type, SUM(r.movement_count) AS movement_count, ")
+                .append("SUM(r.quantity_sum) AS quantity, SUM(r.delta_sum) AS net_quantity, ")
+                .append("bool_or(r.type = 'ADJUSTMENT' AND ")
+                .append(INFERRED_IN_BUCKET.formatted(hourly ? "1 hour" : "1 day"))
+                .append(") AS approximate ")
+                .append(hourly ? "FROM movement_rollup_hourly r " : "FROM movement_rollup_daily r ")
+                .append("WHERE r.bucket >= ? AND r.bucket < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(hourly ? Timestamp.valueOf(dateFrom.atStartOfDay()) : dateFrom);
+        args.add(hourly ? Timestamp.valueOf(dateTo.plusDays(1).atStartOfDay()) : dateTo.plusDays(1));
+
+        if (productId != null) {
+            sql.append(" AND r.product_id = ?");
+            args.add(productId);
+        }
+        if (type != null) {
+            sql.append(" AND r.type = ?");
+            args.add(type.name());
+        }
+        sql.append(" GROUP BY r.bucket, r.type ORDER BY r.bucket, r.type");
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> MovementFlowPoint.builder()
+                .bucket(rs.getTimestamp("bucket").toLocalDateTime())
+                .type(MovementType.valueOf(rs.getString("type")))
+                .movementCount(rs.getLong("movement_count"))
+                .quantity(rs.getLong("quantity"))
+                .netQuantity(rs.getLong("net_quantity"))
+                .approximate(rs.getBoolean("approximate"))
+                .build(), args.toArray());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductFlowResponse> getProductFlow(LocalDate dateFrom, LocalDate dateTo, String orderBy, int limit) {
+        validatePeriod(dateFrom, dateTo);
+
+        String order = PRODUCT_ORDER.get(orderBy != null ? orderBy.toUpperCase() : "OUTBOUND");
+        if (order == null) {
+            throw new ApiException("Ordenação inválida. Use: " + String.join(", ", PRODUCT_ORDER.keySet()),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        String sql = PRODUCT_FLOW_SQL.formatted(INFERRED_IN_BUCKET.formatted("1 day"), order);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> ProductFlowResponse.builder()
+                .productId(rs.getLong("product_id"))
+                .productCode(rs.getString("code"))
+                .productName(rs.getString("name"))
+                .movementCount(rs.getLong("movement_count"))
+                .inbound(rs.getLong("inbound"))
+                .outbound(rs.getLong("outbound"))
+                .adjustments(rs.getLong("adjustments"))
+                .netQuantity(rs.getLong("net_quantity"))
+                .approximate(rs.getBoolean("approximate"))
+                .build(), dateFrom, dateTo, Math.max(1, Math.min(limit, 100)));
+    }
+
+    // Agregados diários ficam para sempre; os por hora só para gráficos recentes
+    @Scheduled(cron = "${comercial.inventory.rollups.prune-cron:0 20 3 * * *}")
+    public void pruneHourly() {
+        int removed = jdbcTemplate.update("DELETE FROM movement_rollup_hourly WHERE bucket < ?",
+                Timestamp.valueOf(LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay()));
+        if (removed > 0) {
+            log.info("Agregados por hora de movimentações removidos: {}", removed);
+        }
+    }
+
+    private void validatePeriod(LocalDate dateFrom, LocalDate dateTo) {
+        if (dateFrom.isAfter(dateTo)) {
+            throw new ApiException("Data inicial deve ser anterior à data final", HttpStatus.BAD_REQUEST);
+        }
+        if (ChronoUnit.DAYS.between(dateFrom, dateTo) >= maxDays) {
+            throw new ApiException("Período máximo de " + maxDays + " dias", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
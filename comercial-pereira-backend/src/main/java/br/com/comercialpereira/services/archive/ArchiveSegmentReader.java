@@ -0,0 +1,137 @@
+package br.com.comercialpereira.services.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Leitura de um segmento gravado pelo {@link ArchiveSegmentWriter}.
+ *
+ * O arquivo inteiro fica mapeado em memória; cada bloco é descomprimido
+ * diretamente a partir do mapeamento, sem cópia intermediária dos bytes
+ * comprimidos para o heap.
+ */
+final class ArchiveSegmentReader {
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    private final int version;
+    private final long recordCount;
+    private final long[] minKeys;
+    private final long[] maxKeys;
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] rawLengths;
+    private final int[] counts;
+
+    private ArchiveSegmentReader(Path path, MappedByteBuffer mapped) throws IOException {
+        this.path = path;
+        this.mapped = mapped;
+
+        int size = mapped.capacity();
+        if (size < ArchiveSegmentWriter.TRAILER_SIZE || mapped.getInt(size - 4) != ArchiveSegmentWriter.MAGIC) {
+            throw new IOException("Segmento de arquivo inválido: " + path);
+        }
+
+        long footerOffset = mapped.getLong(size - ArchiveSegmentWriter.TRAILER_SIZE);
+        ByteBuffer footer = mapped.slice((int) footerOffset, size - ArchiveSegmentWriter.TRAILER_SIZE - (int) footerOffset);
+
+        this.version = footer.getInt();
+        if (version < 1 || version > ArchiveSegmentWriter.VERSION) {
+            throw new IOException("Versão de segmento não suportada (" + version + "): " + path);
+        }
+        this.recordCount = footer.getLong();
+
+        int blocks = footer.getInt();
+        this.minKeys = new long[blocks];
+        this.maxKeys = new long[blocks];
+        this.offsets = new long[blocks];
+        this.compressedLengths = new int[blocks];
+        this.rawLengths = new int[blocks];
+        this.counts = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            minKeys[i] = footer.getLong();
+            maxKeys[i] = footer.getLong();
+            offsets[i] = footer.getLong();
+            compressedLengths[i] = footer.getInt();
+            rawLengths[i] = footer.getInt();
+            counts[i] = footer.getInt();
+        }
+    }
+
+    static ArchiveSegmentReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ArchiveSegmentReader(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    int blockCount() {
+        return counts.length;
+    }
+
+    int blockRecordCount(int block) {
+        return counts[block];
+    }
+
+    boolean mayContain(long key) {
+        return counts.length > 0 && key >= minKeys[0] && key <= maxKeys[counts.length - 1];
+    }
+
+    /**
+     * Primeiro bloco que pode conter a chave (blocos em ordem crescente de chave),
+     * ou -1. Uma chave pode continuar nos blocos seguintes enquanto minKey <= chave.
+     */
+    int firstBlockFor(long key) {
+        int low = 0;
+        int high = counts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (maxKeys[mid] >= key) {
+                found = mid;
+                high = mid - 1;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return found >= 0 && minKeys[found] <= key ? found : -1;
+    }
+
+    boolean blockMayContain(int block, long key) {
+        return block < counts.length && minKeys[block] <= key && maxKeys[block] >= key;
+    }
+
+    ByteBuffer readBlock(int block) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(mapped.slice((int) offsets[block], compressedLengths[block]));
+            byte[] raw = new byte[rawLengths[block]];
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                read += inflater.inflate(raw, read, raw.length - read);
+            }
+            return ByteBuffer.wrap(raw);
+        } catch (DataFormatException e) {
+            throw new IOException("Bloco " + block + " corrompido em " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package br.com.comercialpereira.services.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Grava um segmento de arquivo: blocos comprimidos com deflate, seguidos de um
+ * rodapé com o índice dos blocos (chave mínima/máxima, posição e tamanhos).
+ *
+ * <pre>
+ * [bloco 0] ... [bloco n-1]
+ * [rodapé: versão, total de registros, n, n x (minKey, maxKey, offset, compressed, raw, count)]
+ * [trailer: offset do rodapé (long), tamanho do rodapé (int), MAGIC (int)]
+ * </pre>
+ *
+ * O arquivo é escrito com extensão temporária e renomeado no {@link #finish()},
+ * então um segmento visível no diretório está sempre completo.
+ */
+final class ArchiveSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x43504152;
+    // 2: movimentações com delta e quantidades antes/depois
+    // 3: movimentações com o local de estoque
+    // 4: movimentações com a marca de sinal deduzido (sign_inferred)
+    static final int VERSION = 4;
+    static final int TRAILER_SIZE = 16;
+    static final int INDEX_ENTRY_SIZE = 8 * 3 + 4 * 3;
+
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final List<long[]> index = new ArrayList<>();
+    private long position;
+    private long recordCount;
+    private boolean finished;
+
+    ArchiveSegmentWriter(Path target) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    void writeBlock(long minKey, long maxKey, int count, byte[] raw) throws IOException {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] chunk = new byte[16 * 1024];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            compressed.write(chunk, 0, length);
+        }
+
+        byte[] bytes = compressed.toByteArray();
+        writeFully(ByteBuffer.wrap(bytes));
+
+        index.add(new long[]{minKey, maxKey, position, bytes.length, raw.length, count});
+        position += bytes.length;
+        recordCount += count;
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    void finish() throws IOException {
+        ByteBuffer footer = ByteBuffer.allocate(4 + 8 + 4 + index.size() * INDEX_ENTRY_SIZE + TRAILER_SIZE);
+        footer.putInt(VERSION);
+        footer.putLong(recordCount);
+        footer.putInt(index.size());
+        for (long[] entry : index) {
+            footer.putLong(entry[0]);
+            footer.putLong(entry[1]);
+            footer.putLong(entry[2]);
+            footer.putInt((int) entry[3]);
+            footer.putInt((int) entry[4]);
+            footer.putInt((int) entry[5]);
+        }
+        int footerLength = footer.position();
+        footer.putLong(position);
+        footer.putInt(footerLength);
+        footer.putInt(MAGIC);
+        footer.flip();
+        writeFully(footer);
+
+        channel.force(true);
+        channel.close();
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            channel.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package br.com.comercialpereira.services.archive;
+
+import br.com.comercialpereira.dto.movement.MovementResponse;
+import br.com.comercialpereira.dto.sale.SaleResponse;
+import br.com.comercialpereira.enums.MovementType;
+import br.com.comercialpereira.enums.SaleStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Move meses fechados de vendas e movimentações para o arquivo morto.
+ *
+ * Para cada mês além do período de retenção, com as duas partições travadas
+ * contra escrita: exporta para segmentos compactados, confere a contagem
+ * relendo os arquivos e só então remove os itens de venda e descarta as
+ * partições, tudo na mesma transação. Os segmentos passam a ser lidos só
+ * depois do commit e são apagados se a transação for desfeita.
+ *
+ * Um mês só é arquivado quando todas as vendas estão em estado final e nenhuma
+ * movimentação de outro mês aponta para elas; caso contrário fica para a
+ * próxima execução.
+ */
+@Service
+@Slf4j
+public class ArchiveService {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    private static final String SALES_EXPORT_SQL = """
+            SELECT s.id, s.total, s.discount, s.tax, s.status, s.notes, s.sale_date, s.created_at, s.updated_at,
+                   u.id AS user_id, u.name AS user_name,
+                   c.id AS customer_id, c.name AS customer_name, c.type AS customer_type, c.document AS customer_document
+            FROM %s s
+            JOIN users u ON u.id = s.user_id
+            JOIN customers c ON c.id = s.customer_id
+            ORDER BY s.id
+            """;
+
+    private static final String SALE_ITEMS_SQL = """
+            SELECT si.sale_id, si.id, si.quantity, si.unit_price, si.total, si.discount,
+                   p.id AS product_id, p.name AS product_name, p.code AS product_code, cat.name AS category_name
+            FROM sale_items si
+            JOIN products p ON p.id = si.product_id
+            LEFT JOIN categories cat ON cat.id = p.category_id
+            WHERE si.sale_id = ANY(?)
+            ORDER BY si.sale_id, si.id
+            """;
+
+    private static final String MOVEMENTS_EXPORT_SQL = """
+            SELECT m.id, m.type, m.quantity, m.delta, m.quantity_before, m.quantity_after, m.sign_inferred, m.reason, m.created_at,
+                   p.id AS product_id, p.name AS product_name, p.code AS product_code,
+                   u.id AS user_id, u.name AS user_name,
+                   m.sale_id, c.name AS customer_name,
+                   m.location_id, sl.code AS location_code, sl.name AS location_name
+            FROM %s m
+            JOIN products p ON p.id = m.product_id
+            LEFT JOIN stock_locations sl ON sl.id = m.location_id
+            LEFT JOIN users u ON u.id = m.user_id
+            LEFT JOIN sales s ON s.id = m.sale_id
+            LEFT JOIN customers c ON c.id = s.customer_id
+            ORDER BY m.product_id, m.created_at DESC, m.id DESC
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchiveStore archiveStore;
+    private final boolean enabled;
+    private final int afterMonths;
+
+    public ArchiveService(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ArchiveStore archiveStore,
+                          @Value("${comercial.archive.enabled:false}") boolean enabled,
+                          @Value("${comercial.archive.after-months:24}") int afterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveStore = archiveStore;
+        this.enabled = enabled;
+        this.afterMonths = afterMonths;
+    }
+
+    @Scheduled(cron = "${comercial.archive.cron:0 30 2 * * *}")
+    public void archiveClosedPeriods() {
+        if (!enabled) {
+            return;
+        }
+
+        archiveBefore(YearMonth.now().minusMonths(afterMonths));
+    }
+
+    /**
+     * Arquiva, cada um na sua transação, os meses anteriores a cutoff e devolve
+     * os que saíram do banco. Meses que ainda não podem ser fechados continuam
+     * com as partições anexadas.
+     */
+    public List<YearMonth> archiveBefore(YearMonth cutoff) {
+        List<YearMonth> archived = new ArrayList<>();
+        for (YearMonth month : listSalesPartitionMonths()) {
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> archiveMonth(month)))) {
+                    archived.add(month);
+                }
+            } catch (RuntimeException e) {
+                log.error("Erro ao arquivar o mês {}", month, e);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Arquiva o mês e devolve true, ou false se o mês ainda não pode ser fechado.
+     * Deve rodar dentro de uma transação.
+     */
+    public boolean archiveMonth(YearMonth month) {
+        String salesPartition = partitionName("sales", month);
+        String movementsPartition = partitionName("inventory_movements", month);
+        boolean hasMovements = exists(movementsPartition);
+        if (!exists(salesPartition)) {
+            return false;
+        }
+
+        jdbcTemplate.execute("LOCK TABLE " + salesPartition
+                + (hasMovements ? ", " + movementsPartition : "") + " IN SHARE MODE");
+
+        Long openSales = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + salesPartition
+                + " WHERE status NOT IN ('COMPLETED', 'CANCELLED', 'REFUNDED')", Long.class);
+        if (openSales != null && openSales > 0) {
+            log.info("Mês {} não arquivado: {} vendas ainda em aberto", month, openSales);
+            return false;
+        }
+
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        Long outsideReferences = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_movements m WHERE m.sale_id IN (SELECT id FROM " + salesPartition + ") "
+                        + "AND (m.created_at < ? OR m.created_at >= ?)",
+                Long.class, Timestamp.valueOf(start), Timestamp.valueOf(end));
+        if (outsideReferences != null && outsideReferences > 0) {
+            log.info("Mês {} não arquivado: {} movimentações de outros meses referenciam suas vendas", month, outsideReferences);
+            return false;
+        }
+
+        Path salesFile;
+        Path movementsFile;
+        try {
+            salesFile = archiveStore.segmentPath(ArchiveStore.SALES, month);
+            movementsFile = hasMovements ? archiveStore.segmentPath(ArchiveStore.MOVEMENTS, month) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao preparar o diretório de arquivo", e);
+        }
+
+        // Os segmentos só entram na leitura depois do commit; se a transação
+        // voltar atrás as partições continuam no banco e os arquivos são apagados
+        Map<String, ArchiveSegmentReader> exported = new LinkedHashMap<>();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                exported.forEach((kind, reader) -> archiveStore.register(kind, month, reader));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    deleteSegments(month, salesFile, movementsFile);
+                }
+            }
+        });
+
+        try {
+            ArchiveSegmentReader sales = exportSales(salesPartition, salesFile);
+            exported.put(ArchiveStore.SALES, sales);
+            ArchiveSegmentReader movements = hasMovements ? exportMovements(movementsPartition, movementsFile) : null;
+            if (movements != null) {
+                exported.put(ArchiveStore.MOVEMENTS, movements);
+            }
+
+            verifyCount(sales, "SELECT COUNT(*) FROM " + salesPartition);
+            if (movements != null) {
+                verifyCount(movements, "SELECT COUNT(*) FROM " + movementsPartition);
+            }
+
+            jdbcTemplate.update("DELETE FROM sale_items si USING " + salesPartition + " s WHERE si.sale_id = s.id");
+            jdbcTemplate.execute("ALTER TABLE sales DETACH PARTITION " + salesPartition);
+            jdbcTemplate.execute("DROP TABLE " + salesPartition);
+            if (hasMovements) {
+                jdbcTemplate.execute("ALTER TABLE inventory_movements DETACH PARTITION " + movementsPartition);
+                jdbcTemplate.execute("DROP TABLE " + movementsPartition);
+            }
+
+            log.info("Mês {} arquivado: {} vendas, {} movimentações", month, sales.getRecordCount(),
+                    movements != null ? movements.getRecordCount() : 0);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao gravar arquivo do mês " + month, e);
+        }
+    }
+
+    // =================== EXPORT ===================
+
+    private ArchiveSegmentReader exportSales(String partition, Path file) throws IOException {
+        try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(file)) {
+            List<SaleResponse> block = new ArrayList<>(BLOCK_SIZE);
+
+            jdbcTemplate.query(connection -> streaming(connection.prepareStatement(SALES_EXPORT_SQL.formatted(partition))),
+                    rs -> {
+                        block.add(mapSale(rs));
+                        if (block.size() == BLOCK_SIZE) {
+                            writeSalesBlock(writer, block);
+                        }
+                    });
+            if (!block.isEmpty()) {
+                writeSalesBlock(writer, block);
+            }
+
+            writer.finish();
+        }
+        return ArchiveSegmentReader.open(file);
+    }
+
+    private void writeSalesBlock(ArchiveSegmentWriter writer, List<SaleResponse> block) {
+        Long[] ids = block.stream().map(SaleResponse::getId).toArray(Long[]::new);
+        Map<Long, List<SaleResponse.SaleItemInfo>> items = new HashMap<>();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SALE_ITEMS_SQL);
+            Array array = connection.createArrayOf("bigint", ids);
+            statement.setArray(1, array);
+            return statement;
+        }, rs -> {
+            items.computeIfAbsent(rs.getLong("sale_id"), id -> new ArrayList<>()).add(mapSaleItem(rs));
+        });
+
+        block.forEach(sale -> sale.setItems(items.getOrDefault(sale.getId(), List.of())));
+        write(writer, ids[0], ids[ids.length - 1], block.size(), SaleArchiveCodec.encode(block));
+        block.clear();
+    }
+
+    private ArchiveSegmentReader exportMovements(String partition, Path file) throws IOException {
+        try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(file)) {
+            List<MovementResponse> block = new ArrayList<>(BLOCK_SIZE);
+
+            jdbcTemplate.query(connection -> streaming(connection.prepareStatement(MOVEMENTS_EXPORT_SQL.formatted(partition))),
+                    rs -> {
+                        block.add(mapMovement(rs));
+                        if (block.size() == BLOCK_SIZE) {
+                            writeMovementsBlock(writer, block);
+                        }
+                    });
+            if (!block.isEmpty()) {
+                writeMovementsBlock(writer, block);
+            }
+
+            writer.finish();
+        }
+        return ArchiveSegmentReader.open(file);
+    }
+
+    private void writeMovementsBlock(ArchiveSegmentWriter writer, List<MovementResponse> block) {
+        write(writer, block.get(0).getProduct().getId(), block.get(block.size() - 1).getProduct().getId(),
+                block.size(), MovementArchiveCodec.encode(block));
+        block.clear();
+    }
+
+    private void write(ArchiveSegmentWriter writer, long minKey, long maxKey, int count, byte[] raw) {
+        try {
+            writer.writeBlock(minKey, maxKey, count, raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void verifyCount(ArchiveSegmentReader reader, String countSql) {
+        Long expected = jdbcTemplate.queryForObject(countSql, Long.class);
+        if (expected == null || expected != reader.getRecordCount()) {
+            throw new IllegalStateException("Contagem divergente em " + reader.getPath()
+                    + ": esperado " + expected + ", gravado " + reader.getRecordCount());
+        }
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    private void deleteSegments(YearMonth month, Path... files) {
+        for (Path file : files) {
+            if (file == null) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.error("Não foi possível apagar o segmento {} do mês {} não arquivado", file, month, e);
+            }
+        }
+    }
+
+    private List<YearMonth> listSalesPartitionMonths() {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname
+                        FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'sales'::regclass
+                          AND c.relname ~ '^sales_y[0-9]{4}m[0-9]{2}$'
+                        ORDER BY c.relname
+                        """, String.class).stream()
+                .map(name -> YearMonth.of(Integer.parseInt(name.substring(7, 11)), Integer.parseInt(name.substring(12, 14))))
+                .toList();
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    private static PreparedStatement streaming(PreparedStatement statement) throws SQLException {
+        statement.setFetchSize(BLOCK_SIZE);
+        return statement;
+    }
+
+    private static SaleResponse mapSale(ResultSet rs) throws SQLException {
+        return SaleResponse.builder()
+                .id(rs.getLong("id"))
+                .total(rs.getBigDecimal("total"))
+                .discount(rs.getBigDecimal("discount"))
+                .tax(rs.getBigDecimal("tax"))
+                .status(SaleStatus.valueOf(rs.getString("status")))
+                .notes(rs.getString("notes"))
+                .saleDate(toLocalDateTime(rs.getTimestamp("sale_date")))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                .user(SaleResponse.UserInfo.builder()
+                        .id(rs.getLong("user_id"))
+                        .name(rs.getString("user_name"))
+                        .build())
+                .customer(SaleResponse.CustomerInfo.builder()
+                        .id(rs.getLong("customer_id"))
+                        .name(rs.getString("customer_name"))
+                        .type(rs.getString("customer_type"))
+                        .document(rs.getString("customer_document"))
+                        .build())
+                .build();
+    }
+
+    private static SaleResponse.SaleItemInfo mapSaleItem(ResultSet rs) throws SQLException {
+        return SaleResponse.SaleItemInfo.builder()
+                .id(rs.getLong("id"))
+                .quantity(rs.getInt("quantity"))
+                .unitPrice(rs.getBigDecimal("unit_price"))
+                .total(rs.getBigDecimal("total"))
+                .discount(rs.getBigDecimal("discount"))
+                .product(SaleResponse.SaleItemInfo.ProductInfo.builder()
+                        .id(rs.getLong("product_id"))
+                        .name(rs.getString("product_name"))
+                        .code(rs.getString("product_code"))
+                        .categoryName(rs.getString("category_name"))
+                        .build())
+                .build();
+    }
+
+    private static MovementResponse mapMovement(ResultSet rs) throws SQLException {
+        Long userId = rs.getObject("user_id", Long.class);
+        Long saleId = rs.getObject("sale_id", Long.class);
+        Long locationId = rs.getObject("location_id", Long.class);
+
+        return MovementResponse.builder()
+                .id(rs.getLong("id"))
+                .type(MovementType.valueOf(rs.getString("type")))
+                .quantity(rs.getInt("quantity"))
+                .delta(rs.getInt("delta"))
+                .quantityBefore(rs.getInt("quantity_before"))
+                .quantityAfter(rs.getInt("quantity_after"))
+                .signInferred(rs.getBoolean("sign_inferred"))
+                .reason(rs.getString("reason"))
+                .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                .product(MovementResponse.ProductInfo.builder()
+                        .id(rs.getLong("product_id"))
+                        .name(rs.getString("product_name"))
+                        .code(rs.getString("product_code"))
+                        .build())
+                .user(userId != null ? MovementResponse.UserInfo.builder()
+                        .id(userId)
+                        .name(rs.getString("user_name"))
+                        .build() : null)
+                .sale(saleId != null ? MovementResponse.SaleInfo.builder()
+                        .id(saleId)
+                        .customerName(rs.getString("customer_name"))
+                        .build() : null)
+                .location(locationId != null ? MovementResponse.LocationInfo.builder()
+                        .id(locationId)
+                        .code(rs.getString("location_code"))
+                        .name(rs.getString("location_name"))
+                        .build() : null)
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.comercialpereira.services.archive;
+
+import br.com.comercialpereira.dto.movement.MovementResponse;
+import br.com.comercialpereira.dto.sale.SaleResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Leitura do arquivo morto: um segmento por tipo e mês no diretório de arquivo
+ * (sales-2024-05.seg, movements-2024-05.seg), abertos na inicialização.
+ */
+@Component
+@Slf4j
+public class ArchiveStore {
+
+    static final String SALES = "sales";
+    static final String MOVEMENTS = "movements";
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("^(sales|movements)-(\\d{4}-\\d{2})\\.seg$");
+
+    private final Path directory;
+    private final NavigableMap<YearMonth, ArchiveSegmentReader> salesSegments = new ConcurrentSkipListMap<>();
+    private final NavigableMap<YearMonth, ArchiveSegmentReader> movementSegments = new ConcurrentSkipListMap<>();
+
+    public ArchiveStore(@Value("${comercial.archive.dir:data/archive}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (!matcher.matches()) {
+                    return;
+                }
+                try {
+                    register(matcher.group(1), YearMonth.parse(matcher.group(2)), ArchiveSegmentReader.open(path));
+                } catch (IOException e) {
+                    log.error("Segmento de arquivo ignorado: {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            log.error("Erro ao listar o diretório de arquivo {}", directory, e);
+        }
+
+        log.info("Arquivo morto: {} segmentos de vendas e {} de movimentações",
+                salesSegments.size(), movementSegments.size());
+    }
+
+    public Optional<SaleResponse> findSale(long id) {
+        for (ArchiveSegmentReader reader : salesSegments.values()) {
+            if (!reader.mayContain(id)) {
+                continue;
+            }
+            int block = reader.firstBlockFor(id);
+            if (block < 0) {
+                continue;
+            }
+            for (SaleResponse sale : SaleArchiveCodec.decode(readBlock(reader, block), reader.blockRecordCount(block))) {
+                if (sale.getId() == id) {
+                    return Optional.of(sale);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Movimentações arquivadas do produto, da mais recente para a mais antiga.
+     */
+    public List<MovementResponse> findProductMovements(long productId, int limit) {
+        List<MovementResponse> result = new ArrayList<>();
+
+        for (ArchiveSegmentReader reader : movementSegments.descendingMap().values()) {
+            for (int block = reader.firstBlockFor(productId);
+                 block >= 0 && reader.blockMayContain(block, productId) && result.size() < limit;
+                 block++) {
+                for (MovementResponse movement : MovementArchiveCodec.decode(readBlock(reader, block), reader.blockRecordCount(block), reader.getVersion())) {
+                    if (movement.getProduct().getId() == productId && result.size() < limit) {
+                        result.add(movement);
+                    }
+                }
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Percorre todas as movimentações arquivadas, segmento a segmento, na ordem
+     * de gravação (produto e data decrescente).
+     */
+    public void forEachMovement(Consumer<MovementResponse> consumer) {
+        for (ArchiveSegmentReader reader : movementSegments.values()) {
+            for (int block = 0; block < reader.blockCount(); block++) {
+                MovementArchiveCodec.decode(readBlock(reader, block), reader.blockRecordCount(block), reader.getVersion()).forEach(consumer);
+            }
+        }
+    }
+
+    boolean hasSegment(String kind, YearMonth month) {
+        return segments(kind).containsKey(month);
+    }
+
+    Path segmentPath(String kind, YearMonth month) throws IOException {
+        Files.createDirectories(directory);
+        return directory.resolve(kind + "-" + month + ".seg");
+    }
+
+    void register(String kind, YearMonth month, ArchiveSegmentReader reader) {
+        segments(kind).put(month, reader);
+    }
+
+    private Map<YearMonth, ArchiveSegmentReader> segments(String kind) {
+        return SALES.equals(kind) ? salesSegments : movementSegments;
+    }
+
+    private static java.nio.ByteBuffer readBlock(ArchiveSegmentReader reader, int block) {
+        try {
+            return reader.readBlock(block);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
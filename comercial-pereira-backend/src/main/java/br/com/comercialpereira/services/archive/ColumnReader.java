@@ -0,0 +1,98 @@
+package br.com.comercialpereira.services.archive;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Leitura de um bloco gravado pelo {@link ColumnWriter}, na mesma ordem de colunas.
+ */
+final class ColumnReader {
+
+    private final ByteBuffer buffer;
+
+    ColumnReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    long[] deltaLongs(int count) {
+        long[] values = new long[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            previous += unzigzag(readVarLong());
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    Long[] longs(int count) {
+        Long[] values = new Long[count];
+        for (int i = 0; i < count; i++) {
+            long raw = readVarLong();
+            values[i] = raw == 0 ? null : unzigzag(raw - 1);
+        }
+        return values;
+    }
+
+    Integer[] ints(int count) {
+        Integer[] values = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            long raw = readVarLong();
+            values[i] = raw == 0 ? null : (int) unzigzag(raw - 1);
+        }
+        return values;
+    }
+
+    BigDecimal[] decimals(int count) {
+        BigDecimal[] values = new BigDecimal[count];
+        Long[] unscaled = longs(count);
+        for (int i = 0; i < count; i++) {
+            values[i] = unscaled[i] != null ? BigDecimal.valueOf(unscaled[i], ColumnWriter.DECIMAL_SCALE) : null;
+        }
+        return values;
+    }
+
+    LocalDateTime[] timestamps(int count) {
+        LocalDateTime[] values = new LocalDateTime[count];
+        Long[] millis = longs(count);
+        for (int i = 0; i < count; i++) {
+            values[i] = millis[i] != null
+                    ? LocalDateTime.ofEpochSecond(Math.floorDiv(millis[i], 1000),
+                            (int) Math.floorMod(millis[i], 1000) * 1_000_000, ZoneOffset.UTC)
+                    : null;
+        }
+        return values;
+    }
+
+    String[] strings(int count) {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            long length = readVarLong();
+            if (length == 0) {
+                continue;
+            }
+            byte[] bytes = new byte[(int) (length - 1)];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.comercialpereira.services.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Grava um bloco coluna a coluna. Inteiros usam varint com zigzag; colunas
+ * ordenadas são gravadas como diferença para o valor anterior, o que deixa os
+ * números pequenos e comprime bem.
+ */
+final class ColumnWriter {
+
+    static final int DECIMAL_SCALE = 2;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+
+    void deltaLongs(long[] values, int count) {
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarLong(zigzag(values[i] - previous));
+            previous = values[i];
+        }
+    }
+
+    void longs(Long[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            writeVarLong(values[i] == null ? 0 : zigzag(values[i]) + 1);
+        }
+    }
+
+    void ints(Integer[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            writeVarLong(values[i] == null ? 0 : zigzag(values[i]) + 1);
+        }
+    }
+
+    void decimals(BigDecimal[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            BigDecimal value = values[i];
+            writeVarLong(value == null ? 0
+                    : zigzag(value.setScale(DECIMAL_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact()) + 1);
+        }
+    }
+
+    void timestamps(LocalDateTime[] values, int count) {
+        Long[] millis = new Long[count];
+        for (int i = 0; i < count; i++) {
+            millis[i] = values[i] != null ? values[i].toInstant(ZoneOffset.UTC).toEpochMilli() : null;
+        }
+        longs(millis, count);
+    }
+
+    void strings(String[] values, int count) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == null) {
+                writeVarLong(0);
+                continue;
+            }
+            byte[] bytes = values[i].getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            out.write(bytes, 0, bytes.length);
+        }
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.comercialpereira.services.archive;
+
+import br.com.comercialpereira.dto.movement.MovementResponse;
+import br.com.comercialpereira.enums.MovementType;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout colunar de um bloco de movimentações, ordenadas por produto e, dentro
+ * do produto, da mais recente para a mais antiga.
+ *
+ * Segmentos da versão 1 não têm as colunas delta, quantity_before e
+ * quantity_after; essas movimentações são anteriores ao saldo de abertura do
+ * razão e voltam com os campos nulos. Segmentos anteriores à versão 3 não têm
+ * o local de estoque; essas movimentações aconteceram no local padrão e voltam
+ * sem local. Segmentos anteriores à versão 4 não guardam sign_inferred, que
+ * volta nulo (desconhecido).
+ */
+final class MovementArchiveCodec {
+
+    private MovementArchiveCodec() {
+    }
+
+    static byte[] encode(List<MovementResponse> movements) {
+        int count = movements.size();
+        long[] productIds = new long[count];
+        String[] productNames = new String[count];
+        String[] productCodes = new String[count];
+        Long[] ids = new Long[count];
+        String[] types = new String[count];
+        Integer[] quantities = new Integer[count];
+        Integer[] deltas = new Integer[count];
+        Integer[] quantitiesBefore = new Integer[count];
+        Integer[] quantitiesAfter = new Integer[count];
+        String[] reasons = new String[count];
+        LocalDateTime[] createdAt = new LocalDateTime[count];
+        Long[] userIds = new Long[count];
+        String[] userNames = new String[count];
+        Long[] saleIds = new Long[count];
+        String[] customerNames = new String[count];
+        Long[] locationIds = new Long[count];
+        String[] locationCodes = new String[count];
+        String[] locationNames = new String[count];
+        Integer[] signInferred = new Integer[count];
+
+        for (int i = 0; i < count; i++) {
+            MovementResponse movement = movements.get(i);
+            productIds[i] = movement.getProduct().getId();
+            productNames[i] = movement.getProduct().getName();
+            productCodes[i] = movement.getProduct().getCode();
+            ids[i] = movement.getId();
+            types[i] = movement.getType() != null ? movement.getType().name() : null;
+            quantities[i] = movement.getQuantity();
+            deltas[i] = movement.getDelta();
+            quantitiesBefore[i] = movement.getQuantityBefore();
+            quantitiesAfter[i] = movement.getQuantityAfter();
+            reasons[i] = movement.getReason();
+            createdAt[i] = movement.getCreatedAt();
+            userIds[i] = movement.getUser() != null ? movement.getUser().getId() : null;
+            userNames[i] = movement.getUser() != null ? movement.getUser().getName() : null;
+            saleIds[i] = movement.getSale() != null ? movement.getSale().getId() : null;
+            customerNames[i] = movement.getSale() != null ? movement.getSale().getCustomerName() : null;
+            locationIds[i] = movement.getLocation() != null ? movement.getLocation().getId() : null;
+            locationCodes[i] = movement.getLocation() != null ? movement.getLocation().getCode() : null;
+            locationNames[i] = movement.getLocation() != null ? movement.getLocation().getName() : null;
+            signInferred[i] = movement.getSignInferred() != null ? (movement.getSignInferred() ? 1 : 0) : null;
+        }
+
+        ColumnWriter writer = new ColumnWriter();
+        writer.deltaLongs(productIds, count);
+        writer.strings(productNames, count);
+        writer.strings(productCodes, count);
+        writer.longs(ids, count);
+        writer.strings(types, count);
+        writer.ints(quantities, count);
+        writer.strings(reasons, count);
+        writer.timestamps(createdAt, count);
+        writer.longs(userIds, count);
+        writer.strings(userNames, count);
+        writer.longs(saleIds, count);
+        writer.strings(customerNames, count);
+        writer.ints(deltas, count);
+        writer.ints(quantitiesBefore, count);
+        writer.ints(quantitiesAfter, count);
+        writer.longs(locationIds, count);
+        writer.strings(locationCodes, count);
+        writer.strings(locationNames, count);
+        writer.ints(signInferred, count);
+        return writer.toByteArray();
+    }
+
+    static List<MovementResponse> decode(ByteBuffer block, int count, int version) {
+        ColumnReader reader = new ColumnReader(block);
+        long[] productIds = reader.deltaLongs(count);
+        String[] productNames = reader.strings(count);
+        String[] productCodes = reader.strings(count);
+        Long[] ids = reader.longs(count);
+        String[] types = reader.strings(count);
+        Integer[] quantities = reader.ints(count);
+        String[] reasons = reader.strings(count);
+        LocalDateTime[] createdAt = reader.timestamps(count);
+        Long[] userIds = reader.longs(count);
+        String[] userNames = reader.strings(count);
+        Long[] saleIds = reader.longs(count);
+        String[] customerNames = reader.strings(count);
+        Integer[] deltas = version >= 2 ? reader.ints(count) : new Integer[count];
+        Integer[] quantitiesBefore = version >= 2 ? reader.ints(count) : new Integer[count];
+        Integer[] quantitiesAfter = version >= 2 ? reader.ints(count) : new Integer[count];
+        Long[] locationIds = version >= 3 ? reader.longs(count) : new Long[count];
+        String[] locationCodes = version >= 3 ? reader.strings(count) : new String[count];
+        String[] locationNames = version >= 3 ? reader.strings(count) : new String[count];
+        Integer[] signInferred = version >= 4 ? reader.ints(count) : new Integer[count];
+
+        List<MovementResponse> movements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            movements.add(MovementResponse.builder()
+                    .id(ids[i])
+                    .type(types[i] != null ? MovementType.valueOf(types[i]) : null)
+                    .quantity(quantities[i])
+                    .delta(deltas[i])
+                    .quantityBefore(quantitiesBefore[i])
+                    .quantityAfter(quantitiesAfter[i])
+                    .signInferred(signInferred[i] != null ? signInferred[i] == 1 : null)
+                    .reason(reasons[i])
+                    .createdAt(createdAt[i])
+                    .product(MovementResponse.ProductInfo.builder()
+                            .id(productIds[i])
+                            .name(productNames[i])
+                            .code(productCodes[i])
+                            .build())
+                    .user(userIds[i] != null ? MovementResponse.UserInfo.builder()
+                            .id(userIds[i])
+                            .name(userNames[i])
+                            .build() : null)
+                    .sale(saleIds[i] != null ? MovementResponse.SaleInfo.builder()
+                            .id(saleIds[i])
+                            .customerName(customerNames[i])
+                            .build() : null)
+                    .location(locationIds[i] != null ? MovementResponse.LocationInfo.builder()
+                            .id(locationIds[i])
+                            .code(locationCodes[i])
+                            .name(locationNames[i])
+                            .build() : null)
+                    .build());
+        }
+        return movements;
+    }
+}
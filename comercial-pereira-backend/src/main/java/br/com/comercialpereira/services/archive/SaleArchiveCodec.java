@@ -0,0 +1,198 @@
+package br.com.comercialpereira.services.archive;
+
+import br.com.comercialpereira.dto.sale.SaleResponse;
+import br.com.comercialpereira.enums.SaleStatus;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout colunar de um bloco de vendas. As vendas vêm ordenadas por id e os
+ * itens de todas elas ficam em colunas próprias, na mesma ordem.
+ */
+final class SaleArchiveCodec {
+
+    private SaleArchiveCodec() {
+    }
+
+    static byte[] encode(List<SaleResponse> sales) {
+        int count = sales.size();
+        long[] ids = new long[count];
+        LocalDateTime[] saleDates = new LocalDateTime[count];
+        LocalDateTime[] createdAt = new LocalDateTime[count];
+        LocalDateTime[] updatedAt = new LocalDateTime[count];
+        BigDecimal[] totals = new BigDecimal[count];
+        BigDecimal[] discounts = new BigDecimal[count];
+        BigDecimal[] taxes = new BigDecimal[count];
+        String[] statuses = new String[count];
+        String[] notes = new String[count];
+        Long[] userIds = new Long[count];
+        String[] userNames = new String[count];
+        Long[] customerIds = new Long[count];
+        String[] customerNames = new String[count];
+        String[] customerTypes = new String[count];
+        String[] customerDocuments = new String[count];
+        Integer[] itemCounts = new Integer[count];
+
+        List<SaleResponse.SaleItemInfo> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SaleResponse sale = sales.get(i);
+            ids[i] = sale.getId();
+            saleDates[i] = sale.getSaleDate();
+            createdAt[i] = sale.getCreatedAt();
+            updatedAt[i] = sale.getUpdatedAt();
+            totals[i] = sale.getTotal();
+            discounts[i] = sale.getDiscount();
+            taxes[i] = sale.getTax();
+            statuses[i] = sale.getStatus() != null ? sale.getStatus().name() : null;
+            notes[i] = sale.getNotes();
+            userIds[i] = sale.getUser().getId();
+            userNames[i] = sale.getUser().getName();
+            customerIds[i] = sale.getCustomer().getId();
+            customerNames[i] = sale.getCustomer().getName();
+            customerTypes[i] = sale.getCustomer().getType();
+            customerDocuments[i] = sale.getCustomer().getDocument();
+
+            List<SaleResponse.SaleItemInfo> saleItems = sale.getItems() != null ? sale.getItems() : List.of();
+            itemCounts[i] = saleItems.size();
+            items.addAll(saleItems);
+        }
+
+        ColumnWriter writer = new ColumnWriter();
+        writer.deltaLongs(ids, count);
+        writer.timestamps(saleDates, count);
+        writer.timestamps(createdAt, count);
+        writer.timestamps(updatedAt, count);
+        writer.decimals(totals, count);
+        writer.decimals(discounts, count);
+        writer.decimals(taxes, count);
+        writer.strings(statuses, count);
+        writer.strings(notes, count);
+        writer.longs(userIds, count);
+        writer.strings(userNames, count);
+        writer.longs(customerIds, count);
+        writer.strings(customerNames, count);
+        writer.strings(customerTypes, count);
+        writer.strings(customerDocuments, count);
+        writer.ints(itemCounts, count);
+
+        int itemTotal = items.size();
+        Long[] itemIds = new Long[itemTotal];
+        Integer[] quantities = new Integer[itemTotal];
+        BigDecimal[] unitPrices = new BigDecimal[itemTotal];
+        BigDecimal[] itemTotals = new BigDecimal[itemTotal];
+        BigDecimal[] itemDiscounts = new BigDecimal[itemTotal];
+        Long[] productIds = new Long[itemTotal];
+        String[] productNames = new String[itemTotal];
+        String[] productCodes = new String[itemTotal];
+        String[] categoryNames = new String[itemTotal];
+        for (int i = 0; i < itemTotal; i++) {
+            SaleResponse.SaleItemInfo item = items.get(i);
+            itemIds[i] = item.getId();
+            quantities[i] = item.getQuantity();
+            unitPrices[i] = item.getUnitPrice();
+            itemTotals[i] = item.getTotal();
+            itemDiscounts[i] = item.getDiscount();
+            productIds[i] = item.getProduct().getId();
+            productNames[i] = item.getProduct().getName();
+            productCodes[i] = item.getProduct().getCode();
+            categoryNames[i] = item.getProduct().getCategoryName();
+        }
+
+        writer.longs(itemIds, itemTotal);
+        writer.ints(quantities, itemTotal);
+        writer.decimals(unitPrices, itemTotal);
+        writer.decimals(itemTotals, itemTotal);
+        writer.decimals(itemDiscounts, itemTotal);
+        writer.longs(productIds, itemTotal);
+        writer.strings(productNames, itemTotal);
+        writer.strings(productCodes, itemTotal);
+        writer.strings(categoryNames, itemTotal);
+
+        return writer.toByteArray();
+    }
+
+    static List<SaleResponse> decode(ByteBuffer block, int count) {
+        ColumnReader reader = new ColumnReader(block);
+        long[] ids = reader.deltaLongs(count);
+        LocalDateTime[] saleDates = reader.timestamps(count);
+        LocalDateTime[] createdAt = reader.timestamps(count);
+        LocalDateTime[] updatedAt = reader.timestamps(count);
+        BigDecimal[] totals = reader.decimals(count);
+        BigDecimal[] discounts = reader.decimals(count);
+        BigDecimal[] taxes = reader.decimals(count);
+        String[] statuses = reader.strings(count);
+        String[] notes = reader.strings(count);
+        Long[] userIds = reader.longs(count);
+        String[] userNames = reader.strings(count);
+        Long[] customerIds = reader.longs(count);
+        String[] customerNames = reader.strings(count);
+        String[] customerTypes = reader.strings(count);
+        String[] customerDocuments = reader.strings(count);
+        Integer[] itemCounts = reader.ints(count);
+
+        int itemTotal = 0;
+        for (Integer itemCount : itemCounts) {
+            itemTotal += itemCount;
+        }
+
+        Long[] itemIds = reader.longs(itemTotal);
+        Integer[] quantities = reader.ints(itemTotal);
+        BigDecimal[] unitPrices = reader.decimals(itemTotal);
+        BigDecimal[] itemTotals = reader.decimals(itemTotal);
+        BigDecimal[] itemDiscounts = reader.decimals(itemTotal);
+        Long[] productIds = reader.longs(itemTotal);
+        String[] productNames = reader.strings(itemTotal);
+        String[] productCodes = reader.strings(itemTotal);
+        String[] categoryNames = reader.strings(itemTotal);
+
+        List<SaleResponse> sales = new ArrayList<>(count);
+        int item = 0;
+        for (int i = 0; i < count; i++) {
+            List<SaleResponse.SaleItemInfo> saleItems = new ArrayList<>(itemCounts[i]);
+            for (int j = 0; j < itemCounts[i]; j++, item++) {
+                saleItems.add(SaleResponse.SaleItemInfo.builder()
+                        .id(itemIds[item])
+                        .quantity(quantities[item])
+                        .unitPrice(unitPrices[item])
+                        .total(itemTotals[item])
+                        .discount(itemDiscounts[item])
+                        .product(SaleResponse.SaleItemInfo.ProductInfo.builder()
+                                .id(productIds[item])
+                                .name(productNames[item])
+                                .code(productCodes[item])
+                                .categoryName(categoryNames[item])
+                                .build())
+                        .build());
+            }
+
+            sales.add(SaleResponse.builder()
+                    .id(ids[i])
+                    .total(totals[i])
+                    .discount(discounts[i])
+                    .tax(taxes[i])
+                    .status(statuses[i] != null ? SaleStatus.valueOf(statuses[i]) : null)
+                    .notes(notes[i])
+                    .saleDate(saleDates[i])
+                    .createdAt(createdAt[i])
+                    .updatedAt(updatedAt[i])
+                    .user(SaleResponse.UserInfo.builder()
+                            .id(userIds[i])
+                            .name(userNames[i])
+                            .build())
+                    .customer(SaleResponse.CustomerInfo.builder()
+                            .id(customerIds[i])
+                            .name(customerNames[i])
+                            .type(customerTypes[i])
+                            .document(customerDocuments[i])
+                            .build())
+                    .items(saleItems)
+                    .itemCount(saleItems.size())
+                    .build());
+        }
+        return sales;
+    }
+}
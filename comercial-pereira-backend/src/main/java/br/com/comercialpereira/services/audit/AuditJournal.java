@@ -0,0 +1,321 @@
+package br.com.comercialpereira.services.audit;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de auditoria em segmentos de tamanho fixo mapeados em memória.
+ *
+ * Cada quadro é [tamanho][crc32][registro]. O tamanho é gravado por último, então
+ * um quadro com tamanho zero marca o fim dos dados do segmento; na abertura o
+ * último segmento é percorrido até o último quadro íntegro e o restante é zerado.
+ *
+ * Apenas a thread do {@link AuditJournalWriter} grava. O {@link AuditLogShipper}
+ * lê até a última posição publicada e registra até onde já enviou ao banco no
+ * arquivo de checkpoint; segmentos anteriores ao checkpoint são apagados.
+ */
+@Component
+@Slf4j
+public class AuditJournal {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String ID_FILE = "journal.id";
+    private static final int FRAME_HEADER = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32 writeCrc = new CRC32();
+
+    @Getter
+    private String journalId;
+
+    private MappedByteBuffer current;
+    private long currentSegment;
+    private long nextSequence = 1;
+    private boolean dirty;
+
+    private volatile JournalPosition committed;
+    private volatile boolean open;
+
+    public AuditJournal(@Value("${comercial.audit.journal.dir:data/audit}") String directory,
+                        @Value("${comercial.audit.journal.segment-size-mb:16}") int segmentSizeMb) {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    // =================== WRITE (thread do writer) ===================
+
+    synchronized void open() throws IOException {
+        if (open) {
+            return;
+        }
+        Files.createDirectories(directory);
+        journalId = loadOrCreateId();
+
+        List<Long> segments = listSegments();
+        if (segments.isEmpty()) {
+            mapSegment(1);
+            committed = new JournalPosition(1, 0);
+        } else {
+            recover(segments);
+        }
+
+        open = true;
+        log.info("Journal de auditoria {} aberto em {} (segmento {}, próxima sequência {})",
+                journalId, directory.toAbsolutePath(), currentSegment, nextSequence);
+    }
+
+    void append(AuditRecord record) throws IOException {
+        byte[] payload = record.encode(nextSequence);
+        int frameSize = FRAME_HEADER + payload.length;
+        if (frameSize + FRAME_HEADER > segmentSize) {
+            log.warn("Registro de auditoria maior que o segmento descartado: {} {}#{}",
+                    record.getAction(), record.getEntity(), record.getEntityId());
+            return;
+        }
+
+        int position = committed.getOffset();
+        // Sempre sobra espaço para um cabeçalho zerado marcando o fim do segmento
+        if (position + frameSize + FRAME_HEADER > segmentSize) {
+            roll();
+            position = 0;
+        }
+
+        writeCrc.reset();
+        writeCrc.update(payload);
+        current.put(position + FRAME_HEADER, payload);
+        current.putInt(position + 4, (int) writeCrc.getValue());
+        current.putInt(position, payload.length);
+
+        nextSequence++;
+        dirty = true;
+        committed = new JournalPosition(currentSegment, position + frameSize);
+    }
+
+    void force() {
+        if (dirty) {
+            current.force();
+            dirty = false;
+        }
+    }
+
+    synchronized void close() {
+        if (!open) {
+            return;
+        }
+        force();
+        open = false;
+        log.info("Journal de auditoria fechado na posição {}", committed);
+    }
+
+    private void roll() throws IOException {
+        current.force();
+        dirty = false;
+        mapSegment(currentSegment + 1);
+        committed = new JournalPosition(currentSegment, 0);
+        log.debug("Journal de auditoria: novo segmento {}", currentSegment);
+    }
+
+    private void mapSegment(long segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            current = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        currentSegment = segment;
+    }
+
+    private void recover(List<Long> segments) throws IOException {
+        mapSegment(segments.get(segments.size() - 1));
+
+        CRC32 crc = new CRC32();
+        int position = 0;
+        long lastSequence = 0;
+        int frameEnd;
+        while ((frameEnd = validFrameEnd(current, position, crc)) > 0) {
+            lastSequence = current.getLong(position + FRAME_HEADER);
+            position = frameEnd;
+        }
+
+        // Descarta um quadro parcialmente gravado antes da queda
+        byte[] zeros = new byte[8192];
+        for (int i = position; i < segmentSize; i += zeros.length) {
+            current.put(i, zeros, 0, Math.min(zeros.length, segmentSize - i));
+        }
+        current.force();
+
+        // Segmento novo ainda vazio: a última sequência está no anterior
+        for (int i = segments.size() - 2; lastSequence == 0 && i >= 0; i--) {
+            lastSequence = lastSequenceIn(segments.get(i), crc);
+        }
+
+        nextSequence = lastSequence + 1;
+        committed = new JournalPosition(currentSegment, position);
+    }
+
+    private long lastSequenceIn(long segment, CRC32 crc) throws IOException {
+        ByteBuffer buffer = mapReadOnly(segment);
+        if (buffer == null) {
+            return 0;
+        }
+        long lastSequence = 0;
+        int position = 0;
+        int frameEnd;
+        while ((frameEnd = validFrameEnd(buffer, position, crc)) > 0) {
+            lastSequence = buffer.getLong(position + FRAME_HEADER);
+            position = frameEnd;
+        }
+        return lastSequence;
+    }
+
+    // =================== READ (thread do shipper) ===================
+
+    JournalBatch read(JournalPosition from, int max) throws IOException {
+        JournalPosition limit = committed;
+        List<AuditRecord> records = new ArrayList<>();
+        CRC32 crc = new CRC32();
+
+        long segment = from.getSegment();
+        int position = from.getOffset();
+        ByteBuffer buffer = null;
+
+        while (records.size() < max && segment <= limit.getSegment()) {
+            boolean sealed = segment < limit.getSegment();
+            if (buffer == null) {
+                buffer = mapReadOnly(segment);
+                if (buffer == null) {
+                    if (!sealed) {
+                        break;
+                    }
+                    segment++;
+                    position = 0;
+                    continue;
+                }
+            }
+
+            int end = sealed ? segmentSize : limit.getOffset();
+            int frameEnd = position < end ? validFrameEnd(buffer, position, crc) : -1;
+            if (frameEnd < 0) {
+                if (!sealed) {
+                    break;
+                }
+                if (position + FRAME_HEADER <= segmentSize && buffer.getInt(position) != 0) {
+                    log.error("Quadro corrompido no segmento {} posição {}; restante do segmento ignorado", segment, position);
+                }
+                segment++;
+                position = 0;
+                buffer = null;
+                continue;
+            }
+
+            records.add(AuditRecord.decode(buffer.slice(position + FRAME_HEADER, frameEnd - position - FRAME_HEADER)));
+            position = frameEnd;
+        }
+
+        return new JournalBatch(records, new JournalPosition(segment, position));
+    }
+
+    JournalPosition loadCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(file)) {
+            String[] parts = Files.readString(file, StandardCharsets.UTF_8).trim().split(" ");
+            return new JournalPosition(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+        }
+        List<Long> segments = listSegments();
+        return new JournalPosition(segments.isEmpty() ? 1 : segments.get(0), 0);
+    }
+
+    void saveCheckpoint(JournalPosition position) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, position.getSegment() + " " + position.getOffset(), StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void deleteSegmentsBefore(long segment) throws IOException {
+        for (Long existing : listSegments()) {
+            if (existing < segment) {
+                Files.deleteIfExists(segmentPath(existing));
+                log.debug("Journal de auditoria: segmento {} removido", existing);
+            }
+        }
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    // Fim do quadro em position, ou -1 se não houver quadro íntegro ali
+    private int validFrameEnd(ByteBuffer buffer, int position, CRC32 crc) {
+        if (position + FRAME_HEADER > segmentSize) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + FRAME_HEADER + length > segmentSize) {
+            return -1;
+        }
+
+        crc.reset();
+        crc.update(buffer.slice(position + FRAME_HEADER, length));
+        if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+            return -1;
+        }
+        return position + FRAME_HEADER + length;
+    }
+
+    private ByteBuffer mapReadOnly(long segment) throws IOException {
+        Path path = segmentPath(segment);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // Identifica este journal no audit_log; um diretório novo gera um id novo
+    private String loadOrCreateId() throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+}
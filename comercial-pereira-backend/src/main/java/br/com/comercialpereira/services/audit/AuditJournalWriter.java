@@ -0,0 +1,126 @@
+package br.com.comercialpereira.services.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Thread única que esvazia o buffer de auditoria no journal. O journal é
+ * sincronizado com o disco a cada intervalo de flush e na parada.
+ */
+@Component
+@Slf4j
+public class AuditJournalWriter implements SmartLifecycle {
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final AuditJournal journal;
+    private final AuditRingBuffer buffer;
+    private final boolean enabled;
+    private final long flushIntervalNanos;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AuditJournalWriter(AuditJournal journal,
+                              @Value("${comercial.audit.enabled:true}") boolean enabled,
+                              @Value("${comercial.audit.buffer-size:65536}") int bufferSize,
+                              @Value("${comercial.audit.journal.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.journal = journal;
+        this.buffer = new AuditRingBuffer(bufferSize);
+        this.enabled = enabled;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+    }
+
+    boolean offer(AuditRecord record) {
+        return running && buffer.offer(record);
+    }
+
+    long droppedCount() {
+        return buffer.dropped();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+
+        try {
+            journal.open();
+        } catch (IOException e) {
+            log.error("Não foi possível abrir o journal de auditoria; auditoria desativada", e);
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::run, "audit-journal-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+
+        if (buffer.dropped() > 0) {
+            log.warn("Auditoria: {} registros descartados por buffer cheio desde o início", buffer.dropped());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long lastFlush = System.nanoTime();
+
+        // Na parada, esvazia o que ainda estiver no buffer antes de sair
+        while (running || buffer.size() > 0) {
+            int drained = 0;
+            try {
+                drained = buffer.drain(this::append, DRAIN_BATCH);
+            } catch (RuntimeException e) {
+                log.error("Erro ao gravar registro de auditoria no journal", e);
+            }
+
+            long now = System.nanoTime();
+            if (now - lastFlush >= flushIntervalNanos) {
+                journal.force();
+                lastFlush = now;
+            }
+
+            if (drained == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void append(AuditRecord record) {
+        try {
+            journal.append(record);
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao gravar no journal de auditoria", e);
+        }
+    }
+}
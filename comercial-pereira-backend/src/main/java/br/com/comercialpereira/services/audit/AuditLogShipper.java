@@ -0,0 +1,138 @@
+package br.com.comercialpereira.services.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Envia o journal de auditoria para a tabela audit_log em lotes via COPY.
+ *
+ * Cada lote passa por uma tabela temporária e entra com ON CONFLICT DO NOTHING
+ * na chave (journal_id, sequence): se a aplicação cair entre o commit e a
+ * gravação do checkpoint, o reenvio do mesmo trecho não duplica registros.
+ */
+@Component
+@Slf4j
+public class AuditLogShipper {
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE audit_log_staging (
+                sequence BIGINT NOT NULL,
+                occurred_at TIMESTAMP NOT NULL,
+                user_id BIGINT,
+                action VARCHAR(50) NOT NULL,
+                entity VARCHAR(50) NOT NULL,
+                entity_id BIGINT,
+                data TEXT
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_STAGING = "COPY audit_log_staging (sequence, occurred_at, user_id, action, " +
+            "entity, entity_id, data) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERT_AUDIT_LOG = """
+            INSERT INTO audit_log (journal_id, sequence, occurred_at, user_id, action, entity, entity_id, data)
+            SELECT ?, s.sequence, s.occurred_at, s.user_id, s.action, s.entity, s.entity_id, s.data::jsonb
+            FROM audit_log_staging s
+            ON CONFLICT (journal_id, sequence) DO NOTHING
+            """;
+
+    private final AuditJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public AuditLogShipper(AuditJournal journal,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${comercial.audit.ship.batch-size:5000}") int batchSize,
+                           @Value("${comercial.audit.ship.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(fixedDelayString = "${comercial.audit.ship.interval-ms:5000}")
+    public void ship() {
+        if (!journal.isOpen()) {
+            return;
+        }
+
+        try {
+            JournalPosition position = journal.loadCheckpoint();
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                JournalBatch batch = journal.read(position, batchSize);
+                if (!batch.getRecords().isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> copy(batch.getRecords()));
+                    log.debug("Auditoria: {} registros enviados ao banco", batch.getRecords().size());
+                }
+
+                if (batch.getNext().equals(position)) {
+                    break;
+                }
+                journal.saveCheckpoint(batch.getNext());
+                journal.deleteSegmentsBefore(batch.getNext().getSegment());
+                position = batch.getNext();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Erro ao enviar journal de auditoria ao banco", e);
+        }
+    }
+
+    private void copy(List<AuditRecord> records) {
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+            try {
+                StringBuilder row = new StringBuilder(256);
+                for (AuditRecord record : records) {
+                    row.setLength(0);
+                    row.append(record.getSequence()).append(',');
+                    row.append(new Timestamp(record.getOccurredAt())).append(',');
+                    row.append(record.getUserId() != null ? record.getUserId() : "").append(',');
+                    appendCsv(row, record.getAction()).append(',');
+                    appendCsv(row, record.getEntity()).append(',');
+                    row.append(record.getEntityId() != null ? record.getEntityId() : "").append(',');
+                    appendCsv(row, record.getData()).append('\n');
+
+                    byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                    copyIn.writeToCopy(bytes, 0, bytes.length);
+                }
+                copyIn.endCopy();
+                return null;
+            } catch (SQLException | RuntimeException e) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                throw e;
+            }
+        });
+
+        jdbcTemplate.update(INSERT_AUDIT_LOG, journal.getJournalId());
+    }
+
+    // Campo vazio sem aspas é NULL para o COPY; textos vão sempre entre aspas
+    private StringBuilder appendCsv(StringBuilder row, String value) {
+        if (value == null) {
+            return row;
+        }
+        return row.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.comercialpereira.services.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Registro de auditoria. A sequência é atribuída pelo journal no momento da
+ * gravação; registros ainda no buffer têm sequência 0.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class AuditRecord {
+
+    private static final long NULL_ID = Long.MIN_VALUE;
+
+    private final long sequence;
+    private final long occurredAt;
+    private final Long userId;
+    private final String action;
+    private final String entity;
+    private final Long entityId;
+    private final String data;
+
+    byte[] encode(long sequence) {
+        byte[] actionBytes = bytes(action);
+        byte[] entityBytes = bytes(entity);
+        byte[] dataBytes = bytes(data);
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 4 + 4 * 3 + actionBytes.length + entityBytes.length + dataBytes.length);
+        buffer.putLong(sequence);
+        buffer.putLong(occurredAt);
+        buffer.putLong(userId != null ? userId : NULL_ID);
+        buffer.putLong(entityId != null ? entityId : NULL_ID);
+        putString(buffer, actionBytes, action);
+        putString(buffer, entityBytes, entity);
+        putString(buffer, dataBytes, data);
+        return buffer.array();
+    }
+
+    static AuditRecord decode(ByteBuffer buffer) {
+        long sequence = buffer.getLong();
+        long occurredAt = buffer.getLong();
+        long userId = buffer.getLong();
+        long entityId = buffer.getLong();
+        String action = getString(buffer);
+        String entity = getString(buffer);
+        String data = getString(buffer);
+
+        return new AuditRecord(sequence, occurredAt,
+                userId != NULL_ID ? userId : null,
+                action, entity,
+                entityId != NULL_ID ? entityId : null,
+                data);
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+
+    // Comprimento -1 representa null
+    private static void putString(ByteBuffer buffer, byte[] bytes, String value) {
+        buffer.putInt(value != null ? bytes.length : -1);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.comercialpereira.services.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Buffer circular sem locks: vários produtores, um único consumidor.
+ *
+ * Produtores reservam uma posição com CAS no contador de escrita e publicam o
+ * registro no slot; o consumidor lê slots não nulos em ordem, limpa cada um e só
+ * então avança o contador de leitura. Com o buffer cheio o registro é
+ * descartado, para nunca bloquear a requisição que o gerou.
+ */
+class AuditRingBuffer {
+
+    private final AtomicReferenceArray<AuditRecord> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(AuditRecord record) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head.get() >= slots.length()) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        slots.set((int) (sequence & mask), record);
+        return true;
+    }
+
+    /**
+     * Deve ser chamado sempre pela mesma thread.
+     */
+    int drain(Consumer<AuditRecord> consumer, int max) {
+        long position = head.get();
+        int drained = 0;
+
+        try {
+            while (drained < max) {
+                int index = (int) (position & mask);
+                AuditRecord record = slots.get(index);
+                if (record == null) {
+                    // Posição reservada mas ainda não publicada, ou buffer vazio
+                    break;
+                }
+                slots.set(index, null);
+                position++;
+                drained++;
+                consumer.accept(record);
+            }
+        } finally {
+            head.set(position);
+        }
+        return drained;
+    }
+
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+}
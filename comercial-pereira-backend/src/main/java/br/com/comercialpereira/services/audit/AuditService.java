@@ -0,0 +1,101 @@
+package br.com.comercialpereira.services.audit;
+
+import br.com.comercialpereira.dto.audit.AuditFilters;
+import br.com.comercialpereira.dto.audit.AuditLogResponse;
+import br.com.comercialpereira.entity.AuditLog;
+import br.com.comercialpereira.repository.AuditLogRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Registro e consulta de auditoria.
+ *
+ * {@link #log} só enfileira o registro no buffer em memória; a gravação no
+ * journal e o envio ao banco acontecem em segundo plano, então a consulta
+ * reflete as operações com alguns segundos de atraso. Chamado dentro de uma
+ * transação, o registro só entra no buffer depois do commit: operação desfeita
+ * não deixa auditoria.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditService {
+
+    private final AuditJournalWriter writer;
+    private final AuditLogRepository auditLogRepository;
+    private final ObjectMapper objectMapper;
+
+    public void log(Long userId, String action, String entity, Long entityId, Object data) {
+        try {
+            AuditRecord record = new AuditRecord(0, System.currentTimeMillis(), userId, action, entity, entityId, toJson(data));
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        enqueue(record);
+                    }
+                });
+            } else {
+                enqueue(record);
+            }
+        } catch (Exception e) {
+            // Auditoria não deve impedir a operação principal
+            log.error("Erro ao registrar log de auditoria", e);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Page<AuditLogResponse> search(AuditFilters filters) {
+        log.debug("Buscando registros de auditoria com filtros: {}", filters);
+
+        Pageable pageable = PageRequest.of(filters.getPage(), filters.getSize(),
+                Sort.by(Sort.Direction.DESC, "occurredAt", "sequence"));
+
+        return auditLogRepository.findByFilters(
+                filters.getEntity(),
+                filters.getEntityId(),
+                filters.getUserId(),
+                filters.getAction(),
+                filters.getDateFrom(),
+                filters.getDateTo(),
+                pageable
+        ).map(this::toResponse);
+    }
+
+    public long getDroppedCount() {
+        return writer.droppedCount();
+    }
+
+    private void enqueue(AuditRecord record) {
+        if (!writer.offer(record)) {
+            log.warn("Registro de auditoria descartado: {} {}#{} por usuário {}",
+                    record.getAction(), record.getEntity(), record.getEntityId(), record.getUserId());
+        }
+    }
+
+    private String toJson(Object data) throws JsonProcessingException {
+        return data != null ? objectMapper.writeValueAsString(data) : null;
+    }
+
+    private AuditLogResponse toResponse(AuditLog auditLog) {
+        return AuditLogResponse.builder()
+                .id(auditLog.getId())
+                .occurredAt(auditLog.getOccurredAt())
+                .userId(auditLog.getUserId())
+                .action(auditLog.getAction())
+                .entity(auditLog.getEntity())
+                .entityId(auditLog.getEntityId())
+                .data(auditLog.getData())
+                .build();
+    }
+}
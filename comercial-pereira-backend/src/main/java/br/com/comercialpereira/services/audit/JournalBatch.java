@@ -0,0 +1,16 @@
+package br.com.comercialpereira.services.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Registros lidos do journal e a posição logo após o último deles.
+ */
+@Getter
+@AllArgsConstructor
+class JournalBatch {
+    private final List<AuditRecord> records;
+    private final JournalPosition next;
+}
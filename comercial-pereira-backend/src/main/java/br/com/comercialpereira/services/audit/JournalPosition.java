@@ -0,0 +1,18 @@
+package br.com.comercialpereira.services.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Posição no journal: número do segmento e deslocamento em bytes dentro dele.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+class JournalPosition {
+    private final long segment;
+    private final int offset;
+}
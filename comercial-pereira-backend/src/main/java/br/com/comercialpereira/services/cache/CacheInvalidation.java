@@ -0,0 +1,20 @@
+package br.com.comercialpereira.services.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Mensagem de invalidação: entidade (nome da tabela), id afetado, versão no log
+ * e versão da entidade (entity_versions) depois da escrita.
+ * entityId nulo invalida todos os registros da entidade.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class CacheInvalidation {
+    private final String entity;
+    private final Long entityId;
+    private final long version;
+    private final long entityVersion;
+}
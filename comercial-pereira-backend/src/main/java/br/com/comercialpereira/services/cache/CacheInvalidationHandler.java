@@ -0,0 +1,9 @@
+package br.com.comercialpereira.services.cache;
+
+/**
+ * Recebe as invalidações confirmadas, tanto desta instância quanto das demais.
+ */
+public interface CacheInvalidationHandler {
+
+    void onInvalidation(CacheInvalidation invalidation);
+}
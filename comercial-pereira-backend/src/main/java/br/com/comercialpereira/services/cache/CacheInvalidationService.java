@@ -0,0 +1,238 @@
+package br.com.comercialpereira.services.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Publica invalidações de cache no log e via NOTIFY.
+ *
+ * As invalidações de uma transação são acumuladas e gravadas juntas no
+ * beforeCommit: um INSERT de várias linhas e um único pg_notify com todas elas.
+ * O Postgres só entrega a notificação no commit, então um rollback não
+ * invalida nada; e cada transação passa uma vez só pela trava global do NOTIFY.
+ *
+ * No mesmo comando a transação incrementa a versão de cada entidade afetada em
+ * entity_versions. A linha fica travada até o commit, então a ordem das versões
+ * é a ordem dos commits, ao contrário do id do log.
+ */
+@Service
+@Slf4j
+public class CacheInvalidationService {
+
+    public static final String CHANNEL = "cache_invalidation";
+
+    // Payload do NOTIFY tem limite de 8000 bytes; acima disto invalida a entidade inteira
+    static final int MAX_ROWS_PER_TRANSACTION = 100;
+
+    // Entidades incrementadas em ordem de nome: duas transações não se travam em ordem inversa
+    private static final String PUBLISH_SQL = """
+            WITH versions AS (
+                INSERT INTO entity_versions (entity, version)
+                SELECT DISTINCT t.entity, 1
+                FROM unnest(?::varchar[]) AS t(entity)
+                ORDER BY t.entity
+                ON CONFLICT (entity) DO UPDATE SET version = entity_versions.version + 1
+                RETURNING entity, version
+            ), ins AS (
+                INSERT INTO cache_invalidation_log (entity, entity_id, origin, entity_version)
+                SELECT t.entity, t.entity_id, ?, v.version
+                FROM unnest(?::varchar[], ?::bigint[]) AS t(entity, entity_id)
+                JOIN versions v ON v.entity = t.entity
+                RETURNING id, entity, entity_id, entity_version
+            )
+            SELECT MAX(ins.id),
+                   pg_notify(?, string_agg(ins.entity || ':' || COALESCE(ins.entity_id::text, '') || ':' || ins.id
+                                               || ':' || ins.entity_version,
+                                           ';' ORDER BY ins.id))
+            FROM ins
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final String nodeId;
+
+    public CacheInvalidationService(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.nodeId = resolveNodeId();
+    }
+
+    /**
+     * Registra a invalidação na transação corrente; a gravação e o NOTIFY saem
+     * no commit, junto com as demais invalidações da mesma transação.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String entity, Long entityId) {
+        pending().add(entity, entityId);
+    }
+
+    /**
+     * Marca que o Hibernate vai chamar {@link #flushPending()} ao fim da
+     * transação; devolve true só na primeira vez, para registrar o gancho uma vez.
+     * Necessário porque o flush do commit acontece depois do beforeCommit.
+     */
+    public boolean claimCompletionHook() {
+        Pending pending = pending();
+        if (pending.completionHook) {
+            return false;
+        }
+        pending.completionHook = true;
+        return true;
+    }
+
+    /**
+     * Grava e notifica o que está pendente na transação corrente. Chamado no
+     * beforeCommit e, para escritas do flush final do Hibernate, antes do commit.
+     */
+    public void flushPending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+
+        List<String> entities = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        pending.drainTo(entities, ids);
+
+        String[] entityArray = entities.toArray(String[]::new);
+        Long version = jdbcTemplate.queryForObject(PUBLISH_SQL,
+                (rs, rowNum) -> rs.getLong(1),
+                entityArray, nodeId, entityArray, ids.toArray(Long[]::new), CHANNEL);
+
+        log.debug("Invalidações publicadas: {} até a versão {}", entities.size(), version);
+    }
+
+    @Transactional(readOnly = true)
+    public long currentVersion() {
+        Long version = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM cache_invalidation_log", Long.class);
+        return version != null ? version : 0L;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CacheInvalidation> findSince(long version) {
+        return jdbcTemplate.query(
+                "SELECT id, entity, entity_id, entity_version FROM cache_invalidation_log WHERE id > ? ORDER BY id",
+                (rs, rowNum) -> new CacheInvalidation(
+                        rs.getString("entity"),
+                        rs.getObject("entity_id", Long.class),
+                        rs.getLong("id"),
+                        rs.getLong("entity_version")),
+                version);
+    }
+
+    // Mantém a última linha de cada entidade; a versão corrente do conjunto fica em entity_versions
+    @Scheduled(cron = "${comercial.cache.invalidation.prune-cron:0 30 3 * * *}")
+    @Transactional
+    public void prune() {
+        int removed = jdbcTemplate.update("""
+                DELETE FROM cache_invalidation_log l
+                WHERE l.created_at < CURRENT_TIMESTAMP - INTERVAL '1 day'
+                  AND l.id < (SELECT MAX(m.id) FROM cache_invalidation_log m WHERE m.entity = l.entity)
+                """);
+
+        if (removed > 0) {
+            log.info("Log de invalidação de cache: {} linhas removidas", removed);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new PendingSynchronization());
+        }
+        return pending;
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private class PendingSynchronization implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Leva ao banco as escritas JPA ainda em memória para que entrem neste mesmo NOTIFY
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+            if (holder != null && !readOnly) {
+                holder.getEntityManager().flush();
+            }
+            flushPending();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationService.this);
+        }
+    }
+
+    // Entidades e ids alterados na transação; null = entidade inteira
+    private static class Pending {
+        private final Map<String, Set<Long>> ids = new LinkedHashMap<>();
+        private final Set<String> wholeEntities = new LinkedHashSet<>();
+        private int rows;
+        private boolean completionHook;
+
+        private void add(String entity, Long entityId) {
+            if (wholeEntities.contains(entity)) {
+                return;
+            }
+            if (entityId == null || rows >= MAX_ROWS_PER_TRANSACTION) {
+                Set<Long> removed = ids.remove(entity);
+                rows -= removed != null ? removed.size() : 0;
+                wholeEntities.add(entity);
+                rows++;
+                return;
+            }
+            if (ids.computeIfAbsent(entity, key -> new LinkedHashSet<>()).add(entityId)) {
+                rows++;
+            }
+        }
+
+        private boolean isEmpty() {
+            return rows == 0;
+        }
+
+        private void drainTo(List<String> entities, List<Long> entityIds) {
+            ids.forEach((entity, set) -> set.forEach(id -> {
+                entities.add(entity);
+                entityIds.add(id);
+            }));
+            wholeEntities.forEach(entity -> {
+                entities.add(entity);
+                entityIds.add(null);
+            });
+            ids.clear();
+            wholeEntities.clear();
+            rows = 0;
+        }
+    }
+}
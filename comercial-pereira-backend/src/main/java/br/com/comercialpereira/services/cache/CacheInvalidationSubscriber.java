@@ -0,0 +1,208 @@
+package br.com.comercialpereira.services.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escuta o canal de invalidação em uma conexão dedicada (fora do pool) e repassa
+ * cada mensagem aos {@link CacheInvalidationHandler}s.
+ *
+ * Ao reconectar, reprocessa as linhas do log a partir da última versão vista,
+ * cobrindo as notificações perdidas enquanto a conexão estava fora. A releitura
+ * volta uma janela de ids antes dessa versão: ids do BIGSERIAL são reservados no
+ * INSERT, mas confirmados na ordem dos commits, então um id menor pode ter sido
+ * confirmado depois do maior já visto. Reaplicar uma invalidação é inofensivo.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationSubscriber implements SmartLifecycle {
+
+    private static final int POLL_TIMEOUT_MS = 5_000;
+    private static final long INITIAL_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheInvalidationService invalidationService;
+    private final List<CacheInvalidationHandler> handlers;
+    private final boolean enabled;
+    private final long replayWindow;
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile long lastSeenVersion;
+    private Thread worker;
+
+    public CacheInvalidationSubscriber(DataSourceProperties dataSourceProperties,
+                                       CacheInvalidationService invalidationService,
+                                       List<CacheInvalidationHandler> handlers,
+                                       @Value("${comercial.cache.invalidation.enabled:true}") boolean enabled,
+                                       @Value("${comercial.cache.invalidation.replay-window:1000}") long replayWindow) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.invalidationService = invalidationService;
+        this.handlers = handlers;
+        this.enabled = enabled;
+        this.replayWindow = replayWindow;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+
+        // Caches começam vazios: não há nada anterior a esta versão para reprocessar
+        lastSeenVersion = invalidationService.currentVersion();
+        running = true;
+
+        worker = new Thread(this::run, "cache-invalidation-listener");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Listener de invalidação de cache iniciado na versão {} (nó {})",
+                lastSeenVersion, invalidationService.getNodeId());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getLastSeenVersion() {
+        return lastSeenVersion;
+    }
+
+    /**
+     * Indica se as notificações estão chegando em dia; enquanto reconecta, versões
+     * locais podem estar atrasadas.
+     */
+    public boolean isConnected() {
+        return running && connected;
+    }
+
+    private void run() {
+        long backoff = INITIAL_BACKOFF_MS;
+
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CacheInvalidationService.CHANNEL);
+                }
+
+                // LISTEN antes do replay: nada confirmado depois deste ponto se perde
+                replay();
+                connected = true;
+                backoff = INITIAL_BACKOFF_MS;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        parse(notification.getParameter()).forEach(this::dispatch);
+                    }
+                }
+
+            } catch (SQLException e) {
+                connected = false;
+                if (!running) {
+                    break;
+                }
+                log.warn("Conexão do listener de invalidação perdida, reconectando em {} ms: {}", backoff, e.getMessage());
+                if (!sleep(backoff)) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+
+            } catch (RuntimeException e) {
+                connected = false;
+                log.error("Erro no listener de invalidação de cache", e);
+                if (!sleep(backoff)) {
+                    break;
+                }
+            }
+        }
+
+        connected = false;
+        log.info("Listener de invalidação de cache encerrado na versão {}", lastSeenVersion);
+    }
+
+    private void replay() {
+        long from = Math.max(0, lastSeenVersion - replayWindow);
+        List<CacheInvalidation> missed = invalidationService.findSince(from);
+        if (!missed.isEmpty()) {
+            log.info("Reprocessando {} invalidações a partir da versão {}", missed.size(), from);
+        }
+        missed.forEach(this::dispatch);
+    }
+
+    private void dispatch(CacheInvalidation invalidation) {
+        for (CacheInvalidationHandler handler : handlers) {
+            try {
+                handler.onInvalidation(invalidation);
+            } catch (Exception e) {
+                log.error("Erro ao aplicar invalidação {} em {}", invalidation, handler.getClass().getSimpleName(), e);
+            }
+        }
+        if (invalidation.getVersion() > lastSeenVersion) {
+            lastSeenVersion = invalidation.getVersion();
+        }
+    }
+
+    // Formato: entidade:id:versão no log:versão da entidade (id vazio = entidade inteira), várias separadas por ';'
+    private List<CacheInvalidation> parse(String payload) {
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        for (String message : payload != null ? payload.split(";") : new String[0]) {
+            String[] parts = message.split(":", -1);
+            if (parts.length != 4) {
+                log.warn("Mensagem de invalidação inválida: {}", message);
+                continue;
+            }
+            try {
+                Long entityId = parts[1].isEmpty() ? null : Long.valueOf(parts[1]);
+                invalidations.add(new CacheInvalidation(parts[0], entityId, Long.parseLong(parts[2]),
+                        Long.parseLong(parts[3])));
+            } catch (NumberFormatException e) {
+                log.warn("Mensagem de invalidação inválida: {}", message);
+            }
+        }
+        return invalidations;
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
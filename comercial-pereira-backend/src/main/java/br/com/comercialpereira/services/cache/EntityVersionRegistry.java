@@ -0,0 +1,47 @@
+package br.com.comercialpereira.services.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Versão corrente de cada conjunto de entidades (entity_versions). Como a versão
+ * vem do banco, é igual em todas as instâncias e serve de base para ETags; ela
+ * cresce na ordem dos commits, então a maior versão vista é sempre a mais nova.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EntityVersionRegistry implements CacheInvalidationHandler {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<String, Long> versions = new ConcurrentHashMap<>();
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void load() {
+        jdbcTemplate.query("SELECT entity, version FROM entity_versions",
+                rs -> {
+                    advance(rs.getString(1), rs.getLong(2));
+                });
+        log.info("Versões de entidades carregadas: {}", versions);
+    }
+
+    @Override
+    public void onInvalidation(CacheInvalidation invalidation) {
+        advance(invalidation.getEntity(), invalidation.getEntityVersion());
+    }
+
+    public long getVersion(String entity) {
+        return versions.getOrDefault(entity, 0L);
+    }
+
+    private void advance(String entity, long version) {
+        versions.merge(entity, version, Math::max);
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.comercialpereira.services.cache;
+
+import br.com.comercialpereira.entity.Category;
+import br.com.comercialpereira.entity.Inventory;
+import br.com.comercialpereira.entity.InventoryLocation;
+import br.com.comercialpereira.entity.Product;
+import br.com.comercialpereira.entity.Supplier;
+import br.com.comercialpereira.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Registra uma invalidação para cada insert/update/delete das entidades em cache,
+ * durante o flush e, portanto, dentro da transação da escrita. O envio é um só
+ * por transação (ver {@link CacheInvalidationService}); como o último flush do
+ * Hibernate acontece já dentro do commit, um gancho de fim de transação do
+ * próprio Hibernate envia o que esse flush acrescentou.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityWriteInvalidationListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final Map<Class<?>, String> TRACKED_ENTITIES = Map.of(
+            Product.class, "products",
+            Category.class, "categories",
+            Supplier.class, "suppliers",
+            User.class, "users",
+            Inventory.class, "inventory",
+            // Saldo por local: invalida o estoque do produto, identificado pelo id de inventory
+            InventoryLocation.class, "inventory"
+    );
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationService invalidationService;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getSession(), event.getEntity(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void publish(EventSource session, Object entity, Object id) {
+        String name = TRACKED_ENTITIES.get(entity.getClass());
+        if (name == null) {
+            return;
+        }
+        if (entity instanceof InventoryLocation row) {
+            id = row.getInventory().getId();
+        }
+        invalidationService.publish(name, id instanceof Long longId ? longId : null);
+        if (invalidationService.claimCompletionHook()) {
+            session.getActionQueue().registerProcess(
+                    (BeforeTransactionCompletionProcess) completing -> invalidationService.flushPending());
+        }
+    }
+}
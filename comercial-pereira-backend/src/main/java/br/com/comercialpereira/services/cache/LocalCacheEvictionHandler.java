@@ -0,0 +1,66 @@
+package br.com.comercialpereira.services.cache;
+
+import br.com.comercialpereira.config.CacheConfig;
+import br.com.comercialpereira.entity.Category;
+import br.com.comercialpereira.entity.Supplier;
+import br.com.comercialpereira.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remove do cache local (segundo nível do Hibernate e caches do Spring) o que
+ * uma escrita confirmada em qualquer instância tornou obsoleto.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocalCacheEvictionHandler implements CacheInvalidationHandler {
+
+    private static final Map<String, Class<?>> L2_ENTITIES = Map.of(
+            "categories", Category.class,
+            "suppliers", Supplier.class,
+            "users", User.class
+    );
+
+    private static final Map<String, List<String>> SPRING_CACHES = Map.of(
+            "categories", List.of(CacheConfig.CATEGORY_STATISTICS),
+            "suppliers", List.of(CacheConfig.SUPPLIER_STATISTICS),
+            "users", List.of(CacheConfig.USER_STATISTICS),
+            "products", List.of(CacheConfig.CATEGORY_STATISTICS, CacheConfig.SUPPLIER_STATISTICS)
+    );
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+
+    @Override
+    public void onInvalidation(CacheInvalidation invalidation) {
+        Class<?> entityClass = L2_ENTITIES.get(invalidation.getEntity());
+        if (entityClass != null) {
+            Cache l2Cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            if (invalidation.getEntityId() != null) {
+                l2Cache.evictEntityData(entityClass, invalidation.getEntityId());
+            } else {
+                l2Cache.evictEntityData(entityClass);
+            }
+            // Timestamps de tabela são locais; consultas em cache podem citar a entidade alterada
+            l2Cache.evictDefaultQueryRegion();
+        }
+
+        for (String cacheName : SPRING_CACHES.getOrDefault(invalidation.getEntity(), List.of())) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+
+        log.debug("Cache local invalidado: {}", invalidation);
+    }
+}
@@ -5,8 +5,12 @@ import br.com.comercialpereira.entity.Category;
 import br.com.comercialpereira.repository.CategoryRepository;
 import br.com.comercialpereira.exception.ApiException;
 import br.com.comercialpereira.repository.ProductRepository;
+import br.com.comercialpereira.config.CacheConfig;
+import br.com.comercialpereira.services.audit.AuditService;
+import br.com.comercialpereira.services.stats.StatisticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -31,6 +35,8 @@ public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryValidationService validationService;
     private final ProductRepository productRepository;
+    private final StatisticsService statisticsService;
+    private final AuditService auditService;
 
     private static final String CATEGORY_NOT_FOUND = "Categoria não encontrada";
     private static final String CATEGORY_NAME_EXISTS = "Categoria com este nome já existe";
@@ -40,6 +46,7 @@ public class CategoryService {
 
     // =================== CREATE ===================
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_STATISTICS, allEntries = true)
     public CategoryResponse create(CreateCategoryRequest request, Long currentUserId) {
         try {
             // 1. Validações de negócio
@@ -108,10 +115,8 @@ public class CategoryService {
             );
 
             // Buscar categorias com filtros
-            Page<Category> categoriesPage = categoryRepository.findByFilters(
-                    filters.getSearch(),
-                    filters.getIsActive(),
-                    filters.getHasCnae(),
+            Page<Category> categoriesPage = categoryRepository.findAll(
+                    CategorySpecification.withFilters(filters),
                     pageable
             );
 
@@ -160,6 +165,7 @@ public class CategoryService {
 
     // =================== UPDATE ===================
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_STATISTICS, allEntries = true)
     public CategoryResponse update(Long id, UpdateCategoryRequest request, Long currentUserId) {
         try {
             // 1. Verificar se categoria existe
@@ -242,6 +248,7 @@ public class CategoryService {
 
     // =================== DELETE ===================
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORY_STATISTICS, allEntries = true)
     public void delete(Long id, Long currentUserId, String reason) {
         try {
             // 1. Verificar se categoria existe
@@ -293,8 +300,9 @@ public class CategoryService {
             Sort sort = Sort.by(Sort.Direction.ASC, "name");
             Pageable pageable = PageRequest.of(0, limit, sort);
 
-            Page<Category> categories = categoryRepository.findByFilters(
-                    query, true, null, pageable
+            Page<Category> categories = categoryRepository.findAll(
+                    CategorySpecification.withFilters(filters),
+                    pageable
             );
 
             return categories.getContent().stream()
@@ -331,14 +339,12 @@ public class CategoryService {
                     .sortOrder("asc")
                     .build();
 
-            Sort sort = Sort.by(Sort.Direction.ASC, "name");
-            Pageable pageable = PageRequest.of(0, Integer.MAX_VALUE, sort);
-
-            Page<Category> categories = categoryRepository.findByFilters(
-                    null, true, true, pageable
+            List<Category> categories = categoryRepository.findAll(
+                    CategorySpecification.withFilters(filters),
+                    Sort.by(Sort.Direction.ASC, "name")
             );
 
-            return categories.getContent().stream()
+            return categories.stream()
                     .map(this::convertToCategoryResponse)
                     .collect(Collectors.toList());
 
@@ -352,63 +358,7 @@ public class CategoryService {
 
     @Transactional(readOnly = true)
     public Map<String, Object> getStatistics() {
-        try {
-            // Estatísticas básicas
-            long total = categoryRepository.count();
-            long active = categoryRepository.countByIsActive(true);
-            long inactive = total - active;
-
-            // CORRIGIDO: Usar os métodos auxiliares corretamente
-            long withCnae = getCategoriesWithCnaeCount();
-            long withProducts = getCategoriesWithProductsCount();
-
-            // Buscar categorias com contagem de produtos
-            List<Object[]> categoriesWithProductCount = categoryRepository.findCategoriesWithProductCount();
-
-            // Processar dados das categorias com produtos
-            Map<String, Long> productsByCategory = new HashMap<>();
-            List<Map<String, Object>> topCategories = new ArrayList<>();
-
-            if (!categoriesWithProductCount.isEmpty()) {
-                // Converter resultado SQL nativo para Map
-                productsByCategory = categoriesWithProductCount.stream()
-                        .filter(row -> row.length >= 8 && row[7] != null)
-                        .collect(Collectors.toMap(
-                                row -> (String) row[1], // name na posição 1
-                                row -> ((Number) row[7]).longValue() // product_count na posição 7
-                        ));
-
-                // Top 10 categorias
-                topCategories = categoriesWithProductCount.stream()
-                        .filter(row -> row.length >= 8)
-                        .limit(10)
-                        .map(row -> {
-                            Map<String, Object> categoryMap = new HashMap<>();
-                            categoryMap.put("id", ((Number) row[0]).longValue());
-                            categoryMap.put("name", (String) row[1]);
-                            categoryMap.put("productCount", ((Number) row[7]).longValue());
-                            categoryMap.put("totalRevenue", 0L);
-                            return categoryMap;
-                        })
-                        .collect(Collectors.toList());
-            }
-
-            // Resultado final
-            Map<String, Object> result = new HashMap<>();
-            result.put("total", total);
-            result.put("active", active);
-            result.put("inactive", inactive);
-            result.put("withCnae", withCnae);
-            result.put("withProducts", withProducts);
-            result.put("productsByCategory", productsByCategory);
-            result.put("topCategories", topCategories);
-
-            return result;
-
-        } catch (Exception e) {
-            log.error("Erro ao obter estatísticas de categorias", e);
-            throw new ApiException("Erro ao obter estatísticas de categorias", HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        return statisticsService.getCategoryStatistics();
     }
 
 
@@ -441,9 +391,7 @@ public class CategoryService {
                     currentUserId, action, targetCategoryId);
             log.debug("[CATEGORY_AUDIT] Data: {}", data);
 
-            // TODO: Implementar tabela de auditoria no banco se necessário
-            // auditService.log(currentUserId, action, "CATEGORIES", targetCategoryId, data);
-
+            auditService.log(currentUserId, action, "CATEGORIES", targetCategoryId, data);
         } catch (Exception e) {
             log.error("Erro ao registrar log de auditoria", e);
         }
@@ -478,23 +426,4 @@ public class CategoryService {
             return 0;
         }
     }
-
-    private long getCategoriesWithCnaeCount() {
-        try {
-            // Usar a query simples do repository
-            return categoryRepository.findCategoriesWithCnae().size();
-        } catch (Exception e) {
-            log.warn("Erro ao contar categorias com CNAE, retornando 0", e);
-            return 0;
-        }
-    }
-
-    private long getCategoriesWithProductsCount() {
-        try {
-            return categoryRepository.countCategoriesWithProducts();
-        } catch (Exception e) {
-            log.warn("Erro ao contar categorias com produtos, retornando 0", e);
-            return 0;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -33,8 +33,11 @@ public class CategorySpecification {
             if (filters.getHasCnae() != null) {
                 if (filters.getHasCnae()) {
                     predicates.add(criteriaBuilder.isNotNull(root.get("cnae")));
+                    predicates.add(criteriaBuilder.notEqual(root.get("cnae"), ""));
                 } else {
-                    predicates.add(criteriaBuilder.isNull(root.get("cnae")));
+                    predicates.add(criteriaBuilder.or(
+                            criteriaBuilder.isNull(root.get("cnae")),
+                            criteriaBuilder.equal(root.get("cnae"), "")));
                 }
             }
 
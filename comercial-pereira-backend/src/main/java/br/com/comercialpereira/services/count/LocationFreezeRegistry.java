@@ -0,0 +1,117 @@
+package br.com.comercialpereira.services.count;
+
+import br.com.comercialpereira.exception.ApiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Locais bloqueados por uma contagem física em andamento. Movimentações de
+ * produtos desses locais são recusadas; o restante da loja continua vendendo.
+ *
+ * A chave é o local de estoque mais a posição do produto ("LOJA/CORREDOR A"):
+ * contar um corredor da loja não bloqueia o mesmo produto no depósito.
+ *
+ * Os bloqueios ficam em stock_count_freezes. A conferência é feita com a linha
+ * do local já travada: a abertura da contagem trava as mesmas linhas antes de
+ * confirmar, então nenhuma movimentação passa sem ver o bloqueio.
+ */
+@Component
+public class LocationFreezeRegistry {
+
+    private static final String FROZEN_SQL = """
+            SELECT session_id
+            FROM stock_count_freezes
+            WHERE stock_location_id = ? AND location = UPPER(TRIM(?))
+            """;
+
+    private static final String FROZEN_ANYWHERE_SQL = """
+            SELECT session_id
+            FROM stock_count_freezes
+            WHERE location = UPPER(TRIM(?))
+            LIMIT 1
+            """;
+
+    private static final String SNAPSHOT_SQL = """
+            SELECT sl.code, f.location, f.session_id
+            FROM stock_count_freezes f
+            JOIN stock_locations sl ON sl.id = f.stock_location_id
+            ORDER BY sl.code, f.location
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LocationFreezeRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Chamar com a linha do produto no local já travada
+    public void requireNotFrozen(Long stockLocationId, String location) {
+        Long sessionId = sessionFor(stockLocationId, location);
+        if (sessionId != null) {
+            throw new ApiException("Local " + location + " bloqueado pela contagem de estoque #" + sessionId,
+                    HttpStatus.CONFLICT);
+        }
+    }
+
+    // Mudança de posição do produto: recusada se a posição estiver em contagem em qualquer local
+    public void requireNotFrozen(String location) {
+        if (location == null) {
+            return;
+        }
+
+        List<Long> sessionIds = jdbcTemplate.queryForList(FROZEN_ANYWHERE_SQL, Long.class, location);
+        if (!sessionIds.isEmpty()) {
+            throw new ApiException("Local " + location + " bloqueado pela contagem de estoque #" + sessionIds.get(0),
+                    HttpStatus.CONFLICT);
+        }
+    }
+
+    public Long sessionFor(Long stockLocationId, String location) {
+        if (location == null) {
+            return null;
+        }
+        List<Long> sessionIds = jdbcTemplate.queryForList(FROZEN_SQL, Long.class, stockLocationId, location);
+        return sessionIds.isEmpty() ? null : sessionIds.get(0);
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> frozen = new LinkedHashMap<>();
+        jdbcTemplate.query(SNAPSHOT_SQL, rs -> {
+            frozen.put(rs.getString("code") + "/" + rs.getString("location"), rs.getLong("session_id"));
+        });
+        return frozen;
+    }
+
+    // Tudo ou nada: se algum local já estiver bloqueado, a transação da abertura é desfeita
+    void freeze(Long stockLocationId, Collection<String> locations, Long sessionId) {
+        List<String> busy = new ArrayList<>();
+        for (String location : locations) {
+            int inserted = jdbcTemplate.update("""
+                    INSERT INTO stock_count_freezes (stock_location_id, location, session_id)
+                    VALUES (?, ?, ?)
+                    ON CONFLICT (stock_location_id, location) DO NOTHING
+                    """, stockLocationId, normalize(location), sessionId);
+            if (inserted == 0) {
+                busy.add(location);
+            }
+        }
+        if (!busy.isEmpty()) {
+            throw new ApiException("Locais já em contagem: " + String.join(", ", busy), HttpStatus.CONFLICT);
+        }
+    }
+
+    void release(Long sessionId) {
+        jdbcTemplate.update("DELETE FROM stock_count_freezes WHERE session_id = ?", sessionId);
+    }
+
+    static String normalize(String location) {
+        return location.trim().toUpperCase();
+    }
+}
@@ -0,0 +1,590 @@
+package br.com.comercialpereira.services.count;
+
+import br.com.comercialpereira.dto.count.CreateStockCountRequest;
+import br.com.comercialpereira.dto.count.StockCountResult;
+import br.com.comercialpereira.dto.count.StockCountSessionResponse;
+import br.com.comercialpereira.dto.count.StockScanLine;
+import br.com.comercialpereira.dto.count.StockScanResult;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.services.audit.AuditService;
+import br.com.comercialpereira.services.cache.CacheInvalidationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contagem física de estoque (inventário rotativo).
+ *
+ * Uma sessão conta posições (corredores, prateleiras) de um local de estoque e
+ * bloqueia essas posições nesse local. As bipagens chegam em NDJSON, são
+ * validadas contra o mapa código de barras -> produto das posições e somadas
+ * em memória; cada envio grava o total por produto num único lote. O
+ * fechamento grava, numa única transação, o estoque contado de todos os
+ * produtos com diferença: um UPDATE em inventory_locations, um INSERT de
+ * movimentações ADJUSTMENT e um INSERT de eventos STOCK_CHANGED, todos a
+ * partir de tabelas temporárias.
+ *
+ * Sessões, bipagens somadas e bloqueios ficam no banco (stock_count_sessions,
+ * stock_count_items, stock_count_freezes): qualquer instância atende a sessão.
+ */
+@Service
+@Slf4j
+public class StockCountService {
+
+    private static final int MAX_SCAN_ERRORS = 100;
+    private static final int MAX_SCAN_QUANTITY = 10000;
+
+    private static final String STOCK_LOCATION_SQL = """
+            SELECT id, code
+            FROM stock_locations
+            WHERE is_active = true AND %s
+            """;
+
+    private static final String PRODUCTS_IN_LOCATIONS_SQL = """
+            SELECT p.id, p.barcode, p.code
+            FROM products p
+            JOIN inventory i ON i.product_id = p.id
+            WHERE p.is_active = true AND UPPER(TRIM(i.location)) IN (%s)
+            """;
+
+    // Produtos em modo de alta concorrência têm o saldo do local num contador em memória
+    private static final String HOT_PRODUCTS_IN_LOCATIONS_SQL = """
+            SELECT p.code
+            FROM hot_sku_products h
+            JOIN inventory i ON i.product_id = h.product_id
+            JOIN products p ON p.id = h.product_id
+            WHERE h.location_id = ? AND UPPER(TRIM(i.location)) IN (%s)
+            ORDER BY p.code
+            LIMIT 5
+            """;
+
+    private static final String SESSION_SQL = """
+            SELECT s.id, s.stock_location_id, sl.code, s.locations, s.zero_uncounted, s.status,
+                   s.scans_accepted, s.scans_rejected, s.unknown_barcodes, s.started_by, s.started_at, s.closed_at,
+                   (SELECT COUNT(*) FROM stock_count_items c WHERE c.session_id = s.id) AS products_counted,
+                   (SELECT COALESCE(SUM(c.counted), 0) FROM stock_count_items c WHERE c.session_id = s.id) AS units_counted
+            FROM stock_count_sessions s
+            JOIN stock_locations sl ON sl.id = s.stock_location_id
+            WHERE %s
+            """;
+
+    private static final String INSERT_SESSION = """
+            INSERT INTO stock_count_sessions (stock_location_id, locations, zero_uncounted, started_by)
+            VALUES (?, ?::text[], ?, ?)
+            RETURNING id
+            """;
+
+    // Trava em modo compartilhado as linhas das posições contadas: quem já movimenta termina
+    // antes da abertura e quem vem depois encontra o bloqueio ao travar a linha
+    private static final String LOCK_FROZEN_ROWS = """
+            SELECT il.id
+            FROM inventory_locations il
+            JOIN inventory i ON i.id = il.inventory_id
+            WHERE il.location_id = ? AND UPPER(TRIM(i.location)) IN (%s)
+            ORDER BY il.product_id
+            FOR SHARE OF il
+            """;
+
+    // Só soma se a sessão ainda estiver aberta; a trava da linha da sessão ordena as bipagens com o fechamento
+    private static final String UPDATE_SESSION_SCANS = """
+            UPDATE stock_count_sessions
+            SET scans_accepted = scans_accepted + ?,
+                scans_rejected = scans_rejected + ?,
+                unknown_barcodes = unknown_barcodes || ARRAY(
+                    SELECT DISTINCT b FROM unnest(?::text[]) b
+                    WHERE b <> ALL(unknown_barcodes)
+                    LIMIT GREATEST(? - cardinality(unknown_barcodes), 0))
+            WHERE id = ? AND status = 'OPEN'
+            """;
+
+    private static final String UPSERT_ITEMS = """
+            INSERT INTO stock_count_items (session_id, product_id, counted)
+            VALUES (?, ?, ?)
+            ON CONFLICT (session_id, product_id) DO UPDATE SET counted = stock_count_items.counted + EXCLUDED.counted
+            """;
+
+    private static final String CREATE_LINES = """
+            CREATE TEMP TABLE stock_count_lines (
+                product_id BIGINT PRIMARY KEY,
+                counted INTEGER NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String INSERT_LINES = """
+            INSERT INTO stock_count_lines (product_id, counted)
+            SELECT product_id, counted
+            FROM stock_count_items
+            WHERE session_id = ?
+            """;
+
+    private static final String INSERT_UNCOUNTED = """
+            INSERT INTO stock_count_lines (product_id, counted)
+            SELECT i.product_id, 0
+            FROM inventory i
+            JOIN products p ON p.id = i.product_id
+            WHERE p.is_active = true AND UPPER(TRIM(i.location)) IN (%s)
+            ON CONFLICT (product_id) DO NOTHING
+            """;
+
+    // Produto bipado que nunca teve estoque no local ganha a linha zerada antes da comparação
+    private static final String INSERT_MISSING_ROWS = """
+            INSERT INTO inventory_locations (inventory_id, product_id, location_id, quantity)
+            SELECT i.id, c.product_id, ?, 0
+            FROM stock_count_lines c
+            JOIN inventory i ON i.product_id = c.product_id
+            WHERE c.counted > 0
+            ORDER BY c.product_id
+            ON CONFLICT (product_id, location_id) DO NOTHING
+            """;
+
+    // Trava as linhas do local em ordem de produto, como as demais atualizações em lote
+    private static final String LOCK_INVENTORY = """
+            SELECT il.id
+            FROM inventory_locations il
+            JOIN stock_count_lines c ON c.product_id = il.product_id
+            WHERE il.location_id = ?
+            ORDER BY il.product_id
+            FOR UPDATE OF il
+            """;
+
+    private static final String CREATE_DIFFS = """
+            CREATE TEMP TABLE stock_count_diffs (
+                inventory_location_id BIGINT PRIMARY KEY,
+                inventory_id BIGINT NOT NULL,
+                product_id BIGINT NOT NULL,
+                location VARCHAR(100),
+                quantity_before INTEGER NOT NULL,
+                counted INTEGER NOT NULL
+            ) ON COMMIT DROP
+            """;
+
+    private static final String INSERT_DIFFS = """
+            INSERT INTO stock_count_diffs (inventory_location_id, inventory_id, product_id, location, quantity_before, counted)
+            SELECT il.id, il.inventory_id, il.product_id, i.location, il.quantity, c.counted
+            FROM inventory_locations il
+            JOIN stock_count_lines c ON c.product_id = il.product_id
+            JOIN inventory i ON i.id = il.inventory_id
+            WHERE il.location_id = ? AND il.quantity <> c.counted
+            """;
+
+    private static final String UPDATE_INVENTORY = """
+            UPDATE inventory_locations il
+            SET quantity = d.counted, updated_at = CURRENT_TIMESTAMP
+            FROM stock_count_diffs d
+            WHERE il.id = d.inventory_location_id
+            """;
+
+    private static final String INSERT_MOVEMENTS = """
+            INSERT INTO inventory_movements (inventory_id, product_id, location_id, type, quantity, delta, quantity_before,
+                                             quantity_after, reason, user_id, created_at, updated_at)
+            SELECT inventory_id, product_id, ?, 'ADJUSTMENT', ABS(counted - quantity_before), counted - quantity_before,
+                   quantity_before, counted, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM stock_count_diffs
+            ORDER BY product_id
+            """;
+
+    private static final String INSERT_STOCK_EVENTS = """
+            INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload)
+            SELECT 'inventory', inventory_id, 'STOCK_CHANGED',
+                   jsonb_build_object(
+                       'productId', product_id,
+                       'inventoryId', inventory_id,
+                       'locationId', ?::bigint,
+                       'movementType', 'ADJUSTMENT',
+                       'delta', counted - quantity_before,
+                       'quantityBefore', quantity_before,
+                       'quantityAfter', counted,
+                       'userId', ?::bigint,
+                       'occurredAt', LOCALTIMESTAMP)
+            FROM stock_count_diffs
+            ORDER BY product_id
+            """;
+
+    private static final String DIFF_LINES = """
+            SELECT d.product_id, p.code, p.name, d.location, d.quantity_before, d.counted
+            FROM stock_count_diffs d
+            JOIN products p ON p.id = d.product_id
+            ORDER BY ABS(d.counted - d.quantity_before) DESC, d.product_id
+            LIMIT ?
+            """;
+
+    private static final int MAX_UNKNOWN_BARCODES = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final LocationFreezeRegistry freezeRegistry;
+    private final AuditService auditService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final int maxReportLines;
+
+    public StockCountService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             LocationFreezeRegistry freezeRegistry,
+                             AuditService auditService,
+                             CacheInvalidationService cacheInvalidationService,
+                             @Value("${comercial.inventory.counts.max-report-lines:500}") int maxReportLines) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.freezeRegistry = freezeRegistry;
+        this.auditService = auditService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.maxReportLines = maxReportLines;
+    }
+
+    // =================== SESSÃO ===================
+
+    public StockCountSessionResponse start(CreateStockCountRequest request, Long userId) {
+        List<String> locations = request.getLocations().stream()
+                .map(LocationFreezeRegistry::normalize)
+                .distinct()
+                .toList();
+
+        Map<String, Object> stockLocation = findStockLocation(request.getStockLocationId());
+        Long stockLocationId = ((Number) stockLocation.get("id")).longValue();
+        String stockLocationCode = (String) stockLocation.get("code");
+        String inLocations = placeholders(locations.size());
+
+        Long sessionId = transactionTemplate.execute(status -> {
+            Long id = jdbcTemplate.queryForObject(INSERT_SESSION, Long.class, stockLocationId,
+                    locations.toArray(new String[0]), Boolean.TRUE.equals(request.getZeroUncounted()), userId);
+            freezeRegistry.freeze(stockLocationId, locations, id);
+
+            List<Object> args = new ArrayList<>();
+            args.add(stockLocationId);
+            args.addAll(locations);
+            jdbcTemplate.query(LOCK_FROZEN_ROWS.formatted(inLocations), rs -> { }, args.toArray());
+
+            // Depois das travas: a ativação do modo confere o bloqueio com a linha travada
+            List<String> hotProducts = jdbcTemplate.queryForList(
+                    HOT_PRODUCTS_IN_LOCATIONS_SQL.formatted(inLocations), String.class, args.toArray());
+            if (!hotProducts.isEmpty()) {
+                throw new ApiException("Produtos em modo de alta concorrência nas posições: "
+                        + String.join(", ", hotProducts) + "; desative o modo antes da contagem", HttpStatus.CONFLICT);
+            }
+            return id;
+        });
+
+        log.info("Contagem de estoque #{} iniciada por usuário {} em {} {}",
+                sessionId, userId, stockLocationCode, locations);
+        return findById(sessionId);
+    }
+
+    public List<StockCountSessionResponse> findOpen() {
+        return jdbcTemplate.query(SESSION_SQL.formatted("s.status = 'OPEN' ORDER BY s.id"), this::mapSession)
+                .stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    public StockCountSessionResponse findById(Long sessionId) {
+        return mapToResponse(getSession(sessionId));
+    }
+
+    public void cancel(Long sessionId, Long userId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            lockOpenSession(sessionId);
+            jdbcTemplate.update("DELETE FROM stock_count_items WHERE session_id = ?", sessionId);
+            close(sessionId, StockCountSession.CANCELLED);
+        });
+        log.info("Contagem de estoque #{} cancelada por usuário {}", sessionId, userId);
+    }
+
+    // =================== BIPAGENS ===================
+
+    public StockScanResult ingest(Long sessionId, InputStream body) {
+        StockCountSession session = getSession(sessionId);
+        if (!session.isOpen()) {
+            throw new ApiException("Contagem de estoque já fechada", HttpStatus.CONFLICT);
+        }
+        Map<String, Long> productsByBarcode = loadBarcodes(session.getLocations());
+
+        // Soma o envio inteiro em memória e grava uma vez, em lote
+        Map<Long, Integer> counts = new TreeMap<>();
+        Set<String> unknownBarcodes = new LinkedHashSet<>();
+        long accepted = 0;
+        long rejected = 0;
+        List<String> errors = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String error = ingestLine(session, productsByBarcode, counts, unknownBarcodes, line);
+                if (error == null) {
+                    accepted++;
+                } else {
+                    rejected++;
+                    if (errors.size() < MAX_SCAN_ERRORS) {
+                        errors.add("Linha " + lineNo + ": " + error);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Erro ao ler bipagens da contagem #{}", sessionId, e);
+            throw new ApiException("Erro ao ler bipagens", HttpStatus.BAD_REQUEST);
+        }
+
+        long acceptedLines = accepted;
+        long rejectedLines = rejected;
+        transactionTemplate.executeWithoutResult(status -> {
+            int updated = jdbcTemplate.update(UPDATE_SESSION_SCANS, acceptedLines, rejectedLines,
+                    unknownBarcodes.toArray(new String[0]), MAX_UNKNOWN_BARCODES, sessionId);
+            if (updated == 0) {
+                throw new ApiException("Contagem de estoque já fechada", HttpStatus.CONFLICT);
+            }
+            List<Object[]> items = counts.entrySet().stream()
+                    .map(entry -> new Object[]{sessionId, entry.getKey(), entry.getValue()})
+                    .toList();
+            if (!items.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_ITEMS, items);
+            }
+        });
+
+        return StockScanResult.builder()
+                .sessionId(sessionId)
+                .accepted(accepted)
+                .rejected(rejected)
+                .errors(errors)
+                .build();
+    }
+
+    // =================== FECHAMENTO ===================
+
+    public StockCountResult commit(Long sessionId, Long userId) {
+        StockCountResult result = transactionTemplate.execute(status -> {
+            lockOpenSession(sessionId);
+            StockCountResult applied = apply(getSession(sessionId), userId);
+            close(sessionId, StockCountSession.COMMITTED);
+            return applied;
+        });
+
+        auditService.log(userId, "STOCK_COUNT", "INVENTORY", sessionId, Map.of(
+                "stockLocation", result.getStockLocationCode(),
+                "locations", result.getLocations(),
+                "productsCounted", result.getProductsCounted(),
+                "productsAdjusted", result.getProductsAdjusted(),
+                "unitsAdded", result.getUnitsAdded(),
+                "unitsRemoved", result.getUnitsRemoved()));
+
+        log.info("Contagem de estoque #{} fechada: {} produtos contados, {} ajustados (+{} / -{}) em {} ms",
+                sessionId, result.getProductsCounted(), result.getProductsAdjusted(),
+                result.getUnitsAdded(), result.getUnitsRemoved(), result.getElapsedMs());
+        return result;
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    private String ingestLine(StockCountSession session, Map<String, Long> productsByBarcode,
+                              Map<Long, Integer> counts, Set<String> unknownBarcodes, String line) {
+        StockScanLine scan;
+        try {
+            scan = objectMapper.readValue(line, StockScanLine.class);
+        } catch (JsonProcessingException e) {
+            return "JSON inválido";
+        }
+
+        if (scan.getBarcode() == null || scan.getBarcode().isBlank()) {
+            return "código de barras ausente";
+        }
+        if (scan.getLocation() == null
+                || !session.getLocations().contains(LocationFreezeRegistry.normalize(scan.getLocation()))) {
+            return "local " + scan.getLocation() + " fora da contagem";
+        }
+
+        int quantity = scan.getQuantity() != null ? scan.getQuantity() : 1;
+        if (quantity < 1 || quantity > MAX_SCAN_QUANTITY) {
+            return "quantidade inválida";
+        }
+
+        String barcode = scan.getBarcode().trim();
+        Long productId = productsByBarcode.get(barcode);
+        if (productId == null) {
+            if (unknownBarcodes.size() < MAX_UNKNOWN_BARCODES) {
+                unknownBarcodes.add(barcode);
+            }
+            return "código " + barcode + " não pertence aos locais em contagem";
+        }
+
+        counts.merge(productId, quantity, Integer::sum);
+        return null;
+    }
+
+    private StockCountResult apply(StockCountSession session, Long userId) {
+        long start = System.nanoTime();
+        String inLocations = placeholders(session.getLocations().size());
+
+        jdbcTemplate.execute(CREATE_LINES);
+        jdbcTemplate.update(INSERT_LINES, session.getId());
+        if (session.isZeroUncounted()) {
+            jdbcTemplate.update(INSERT_UNCOUNTED.formatted(inLocations), session.getLocations().toArray());
+        }
+
+        Long stockLocationId = session.getStockLocationId();
+        jdbcTemplate.update(INSERT_MISSING_ROWS, stockLocationId);
+        jdbcTemplate.query(LOCK_INVENTORY, rs -> { }, stockLocationId);
+        jdbcTemplate.execute(CREATE_DIFFS);
+        jdbcTemplate.update(INSERT_DIFFS, stockLocationId);
+        jdbcTemplate.update(UPDATE_INVENTORY);
+        jdbcTemplate.update(INSERT_MOVEMENTS, stockLocationId, "Contagem física #" + session.getId(), userId);
+        jdbcTemplate.update(INSERT_STOCK_EVENTS, stockLocationId, userId);
+        // Publicação exige a transação do fechamento
+        cacheInvalidationService.publish("inventory", null);
+
+        Map<String, Object> totals = jdbcTemplate.queryForMap("""
+                SELECT (SELECT COUNT(*) FROM stock_count_lines) AS counted,
+                       COUNT(*) AS adjusted,
+                       COALESCE(SUM(GREATEST(counted - quantity_before, 0)), 0) AS added,
+                       COALESCE(SUM(GREATEST(quantity_before - counted, 0)), 0) AS removed
+                FROM stock_count_diffs
+                """);
+
+        List<StockCountResult.Line> lines = jdbcTemplate.query(DIFF_LINES, (rs, rowNum) -> StockCountResult.Line.builder()
+                .productId(rs.getLong("product_id"))
+                .productCode(rs.getString("code"))
+                .productName(rs.getString("name"))
+                .location(rs.getString("location"))
+                .quantityBefore(rs.getInt("quantity_before"))
+                .counted(rs.getInt("counted"))
+                .difference(rs.getInt("counted") - rs.getInt("quantity_before"))
+                .build(), maxReportLines);
+
+        return StockCountResult.builder()
+                .sessionId(session.getId())
+                .stockLocationCode(session.getStockLocationCode())
+                .locations(session.getLocations())
+                .committedAt(LocalDateTime.now())
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .productsCounted(((Number) totals.get("counted")).intValue())
+                .productsAdjusted(((Number) totals.get("adjusted")).intValue())
+                .unitsAdded(((Number) totals.get("added")).longValue())
+                .unitsRemoved(((Number) totals.get("removed")).longValue())
+                .lines(lines)
+                .build();
+    }
+
+    private StockCountSession getSession(Long sessionId) {
+        List<StockCountSession> sessions = jdbcTemplate.query(SESSION_SQL.formatted("s.id = ?"), this::mapSession,
+                sessionId);
+        if (sessions.isEmpty()) {
+            throw new ApiException("Contagem de estoque não encontrada", HttpStatus.NOT_FOUND);
+        }
+        return sessions.get(0);
+    }
+
+    // Trava a sessão até o fim da transação; fechamento e cancelamento concorrentes esperam aqui
+    private void lockOpenSession(Long sessionId) {
+        List<String> status = jdbcTemplate.queryForList(
+                "SELECT status FROM stock_count_sessions WHERE id = ? FOR UPDATE", String.class, sessionId);
+        if (status.isEmpty()) {
+            throw new ApiException("Contagem de estoque não encontrada", HttpStatus.NOT_FOUND);
+        }
+        if (!StockCountSession.OPEN.equals(status.get(0))) {
+            throw new ApiException("Contagem de estoque já fechada", HttpStatus.CONFLICT);
+        }
+    }
+
+    private void close(Long sessionId, String status) {
+        jdbcTemplate.update("UPDATE stock_count_sessions SET status = ?, closed_at = CURRENT_TIMESTAMP WHERE id = ?",
+                status, sessionId);
+        freezeRegistry.release(sessionId);
+    }
+
+    // Mapa código de barras/código -> produto das posições da sessão
+    private Map<String, Long> loadBarcodes(List<String> locations) {
+        Map<String, Long> productsByBarcode = new HashMap<>();
+        jdbcTemplate.query(PRODUCTS_IN_LOCATIONS_SQL.formatted(placeholders(locations.size())), rs -> {
+            long productId = rs.getLong("id");
+            productsByBarcode.putIfAbsent(rs.getString("code"), productId);
+            String barcode = rs.getString("barcode");
+            if (barcode != null) {
+                productsByBarcode.put(barcode, productId);
+            }
+        }, locations.toArray());
+        return productsByBarcode;
+    }
+
+    private Map<String, Object> findStockLocation(Long stockLocationId) {
+        List<Map<String, Object>> rows = stockLocationId == null
+                ? jdbcTemplate.queryForList(STOCK_LOCATION_SQL.formatted("is_default = true"))
+                : jdbcTemplate.queryForList(STOCK_LOCATION_SQL.formatted("id = ?"), stockLocationId);
+        if (rows.isEmpty()) {
+            throw new ApiException("Local de estoque não encontrado ou inativo", HttpStatus.NOT_FOUND);
+        }
+        return rows.get(0);
+    }
+
+    private StockCountSession mapSession(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp closedAt = rs.getTimestamp("closed_at");
+        return new StockCountSession(
+                rs.getLong("id"),
+                rs.getLong("stock_location_id"),
+                rs.getString("code"),
+                List.of((String[]) rs.getArray("locations").getArray()),
+                rs.getBoolean("zero_uncounted"),
+                rs.getString("status"),
+                rs.getLong("scans_accepted"),
+                rs.getLong("scans_rejected"),
+                List.of((String[]) rs.getArray("unknown_barcodes").getArray()),
+                rs.getObject("started_by", Long.class),
+                rs.getTimestamp("started_at").toLocalDateTime(),
+                closedAt != null ? closedAt.toLocalDateTime() : null,
+                rs.getInt("products_counted"),
+                rs.getLong("units_counted"));
+    }
+
+    private StockCountSessionResponse mapToResponse(StockCountSession session) {
+        return StockCountSessionResponse.builder()
+                .id(session.getId())
+                .stockLocationId(session.getStockLocationId())
+                .stockLocationCode(session.getStockLocationCode())
+                .locations(session.getLocations())
+                .zeroUncounted(session.isZeroUncounted())
+                .status(session.getStatus())
+                .startedBy(session.getStartedBy())
+                .startedAt(session.getStartedAt())
+                .closedAt(session.getClosedAt())
+                .scansAccepted(session.getAccepted())
+                .scansRejected(session.getRejected())
+                .productsCounted(session.getProductsCounted())
+                .unitsCounted(session.getUnitsCounted())
+                .unknownBarcodes(session.getUnknownBarcodes())
+                .build();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.comercialpereira.services.count;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Linha de stock_count_sessions com o total bipado em stock_count_items.
+ */
+@Getter
+class StockCountSession {
+
+    static final String OPEN = "OPEN";
+    static final String COMMITTED = "COMMITTED";
+    static final String CANCELLED = "CANCELLED";
+
+    private final Long id;
+    private final Long stockLocationId;
+    private final String stockLocationCode;
+    private final List<String> locations;
+    private final boolean zeroUncounted;
+    private final String status;
+    private final long accepted;
+    private final long rejected;
+    private final List<String> unknownBarcodes;
+    private final Long startedBy;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime closedAt;
+    private final int productsCounted;
+    private final long unitsCounted;
+
+    StockCountSession(Long id, Long stockLocationId, String stockLocationCode, List<String> locations,
+                      boolean zeroUncounted, String status, long accepted, long rejected,
+                      List<String> unknownBarcodes, Long startedBy, LocalDateTime startedAt,
+                      LocalDateTime closedAt, int productsCounted, long unitsCounted) {
+        this.id = id;
+        this.stockLocationId = stockLocationId;
+        this.stockLocationCode = stockLocationCode;
+        this.locations = locations;
+        this.zeroUncounted = zeroUncounted;
+        this.status = status;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.unknownBarcodes = unknownBarcodes;
+        this.startedBy = startedBy;
+        this.startedAt = startedAt;
+        this.closedAt = closedAt;
+        this.productsCounted = productsCounted;
+        this.unitsCounted = unitsCounted;
+    }
+
+    boolean isOpen() {
+        return OPEN.equals(status);
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.comercialpereira.services.hotsku;
+
+import br.com.comercialpereira.enums.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Movimentação de um produto em modo de alta concorrência, como gravada no WAL.
+ * A sequência é atribuída pelo WAL; entradas ainda não gravadas têm sequência 0.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class HotSkuEntry {
+
+    private static final long NULL_ID = Long.MIN_VALUE;
+
+    private final long sequence;
+    private final long productId;
+    private final long locationId;
+    private final long inventoryId;
+    private final int delta;
+    private final MovementType type;
+    private final Long userId;
+    private final Long saleId;
+    private final long createdAt;
+    private final String reason;
+
+    HotSkuEntry withSequence(long sequence) {
+        return new HotSkuEntry(sequence, productId, locationId, inventoryId, delta, type, userId, saleId,
+                createdAt, reason);
+    }
+
+    byte[] encode() {
+        byte[] typeBytes = type.name().getBytes(StandardCharsets.UTF_8);
+        byte[] reasonBytes = reason != null ? reason.getBytes(StandardCharsets.UTF_8) : new byte[0];
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 * 6 + 4 * 3 + typeBytes.length + reasonBytes.length);
+        buffer.putLong(productId);
+        buffer.putLong(locationId);
+        buffer.putLong(inventoryId);
+        buffer.putInt(delta);
+        buffer.putLong(userId != null ? userId : NULL_ID);
+        buffer.putLong(saleId != null ? saleId : NULL_ID);
+        buffer.putLong(createdAt);
+        buffer.putInt(typeBytes.length);
+        buffer.put(typeBytes);
+        // Comprimento -1 representa null
+        buffer.putInt(reason != null ? reasonBytes.length : -1);
+        buffer.put(reasonBytes);
+        return buffer.array();
+    }
+
+    static HotSkuEntry decode(long sequence, ByteBuffer buffer) {
+        long productId = buffer.getLong();
+        long locationId = buffer.getLong();
+        long inventoryId = buffer.getLong();
+        int delta = buffer.getInt();
+        long userId = buffer.getLong();
+        long saleId = buffer.getLong();
+        long createdAt = buffer.getLong();
+        MovementType type = MovementType.valueOf(getString(buffer));
+        String reason = getString(buffer);
+
+        return new HotSkuEntry(sequence, productId, locationId, inventoryId, delta, type,
+                userId != NULL_ID ? userId : null,
+                saleId != NULL_ID ? saleId : null,
+                createdAt, reason);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,222 @@
+package br.com.comercialpereira.services.hotsku;
+
+import br.com.comercialpereira.services.cache.CacheInvalidationService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grava no banco, numa transação por lote, as movimentações do WAL: trava a
+ * linha de cada produto/local em ordem de produto, insere as movimentações com
+ * as quantidades antes/depois acumuladas, atualiza a linha uma vez só e registra
+ * os eventos STOCK_CHANGED.
+ *
+ * Só entra a entrada cuja intenção (hot_sku_wal_intents) ainda existe: a
+ * intenção foi gravada na transação de quem pediu a movimentação e é apagada
+ * aqui, na transação do lote. Sem intenção, a transação original não confirmou
+ * ou a entrada já foi gravada; reaplicar um lote não duplica movimentações.
+ *
+ * Uma entrada que deixaria o saldo negativo vai para hot_sku_dead_letters e o
+ * restante do lote segue.
+ */
+@Component
+public class HotSkuFlusher {
+
+    private static final String INSERT_INTENT = "INSERT INTO hot_sku_wal_intents (node_id, seq) VALUES (?, ?)";
+
+    private static final String TAKE_INTENTS = """
+            DELETE FROM hot_sku_wal_intents
+            WHERE node_id = ? AND seq = ANY(?::bigint[])
+            RETURNING seq
+            """;
+
+    private static final String LOCK_ROW = """
+            SELECT id, quantity
+            FROM inventory_locations
+            WHERE product_id = ? AND location_id = ?
+            FOR UPDATE
+            """;
+
+    private static final String UPDATE_ROW =
+            "UPDATE inventory_locations SET quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String INSERT_MOVEMENT = """
+            INSERT INTO inventory_movements (inventory_id, product_id, location_id, type, quantity, delta, quantity_before,
+                                             quantity_after, reason, user_id, sale_id, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            """;
+
+    private static final String INSERT_STOCK_EVENT = """
+            INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload)
+            VALUES ('inventory', ?, 'STOCK_CHANGED',
+                    jsonb_build_object(
+                        'productId', ?::bigint,
+                        'inventoryId', ?::bigint,
+                        'locationId', ?::bigint,
+                        'movementType', ?::text,
+                        'delta', ?::integer,
+                        'quantityBefore', ?::integer,
+                        'quantityAfter', ?::integer,
+                        'saleId', ?::bigint,
+                        'userId', ?::bigint,
+                        'occurredAt', ?::timestamp))
+            """;
+
+    private static final String INSERT_DEAD_LETTER = """
+            INSERT INTO hot_sku_dead_letters (node_id, seq, product_id, location_id, inventory_id, type, delta,
+                                              quantity_before, reason, user_id, sale_id, moved_at, error)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (node_id, seq) DO NOTHING
+            """;
+
+    private static final String SAVE_CHECKPOINT = """
+            INSERT INTO hot_sku_checkpoints (node_id, last_seq, updated_at)
+            VALUES (?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (node_id) DO UPDATE
+            SET last_seq = GREATEST(hot_sku_checkpoints.last_seq, EXCLUDED.last_seq), updated_at = CURRENT_TIMESTAMP
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationService cacheInvalidationService;
+
+    public HotSkuFlusher(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         CacheInvalidationService cacheInvalidationService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheInvalidationService = cacheInvalidationService;
+    }
+
+    // Na transação de quem pediu a movimentação, depois da entrada estar em disco
+    public void recordIntent(String nodeId, long sequence) {
+        jdbcTemplate.update(INSERT_INTENT, nodeId, sequence);
+    }
+
+    public FlushResult apply(String nodeId, List<HotSkuEntry> batch, long checkpoint) {
+        List<HotSkuEntry> sorted = new ArrayList<>(batch);
+        sorted.sort(Comparator.comparingLong(HotSkuEntry::getProductId)
+                .thenComparingLong(HotSkuEntry::getLocationId)
+                .thenComparingLong(HotSkuEntry::getSequence));
+
+        return transactionTemplate.execute(status -> {
+            Long[] batchSequences = sorted.stream().map(HotSkuEntry::getSequence).toArray(Long[]::new);
+            Set<Long> committed = new HashSet<>(jdbcTemplate.queryForList(TAKE_INTENTS, Long.class,
+                    nodeId, batchSequences));
+
+            List<Object[]> rows = new ArrayList<>();
+            List<Object[]> movements = new ArrayList<>();
+            List<Object[]> events = new ArrayList<>();
+            List<Object[]> deadLetters = new ArrayList<>();
+            Set<Long> touchedInventories = new LinkedHashSet<>();
+            Set<Long> applied = new HashSet<>();
+            List<HotSkuEntry> quarantined = new ArrayList<>();
+
+            int start = 0;
+            while (start < sorted.size()) {
+                HotSkuEntry first = sorted.get(start);
+                int end = start;
+                while (end < sorted.size() && sorted.get(end).getProductId() == first.getProductId()
+                        && sorted.get(end).getLocationId() == first.getLocationId()) {
+                    end++;
+                }
+                List<HotSkuEntry> group = sorted.subList(start, end).stream()
+                        .filter(entry -> committed.contains(entry.getSequence()))
+                        .toList();
+                start = end;
+                if (group.isEmpty()) {
+                    continue;
+                }
+
+                List<Map<String, Object>> locked = jdbcTemplate.queryForList(LOCK_ROW,
+                        first.getProductId(), first.getLocationId());
+                if (locked.isEmpty()) {
+                    // Estoque removido junto com o produto: não há onde aplicar
+                    for (HotSkuEntry entry : group) {
+                        deadLetters.add(deadLetter(nodeId, entry, null, "Linha de estoque do local não existe"));
+                        quarantined.add(entry);
+                    }
+                    continue;
+                }
+
+                long rowId = ((Number) locked.get(0).get("id")).longValue();
+                int quantity = ((Number) locked.get(0).get("quantity")).intValue();
+                int initial = quantity;
+
+                for (HotSkuEntry entry : group) {
+                    int before = quantity;
+                    if (before + entry.getDelta() < 0) {
+                        deadLetters.add(deadLetter(nodeId, entry, before, String.format(
+                                "Saldo ficaria negativo (%d%+d)", before, entry.getDelta())));
+                        quarantined.add(entry);
+                        continue;
+                    }
+                    quantity += entry.getDelta();
+
+                    Timestamp createdAt = new Timestamp(entry.getCreatedAt());
+                    movements.add(new Object[]{entry.getInventoryId(), entry.getProductId(), entry.getLocationId(),
+                            entry.getType().name(), Math.abs(entry.getDelta()), entry.getDelta(), before, quantity,
+                            entry.getReason(), entry.getUserId(), entry.getSaleId(), createdAt});
+                    events.add(new Object[]{entry.getInventoryId(), entry.getProductId(), entry.getInventoryId(),
+                            entry.getLocationId(), entry.getType().name(), entry.getDelta(), before, quantity,
+                            entry.getSaleId(), entry.getUserId(), createdAt});
+                    applied.add(entry.getSequence());
+                }
+
+                if (quantity != initial) {
+                    rows.add(new Object[]{quantity, rowId});
+                    touchedInventories.add(first.getInventoryId());
+                }
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_MOVEMENT, movements);
+            jdbcTemplate.batchUpdate(UPDATE_ROW, rows);
+            jdbcTemplate.batchUpdate(INSERT_STOCK_EVENT, events);
+            jdbcTemplate.batchUpdate(INSERT_DEAD_LETTER, deadLetters);
+            // Saldo gravado mudou: os caches e ETags do catálogo são invalidados no commit do lote. A
+            // última atualização vem de inventory_locations.updated_at; a linha de inventory não é escrita
+            touchedInventories.forEach(inventoryId -> cacheInvalidationService.publish("inventory", inventoryId));
+            saveCheckpoint(nodeId, checkpoint);
+            return new FlushResult(applied, quarantined);
+        });
+    }
+
+    // Dentro da transação do lote ou sozinho, quando só há descartes a registrar
+    public void saveCheckpoint(String nodeId, long checkpoint) {
+        jdbcTemplate.update(SAVE_CHECKPOINT, nodeId, checkpoint);
+    }
+
+    public long loadCheckpoint(String nodeId) {
+        List<Long> checkpoint = jdbcTemplate.queryForList(
+                "SELECT last_seq FROM hot_sku_checkpoints WHERE node_id = ?", Long.class, nodeId);
+        return checkpoint.isEmpty() ? 0 : checkpoint.get(0);
+    }
+
+    private static Object[] deadLetter(String nodeId, HotSkuEntry entry, Integer quantityBefore, String error) {
+        return new Object[]{nodeId, entry.getSequence(), entry.getProductId(), entry.getLocationId(),
+                entry.getInventoryId(), entry.getType().name(), entry.getDelta(), quantityBefore, entry.getReason(),
+                entry.getUserId(), entry.getSaleId(), new Timestamp(entry.getCreatedAt()), error};
+    }
+
+    /**
+     * Sequências gravadas no banco e entradas enviadas para a fila de erro; as
+     * demais entradas do lote não tinham intenção e foram descartadas.
+     */
+    @Getter
+    @AllArgsConstructor
+    static class FlushResult {
+        private final Set<Long> applied;
+        private final List<HotSkuEntry> quarantined;
+    }
+}
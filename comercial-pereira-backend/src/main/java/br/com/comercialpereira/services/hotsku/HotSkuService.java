@@ -0,0 +1,603 @@
+package br.com.comercialpereira.services.hotsku;
+
+import br.com.comercialpereira.dto.inventory.HotSkuResponse;
+import br.com.comercialpereira.entity.StockLocation;
+import br.com.comercialpereira.enums.MovementType;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.repository.StockLocationRepository;
+import br.com.comercialpereira.services.audit.AuditService;
+import br.com.comercialpereira.services.count.LocationFreezeRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Modo de alta concorrência por produto (promoções com centenas de saídas por
+ * segundo no mesmo item).
+ *
+ * Com o modo ligado, o estoque do produto no local padrão fica num
+ * {@link StripedStockCounter}: a saída desconta do contador sem travar a linha
+ * de inventory_locations. A movimentação vai para o {@link HotSkuWal} antes do
+ * commit da transação de quem a pediu (a venda, por exemplo) e, confirmada, entra
+ * na fila que o {@link HotSkuFlusher} grava em lote. Um rollback devolve a
+ * quantidade ao contador; entradas só somam depois do commit.
+ *
+ * A confirmação de cada entrada é a linha (instância, sequência) que ela grava
+ * em hot_sku_wal_intents na mesma transação de quem a pediu: o lote só aplica
+ * entradas com intenção. Os marcadores ABORT do WAL são só um atalho para a
+ * recuperação; sem eles, a falta de intenção decide.
+ *
+ * Na partida o WAL é relido: entradas com intenção que ainda não chegaram ao
+ * banco são gravadas, as sem intenção são descartadas e só então os contadores
+ * são carregados do banco. Até lá, movimentações desses produtos respondem 503.
+ *
+ * Contadores e WAL ficam na instância que ativou o modo (owner_node em
+ * hot_sku_products). As demais instâncias recusam movimentações do produto com
+ * 409, conferindo hot_sku_products com a linha do local já travada.
+ */
+@Service
+@Slf4j
+public class HotSkuService implements SmartLifecycle {
+
+    private static final String ENABLED_SQL = """
+            SELECT h.product_id, h.location_id, il.inventory_id, il.quantity
+            FROM hot_sku_products h
+            JOIN inventory_locations il ON il.product_id = h.product_id AND il.location_id = h.location_id
+            WHERE h.owner_node = ?
+            """;
+
+    private static final String INVENTORY_SQL = """
+            SELECT i.id, i.location
+            FROM inventory i
+            JOIN products p ON p.id = i.product_id
+            WHERE i.product_id = ? AND p.is_active = true
+            """;
+
+    private static final String ENSURE_ROW = """
+            INSERT INTO inventory_locations (inventory_id, product_id, location_id, quantity)
+            VALUES (?, ?, ?, 0)
+            ON CONFLICT (product_id, location_id) DO NOTHING
+            """;
+
+    private static final String LOCK_ROW =
+            "SELECT quantity FROM inventory_locations WHERE product_id = ? AND location_id = ? FOR UPDATE";
+
+    private static final String OWNER_SQL =
+            "SELECT owner_node FROM hot_sku_products WHERE product_id = ? AND location_id = ?";
+
+    private static final String LIST_SQL = """
+            SELECT h.product_id, p.code, p.name, h.location_id, sl.code AS location_code, il.quantity,
+                   h.owner_node, h.enabled_by, h.enabled_at
+            FROM hot_sku_products h
+            JOIN products p ON p.id = h.product_id
+            JOIN stock_locations sl ON sl.id = h.location_id
+            LEFT JOIN inventory_locations il ON il.product_id = h.product_id AND il.location_id = h.location_id
+            ORDER BY p.name
+            """;
+
+    private final HotSkuWal wal;
+    private final HotSkuFlusher flusher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockLocationRepository stockLocationRepository;
+    private final LocationFreezeRegistry freezeRegistry;
+    private final AuditService auditService;
+    private final int batchSize;
+    private final int stripes;
+    private final long disableTimeoutMs;
+
+    private final Map<Long, HotSku> hotSkus = new ConcurrentHashMap<>();
+    private final Deque<HotSkuEntry> pending = new ConcurrentLinkedDeque<>();
+    // Commit de resultado desconhecido: o contador só é acertado quando o lote conferir a intenção
+    private final Set<Long> uncertain = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private volatile boolean recovered;
+
+    public HotSkuService(HotSkuWal wal,
+                         HotSkuFlusher flusher,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         StockLocationRepository stockLocationRepository,
+                         LocationFreezeRegistry freezeRegistry,
+                         AuditService auditService,
+                         @Value("${comercial.inventory.hot-sku.batch-size:1000}") int batchSize,
+                         @Value("${comercial.inventory.hot-sku.stripes:16}") int stripes,
+                         @Value("${comercial.inventory.hot-sku.disable-timeout-ms:5000}") long disableTimeoutMs) {
+        this.wal = wal;
+        this.flusher = flusher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stockLocationRepository = stockLocationRepository;
+        this.freezeRegistry = freezeRegistry;
+        this.auditService = auditService;
+        this.batchSize = batchSize;
+        this.stripes = stripes;
+        this.disableTimeoutMs = disableTimeoutMs;
+    }
+
+    // =================== MOVIMENTAÇÃO ===================
+
+    public boolean isHot(Long productId, Long locationId) {
+        if (!recovered) {
+            if (isOwner(jdbcTemplate.queryForList(OWNER_SQL, String.class, productId, locationId))) {
+                throw new ApiException("Estoque do produto em recuperação; tente novamente em instantes",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            return false;
+        }
+        HotSku hot = hotSkus.get(productId);
+        return hot != null && hot.locationId == locationId;
+    }
+
+    /**
+     * Chamado com a linha do local travada, antes de movimentá-la: a ativação
+     * grava hot_sku_products com a mesma trava, então um produto que entrou no
+     * modo (nesta ou em outra instância) não recebe movimentação comum.
+     */
+    public void requireNotHot(Long productId, Long locationId) {
+        List<String> owners = jdbcTemplate.queryForList(OWNER_SQL, String.class, productId, locationId);
+        if (owners.isEmpty()) {
+            return;
+        }
+        if (isOwner(owners)) {
+            throw new ApiException("Produto em modo de alta concorrência neste local; desative o modo antes",
+                    HttpStatus.CONFLICT);
+        }
+        throw new ApiException("Produto em modo de alta concorrência em outra instância (" + owners.get(0)
+                + "); movimente por ela ou desative o modo", HttpStatus.CONFLICT);
+    }
+
+    // Saldo do contador quando o produto está no modo nesta instância; null caso contrário
+    public Long counterQuantity(Long productId, Long locationId) {
+        HotSku hot = hotSkus.get(productId);
+        return hot != null && hot.locationId == locationId ? hot.counter.get() : null;
+    }
+
+    /**
+     * Movimenta o contador dentro da transação corrente. Retorna false se a
+     * saída deixaria o estoque negativo; nada é registrado nesse caso.
+     */
+    public boolean move(Long productId, Long locationId, int delta, MovementType type, String reason,
+                        Long userId, Long saleId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Movimentação em modo de alta concorrência exige transação ativa");
+        }
+        if (!wal.isOpen()) {
+            throw new ApiException("Registro de movimentações indisponível; tente novamente",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        HotSku hot = hotSkus.get(productId);
+        if (hot == null || hot.locationId != locationId || !hot.enter()) {
+            throw new ApiException("Produto saindo do modo de alta concorrência; tente novamente", HttpStatus.CONFLICT);
+        }
+
+        if (delta < 0 && !hot.counter.tryTake(-delta)) {
+            hot.exit();
+            return false;
+        }
+
+        HotSkuEntry entry = new HotSkuEntry(0, productId, locationId, hot.inventoryId, delta, type, userId, saleId,
+                System.currentTimeMillis(), reason);
+        TransactionSynchronizationManager.registerSynchronization(new EntrySynchronization(hot, entry));
+        return true;
+    }
+
+    // =================== ATIVAÇÃO ===================
+
+    public HotSkuResponse enable(Long productId, Long userId) {
+        requireRecovered();
+        StockLocation location = defaultLocation();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Map<String, Object>> inventory = jdbcTemplate.queryForList(INVENTORY_SQL, productId);
+            if (inventory.isEmpty()) {
+                throw new ApiException("Estoque não encontrado para este produto", HttpStatus.NOT_FOUND);
+            }
+            long inventoryId = ((Number) inventory.get(0).get("id")).longValue();
+
+            // A trava da linha separa o modo das movimentações comuns e da abertura de contagens
+            jdbcTemplate.update(ENSURE_ROW, inventoryId, productId, location.getId());
+            Integer quantity = jdbcTemplate.queryForObject(LOCK_ROW, Integer.class, productId, location.getId());
+            freezeRegistry.requireNotFrozen(location.getId(), (String) inventory.get(0).get("location"));
+
+            int inserted = jdbcTemplate.update("""
+                    INSERT INTO hot_sku_products (product_id, location_id, enabled_by, owner_node)
+                    VALUES (?, ?, ?, ?)
+                    ON CONFLICT DO NOTHING
+                    """, productId, location.getId(), userId, wal.getNodeId());
+            if (inserted == 0) {
+                throw new ApiException("Produto já está em modo de alta concorrência", HttpStatus.CONFLICT);
+            }
+
+            // Visível antes do commit: quem espera a trava da linha passa a usar o contador
+            HotSku hot = new HotSku(location.getId(), inventoryId, new StripedStockCounter(quantity, stripes));
+            hotSkus.put(productId, hot);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        hotSkus.remove(productId, hot);
+                    }
+                }
+            });
+        });
+
+        auditService.log(userId, "ENABLE_HOT_SKU", "PRODUCT", productId, Map.of("location", location.getCode()));
+        log.info("Produto {} em modo de alta concorrência no local {} por usuário {}",
+                productId, location.getCode(), userId);
+        return findAll().stream()
+                .filter(response -> response.getProductId().equals(productId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    public void disable(Long productId, Long userId) {
+        requireRecovered();
+        HotSku hot = hotSkus.get(productId);
+        if (hot == null) {
+            List<String> owners = jdbcTemplate.queryForList(
+                    "SELECT owner_node FROM hot_sku_products WHERE product_id = ?", String.class, productId);
+            if (!owners.isEmpty()) {
+                throw new ApiException("Produto em modo de alta concorrência na instância " + owners.get(0)
+                        + "; desative por ela", HttpStatus.CONFLICT);
+            }
+            throw new ApiException("Produto não está em modo de alta concorrência", HttpStatus.NOT_FOUND);
+        }
+
+        // Novas movimentações recebem 409; as em andamento terminam e vão para o banco
+        hot.closed = true;
+        try {
+            awaitIdle(hot);
+            if (!drain() || pending.stream().anyMatch(entry -> entry.getProductId() == productId)) {
+                throw new ApiException("Não foi possível gravar as movimentações pendentes; tente novamente",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            jdbcTemplate.update("DELETE FROM hot_sku_products WHERE product_id = ? AND location_id = ? AND owner_node = ?",
+                    productId, hot.locationId, wal.getNodeId());
+        } catch (RuntimeException e) {
+            hot.closed = false;
+            throw e;
+        }
+        hotSkus.remove(productId, hot);
+
+        auditService.log(userId, "DISABLE_HOT_SKU", "PRODUCT", productId, Map.of("quantity", hot.counter.get()));
+        log.info("Produto {} saiu do modo de alta concorrência com {} unidades", productId, hot.counter.get());
+    }
+
+    public List<HotSkuResponse> findAll() {
+        Map<Long, Long> pendingByProduct = pending.stream()
+                .collect(Collectors.groupingBy(HotSkuEntry::getProductId, Collectors.counting()));
+
+        return jdbcTemplate.query(LIST_SQL, (rs, rowNum) -> {
+            long productId = rs.getLong("product_id");
+            HotSku hot = hotSkus.get(productId);
+            Timestamp enabledAt = rs.getTimestamp("enabled_at");
+            return HotSkuResponse.builder()
+                    .productId(productId)
+                    .productCode(rs.getString("code"))
+                    .productName(rs.getString("name"))
+                    .locationId(rs.getLong("location_id"))
+                    .locationCode(rs.getString("location_code"))
+                    .quantity(hot != null ? hot.counter.get() : null)
+                    .persistedQuantity(rs.getInt("quantity"))
+                    .pendingMovements(pendingByProduct.getOrDefault(productId, 0L).intValue())
+                    .ownerNode(rs.getString("owner_node"))
+                    .enabledBy(rs.getObject("enabled_by") != null ? rs.getLong("enabled_by") : null)
+                    .enabledAt(enabledAt != null ? enabledAt.toLocalDateTime() : null)
+                    .build();
+        });
+    }
+
+    // =================== GRAVAÇÃO EM LOTE ===================
+
+    @Scheduled(fixedDelayString = "${comercial.inventory.hot-sku.flush-interval-ms:200}")
+    public void flush() {
+        if (!running) {
+            return;
+        }
+        if (drain() && !recovered && wal.isOpen()) {
+            finishRecovery();
+        }
+    }
+
+    // Grava a fila inteira; false se um lote falhou e voltou para a fila
+    private boolean drain() {
+        flushLock.lock();
+        try {
+            while (!pending.isEmpty()) {
+                List<HotSkuEntry> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                HotSkuEntry entry;
+                while (batch.size() < batchSize && (entry = pending.poll()) != null) {
+                    batch.add(entry);
+                }
+
+                Set<Long> sequences = batch.stream().map(HotSkuEntry::getSequence).collect(Collectors.toSet());
+                long checkpoint = wal.resolvedThrough(sequences);
+                HotSkuFlusher.FlushResult result;
+                try {
+                    result = flusher.apply(wal.getNodeId(), batch, checkpoint);
+                } catch (RuntimeException e) {
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        pending.addFirst(batch.get(i));
+                    }
+                    log.error("Erro ao gravar {} movimentações de alta concorrência; nova tentativa no próximo ciclo",
+                            batch.size(), e);
+                    return false;
+                }
+
+                settle(batch, result);
+                wal.resolve(sequences);
+                wal.deleteSegmentsThrough(checkpoint);
+                log.debug("Alta concorrência: {} de {} movimentações gravadas (checkpoint {})",
+                        result.getApplied().size(), batch.size(), checkpoint);
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // =================== CICLO DE VIDA ===================
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        try {
+            WalReplay replay = wal.open();
+            long checkpoint = flusher.loadCheckpoint(wal.getNodeId());
+
+            // O lote aplica as que têm intenção e descarta as demais; gravadas antes da queda não têm mais intenção
+            int replayed = 0;
+            for (HotSkuEntry entry : replay.getEntries()) {
+                long sequence = entry.getSequence();
+                if (sequence <= checkpoint || replay.getAborted().contains(sequence)) {
+                    continue;
+                }
+                wal.track(sequence);
+                pending.add(entry);
+                replayed++;
+            }
+
+            log.info("WAL de alta concorrência: {} movimentações a conferir com as intenções gravadas (checkpoint {})",
+                    replayed, checkpoint);
+        } catch (IOException | RuntimeException e) {
+            log.error("Falha ao recuperar o WAL de alta concorrência; produtos no modo ficam indisponíveis até reiniciar", e);
+            return;
+        }
+
+        if (drain()) {
+            finishRecovery();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // O que não for gravado agora continua no WAL para a próxima partida
+        drain();
+        wal.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Sobe antes do servidor web e para depois dele: nenhuma requisição encontra o WAL fechado
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 4096;
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    // Banco em dia com o WAL: os contadores partem das linhas gravadas
+    private void finishRecovery() {
+        try {
+            long checkpoint = wal.resolvedThrough(Set.of());
+            flusher.saveCheckpoint(wal.getNodeId(), checkpoint);
+            wal.deleteSegmentsThrough(checkpoint);
+
+            // Produtos ativados antes do dono ser registrado ficam com a primeira instância recuperada
+            jdbcTemplate.update("UPDATE hot_sku_products SET owner_node = ? WHERE owner_node IS NULL", wal.getNodeId());
+            jdbcTemplate.query(ENABLED_SQL, rs -> {
+                hotSkus.put(rs.getLong("product_id"), new HotSku(rs.getLong("location_id"), rs.getLong("inventory_id"),
+                        new StripedStockCounter(rs.getInt("quantity"), stripes)));
+            }, wal.getNodeId());
+            recovered = true;
+            log.info("{} produtos em modo de alta concorrência", hotSkus.size());
+        } catch (RuntimeException e) {
+            log.error("Erro ao carregar os produtos em modo de alta concorrência; nova tentativa no próximo ciclo", e);
+        }
+    }
+
+    // Acerta os contadores pelo que o lote fez com cada entrada
+    private void settle(List<HotSkuEntry> batch, HotSkuFlusher.FlushResult result) {
+        Set<Long> quarantined = new HashSet<>();
+        for (HotSkuEntry entry : result.getQuarantined()) {
+            quarantined.add(entry.getSequence());
+            log.error("Movimentação {} do WAL enviada para hot_sku_dead_letters: {}", entry.getSequence(), entry);
+            mark(HotSkuWal.ABORT, entry.getSequence());
+        }
+
+        for (HotSkuEntry entry : batch) {
+            boolean applied = result.getApplied().contains(entry.getSequence());
+            boolean wasUncertain = uncertain.remove(entry.getSequence());
+            HotSku hot = hotSkus.get(entry.getProductId());
+            if (hot == null || hot.locationId != entry.getLocationId()) {
+                // Recuperação: os contadores ainda serão carregados do banco
+                continue;
+            }
+
+            if (applied) {
+                // Entrada só soma no commit; com resultado desconhecido ela ainda não tinha somado
+                if (wasUncertain && entry.getDelta() > 0) {
+                    hot.counter.add(entry.getDelta());
+                }
+            } else if (entry.getDelta() < 0 && (wasUncertain || quarantined.contains(entry.getSequence()))) {
+                // Saída descontada do contador que não chegou ao banco: devolve
+                hot.counter.add(-entry.getDelta());
+            }
+        }
+    }
+
+    private boolean isOwner(List<String> owners) {
+        return !owners.isEmpty() && owners.get(0) != null && owners.get(0).equals(wal.getNodeId());
+    }
+
+    private void awaitIdle(HotSku hot) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(disableTimeoutMs);
+        while (hot.inFlight.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new ApiException("Movimentações do produto ainda em andamento; tente novamente",
+                        HttpStatus.CONFLICT);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ApiException("Operação interrompida", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+    }
+
+    private void requireRecovered() {
+        if (!recovered) {
+            throw new ApiException("Modo de alta concorrência em recuperação; tente novamente em instantes",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private StockLocation defaultLocation() {
+        return stockLocationRepository.findByIsDefaultTrue()
+                .orElseThrow(() -> new ApiException("Local de estoque padrão não configurado",
+                        HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    private void mark(byte type, long sequence) {
+        try {
+            wal.mark(type, sequence);
+        } catch (IOException e) {
+            // Sem o marcador a recuperação decide pela intenção gravada no banco
+            log.error("Não foi possível marcar a movimentação {} no WAL", sequence, e);
+        }
+    }
+
+    private static class HotSku {
+        private final long locationId;
+        private final long inventoryId;
+        private final StripedStockCounter counter;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean closed;
+
+        private HotSku(long locationId, long inventoryId, StripedStockCounter counter) {
+            this.locationId = locationId;
+            this.inventoryId = inventoryId;
+            this.counter = counter;
+        }
+
+        // Conta antes de olhar o fechamento: quem fecha espera inFlight zerar
+        private boolean enter() {
+            inFlight.incrementAndGet();
+            if (closed) {
+                inFlight.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void exit() {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // Liga a movimentação do contador ao resultado da transação de quem a pediu
+    private class EntrySynchronization implements TransactionSynchronization {
+
+        private final HotSku hot;
+        private final HotSkuEntry entry;
+        private long sequence;
+
+        private EntrySynchronization(HotSku hot, HotSkuEntry entry) {
+            this.hot = hot;
+            this.entry = entry;
+        }
+
+        // Em disco antes do commit e intenção na mesma transação: se o banco confirmar, a movimentação sobrevive a uma queda
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            try {
+                sequence = wal.append(entry);
+                wal.sync(sequence);
+            } catch (IOException e) {
+                log.error("Erro ao gravar movimentação do produto {} no WAL", entry.getProductId(), e);
+                throw new ApiException("Não foi possível registrar a movimentação; tente novamente",
+                        HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            flusher.recordIntent(wal.getNodeId(), sequence);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (status == STATUS_COMMITTED) {
+                    if (entry.getDelta() > 0) {
+                        hot.counter.add(entry.getDelta());
+                    }
+                    pending.add(entry.withSequence(sequence));
+                    return;
+                }
+
+                if (status == STATUS_UNKNOWN && sequence > 0) {
+                    // A intenção decide no próximo lote; até lá a saída continua descontada
+                    log.warn("Resultado do commit desconhecido para a movimentação {} do produto {}; conferida no lote",
+                            sequence, entry.getProductId());
+                    uncertain.add(sequence);
+                    pending.add(entry.withSequence(sequence));
+                    return;
+                }
+                if (entry.getDelta() < 0) {
+                    hot.counter.add(-entry.getDelta());
+                }
+                if (sequence > 0) {
+                    mark(HotSkuWal.ABORT, sequence);
+                }
+            } finally {
+                hot.exit();
+            }
+        }
+    }
+}
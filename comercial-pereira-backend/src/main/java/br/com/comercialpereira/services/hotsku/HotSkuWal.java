@@ -0,0 +1,334 @@
+package br.com.comercialpereira.services.hotsku;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Log local (write-ahead) das movimentações de produtos em modo de alta concorrência.
+ *
+ * Cada quadro é [tamanho][crc32][tipo][sequência][dados], gravado no fim do
+ * segmento atual. Uma movimentação grava ENTRY antes do commit da transação e,
+ * se ela for desfeita, ABORT com a mesma sequência. A confirmação fica no
+ * banco (hot_sku_wal_intents); o ABORT só poupa a conferência na recuperação.
+ * Na abertura todos os segmentos são lidos até o último quadro íntegro e a
+ * gravação continua num segmento novo, deixando para trás um eventual quadro
+ * cortado pela queda.
+ *
+ * A sincronização com o disco é agrupada: quem chega enquanto outra thread
+ * força o canal espera e, em geral, já encontra a sua entrada gravada.
+ * Segmentos cujas sequências estão todas até o checkpoint são apagados.
+ */
+@Component
+@Slf4j
+public class HotSkuWal {
+
+    static final byte ENTRY = 1;
+    // Gravado por versões anteriores; lido e ignorado
+    static final byte COMMIT = 2;
+    static final byte ABORT = 3;
+
+    private static final String SEGMENT_PREFIX = "hot-sku-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String ID_FILE = "node.id";
+    private static final int FRAME_HEADER = 8;
+    private static final int RECORD_HEADER = 9;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final CRC32 writeCrc = new CRC32();
+    private final Object forceLock = new Object();
+    private final AtomicLong durableSequence = new AtomicLong();
+
+    // Última sequência (entrada ou marcador) de cada segmento
+    private final TreeMap<Long, Long> segmentLastSequence = new TreeMap<>();
+    // Entradas gravadas que ainda não foram aplicadas ao banco nem descartadas
+    private final TreeSet<Long> unresolved = new TreeSet<>();
+
+    @Getter
+    private String nodeId;
+
+    private FileChannel current;
+    private long currentSegment;
+    private long nextSequence = 1;
+
+    private volatile boolean open;
+
+    public HotSkuWal(@Value("${comercial.inventory.hot-sku.wal.dir:data/hot-sku}") String directory,
+                     @Value("${comercial.inventory.hot-sku.wal.segment-size-mb:64}") int segmentSizeMb,
+                     @Value("${comercial.inventory.hot-sku.wal.fsync:true}") boolean fsync) {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024L * 1024L;
+        this.fsync = fsync;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    // =================== OPEN / RECOVERY ===================
+
+    synchronized WalReplay open() throws IOException {
+        Files.createDirectories(directory);
+        nodeId = loadOrCreateId();
+
+        List<HotSkuEntry> entries = new ArrayList<>();
+        Set<Long> aborted = new HashSet<>();
+        long lastSequence = 0;
+
+        List<Long> segments = listSegments();
+        for (Long segment : segments) {
+            long segmentLast = readSegment(segment, entries, aborted);
+            segmentLastSequence.put(segment, segmentLast);
+            lastSequence = Math.max(lastSequence, segmentLast);
+        }
+
+        nextSequence = lastSequence + 1;
+        durableSequence.set(lastSequence);
+        openSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1);
+        open = true;
+
+        log.info("WAL de alta concorrência {} aberto em {} ({} segmentos lidos, {} entradas, próxima sequência {})",
+                nodeId, directory.toAbsolutePath(), segments.size(), entries.size(), nextSequence);
+        return new WalReplay(entries, aborted);
+    }
+
+    // Entrada lida na recuperação que ainda precisa ir para o banco
+    synchronized void track(long sequence) {
+        unresolved.add(sequence);
+    }
+
+    // =================== WRITE ===================
+
+    synchronized long append(HotSkuEntry entry) throws IOException {
+        requireOpen();
+        long sequence = nextSequence++;
+        write(ENTRY, sequence, entry.encode());
+        unresolved.add(sequence);
+        return sequence;
+    }
+
+    synchronized void mark(byte type, long sequence) throws IOException {
+        if (type == ABORT) {
+            unresolved.remove(sequence);
+        }
+        requireOpen();
+        write(type, sequence, new byte[0]);
+    }
+
+    // Garante em disco todas as entradas até a sequência informada
+    void sync(long sequence) throws IOException {
+        if (!fsync || durableSequence.get() >= sequence) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durableSequence.get() >= sequence) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            synchronized (this) {
+                requireOpen();
+                channel = current;
+                target = nextSequence - 1;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Segmento trocado no meio do caminho: a troca já forçou o anterior
+                if (durableSequence.get() < sequence) {
+                    throw e;
+                }
+                return;
+            }
+            durableSequence.accumulateAndGet(target, Math::max);
+        }
+    }
+
+    synchronized void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        try {
+            current.force(false);
+            current.close();
+        } catch (IOException e) {
+            log.error("Erro ao fechar o WAL de alta concorrência", e);
+        }
+        log.info("WAL de alta concorrência fechado na sequência {}", nextSequence - 1);
+    }
+
+    // =================== CHECKPOINT ===================
+
+    // Maior sequência até a qual tudo está resolvido, contando as que acabaram de ir para o banco
+    synchronized long resolvedThrough(Collection<Long> flushed) {
+        for (Long sequence : unresolved) {
+            if (!flushed.contains(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return nextSequence - 1;
+    }
+
+    synchronized void resolve(Collection<Long> flushed) {
+        unresolved.removeAll(flushed);
+    }
+
+    synchronized void deleteSegmentsThrough(long checkpoint) {
+        var iterator = segmentLastSequence.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Long> segment = iterator.next();
+            if (segment.getKey() == currentSegment || segment.getValue() > checkpoint) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(segmentPath(segment.getKey()));
+                iterator.remove();
+                log.debug("WAL de alta concorrência: segmento {} removido", segment.getKey());
+            } catch (IOException e) {
+                log.warn("Não foi possível remover o segmento {} do WAL", segment.getKey(), e);
+            }
+        }
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    private void write(byte type, long sequence, byte[] payload) throws IOException {
+        int length = RECORD_HEADER + payload.length;
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + length);
+        frame.putInt(length);
+        frame.putInt(0);
+        frame.put(type);
+        frame.putLong(sequence);
+        frame.put(payload);
+
+        writeCrc.reset();
+        writeCrc.update(frame.array(), FRAME_HEADER, length);
+        frame.putInt(4, (int) writeCrc.getValue());
+        frame.flip();
+
+        try {
+            while (frame.hasRemaining()) {
+                current.write(frame);
+            }
+            segmentLastSequence.merge(currentSegment, sequence, Math::max);
+            if (current.position() >= segmentSize) {
+                roll();
+            }
+        } catch (IOException e) {
+            // Um quadro cortado no meio esconderia os seguintes na leitura: o WAL para de aceitar gravações
+            open = false;
+            log.error("Falha ao gravar no WAL de alta concorrência; gravações suspensas até reiniciar", e);
+            throw e;
+        }
+    }
+
+    private void roll() throws IOException {
+        current.force(false);
+        durableSequence.accumulateAndGet(nextSequence - 1, Math::max);
+        current.close();
+        openSegment(currentSegment + 1);
+        log.debug("WAL de alta concorrência: novo segmento {}", currentSegment);
+    }
+
+    private void openSegment(long segment) throws IOException {
+        current = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        currentSegment = segment;
+        segmentLastSequence.putIfAbsent(segment, 0L);
+    }
+
+    // Lê os quadros íntegros do segmento e devolve a maior sequência encontrada
+    private long readSegment(long segment, List<HotSkuEntry> entries, Set<Long> aborted) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segmentPath(segment)));
+        CRC32 crc = new CRC32();
+        long lastSequence = 0;
+
+        int position = 0;
+        while (position + FRAME_HEADER + RECORD_HEADER <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_HEADER || position + FRAME_HEADER + length > buffer.limit()) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.array(), position + FRAME_HEADER, length);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+
+            ByteBuffer record = buffer.slice(position + FRAME_HEADER, length);
+            byte type = record.get();
+            long sequence = record.getLong();
+            switch (type) {
+                case ENTRY -> entries.add(HotSkuEntry.decode(sequence, record));
+                case COMMIT -> { }
+                case ABORT -> aborted.add(sequence);
+                default -> log.warn("Tipo de registro {} desconhecido no segmento {} do WAL", type, segment);
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            position += FRAME_HEADER + length;
+        }
+
+        if (position < buffer.limit()) {
+            log.warn("WAL de alta concorrência: segmento {} termina com {} bytes ilegíveis (gravação interrompida)",
+                    segment, buffer.limit() - position);
+        }
+        return lastSequence;
+    }
+
+    private void requireOpen() throws IOException {
+        if (!open) {
+            throw new IOException("WAL de alta concorrência fechado");
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // Identifica esta instância nos checkpoints; um diretório novo gera um id novo
+    private String loadOrCreateId() throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+}
@@ -0,0 +1,99 @@
+package br.com.comercialpereira.services.hotsku;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Saldo de estoque dividido em faixas, no estilo do LongAdder, mas com piso.
+ *
+ * Cada thread retira da sua faixa com um CAS que só passa se a faixa tem a
+ * quantidade inteira; nenhuma faixa fica negativa. Quando a faixa da thread não
+ * basta, a retirada lenta (sincronizada) zera todas as faixas, confere o total,
+ * desconta e redistribui o restante. Como toda retirada sai de saldo existente,
+ * a soma das retiradas bem-sucedidas nunca passa do que entrou no contador.
+ *
+ * Uma retirada pode falhar com saldo suficiente se uma entrada chegar durante a
+ * redistribuição; o contrário (vender o que não existe) não acontece.
+ */
+public class StripedStockCounter {
+
+    // Uma faixa por linha de cache (8 longs = 64 bytes)
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+    private final int mask;
+
+    public StripedStockCounter(long initial, int stripes) {
+        if (initial < 0) {
+            throw new IllegalArgumentException("Saldo inicial negativo: " + initial);
+        }
+        this.stripes = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = this.stripes - 1;
+        this.cells = new AtomicLongArray(this.stripes * PADDING);
+        redistribute(initial);
+    }
+
+    public boolean tryTake(long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantidade deve ser positiva: " + quantity);
+        }
+
+        int cell = cellOf(Thread.currentThread());
+        long current = cells.get(cell);
+        while (current >= quantity) {
+            if (cells.compareAndSet(cell, current, current - quantity)) {
+                return true;
+            }
+            current = cells.get(cell);
+        }
+        return takeSlow(quantity);
+    }
+
+    public void add(long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantidade deve ser positiva: " + quantity);
+        }
+        cells.getAndAdd(cellOf(Thread.currentThread()), quantity);
+    }
+
+    // Soma das faixas; com retiradas concorrentes é apenas uma fotografia
+    public long get() {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    public int stripes() {
+        return stripes;
+    }
+
+    private synchronized boolean takeSlow(long quantity) {
+        long total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+
+        boolean taken = total >= quantity;
+        redistribute(taken ? total - quantity : total);
+        return taken;
+    }
+
+    // Soma (não sobrescreve): entradas concorrentes podem ter caído em faixas já zeradas
+    private void redistribute(long total) {
+        long share = total / stripes;
+        long remainder = total % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                cells.getAndAdd(i * PADDING, amount);
+            }
+        }
+    }
+
+    private int cellOf(Thread thread) {
+        long hash = thread.getId() * 0x9E3779B97F4A7C15L;
+        return ((int) (hash >>> 32) & mask) * PADDING;
+    }
+}
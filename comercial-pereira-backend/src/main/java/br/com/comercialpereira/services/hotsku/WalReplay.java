@@ -0,0 +1,18 @@
+package br.com.comercialpereira.services.hotsku;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Conteúdo do WAL lido na abertura: entradas em ordem de sequência e as
+ * sequências marcadas como descartadas.
+ */
+@Getter
+@AllArgsConstructor
+class WalReplay {
+    private final List<HotSkuEntry> entries;
+    private final Set<Long> aborted;
+}
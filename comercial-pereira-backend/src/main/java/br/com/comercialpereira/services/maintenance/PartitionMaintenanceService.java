@@ -0,0 +1,88 @@
+package br.com.comercialpereira.services.maintenance;
+
+import br.com.comercialpereira.services.archive.ArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Manutenção das partições mensais de sales e inventory_movements.
+ *
+ * Mantém partições criadas para os próximos meses (as funções ficam na migração
+ * V6) e, se configurado, tira do banco os meses mais antigos que o período de
+ * retenção. Um mês só sai depois de exportado pelo {@link ArchiveService}; o
+ * que ainda não pode ser arquivado continua anexado.
+ */
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    public static final List<String> PARTITIONED_TABLES = List.of("sales", "inventory_movements");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ArchiveService archiveService;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int detachAfterMonths;
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       ArchiveService archiveService,
+                                       @Value("${comercial.partitioning.enabled:true}") boolean enabled,
+                                       @Value("${comercial.partitioning.months-ahead:3}") int monthsAhead,
+                                       @Value("${comercial.partitioning.detach-after-months:0}") int detachAfterMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveService = archiveService;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.detachAfterMonths = detachAfterMonths;
+    }
+
+    // Uma instância parada por meses cria as partições que faltam ao subir
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${comercial.partitioning.cron:0 15 2 * * *}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                ensurePartitions(table);
+            } catch (RuntimeException e) {
+                log.error("Erro na manutenção de partições da tabela {}", table, e);
+            }
+        }
+
+        if (detachAfterMonths > 0) {
+            List<YearMonth> archived = archiveService.archiveBefore(YearMonth.now().minusMonths(detachAfterMonths));
+            if (!archived.isEmpty()) {
+                log.info("Meses arquivados e removidos das partições: {}", archived);
+            }
+        }
+    }
+
+    public List<String> ensurePartitions(String table) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT * FROM ensure_monthly_partitions(?, ?)", String.class, requireTable(table), monthsAhead);
+        log.debug("Partições garantidas para {}: {}", table, partitions);
+        return partitions;
+    }
+
+    private String requireTable(String table) {
+        if (!PARTITIONED_TABLES.contains(table)) {
+            throw new IllegalArgumentException("Tabela não particionada: " + table);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.comercialpereira.services.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento lido do outbox. O payload é o JSON gravado pelo {@link OutboxPublisher}.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class OutboxEvent {
+    private final long id;
+    private final long txId;
+    private final String aggregateType;
+    private final Long aggregateId;
+    private final String eventType;
+    private final String payload;
+    private final LocalDateTime createdAt;
+
+    public boolean is(OutboxEventType type) {
+        return type.name().equals(eventType);
+    }
+}
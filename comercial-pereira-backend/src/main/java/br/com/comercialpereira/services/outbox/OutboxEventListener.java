@@ -0,0 +1,25 @@
+package br.com.comercialpereira.services.outbox;
+
+import java.util.List;
+
+/**
+ * Consumidor de eventos do outbox.
+ *
+ * Cada consumidor tem sua própria posição de entrega. O lote é entregue dentro da
+ * transação que avança essa posição: se o listener lançar exceção, o lote inteiro
+ * é reentregue no próximo ciclo, e escritas no banco feitas pelo listener são
+ * confirmadas junto com o avanço.
+ */
+public interface OutboxEventListener {
+
+    /**
+     * Nome estável do consumidor, usado como chave em outbox_offsets.
+     */
+    String consumerName();
+
+    default boolean accepts(OutboxEvent event) {
+        return true;
+    }
+
+    void onEvents(List<OutboxEvent> events);
+}
@@ -0,0 +1,7 @@
+package br.com.comercialpereira.services.outbox;
+
+public enum OutboxEventType {
+    STOCK_CHANGED,
+    SALE_COMPLETED,
+    SALE_CANCELLED
+}
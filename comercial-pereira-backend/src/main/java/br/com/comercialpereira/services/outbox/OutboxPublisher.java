@@ -0,0 +1,51 @@
+package br.com.comercialpereira.services.outbox;
+
+import br.com.comercialpereira.exception.ApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Grava eventos no outbox na transação de quem alterou os dados: um rollback
+ * descarta o evento junto com a alteração.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxPublisher {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) VALUES (?, ?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String aggregateType, Long aggregateId, OutboxEventType type, Object payload) {
+        jdbcTemplate.update(INSERT_SQL, aggregateType, aggregateId, type.name(), toJson(payload));
+        log.debug("Evento {} registrado no outbox: {}#{}", type, aggregateType, aggregateId);
+    }
+
+    public <T> T read(OutboxEvent event, Class<T> payloadType) {
+        try {
+            return objectMapper.readValue(event.getPayload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload inválido no evento " + event.getId(), e);
+        }
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("Erro ao serializar evento do outbox", e);
+            throw new ApiException("Erro ao registrar evento", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package br.com.comercialpereira.services.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Entrega os eventos do outbox aos {@link OutboxEventListener}s em lotes.
+ *
+ * Para cada consumidor, a linha de posição é travada com FOR UPDATE SKIP LOCKED:
+ * com várias instâncias, só uma processa aquele consumidor por vez e as demais
+ * seguem para o próximo sem esperar. Só são lidos eventos de transações mais
+ * antigas que a menor transação ainda aberta, então nada confirmado depois
+ * fica para trás do cursor.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String REGISTER_SQL =
+            "INSERT INTO outbox_offsets (consumer) VALUES (?) ON CONFLICT (consumer) DO NOTHING";
+
+    private static final String LOCK_OFFSET_SQL =
+            "SELECT last_tx_id, last_event_id FROM outbox_offsets WHERE consumer = ? FOR UPDATE SKIP LOCKED";
+
+    private static final String FETCH_SQL = """
+            SELECT id, tx_id, aggregate_type, aggregate_id, event_type, payload::text AS payload, created_at
+            FROM outbox_events
+            WHERE (tx_id, id) > (?, ?)
+              AND tx_id < txid_snapshot_xmin(txid_current_snapshot())
+            ORDER BY tx_id, id
+            LIMIT ?
+            """;
+
+    private static final String ADVANCE_SQL =
+            "UPDATE outbox_offsets SET last_tx_id = ?, last_event_id = ?, updated_at = CURRENT_TIMESTAMP WHERE consumer = ?";
+
+    // Sem nenhum consumidor registrado nada foi entregue: os eventos ficam
+    private static final String PRUNE_SQL = """
+            DELETE FROM outbox_events e
+            WHERE e.created_at < CURRENT_TIMESTAMP - make_interval(hours => ?)
+              AND EXISTS (SELECT 1 FROM outbox_offsets)
+              AND NOT EXISTS (
+                  SELECT 1 FROM outbox_offsets o
+                  WHERE (o.last_tx_id, o.last_event_id) < (e.tx_id, e.id)
+              )
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<OutboxEventListener> listeners;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerPoll;
+    private final int retentionHours;
+    private final Set<String> registeredConsumers = new HashSet<>();
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       List<OutboxEventListener> listeners,
+                       @Value("${comercial.outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${comercial.outbox.relay.batch-size:200}") int batchSize,
+                       @Value("${comercial.outbox.relay.max-batches-per-poll:20}") int maxBatchesPerPoll,
+                       @Value("${comercial.outbox.retention-hours:72}") int retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.listeners = listeners;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerPoll = maxBatchesPerPoll;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${comercial.outbox.relay.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        for (OutboxEventListener listener : listeners) {
+            try {
+                register(listener);
+
+                // Continua enquanto vierem lotes cheios, até o limite por ciclo
+                int batches = 0;
+                Integer delivered;
+                do {
+                    delivered = transactionTemplate.execute(status -> deliverBatch(listener));
+                    batches++;
+                } while (delivered != null && delivered == batchSize && batches < maxBatchesPerPoll);
+            } catch (RuntimeException e) {
+                log.error("Erro ao entregar eventos do outbox ao consumidor {}", listener.consumerName(), e);
+            }
+        }
+    }
+
+    // Remove eventos já entregues a todos os consumidores após o período de retenção
+    @Scheduled(cron = "${comercial.outbox.prune-cron:0 45 3 * * *}")
+    public void prune() {
+        int removed = jdbcTemplate.update(PRUNE_SQL, retentionHours);
+        if (removed > 0) {
+            log.info("Outbox: {} eventos entregues removidos", removed);
+        }
+    }
+
+    private void register(OutboxEventListener listener) {
+        if (registeredConsumers.add(listener.consumerName())) {
+            jdbcTemplate.update(REGISTER_SQL, listener.consumerName());
+        }
+    }
+
+    private int deliverBatch(OutboxEventListener listener) {
+        String consumer = listener.consumerName();
+
+        List<long[]> offset = jdbcTemplate.query(LOCK_OFFSET_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong("last_tx_id"), rs.getLong("last_event_id")},
+                consumer);
+        if (offset.isEmpty()) {
+            // Outra instância está entregando para este consumidor
+            return 0;
+        }
+
+        List<OutboxEvent> events = jdbcTemplate.query(FETCH_SQL,
+                (rs, rowNum) -> new OutboxEvent(
+                        rs.getLong("id"),
+                        rs.getLong("tx_id"),
+                        rs.getString("aggregate_type"),
+                        rs.getObject("aggregate_id", Long.class),
+                        rs.getString("event_type"),
+                        rs.getString("payload"),
+                        rs.getTimestamp("created_at").toLocalDateTime()),
+                offset.get(0)[0], offset.get(0)[1], batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEvent> accepted = events.stream().filter(listener::accepts).toList();
+        if (!accepted.isEmpty()) {
+            listener.onEvents(accepted);
+        }
+
+        OutboxEvent last = events.get(events.size() - 1);
+        jdbcTemplate.update(ADVANCE_SQL, last.getTxId(), last.getId(), consumer);
+
+        log.debug("Outbox: {} eventos entregues a {} (até o evento {})", accepted.size(), consumer, last.getId());
+        return events.size();
+    }
+}
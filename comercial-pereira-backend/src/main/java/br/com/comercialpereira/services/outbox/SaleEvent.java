@@ -0,0 +1,35 @@
+package br.com.comercialpereira.services.outbox;
+
+import br.com.comercialpereira.enums.SaleStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleEvent {
+    private Long saleId;
+    private SaleStatus status;
+    private Long customerId;
+    private Long userId;
+    private BigDecimal total;
+    private List<Item> items;
+    private LocalDateTime occurredAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+        private BigDecimal total;
+    }
+}
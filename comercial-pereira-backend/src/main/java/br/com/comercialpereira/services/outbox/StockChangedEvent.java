@@ -0,0 +1,29 @@
+package br.com.comercialpereira.services.outbox;
+
+import br.com.comercialpereira.enums.MovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChangedEvent {
+    private Long productId;
+    private Long inventoryId;
+    private Long locationId;
+    private MovementType movementType;
+
+    // Variação com sinal: positiva para entradas, negativa para saídas;
+    // quantidades antes/depois são as do local movimentado
+    private Integer delta;
+    private Integer quantityBefore;
+    private Integer quantityAfter;
+    private Long saleId;
+    private Long userId;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,245 @@
+package br.com.comercialpereira.services.purchase;
+
+import br.com.comercialpereira.dto.PageResponse;
+import br.com.comercialpereira.dto.purchase.PurchaseOrderGenerationResponse;
+import br.com.comercialpereira.dto.purchase.PurchaseOrderItemResponse;
+import br.com.comercialpereira.dto.purchase.PurchaseOrderResponse;
+import br.com.comercialpereira.dto.purchase.UpdatePurchaseOrderStatusRequest;
+import br.com.comercialpereira.entity.PurchaseOrder;
+import br.com.comercialpereira.entity.PurchaseOrderItem;
+import br.com.comercialpereira.enums.PurchaseOrderStatus;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.repository.PurchaseOrderItemRepository;
+import br.com.comercialpereira.repository.PurchaseOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Rascunhos de pedidos de compra por fornecedor.
+ *
+ * A geração seleciona numa só consulta os produtos com estoque baixo ou com
+ * ruptura prevista (velocidade de saída de product_velocity) para uma tabela
+ * temporária, e grava pedidos e itens com dois INSERT ... SELECT agrupados por
+ * fornecedor. Produtos já presentes em um pedido enviado ficam de fora.
+ *
+ * A listagem carrega a página de pedidos com o fornecedor e, em seguida, os
+ * itens de todos os pedidos da página com o produto: duas consultas por
+ * página, independente do número de itens.
+ */
+@Service
+@Slf4j
+public class PurchaseOrderService {
+
+    // Alvo: estoque máximo; sem máximo, o maior entre 2x o mínimo e a cobertura desejada
+    private static final String CREATE_CANDIDATES = """
+            CREATE TEMP TABLE purchase_order_candidates ON COMMIT DROP AS
+            SELECT c.* FROM (
+                SELECT p.supplier_id, i.product_id, i.quantity AS current_quantity, i.min_stock, i.max_stock,
+                       v.daily_velocity,
+                       i.quantity > i.min_stock AS predicted,
+                       COALESCE(i.max_stock, GREATEST(2 * i.min_stock,
+                           CEIL(COALESCE(v.window_outbound, 0)::numeric * ? / COALESCE(v.window_days, 1))::int))
+                           - i.quantity AS suggested_quantity
+                FROM inventory_stock i
+                JOIN products p ON p.id = i.product_id
+                JOIN suppliers s ON s.id = p.supplier_id
+                LEFT JOIN product_velocity v ON v.product_id = i.product_id
+                WHERE p.is_active = true AND s.is_active = true
+                  AND (i.quantity <= i.min_stock
+                       OR (v.window_outbound > 0 AND i.quantity::bigint * v.window_days < v.window_outbound * ?))
+                  AND NOT EXISTS (
+                      SELECT 1 FROM purchase_order_items poi
+                      JOIN purchase_orders po ON po.id = poi.purchase_order_id
+                      WHERE poi.product_id = i.product_id AND po.status = 'SENT')
+            ) c
+            WHERE c.suggested_quantity > 0
+            """;
+
+    private static final String INSERT_ORDERS = """
+            INSERT INTO purchase_orders (supplier_id, status, reference_date, item_count, total_quantity,
+                                         created_at, updated_at)
+            SELECT supplier_id, 'DRAFT', ?, COUNT(*), SUM(suggested_quantity), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM purchase_order_candidates
+            GROUP BY supplier_id
+            ORDER BY supplier_id
+            """;
+
+    private static final String INSERT_ITEMS = """
+            INSERT INTO purchase_order_items (purchase_order_id, product_id, current_quantity, min_stock, max_stock,
+                                              daily_velocity, predicted, suggested_quantity, created_at, updated_at)
+            SELECT po.id, c.product_id, c.current_quantity, c.min_stock, c.max_stock,
+                   c.daily_velocity, c.predicted, c.suggested_quantity, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM purchase_order_candidates c
+            JOIN purchase_orders po ON po.supplier_id = c.supplier_id AND po.status = 'DRAFT'
+            ORDER BY po.id, c.product_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PurchaseOrderRepository purchaseOrderRepository;
+    private final PurchaseOrderItemRepository purchaseOrderItemRepository;
+    private final int alertDays;
+    private final int targetCoverDays;
+    private final boolean enabled;
+
+    public PurchaseOrderService(JdbcTemplate jdbcTemplate,
+                                PurchaseOrderRepository purchaseOrderRepository,
+                                PurchaseOrderItemRepository purchaseOrderItemRepository,
+                                @Value("${comercial.business.min-stock-alert-days:7}") int alertDays,
+                                @Value("${comercial.inventory.replenishment.target-cover-days:30}") int targetCoverDays,
+                                @Value("${comercial.purchasing.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.purchaseOrderRepository = purchaseOrderRepository;
+        this.purchaseOrderItemRepository = purchaseOrderItemRepository;
+        this.alertDays = alertDays;
+        this.targetCoverDays = targetCoverDays;
+        this.enabled = enabled;
+    }
+
+    // =================== GERAÇÃO ===================
+
+    // Antes do expediente, depois da atualização da velocidade de saída
+    @Scheduled(cron = "${comercial.purchasing.cron:0 30 6 * * *}")
+    public void scheduledGeneration() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            generateDrafts();
+        } catch (RuntimeException e) {
+            log.error("Erro ao gerar rascunhos de pedidos de compra", e);
+        }
+    }
+
+    @Transactional
+    public PurchaseOrderGenerationResponse generateDrafts() {
+        long start = System.nanoTime();
+        LocalDate referenceDate = LocalDate.now();
+
+        // Serializa gerações concorrentes (agendada em várias instâncias ou manual)
+        jdbcTemplate.execute("LOCK TABLE purchase_orders IN SHARE ROW EXCLUSIVE MODE");
+
+        int replaced = jdbcTemplate.update("DELETE FROM purchase_orders WHERE status = 'DRAFT'");
+        jdbcTemplate.update(CREATE_CANDIDATES, targetCoverDays, alertDays);
+        int orders = jdbcTemplate.update(INSERT_ORDERS, referenceDate);
+        int items = orders > 0 ? jdbcTemplate.update(INSERT_ITEMS) : 0;
+
+        PurchaseOrderGenerationResponse response = PurchaseOrderGenerationResponse.builder()
+                .referenceDate(referenceDate)
+                .draftsReplaced(replaced)
+                .ordersCreated(orders)
+                .itemsCreated(items)
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .build();
+
+        log.info("Rascunhos de pedidos de compra gerados: {} pedidos, {} itens ({} substituídos) em {} ms",
+                orders, items, replaced, response.getElapsedMs());
+        return response;
+    }
+
+    // =================== CONSULTA ===================
+
+    @Transactional(readOnly = true)
+    public PageResponse<PurchaseOrderResponse> findAll(PurchaseOrderStatus status, Long supplierId, int page, int size) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)),
+                Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by("id")));
+
+        Page<PurchaseOrder> orders = purchaseOrderRepository.findByFilters(status, supplierId, pageable);
+        Map<Long, List<PurchaseOrderItemResponse>> items = loadItems(orders.getContent());
+
+        return PageResponse.from(orders.map(order -> mapToResponse(order, items.getOrDefault(order.getId(), List.of()))));
+    }
+
+    @Transactional(readOnly = true)
+    public PurchaseOrderResponse findById(Long id) {
+        PurchaseOrder order = getOrder(id);
+        return mapToResponse(order, loadItems(List.of(order)).getOrDefault(id, List.of()));
+    }
+
+    // =================== STATUS ===================
+
+    @Transactional
+    public PurchaseOrderResponse updateStatus(Long id, UpdatePurchaseOrderStatusRequest request) {
+        PurchaseOrder order = getOrder(id);
+
+        if (!order.canTransitionTo(request.getStatus())) {
+            throw new ApiException("Pedido " + order.getStatus().getDisplayName().toLowerCase() +
+                    " não pode passar para " + request.getStatus().getDisplayName().toLowerCase(),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        order.setStatus(request.getStatus());
+        if (request.getNotes() != null) {
+            order.setNotes(request.getNotes());
+        }
+        purchaseOrderRepository.save(order);
+
+        log.info("Pedido de compra {} atualizado para {}", id, request.getStatus());
+        return findById(id);
+    }
+
+    // =================== MÉTODOS AUXILIARES ===================
+
+    private PurchaseOrder getOrder(Long id) {
+        return purchaseOrderRepository.findById(id)
+                .orElseThrow(() -> new ApiException("Pedido de compra não encontrado", HttpStatus.NOT_FOUND));
+    }
+
+    private Map<Long, List<PurchaseOrderItemResponse>> loadItems(List<PurchaseOrder> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Long> orderIds = orders.stream().map(PurchaseOrder::getId).toList();
+        return purchaseOrderItemRepository.findWithProductByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getPurchaseOrder().getId(),
+                        Collectors.mapping(this::mapToItemResponse, Collectors.toList())));
+    }
+
+    private PurchaseOrderResponse mapToResponse(PurchaseOrder order, List<PurchaseOrderItemResponse> items) {
+        return PurchaseOrderResponse.builder()
+                .id(order.getId())
+                .supplierId(order.getSupplier().getId())
+                .supplierName(order.getSupplier().getName())
+                .supplierEmail(order.getSupplier().getEmail())
+                .status(order.getStatus())
+                .statusDisplayName(order.getStatus().getDisplayName())
+                .referenceDate(order.getReferenceDate())
+                .itemCount(order.getItemCount())
+                .totalQuantity(order.getTotalQuantity())
+                .notes(order.getNotes())
+                .createdAt(order.getCreatedAt())
+                .updatedAt(order.getUpdatedAt())
+                .items(items)
+                .build();
+    }
+
+    private PurchaseOrderItemResponse mapToItemResponse(PurchaseOrderItem item) {
+        return PurchaseOrderItemResponse.builder()
+                .id(item.getId())
+                .productId(item.getProduct().getId())
+                .productCode(item.getProduct().getCode())
+                .productName(item.getProduct().getName())
+                .currentQuantity(item.getCurrentQuantity())
+                .minStock(item.getMinStock())
+                .maxStock(item.getMaxStock())
+                .dailyVelocity(item.getDailyVelocity())
+                .predicted(item.getPredicted())
+                .suggestedQuantity(item.getSuggestedQuantity())
+                .build();
+    }
+}
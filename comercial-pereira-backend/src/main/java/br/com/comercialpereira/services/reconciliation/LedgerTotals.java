@@ -0,0 +1,49 @@
+package br.com.comercialpereira.services.reconciliation;
+
+import lombok.Getter;
+
+/**
+ * Totais do razão de um produto: entradas e saídas somadas a partir do delta.
+ */
+@Getter
+class LedgerTotals {
+
+    private long inbound;
+    private long outbound;
+    private long movements;
+    // Movimentações com sinal deduzido na migração: totais aproximados
+    private long inferred;
+
+    LedgerTotals() {
+    }
+
+    LedgerTotals(long inbound, long outbound, long movements, long inferred) {
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.movements = movements;
+        this.inferred = inferred;
+    }
+
+    void add(int delta, boolean signInferred) {
+        if (delta > 0) {
+            inbound += delta;
+        } else {
+            outbound -= delta;
+        }
+        movements++;
+        if (signInferred) {
+            inferred++;
+        }
+    }
+
+    void add(LedgerTotals other) {
+        inbound += other.inbound;
+        outbound += other.outbound;
+        movements += other.movements;
+        inferred += other.inferred;
+    }
+
+    long net() {
+        return inbound - outbound;
+    }
+}
@@ -0,0 +1,332 @@
+package br.com.comercialpereira.services.reconciliation;
+
+import br.com.comercialpereira.dto.inventory.ReconciliationReport;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.services.archive.ArchiveStore;
+import br.com.comercialpereira.services.audit.AuditService;
+import br.com.comercialpereira.services.cache.CacheInvalidationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reconciliação entre o estoque (soma dos locais) e o razão de movimentações.
+ *
+ * A faixa de IDs de produto é dividida em shards processados em paralelo num
+ * ForkJoinPool; cada shard agrega as movimentações da sua faixa no Postgres e
+ * compara produto a produto com a quantidade gravada. Todos os shards leem o
+ * mesmo snapshot exportado pela transação coordenadora, então o relatório é
+ * consistente mesmo com vendas acontecendo.
+ *
+ * Produtos com ajustes legados cujo sinal foi deduzido na migração (sign_inferred)
+ * saem marcados como aproximados: o razão deles é uma estimativa.
+ *
+ * Divergências podem receber um ajuste corretivo, que leva o razão até a
+ * quantidade gravada. As correções são escritas via JDBC, fora do Hibernate,
+ * por isso publicam a invalidação de estoque na própria transação.
+ */
+@Service
+@Slf4j
+public class ReconciliationService {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SHARD_SQL = """
+            SELECT i.id AS inventory_id, i.product_id, i.quantity,
+                   COALESCE(l.inbound, 0) AS inbound,
+                   COALESCE(l.outbound, 0) AS outbound,
+                   COALESCE(l.movements, 0) AS movements,
+                   COALESCE(l.inferred, 0) AS inferred
+            FROM inventory_stock i
+            LEFT JOIN (
+                SELECT m.product_id,
+                       SUM(m.delta) FILTER (WHERE m.delta > 0) AS inbound,
+                       -SUM(m.delta) FILTER (WHERE m.delta < 0) AS outbound,
+                       COUNT(*) AS movements,
+                       COUNT(*) FILTER (WHERE m.sign_inferred) AS inferred
+                FROM inventory_movements m
+                WHERE m.product_id >= ? AND m.product_id < ?
+                GROUP BY m.product_id
+            ) l ON l.product_id = i.product_id
+            WHERE i.product_id >= ? AND i.product_id < ?
+            ORDER BY i.product_id
+            """;
+
+    // Só corrige se o total não mudou desde a leitura; o ajuste vai para o local
+    // padrão (ou o primeiro local do produto), com as quantidades desse local
+    private static final String CORRECTION_SQL = """
+            INSERT INTO inventory_movements (inventory_id, product_id, location_id, type, quantity, delta,
+                                             quantity_before, quantity_after, reason, user_id)
+            SELECT il.inventory_id, il.product_id, il.location_id, 'ADJUSTMENT', ABS(?), ?, il.quantity - ?,
+                   il.quantity, ?, ?
+            FROM inventory_locations il
+            JOIN stock_locations sl ON sl.id = il.location_id
+            WHERE il.product_id = ?
+              AND (SELECT SUM(t.quantity) FROM inventory_locations t WHERE t.product_id = il.product_id) = ?
+            ORDER BY sl.is_default DESC, il.location_id
+            LIMIT 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final ArchiveStore archiveStore;
+    private final AuditService auditService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final int parallelism;
+    private final long shardSize;
+    private final int correctionBatchSize;
+    private final int maxReportLines;
+    private final boolean scheduledEnabled;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ReconciliationReport> lastReport = new AtomicReference<>();
+
+    public ReconciliationService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ArchiveStore archiveStore,
+                                 AuditService auditService,
+                                 CacheInvalidationService cacheInvalidationService,
+                                 @Value("${comercial.inventory.reconciliation.parallelism:4}") int parallelism,
+                                 @Value("${comercial.inventory.reconciliation.shard-size:5000}") long shardSize,
+                                 @Value("${comercial.inventory.reconciliation.correction-batch-size:500}") int correctionBatchSize,
+                                 @Value("${comercial.inventory.reconciliation.max-report-lines:500}") int maxReportLines,
+                                 @Value("${comercial.inventory.reconciliation.scheduled:false}") boolean scheduledEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.archiveStore = archiveStore;
+        this.auditService = auditService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.parallelism = parallelism;
+        this.shardSize = shardSize;
+        this.correctionBatchSize = correctionBatchSize;
+        this.maxReportLines = maxReportLines;
+        this.scheduledEnabled = scheduledEnabled;
+    }
+
+    // Execução noturna só gera o relatório; correções exigem chamada explícita
+    @Scheduled(cron = "${comercial.inventory.reconciliation.cron:0 0 4 * * *}")
+    public void scheduledRun() {
+        if (!scheduledEnabled) {
+            return;
+        }
+
+        try {
+            run(false, null);
+        } catch (RuntimeException e) {
+            log.error("Erro na reconciliação agendada de estoque", e);
+        }
+    }
+
+    public Optional<ReconciliationReport> getLastReport() {
+        return Optional.ofNullable(lastReport.get());
+    }
+
+    public ReconciliationReport run(boolean applyCorrections, Long userId) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ApiException("Reconciliação de estoque já em andamento", HttpStatus.CONFLICT);
+        }
+
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.nanoTime();
+
+            Map<Long, LedgerTotals> archived = archivedTotals();
+            ShardResult result = snapshotTemplate.execute(status -> reconcile(archived));
+
+            List<ReconciliationReport.Line> drifts = result.getDrifts();
+            drifts.sort(Comparator.comparingLong((ReconciliationReport.Line line) -> Math.abs(line.getDrift()))
+                    .reversed());
+
+            long corrections = applyCorrections ? applyCorrections(drifts, userId) : 0;
+
+            ReconciliationReport report = ReconciliationReport.builder()
+                    .startedAt(startedAt)
+                    .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                    .parallelism(parallelism)
+                    .shards((int) result.getShards())
+                    .productsChecked(result.getProductsChecked())
+                    .movementsReplayed(result.getMovements())
+                    .matched(result.getMatched())
+                    .drifted((long) drifts.size())
+                    .totalAbsoluteDrift(result.getTotalAbsoluteDrift())
+                    .approximateProducts(result.getApproximate())
+                    .correctionsRequested(applyCorrections)
+                    .correctionsApplied(corrections)
+                    .lines(new ArrayList<>(drifts.subList(0, Math.min(maxReportLines, drifts.size()))))
+                    .build();
+
+            lastReport.set(report);
+            log.info("Reconciliação de estoque: {} produtos, {} movimentações, {} divergentes, {} correções em {} ms",
+                    report.getProductsChecked(), report.getMovementsReplayed(), report.getDrifted(),
+                    corrections, report.getElapsedMs());
+
+            if (applyCorrections) {
+                auditService.log(userId, "RECONCILE", "INVENTORY", null, Map.of(
+                        "drifted", report.getDrifted(),
+                        "correctionsApplied", corrections,
+                        "totalAbsoluteDrift", report.getTotalAbsoluteDrift()));
+            }
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    private ShardResult reconcile(Map<Long, LedgerTotals> archived) {
+        String snapshotId = jdbcTemplate.queryForObject("SELECT pg_export_snapshot()", String.class);
+        if (snapshotId == null || !snapshotId.matches("[0-9A-Fa-f-]+")) {
+            throw new IllegalStateException("Snapshot exportado inválido: " + snapshotId);
+        }
+
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "SELECT MIN(product_id) AS min_id, MAX(product_id) AS max_id FROM inventory");
+        if (bounds.get("min_id") == null) {
+            return new ShardResult();
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new ReconciliationShard(minId, maxId + 1, shardSize,
+                    (fromId, toId) -> readShard(snapshotId, fromId, toId, archived)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ShardResult readShard(String snapshotId, long fromId, long toId, Map<Long, LedgerTotals> archived) {
+        return jdbcTemplate.execute((ConnectionCallback<ShardResult>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            int isolation = connection.getTransactionIsolation();
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+                }
+
+                ShardResult result = ShardResult.leaf();
+                try (PreparedStatement statement = connection.prepareStatement(SHARD_SQL)) {
+                    statement.setFetchSize(FETCH_SIZE);
+                    statement.setLong(1, fromId);
+                    statement.setLong(2, toId);
+                    statement.setLong(3, fromId);
+                    statement.setLong(4, toId);
+
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            long productId = rs.getLong("product_id");
+                            LedgerTotals totals = new LedgerTotals(rs.getLong("inbound"), rs.getLong("outbound"),
+                                    rs.getLong("movements"), rs.getLong("inferred"));
+                            LedgerTotals old = archived.get(productId);
+                            if (old != null) {
+                                totals.add(old);
+                            }
+                            result.add(toLine(rs.getLong("inventory_id"), productId, rs.getInt("quantity"), totals),
+                                    totals.getMovements());
+                        }
+                    }
+                }
+                return result;
+            } finally {
+                connection.rollback();
+                connection.setTransactionIsolation(isolation);
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    static ReconciliationReport.Line toLine(long inventoryId, long productId, int quantity, LedgerTotals totals) {
+        return ReconciliationReport.Line.builder()
+                .productId(productId)
+                .inventoryId(inventoryId)
+                .quantity(quantity)
+                .inbound(totals.getInbound())
+                .outbound(totals.getOutbound())
+                .ledgerQuantity(totals.net())
+                .drift(quantity - totals.net())
+                .inferredMovements(totals.getInferred())
+                .approximate(totals.getInferred() > 0)
+                .corrected(false)
+                .build();
+    }
+
+    private long applyCorrections(List<ReconciliationReport.Line> drifts, Long userId) {
+        long applied = 0;
+
+        for (int from = 0; from < drifts.size(); from += correctionBatchSize) {
+            List<ReconciliationReport.Line> batch = drifts.subList(from, Math.min(drifts.size(), from + correctionBatchSize));
+            List<Object[]> args = batch.stream()
+                    .map(line -> new Object[]{
+                            line.getDrift(),
+                            line.getDrift(),
+                            line.getDrift(),
+                            String.format("Reconciliação: divergência de %+d entre estoque e movimentações",
+                                    line.getDrift()),
+                            userId,
+                            line.getProductId(),
+                            line.getQuantity()})
+                    .toList();
+
+            int[] counts = transactionTemplate.execute(status -> {
+                int[] inserted = jdbcTemplate.batchUpdate(CORRECTION_SQL, args);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (inserted[i] != 0) {
+                        cacheInvalidationService.publish("inventory", batch.get(i).getInventoryId());
+                    }
+                }
+                return inserted;
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                if (counts != null && counts[i] != 0) {
+                    batch.get(i).setCorrected(true);
+                    applied++;
+                }
+            }
+        }
+        return applied;
+    }
+
+    // Movimentações arquivadas antes do razão com sinal já estão no saldo de abertura
+    private Map<Long, LedgerTotals> archivedTotals() {
+        Map<Long, LedgerTotals> totals = new HashMap<>();
+        archiveStore.forEachMovement(movement -> {
+            if (movement.getDelta() != null) {
+                totals.computeIfAbsent(movement.getProduct().getId(), id -> new LedgerTotals())
+                        .add(movement.getDelta(), Boolean.TRUE.equals(movement.getSignInferred()));
+            }
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.comercialpereira.services.reconciliation;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Divide a faixa de IDs de produto [fromId, toId) ao meio até caber em um
+ * shard; cada folha é lida em sua própria conexão.
+ */
+class ReconciliationShard extends RecursiveTask<ShardResult> {
+
+    @FunctionalInterface
+    interface ShardReader {
+        ShardResult read(long fromId, long toId);
+    }
+
+    private final long fromId;
+    private final long toId;
+    private final long shardSize;
+    private final ShardReader reader;
+
+    ReconciliationShard(long fromId, long toId, long shardSize, ShardReader reader) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.shardSize = shardSize;
+        this.reader = reader;
+    }
+
+    @Override
+    protected ShardResult compute() {
+        if (toId - fromId <= shardSize) {
+            return reader.read(fromId, toId);
+        }
+
+        long middle = fromId + (toId - fromId) / 2;
+        ReconciliationShard left = new ReconciliationShard(fromId, middle, shardSize, reader);
+        ReconciliationShard right = new ReconciliationShard(middle, toId, shardSize, reader);
+        left.fork();
+        ShardResult result = right.compute();
+        return result.merge(left.join());
+    }
+}
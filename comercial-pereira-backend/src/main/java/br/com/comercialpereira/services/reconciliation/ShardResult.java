@@ -0,0 +1,53 @@
+package br.com.comercialpereira.services.reconciliation;
+
+import br.com.comercialpereira.dto.inventory.ReconciliationReport;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de uma faixa de produtos; faixas vizinhas são somadas com merge.
+ */
+@Getter
+class ShardResult {
+
+    private long shards;
+    private long productsChecked;
+    private long movements;
+    private long matched;
+    private long totalAbsoluteDrift;
+    private long approximate;
+    private final List<ReconciliationReport.Line> drifts = new ArrayList<>();
+
+    static ShardResult leaf() {
+        ShardResult result = new ShardResult();
+        result.shards = 1;
+        return result;
+    }
+
+    void add(ReconciliationReport.Line line, long movementCount) {
+        productsChecked++;
+        movements += movementCount;
+        if (Boolean.TRUE.equals(line.getApproximate())) {
+            approximate++;
+        }
+        if (line.getDrift() == 0) {
+            matched++;
+        } else {
+            drifts.add(line);
+            totalAbsoluteDrift += Math.abs(line.getDrift());
+        }
+    }
+
+    ShardResult merge(ShardResult other) {
+        shards += other.shards;
+        productsChecked += other.productsChecked;
+        movements += other.movements;
+        matched += other.matched;
+        totalAbsoluteDrift += other.totalAbsoluteDrift;
+        approximate += other.approximate;
+        drifts.addAll(other.drifts);
+        return this;
+    }
+}
@@ -0,0 +1,265 @@
+package br.com.comercialpereira.services.replenishment;
+
+import br.com.comercialpereira.dto.inventory.ReplenishmentSuggestion;
+import br.com.comercialpereira.exception.ApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ponto de reposição dinâmico a partir da velocidade de saída.
+ *
+ * A velocidade de cada produto é a média diária das saídas (OUT) numa janela
+ * móvel de dias completos, guardada em product_velocity. A atualização diária
+ * lê apenas movement_rollup_daily: soma os dias que entraram na janela e
+ * subtrai os que saíram, em lotes de produtos processados em paralelo. O
+ * cálculo completo da janela só acontece para produtos novos, quando a janela
+ * configurada muda ou quando a atualização ficou parada mais que a janela.
+ *
+ * Com a velocidade, a cobertura em dias é quantidade / velocidade e o ponto de
+ * reposição cobre as saídas esperadas em min-stock-alert-days.
+ */
+@Service
+@Slf4j
+public class ReplenishmentService {
+
+    // Produtos sem linha, com janela diferente ou parados há mais de uma janela
+    private static final String FULL_WINDOW_SQL = """
+            INSERT INTO product_velocity AS v (product_id, window_days, window_outbound, computed_through,
+                                               daily_velocity, updated_at)
+            SELECT i.product_id, ?, COALESCE(SUM(r.quantity_sum), 0), ?,
+                   COALESCE(SUM(r.quantity_sum), 0)::numeric / ?, CURRENT_TIMESTAMP
+            FROM inventory i
+            LEFT JOIN movement_rollup_daily r ON r.product_id = i.product_id AND r.type = 'OUT'
+                 AND r.bucket > ?::date - ? AND r.bucket <= ?
+            WHERE i.product_id >= ? AND i.product_id < ?
+              AND (? OR NOT EXISTS (
+                  SELECT 1 FROM product_velocity pv
+                  WHERE pv.product_id = i.product_id AND pv.window_days = ?
+                    AND pv.computed_through > ?::date - ? AND pv.computed_through <= ?))
+            GROUP BY i.product_id
+            ON CONFLICT (product_id) DO UPDATE
+            SET window_days = EXCLUDED.window_days,
+                window_outbound = EXCLUDED.window_outbound,
+                computed_through = EXCLUDED.computed_through,
+                daily_velocity = EXCLUDED.daily_velocity,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    // Dias que entram: (computed_through, alvo]; dias que saem: (computed_through - janela, alvo - janela].
+    // O filtro em computed_through também no UPDATE externo é reavaliado na linha já
+    // atualizada quando outra instância desliza o mesmo produto ao mesmo tempo: a
+    // segunda desiste em vez de somar a mesma variação duas vezes
+    private static final String SLIDE_WINDOW_SQL = """
+            UPDATE product_velocity v
+            SET window_outbound = v.window_outbound + d.change,
+                computed_through = ?,
+                daily_velocity = (v.window_outbound + d.change)::numeric / v.window_days,
+                updated_at = CURRENT_TIMESTAMP
+            FROM (
+                SELECT pv.product_id,
+                       COALESCE(SUM(CASE WHEN r.bucket > pv.computed_through
+                                         THEN r.quantity_sum ELSE -r.quantity_sum END), 0) AS change
+                FROM product_velocity pv
+                LEFT JOIN movement_rollup_daily r ON r.product_id = pv.product_id AND r.type = 'OUT'
+                     AND ((r.bucket > pv.computed_through AND r.bucket <= ?)
+                          OR (r.bucket > pv.computed_through - pv.window_days AND r.bucket <= ?::date - pv.window_days))
+                WHERE pv.product_id >= ? AND pv.product_id < ? AND pv.computed_through < ?
+                GROUP BY pv.product_id
+            ) d
+            WHERE v.product_id = d.product_id AND v.computed_through < ?
+            """;
+
+    // Cobertura abaixo da janela de alerta: quantidade * janela < saídas da janela * dias de alerta
+    private static final String AT_RISK_SQL = """
+            SELECT p.id, p.code, p.name, i.quantity, i.min_stock, i.max_stock,
+                   v.window_days, v.window_outbound, v.daily_velocity, v.computed_through
+            FROM product_velocity v
+            JOIN inventory_stock i ON i.product_id = v.product_id
+            JOIN products p ON p.id = v.product_id
+            WHERE p.is_active = true
+              AND v.window_outbound > 0
+              AND i.quantity::bigint * v.window_days < v.window_outbound * ?
+            ORDER BY i.quantity::numeric * v.window_days / v.window_outbound, p.id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int alertDays;
+    private final int windowDays;
+    private final int targetCoverDays;
+    private final int parallelism;
+    private final long batchSize;
+    private final boolean enabled;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReplenishmentService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${comercial.business.min-stock-alert-days:7}") int alertDays,
+                                @Value("${comercial.inventory.replenishment.window-days:28}") int windowDays,
+                                @Value("${comercial.inventory.replenishment.target-cover-days:30}") int targetCoverDays,
+                                @Value("${comercial.inventory.replenishment.parallelism:4}") int parallelism,
+                                @Value("${comercial.inventory.replenishment.batch-size:5000}") long batchSize,
+                                @Value("${comercial.inventory.replenishment.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.alertDays = alertDays;
+        this.windowDays = windowDays;
+        this.targetCoverDays = targetCoverDays;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+    }
+
+    // =================== VELOCIDADE ===================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        scheduledRefresh();
+    }
+
+    // Depois da virada do dia, quando o dia anterior já está completo nos agregados
+    @Scheduled(cron = "${comercial.inventory.replenishment.cron:0 15 0 * * *}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            refresh(false);
+        } catch (ApiException e) {
+            log.info("Atualização da velocidade de saída já em andamento");
+        } catch (RuntimeException e) {
+            log.error("Erro ao atualizar velocidade de saída dos produtos", e);
+        }
+    }
+
+    public Map<String, Object> refresh(boolean full) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ApiException("Atualização da velocidade de saída já em andamento", HttpStatus.CONFLICT);
+        }
+
+        try {
+            LocalDate through = LocalDate.now().minusDays(1);
+            long start = System.nanoTime();
+
+            Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                    "SELECT MIN(product_id) AS min_id, MAX(product_id) AS max_id FROM inventory");
+            if (bounds.get("min_id") == null) {
+                return Map.of("computedThrough", through, "recomputed", 0, "slid", 0);
+            }
+            long minId = ((Number) bounds.get("min_id")).longValue();
+            long maxId = ((Number) bounds.get("max_id")).longValue();
+
+            int[] totals = new int[2];
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+                for (long fromId = minId; fromId <= maxId; fromId += batchSize) {
+                    long batchFrom = fromId;
+                    long batchTo = Math.min(fromId + batchSize, maxId + 1);
+                    tasks.add(pool.submit(() -> refreshBatch(through, batchFrom, batchTo, full)));
+                }
+                for (ForkJoinTask<int[]> task : tasks) {
+                    int[] counts = task.join();
+                    totals[0] += counts[0];
+                    totals[1] += counts[1];
+                }
+            } finally {
+                pool.shutdown();
+            }
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("Velocidade de saída atualizada até {}: {} produtos recalculados, {} deslocados em {} ms",
+                    through, totals[0], totals[1], elapsedMs);
+            return Map.of("computedThrough", through, "recomputed", totals[0], "slid", totals[1],
+                    "elapsedMs", elapsedMs);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // =================== REPOSIÇÃO ===================
+
+    public List<ReplenishmentSuggestion> getAtRisk(Integer days, int limit) {
+        int window = days != null ? days : alertDays;
+        if (window < 1 || window > 365) {
+            throw new ApiException("Janela de alerta deve estar entre 1 e 365 dias", HttpStatus.BAD_REQUEST);
+        }
+
+        LocalDate today = LocalDate.now();
+        return jdbcTemplate.query(AT_RISK_SQL, (rs, rowNum) -> {
+            int quantity = rs.getInt("quantity");
+            int minStock = rs.getInt("min_stock");
+            Integer maxStock = rs.getObject("max_stock") != null ? rs.getInt("max_stock") : null;
+            BigDecimal outbound = BigDecimal.valueOf(rs.getLong("window_outbound"));
+            BigDecimal windowLength = BigDecimal.valueOf(rs.getInt("window_days"));
+
+            BigDecimal daysOfCover = BigDecimal.valueOf(quantity).multiply(windowLength)
+                    .divide(outbound, 1, RoundingMode.DOWN);
+            int reorderPoint = Math.max(minStock, expectedOutbound(outbound, windowLength, window));
+            int target = Math.max(reorderPoint, expectedOutbound(outbound, windowLength, targetCoverDays));
+            if (maxStock != null) {
+                target = Math.min(target, maxStock);
+            }
+
+            return ReplenishmentSuggestion.builder()
+                    .productId(rs.getLong("id"))
+                    .productCode(rs.getString("code"))
+                    .productName(rs.getString("name"))
+                    .quantity(quantity)
+                    .minStock(minStock)
+                    .maxStock(maxStock)
+                    .dailyVelocity(rs.getBigDecimal("daily_velocity"))
+                    .daysOfCover(daysOfCover)
+                    .estimatedStockoutDate(today.plusDays(daysOfCover.longValue()))
+                    .reorderPoint(reorderPoint)
+                    .suggestedQuantity(Math.max(0, target - quantity))
+                    .velocityComputedThrough(rs.getObject("computed_through", LocalDate.class))
+                    .build();
+        }, window, Math.max(1, Math.min(limit, 500)));
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    private int[] refreshBatch(LocalDate through, long fromId, long toId, boolean full) {
+        return transactionTemplate.execute(status -> {
+            int recomputed = jdbcTemplate.update(FULL_WINDOW_SQL,
+                    windowDays, through, windowDays,
+                    through, windowDays, through,
+                    fromId, toId,
+                    full, windowDays, through, windowDays, through);
+            int slid = jdbcTemplate.update(SLIDE_WINDOW_SQL,
+                    through,
+                    through, through,
+                    fromId, toId, through,
+                    through);
+            return new int[]{recomputed, slid};
+        });
+    }
+
+    // Saídas esperadas em N dias, arredondadas para cima
+    private int expectedOutbound(BigDecimal outbound, BigDecimal windowLength, int days) {
+        return outbound.multiply(BigDecimal.valueOf(days)).divide(windowLength, 0, RoundingMode.CEILING).intValue();
+    }
+}
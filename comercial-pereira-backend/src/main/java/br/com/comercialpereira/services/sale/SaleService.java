@@ -1,6 +1,7 @@
 package br.com.comercialpereira.services.sale;
 
 import br.com.comercialpereira.dto.PageResponse;
+import br.com.comercialpereira.dto.inventory.StockCheckItemRequest;
 import br.com.comercialpereira.dto.sale.*;
 import br.com.comercialpereira.entity.*;
 import br.com.comercialpereira.enums.SaleStatus;
@@ -9,9 +10,17 @@ import br.com.comercialpereira.repository.CustomerRepository;
 import br.com.comercialpereira.repository.ProductRepository;
 import br.com.comercialpereira.repository.SaleRepository;
 import br.com.comercialpereira.repository.UserRepository;
+import br.com.comercialpereira.services.InventoryService;
+import br.com.comercialpereira.services.StockAvailabilityService;
+import br.com.comercialpereira.services.archive.ArchiveStore;
+import br.com.comercialpereira.services.outbox.OutboxEventType;
+import br.com.comercialpereira.services.outbox.OutboxPublisher;
+import br.com.comercialpereira.services.outbox.SaleEvent;
+import br.com.comercialpereira.services.stats.ApproximateCountService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
@@ -21,7 +30,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +45,11 @@ public class SaleService {
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final ApproximateCountService approximateCountService;
+    private final StockAvailabilityService stockAvailabilityService;
+    private final InventoryService inventoryService;
+    private final OutboxPublisher outboxPublisher;
+    private final ArchiveStore archiveStore;
 
     @Transactional
     public SaleResponse create(CreateSaleRequest request) {
@@ -62,9 +80,10 @@ public class SaleService {
 
     @Transactional(readOnly = true)
     public SaleResponse findById(Long id) {
-        Sale sale = saleRepository.findById(id)
+        return saleRepository.findById(id)
+                .map(sale -> toSaleResponse(sale, true))
+                .or(() -> archiveStore.findSale(id))
                 .orElseThrow(() -> new ApiException("Venda não encontrada.", HttpStatus.NOT_FOUND));
-        return toSaleResponse(sale, true);
     }
 
     @Transactional(readOnly = true)
@@ -75,10 +94,20 @@ public class SaleService {
         return PageResponse.from(responsePage);
     }
 
+    @Transactional(readOnly = true)
+    public PageResponse<SaleResponse> findAllWithoutCount(Long customerId, Long userId, SaleStatus status, Pageable pageable) {
+        Specification<Sale> spec = SaleSpecification.withFilters(customerId, userId, status);
+        Slice<Sale> saleSlice = saleRepository.findBy(spec, query -> query.slice(pageable));
+        // A estimativa é da tabela inteira: com filtro, a página vai sem total
+        Slice<SaleResponse> page = saleSlice.map(sale -> toSaleResponse(sale, false));
+        return customerId != null || userId != null || status != null
+                ? PageResponse.from(page)
+                : PageResponse.from(page, approximateCountService.estimate("sales"));
+    }
+
     @Transactional
     public SaleResponse update(Long id, UpdateSaleRequest request) {
-        Sale sale = saleRepository.findById(id)
-                .orElseThrow(() -> new ApiException("Venda não encontrada.", HttpStatus.NOT_FOUND));
+        Sale sale = findSaleForUpdateOrThrow(id);
 
         if (!sale.isEditable()) {
             throw new ApiException("Esta venda não pode mais ser editada. Status: " + sale.getStatus(), HttpStatus.CONFLICT);
@@ -100,8 +129,7 @@ public class SaleService {
 
     @Transactional
     public SaleResponse cancel(Long id) {
-        Sale sale = saleRepository.findById(id)
-                .orElseThrow(() -> new ApiException("Venda não encontrada.", HttpStatus.NOT_FOUND));
+        Sale sale = findSaleForUpdateOrThrow(id);
 
         if (!sale.isCancellable()) {
             throw new ApiException("Esta venda não pode ser cancelada. Status: " + sale.getStatus(), HttpStatus.CONFLICT);
@@ -109,12 +137,49 @@ public class SaleService {
 
         sale.setStatus(SaleStatus.CANCELLED);
         Sale cancelledSale = saleRepository.save(sale);
+        publishSaleEvent(cancelledSale, OutboxEventType.SALE_CANCELLED);
         return toSaleResponse(cancelledSale, false);
     }
 
+    @Transactional
+    public SaleResponse complete(Long id) {
+        Sale sale = findSaleForUpdateOrThrow(id);
+
+        if (!sale.isCancellable()) {
+            throw new ApiException("Esta venda não pode ser concluída. Status: " + sale.getStatus(), HttpStatus.CONFLICT);
+        }
+        if (sale.getItems() == null || sale.getItems().isEmpty()) {
+            throw new ApiException("Venda sem itens não pode ser concluída.", HttpStatus.BAD_REQUEST);
+        }
+
+        String userEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ApiException("Usuário não encontrado.", HttpStatus.NOT_FOUND));
+
+        // Valida o carrinho inteiro antes de baixar qualquer item
+        stockAvailabilityService.requireAvailable(sale.getItems().stream()
+                .map(item -> toStockLine(item.getProduct().getId(), item.getQuantity()))
+                .collect(Collectors.toList()));
+
+        // Trava o estoque sempre na ordem de produto: duas vendas com os mesmos itens
+        // em ordem inversa não se bloqueiam mutuamente
+        List<SaleItem> itemsInLockOrder = sale.getItems().stream()
+                .sorted(Comparator.comparing(item -> item.getProduct().getId()))
+                .toList();
+        for (SaleItem item : itemsInLockOrder) {
+            inventoryService.removeStock(item.getProduct().getId(), item.getQuantity(),
+                    "Venda #" + sale.getId(), user.getId(), sale.getId());
+        }
+
+        sale.setStatus(SaleStatus.COMPLETED);
+        Sale completedSale = saleRepository.save(sale);
+        publishSaleEvent(completedSale, OutboxEventType.SALE_COMPLETED);
+        return toSaleResponse(completedSale, true);
+    }
+
     @Transactional
     public SaleResponse addItem(Long saleId, AddSaleItemRequest itemRequest) {
-        Sale sale = findSaleByIdOrThrow(saleId);
+        Sale sale = findSaleForUpdateOrThrow(saleId);
         if (!sale.isEditable()) {
             throw new ApiException("Não é possível adicionar itens a esta venda. Status: " + sale.getStatus(), HttpStatus.CONFLICT);
         }
@@ -122,6 +187,14 @@ public class SaleService {
         Product product = productRepository.findById(itemRequest.getProductId())
                 .orElseThrow(() -> new ApiException("Produto não encontrado.", HttpStatus.NOT_FOUND));
 
+        // O estoque precisa cobrir o que a venda já tem deste produto mais o novo item
+        List<StockCheckItemRequest> lines = new ArrayList<>();
+        sale.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(product.getId()))
+                .forEach(item -> lines.add(toStockLine(product.getId(), item.getQuantity())));
+        lines.add(toStockLine(product.getId(), itemRequest.getQuantity()));
+        stockAvailabilityService.requireAvailable(lines);
+
         BigDecimal unitPrice = itemRequest.getUnitPrice() != null ? itemRequest.getUnitPrice() : product.getPrice();
         BigDecimal discount = itemRequest.getDiscount() != null ? itemRequest.getDiscount() : BigDecimal.ZERO;
 
@@ -148,7 +221,7 @@ public class SaleService {
 
     @Transactional
     public SaleResponse updateItem(Long saleId, Long itemId, UpdateSaleItemRequest itemRequest) {
-        Sale sale = findSaleByIdOrThrow(saleId);
+        Sale sale = findSaleForUpdateOrThrow(saleId);
         if (!sale.isEditable()) {
             throw new ApiException("Não é possível alterar itens desta venda. Status: " + sale.getStatus(), HttpStatus.CONFLICT);
         }
@@ -170,7 +243,7 @@ public class SaleService {
 
     @Transactional
     public SaleResponse removeItem(Long saleId, Long itemId) {
-        Sale sale = findSaleByIdOrThrow(saleId);
+        Sale sale = findSaleForUpdateOrThrow(saleId);
         if (!sale.isEditable()) {
             throw new ApiException("Não é possível remover itens desta venda. Status: " + sale.getStatus(), HttpStatus.CONFLICT);
         }
@@ -187,19 +260,27 @@ public class SaleService {
         return toSaleResponse(updatedSale, true);
     }
 
-    private Sale findSaleByIdOrThrow(Long saleId) {
-        return saleRepository.findById(saleId)
+    // Toda alteração trava a venda antes de conferir o status: duas conclusões, ou conclusão e
+    // cancelamento, não passam juntas pela verificação nem baixam o estoque duas vezes
+    private Sale findSaleForUpdateOrThrow(Long saleId) {
+        return saleRepository.findByIdForUpdate(saleId)
                 .orElseThrow(() -> new ApiException("Venda não encontrada.", HttpStatus.NOT_FOUND));
     }
 
     private List<SaleItem> processSaleItems(List<CreateSaleRequest.SaleItemRequest> itemRequests, Sale sale) {
-        return itemRequests.stream().map(itemRequest -> {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                    .orElseThrow(() -> new ApiException("Produto com ID " + itemRequest.getProductId() + " não encontrado.", HttpStatus.NOT_FOUND));
+        // Uma consulta valida o carrinho inteiro e outra carrega todos os produtos
+        stockAvailabilityService.requireAvailable(itemRequests.stream()
+                .map(itemRequest -> toStockLine(itemRequest.getProductId(), itemRequest.getQuantity()))
+                .collect(Collectors.toList()));
 
-            if (product.getInventory().getQuantity() < itemRequest.getQuantity()) {
-                throw new ApiException("Estoque insuficiente para o produto: " + product.getName(), HttpStatus.CONFLICT);
-            }
+        Map<Long, Product> products = productRepository.findAllById(itemRequests.stream()
+                        .map(CreateSaleRequest.SaleItemRequest::getProductId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return itemRequests.stream().map(itemRequest -> {
+            Product product = products.get(itemRequest.getProductId());
 
             BigDecimal unitPrice = (itemRequest.getUnitPrice() != null) ? itemRequest.getUnitPrice() : product.getPrice();
             BigDecimal discount = itemRequest.getDiscount() != null ? itemRequest.getDiscount() : BigDecimal.ZERO;
@@ -219,7 +300,35 @@ public class SaleService {
         }).collect(Collectors.toList());
     }
 
-    private SaleResponse toSaleResponse(Sale sale, boolean includeItems) {
+    private void publishSaleEvent(Sale sale, OutboxEventType type) {
+        List<SaleEvent.Item> items = sale.getItems() == null ? List.of() : sale.getItems().stream()
+                .map(item -> SaleEvent.Item.builder()
+                        .productId(item.getProduct().getId())
+                        .quantity(item.getQuantity())
+                        .total(item.getTotal())
+                        .build())
+                .collect(Collectors.toList());
+
+        outboxPublisher.publish("sale", sale.getId(), type, SaleEvent.builder()
+                .saleId(sale.getId())
+                .status(sale.getStatus())
+                .customerId(sale.getCustomer().getId())
+                .userId(sale.getUser().getId())
+                .total(sale.getTotal())
+                .items(items)
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
+
+    private StockCheckItemRequest toStockLine(Long productId, Integer quantity) {
+        return StockCheckItemRequest.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .build();
+    }
+
+    // Visível no pacote para o módulo de benchmarks (comercial-pereira-benchmarks)
+    SaleResponse toSaleResponse(Sale sale, boolean includeItems) {
         SaleResponse.UserInfo user = SaleResponse.UserInfo.builder()
                 .id(sale.getUser().getId())
                 .name(sale.getUser().getName())
@@ -0,0 +1,322 @@
+package br.com.comercialpereira.services.snapshot;
+
+import br.com.comercialpereira.dto.inventory.InventoryValuationResponse;
+import br.com.comercialpereira.dto.inventory.StockAtDateResponse;
+import br.com.comercialpereira.entity.Inventory;
+import br.com.comercialpereira.entity.Product;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.repository.InventoryRepository;
+import br.com.comercialpereira.services.cache.CacheInvalidationService;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Estoque em uma data passada.
+ *
+ * Um job diário grava o fechamento do dia anterior de cada produto em
+ * inventory_snapshots. A consulta parte do snapshot mais próximo (ou da
+ * quantidade atual) e reaplica apenas as movimentações entre ele e a data,
+ * limitadas a max-replay-days. Se a reaplicação passa por ajustes legados
+ * com sinal deduzido na migração (sign_inferred), o resultado sai marcado como
+ * aproximado.
+ */
+@Service
+@Slf4j
+public class InventorySnapshotService {
+
+    private static final String SNAPSHOT_SQL = """
+            INSERT INTO inventory_snapshots (snapshot_date, product_id, quantity, unit_price)
+            SELECT ?, i.product_id, i.quantity - COALESCE(r.net, 0), p.price
+            FROM inventory_stock i
+            JOIN products p ON p.id = i.product_id
+            LEFT JOIN (
+                SELECT m.product_id, SUM(m.delta) AS net
+                FROM inventory_movements m
+                WHERE m.created_at >= ?
+                GROUP BY m.product_id
+            ) r ON r.product_id = i.product_id
+            ON CONFLICT (snapshot_date, product_id) DO UPDATE
+            SET quantity = EXCLUDED.quantity,
+                unit_price = EXCLUDED.unit_price,
+                created_at = CURRENT_TIMESTAMP
+            """;
+
+    private static final String NEAREST_SNAPSHOTS_SQL = """
+            (SELECT snapshot_date, quantity
+             FROM inventory_snapshots
+             WHERE product_id = ? AND snapshot_date <= ? AND snapshot_date >= ?
+             ORDER BY snapshot_date DESC
+             LIMIT 1)
+            UNION ALL
+            (SELECT snapshot_date, quantity
+             FROM inventory_snapshots
+             WHERE product_id = ? AND snapshot_date > ? AND snapshot_date <= ?
+             ORDER BY snapshot_date
+             LIMIT 1)
+            """;
+
+    private static final String REPLAY_SQL = """
+            SELECT COALESCE(SUM(m.delta), 0) AS net, COUNT(*) AS movements,
+                   COUNT(*) FILTER (WHERE m.sign_inferred) AS inferred
+            FROM inventory_movements m
+            WHERE m.product_id = ? AND m.created_at >= ? AND m.created_at < ?
+            """;
+
+    private static final String VALUATION_SQL = """
+            WITH anchor AS (
+                SELECT DISTINCT ON (s.product_id) s.product_id, s.snapshot_date, s.quantity, s.unit_price
+                FROM inventory_snapshots s
+                WHERE s.snapshot_date <= ? AND s.snapshot_date >= ?
+                ORDER BY s.product_id, s.snapshot_date DESC
+            ),
+            from_snapshot AS (
+                SELECT a.product_id, a.quantity + COALESCE(SUM(m.delta), 0) AS quantity, a.unit_price,
+                       COALESCE(bool_or(m.sign_inferred), FALSE) AS approximate
+                FROM anchor a
+                LEFT JOIN inventory_movements m ON m.product_id = a.product_id
+                     AND m.created_at >= a.snapshot_date + 1 AND m.created_at < ?::date + 1
+                GROUP BY a.product_id, a.quantity, a.unit_price
+            ),
+            from_current AS (
+                SELECT i.product_id, i.quantity - COALESCE(SUM(m.delta), 0) AS quantity, p.price AS unit_price,
+                       COALESCE(bool_or(m.sign_inferred), FALSE) AS approximate
+                FROM inventory_stock i
+                JOIN products p ON p.id = i.product_id
+                LEFT JOIN inventory_movements m ON m.product_id = i.product_id AND m.created_at >= ?::date + 1
+                WHERE ? AND NOT EXISTS (SELECT 1 FROM anchor a WHERE a.product_id = i.product_id)
+                GROUP BY i.product_id, i.quantity, p.price
+            ),
+            valued AS (
+                SELECT * FROM from_snapshot
+                UNION ALL
+                SELECT * FROM from_current
+            )
+            SELECT p.id, p.code, p.name, c.name AS category_name, v.quantity, v.unit_price, v.approximate
+            FROM valued v
+            JOIN products p ON p.id = v.product_id
+            LEFT JOIN categories c ON c.id = p.category_id
+            ORDER BY c.name, p.name
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryRepository inventoryRepository;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final boolean enabled;
+    private final int maxReplayDays;
+
+    public InventorySnapshotService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    InventoryRepository inventoryRepository,
+                                    CacheInvalidationService cacheInvalidationService,
+                                    @Value("${comercial.inventory.snapshots.enabled:true}") boolean enabled,
+                                    @Value("${comercial.inventory.snapshots.max-replay-days:31}") int maxReplayDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inventoryRepository = inventoryRepository;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.enabled = enabled;
+        this.maxReplayDays = maxReplayDays;
+    }
+
+    // =================== SNAPSHOTS ===================
+
+    // Uma instância parada na virada do dia grava o fechamento que faltou ao subir
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Boolean taken = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM inventory_snapshots WHERE snapshot_date = ?)", Boolean.class, yesterday);
+        if (!Boolean.TRUE.equals(taken)) {
+            takeDailySnapshot();
+        }
+    }
+
+    @Scheduled(cron = "${comercial.inventory.snapshots.cron:0 5 0 * * *}")
+    public void takeDailySnapshot() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            snapshot(LocalDate.now().minusDays(1));
+        } catch (RuntimeException e) {
+            log.error("Erro ao gravar snapshot diário de estoque", e);
+        }
+    }
+
+    /**
+     * Grava o fechamento de day: a quantidade atual menos o que foi movimentado
+     * depois do fim do dia. Regravar um fechamento muda o estoque em datas
+     * passadas, então a invalidação de estoque sai no mesmo commit.
+     */
+    public int snapshot(LocalDate day) {
+        if (!day.isBefore(LocalDate.now())) {
+            throw new ApiException("Só é possível gravar o fechamento de dias encerrados", HttpStatus.BAD_REQUEST);
+        }
+
+        Integer rows = transactionTemplate.execute(status -> {
+            int written = jdbcTemplate.update(SNAPSHOT_SQL, day, day.plusDays(1).atStartOfDay());
+            if (written > 0) {
+                cacheInvalidationService.publish("inventory", null);
+            }
+            return written;
+        });
+        log.info("Snapshot de estoque de {} gravado para {} produtos", day, rows);
+        return rows != null ? rows : 0;
+    }
+
+    // =================== POINT-IN-TIME ===================
+
+    @Transactional(readOnly = true)
+    public StockAtDateResponse stockAt(Long productId, LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (date.isAfter(today)) {
+            throw new ApiException("A data não pode estar no futuro", HttpStatus.BAD_REQUEST);
+        }
+
+        Inventory inventory = inventoryRepository.findByProductId(productId)
+                .orElseThrow(() -> new ApiException("Estoque não encontrado para este produto", HttpStatus.NOT_FOUND));
+        Product product = inventory.getProduct();
+
+        StockAtDateResponse.StockAtDateResponseBuilder response = StockAtDateResponse.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .productCode(product.getCode())
+                .date(date);
+
+        Anchor anchor = nearestAnchor(productId, date, inventory.getQuantity(), today);
+        if (anchor.getDate().equals(date)) {
+            return response
+                    .quantity(anchor.getQuantity())
+                    .source(anchor.isCurrent() ? "CURRENT" : "SNAPSHOT")
+                    .anchorDate(anchor.getDate())
+                    .replayedMovements(0L)
+                    .approximate(false)
+                    .build();
+        }
+
+        // Reaplica para frente a partir de um fechamento anterior, ou desfaz para trás a partir de um posterior
+        boolean forward = anchor.getDate().isBefore(date);
+        LocalDate from = (forward ? anchor.getDate() : date).plusDays(1);
+        LocalDate to = (forward ? date : anchor.getDate()).plusDays(1);
+        Replay replay = jdbcTemplate.queryForObject(REPLAY_SQL,
+                (rs, rowNum) -> new Replay(rs.getLong("net"), rs.getLong("movements"), rs.getLong("inferred")),
+                productId, from.atStartOfDay(), to.atStartOfDay());
+
+        long quantity = forward ? anchor.getQuantity() + replay.getNet() : anchor.getQuantity() - replay.getNet();
+
+        return response
+                .quantity((int) quantity)
+                .source(anchor.isCurrent() ? "CURRENT_REPLAY" : "SNAPSHOT_REPLAY")
+                .anchorDate(anchor.getDate())
+                .replayedMovements(replay.getMovements())
+                .approximate(replay.getInferred() > 0)
+                .build();
+    }
+
+    // =================== VALUATION ===================
+
+    @Transactional(readOnly = true)
+    public InventoryValuationResponse monthEndValuation(YearMonth month) {
+        YearMonth currentMonth = YearMonth.now();
+        if (month.isAfter(currentMonth)) {
+            throw new ApiException("O mês não pode estar no futuro", HttpStatus.BAD_REQUEST);
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate date = month.equals(currentMonth) ? today : month.atEndOfMonth();
+        // Para hoje a quantidade atual é exata; snapshots só valem para dias encerrados
+        LocalDate snapshotsFrom = date.equals(today) ? date.plusDays(1) : date.minusDays(maxReplayDays);
+        boolean fromCurrent = ChronoUnit.DAYS.between(date, today) <= maxReplayDays;
+
+        List<InventoryValuationResponse.Line> lines = jdbcTemplate.query(VALUATION_SQL, (rs, rowNum) -> {
+            BigDecimal unitPrice = rs.getBigDecimal("unit_price");
+            int quantity = rs.getInt("quantity");
+            return InventoryValuationResponse.Line.builder()
+                    .productId(rs.getLong("id"))
+                    .productCode(rs.getString("code"))
+                    .productName(rs.getString("name"))
+                    .categoryName(rs.getString("category_name"))
+                    .quantity(quantity)
+                    .unitPrice(unitPrice)
+                    .totalValue(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                    .approximate(rs.getBoolean("approximate"))
+                    .build();
+        }, date, snapshotsFrom, date, date, fromCurrent);
+
+        long totalProducts = inventoryRepository.count();
+
+        return InventoryValuationResponse.builder()
+                .month(month)
+                .date(date)
+                .totalProducts((long) lines.size())
+                .totalQuantity(lines.stream().mapToLong(InventoryValuationResponse.Line::getQuantity).sum())
+                .totalValue(lines.stream()
+                        .map(InventoryValuationResponse.Line::getTotalValue)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .productsWithoutHistory(Math.max(0, totalProducts - lines.size()))
+                .approximateProducts(lines.stream().filter(InventoryValuationResponse.Line::getApproximate).count())
+                .lines(lines)
+                .build();
+    }
+
+    // =================== PRIVATE METHODS ===================
+
+    private Anchor nearestAnchor(Long productId, LocalDate date, int currentQuantity, LocalDate today) {
+        List<Anchor> anchors = new ArrayList<>(jdbcTemplate.query(NEAREST_SNAPSHOTS_SQL,
+                (rs, rowNum) -> new Anchor(rs.getObject("snapshot_date", LocalDate.class),
+                        rs.getInt("quantity"), false),
+                productId, date, date.minusDays(maxReplayDays),
+                productId, date, date.plusDays(maxReplayDays)));
+
+        if (ChronoUnit.DAYS.between(date, today) <= maxReplayDays) {
+            anchors.add(new Anchor(today, currentQuantity, true));
+        }
+
+        return anchors.stream()
+                .min(Comparator.comparingLong(anchor -> Math.abs(ChronoUnit.DAYS.between(date, anchor.getDate()))))
+                .orElseThrow(() -> new ApiException(
+                        "Não há snapshot de estoque a até " + maxReplayDays + " dias da data informada",
+                        HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Anchor {
+        private final LocalDate date;
+        private final int quantity;
+        private final boolean current;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Replay {
+        private final long net;
+        private final long movements;
+        private final long inferred;
+    }
+}
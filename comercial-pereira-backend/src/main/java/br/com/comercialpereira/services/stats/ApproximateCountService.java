@@ -0,0 +1,61 @@
+package br.com.comercialpereira.services.stats;
+
+import br.com.comercialpereira.config.CacheConfig;
+import br.com.comercialpereira.exception.ApiException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * Total aproximado de linhas por tabela, usado pela paginação sem COUNT.
+ *
+ * Lê a estimativa mantida pelo ANALYZE/autovacuum em pg_class.reltuples e só faz
+ * COUNT(*) exato quando a tabela ainda não foi analisada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApproximateCountService {
+
+    private static final Set<String> ALLOWED_TABLES = Set.of(
+            "products", "customers", "suppliers", "inventory", "sales"
+    );
+
+    // Tabelas particionadas não têm estatística própria: soma a das partições,
+    // ignorando as ainda não analisadas (em geral, meses futuros vazios)
+    private static final String ESTIMATE_SQL = """
+            SELECT CASE WHEN c.relkind = 'p' THEN (
+                       SELECT COALESCE(NULLIF(SUM(GREATEST(p.reltuples, 0)), 0), -1)::bigint
+                       FROM pg_inherits i
+                       JOIN pg_class p ON p.oid = i.inhrelid
+                       WHERE i.inhparent = c.oid)
+                   ELSE c.reltuples::bigint
+                   END
+            FROM pg_class c
+            WHERE c.oid = to_regclass(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Cacheable(cacheNames = CacheConfig.APPROXIMATE_COUNTS, key = "#table")
+    public long estimate(String table) {
+        if (!ALLOWED_TABLES.contains(table)) {
+            throw new ApiException("Tabela não suportada para contagem: " + table, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        Long estimate = jdbcTemplate.queryForObject(ESTIMATE_SQL, Long.class, table);
+
+        // reltuples = -1 indica tabela nunca analisada
+        if (estimate == null || estimate < 0) {
+            log.debug("Sem estatísticas para {}, usando contagem exata", table);
+            estimate = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        }
+
+        return estimate != null ? estimate : 0L;
+    }
+}
@@ -0,0 +1,181 @@
+package br.com.comercialpereira.services.stats;
+
+import br.com.comercialpereira.config.CacheConfig;
+import br.com.comercialpereira.enums.UserRole;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.repository.CategoryRepository;
+import br.com.comercialpereira.repository.SupplierRepository;
+import br.com.comercialpereira.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estatísticas de usuários, fornecedores e categorias.
+ *
+ * Cada entidade é resumida por uma única consulta agrupada e o resultado fica em
+ * cache por alguns segundos; os serviços de escrita invalidam o cache correspondente.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class StatisticsService {
+
+    private static final int TOP_CATEGORIES_LIMIT = 10;
+
+    private final UserRepository userRepository;
+    private final SupplierRepository supplierRepository;
+    private final CategoryRepository categoryRepository;
+
+    // =================== USERS ===================
+
+    @Cacheable(CacheConfig.USER_STATISTICS)
+    public Map<String, Object> getUserStatistics() {
+        try {
+            long total = 0;
+            long active = 0;
+
+            Map<String, Long> byRole = new LinkedHashMap<>();
+            for (UserRole role : UserRole.values()) {
+                byRole.put(role.name(), 0L);
+            }
+
+            // Linhas: role, isActive, count
+            for (Object[] row : userRepository.countGroupedByRoleAndStatus()) {
+                UserRole role = (UserRole) row[0];
+                boolean isActive = Boolean.TRUE.equals(row[1]);
+                long count = ((Number) row[2]).longValue();
+
+                total += count;
+                if (isActive) {
+                    active += count;
+                }
+                byRole.merge(role.name(), count, Long::sum);
+            }
+
+            return Map.of(
+                    "total", total,
+                    "active", active,
+                    "inactive", total - active,
+                    "byRole", byRole
+            );
+
+        } catch (Exception e) {
+            log.error("Erro ao obter estatísticas de usuários", e);
+            throw new ApiException("Erro ao obter estatísticas de usuários", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // =================== SUPPLIERS ===================
+
+    @Cacheable(CacheConfig.SUPPLIER_STATISTICS)
+    public Map<String, Object> getSupplierStatistics() {
+        try {
+            long total = 0;
+            long active = 0;
+            long activeWithProducts = 0;
+            Map<String, Long> byState = new HashMap<>();
+
+            // Linhas: state, isActive, hasProducts, count
+            for (Object[] row : supplierRepository.countGroupedByStateStatusAndProducts()) {
+                String state = row[0] != null ? row[0].toString() : "N/A";
+                boolean isActive = Boolean.TRUE.equals(row[1]);
+                boolean hasProducts = Boolean.TRUE.equals(row[2]);
+                long count = ((Number) row[3]).longValue();
+
+                total += count;
+                if (!isActive) {
+                    continue;
+                }
+
+                active += count;
+                if (hasProducts) {
+                    activeWithProducts += count;
+                }
+                byState.merge(state, count, Long::sum);
+            }
+
+            return Map.of(
+                    "total", total,
+                    "active", active,
+                    "inactive", total - active,
+                    "withProducts", activeWithProducts,
+                    "withoutProducts", active - activeWithProducts,
+                    "byState", byState
+            );
+
+        } catch (Exception e) {
+            log.error("Erro ao obter estatísticas de fornecedores", e);
+            throw new ApiException("Erro ao obter estatísticas de fornecedores", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    // =================== CATEGORIES ===================
+
+    @Cacheable(CacheConfig.CATEGORY_STATISTICS)
+    public Map<String, Object> getCategoryStatistics() {
+        try {
+            long total = 0;
+            long active = 0;
+            long withCnae = 0;
+            long withProducts = 0;
+            Map<String, Long> productsByCategory = new HashMap<>();
+            List<Map<String, Object>> topCategories = new ArrayList<>();
+
+            // Linhas já ordenadas por quantidade de produtos: id, name, isActive, hasCnae, productCount
+            for (Object[] row : categoryRepository.findStatisticsRows()) {
+                boolean isActive = Boolean.TRUE.equals(row[2]);
+                total++;
+                if (!isActive) {
+                    continue;
+                }
+
+                long productCount = ((Number) row[4]).longValue();
+                active++;
+                if (Boolean.TRUE.equals(row[3])) {
+                    withCnae++;
+                }
+                if (productCount > 0) {
+                    withProducts++;
+                }
+
+                String name = (String) row[1];
+                productsByCategory.put(name, productCount);
+
+                if (topCategories.size() < TOP_CATEGORIES_LIMIT) {
+                    Map<String, Object> categoryMap = new HashMap<>();
+                    categoryMap.put("id", ((Number) row[0]).longValue());
+                    categoryMap.put("name", name);
+                    categoryMap.put("productCount", productCount);
+                    categoryMap.put("totalRevenue", 0L);
+                    topCategories.add(categoryMap);
+                }
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("total", total);
+            result.put("active", active);
+            result.put("inactive", total - active);
+            result.put("withCnae", withCnae);
+            result.put("withProducts", withProducts);
+            result.put("productsByCategory", productsByCategory);
+            result.put("topCategories", topCategories);
+
+            return result;
+
+        } catch (Exception e) {
+            log.error("Erro ao obter estatísticas de categorias", e);
+            throw new ApiException("Erro ao obter estatísticas de categorias", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+}
@@ -8,8 +8,12 @@ import br.com.comercialpereira.dto.user.UpdateUserRequest;
 import br.com.comercialpereira.dto.user.UserFilters;
 import br.com.comercialpereira.dto.user.UserResponse;
 import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.config.CacheConfig;
+import br.com.comercialpereira.services.audit.AuditService;
+import br.com.comercialpereira.services.stats.StatisticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +36,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final StatisticsService statisticsService;
+    private final AuditService auditService;
 
     private static final String EMAIL_IN_USE = "Este email já está sendo utilizado";
     private static final String USER_NOT_FOUND = "Usuário não encontrado";
@@ -46,6 +52,7 @@ public class UserService {
 
     // =================== CREATE ===================
 
+    @CacheEvict(cacheNames = CacheConfig.USER_STATISTICS, allEntries = true)
     public UserResponse create(CreateUserRequest request, Long currentUserId) {
         try {
             // 1. Validar email único
@@ -142,6 +149,7 @@ public class UserService {
 
     // =================== UPDATE ===================
 
+    @CacheEvict(cacheNames = CacheConfig.USER_STATISTICS, allEntries = true)
     public UserResponse update(Long id, UpdateUserRequest request, Long currentUserId) {
         try {
             // 1. Verificar se usuário existe
@@ -234,6 +242,7 @@ public class UserService {
 
     // =================== DELETE (SOFT DELETE) ===================
 
+    @CacheEvict(cacheNames = CacheConfig.USER_STATISTICS, allEntries = true)
     public void delete(Long id, Long currentUserId, String reason) {
         try {
             // 1. Verificar se usuário existe
@@ -334,28 +343,7 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public Map<String, Object> getStatistics() {
-        try {
-            long total = userRepository.count();
-            long active = userRepository.countByIsActive(true);
-
-            // Contar por role
-            Map<String, Long> byRole = Map.of(
-                    "ADMIN", userRepository.countByRole(UserRole.ADMIN),
-                    "MANAGER", userRepository.countByRole(UserRole.MANAGER),
-                    "SALESPERSON", userRepository.countByRole(UserRole.SALESPERSON)
-            );
-
-            return Map.of(
-                    "total", total,
-                    "active", active,
-                    "inactive", total - active,
-                    "byRole", byRole
-            );
-
-        } catch (Exception e) {
-            log.error("Erro ao obter estatísticas de usuários", e);
-            throw new ApiException("Erro ao obter estatísticas de usuários", HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+        return statisticsService.getUserStatistics();
     }
 
     // =================== PRIVATE METHODS ===================
@@ -376,9 +364,7 @@ public class UserService {
                     currentUserId, action, targetUserId);
             log.debug("[USER_AUDIT] Data: {}", data);
 
-            // TODO: Implementar tabela de auditoria no banco se necessário
-            // auditService.log(currentUserId, action, "USERS", targetUserId, data);
-
+            auditService.log(currentUserId, action, "USERS", targetUserId, data);
         } catch (Exception e) {
             // Log de auditoria não deve impedir a operação principal
             log.error("Erro ao registrar log de auditoria", e);
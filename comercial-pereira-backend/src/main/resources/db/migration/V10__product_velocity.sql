@@ -0,0 +1,14 @@
+-- Velocidade de saída por produto numa janela móvel de dias completos.
+-- window_outbound é a soma das saídas (OUT) em (computed_through - window_days, computed_through];
+-- a atualização diária soma os dias que entram e subtrai os que saem da janela,
+-- lendo apenas movement_rollup_daily.
+CREATE TABLE product_velocity (
+    product_id BIGINT PRIMARY KEY,
+    window_days INTEGER NOT NULL,
+    window_outbound BIGINT NOT NULL,
+    computed_through DATE NOT NULL,
+    daily_velocity DECIMAL(12,4) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_product_velocity_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    CONSTRAINT chk_product_velocity_window CHECK (window_days > 0)
+);
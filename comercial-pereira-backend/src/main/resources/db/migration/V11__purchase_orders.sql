@@ -0,0 +1,38 @@
+-- Pedidos de compra por fornecedor. Rascunhos (DRAFT) são gerados em lote a
+-- partir do estoque baixo e da previsão de ruptura; cada geração substitui os
+-- rascunhos anteriores.
+CREATE TABLE purchase_orders (
+    id BIGSERIAL PRIMARY KEY,
+    supplier_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'DRAFT',
+    reference_date DATE NOT NULL,
+    item_count INTEGER NOT NULL,
+    total_quantity INTEGER NOT NULL,
+    notes VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_purchase_orders_supplier FOREIGN KEY (supplier_id) REFERENCES suppliers(id),
+    CONSTRAINT chk_purchase_orders_status CHECK (status IN ('DRAFT', 'SENT', 'RECEIVED', 'CANCELLED'))
+);
+
+CREATE TABLE purchase_order_items (
+    id BIGSERIAL PRIMARY KEY,
+    purchase_order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    current_quantity INTEGER NOT NULL,
+    min_stock INTEGER NOT NULL,
+    max_stock INTEGER,
+    daily_velocity DECIMAL(12,4),
+    predicted BOOLEAN NOT NULL DEFAULT false,
+    suggested_quantity INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_purchase_order_items_order FOREIGN KEY (purchase_order_id) REFERENCES purchase_orders(id) ON DELETE CASCADE,
+    CONSTRAINT fk_purchase_order_items_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    CONSTRAINT chk_purchase_order_items_quantity CHECK (suggested_quantity > 0)
+);
+
+CREATE INDEX idx_purchase_orders_status_created ON purchase_orders(status, created_at DESC);
+CREATE INDEX idx_purchase_orders_supplier ON purchase_orders(supplier_id, status);
+CREATE INDEX idx_purchase_order_items_order ON purchase_order_items(purchase_order_id);
+CREATE INDEX idx_purchase_order_items_product ON purchase_order_items(product_id);
@@ -0,0 +1,58 @@
+-- Estoque por local físico (loja, depósito...). Cada produto tem uma linha em
+-- inventory_locations por local onde já teve estoque; a quantidade do produto
+-- é a soma dessas linhas e deixa de ser gravada em inventory. Movimentações
+-- travam apenas a linha do local, então a venda no balcão não disputa a trava
+-- com o recebimento no depósito do mesmo produto.
+CREATE TABLE stock_locations (
+    id BIGSERIAL PRIMARY KEY,
+    code VARCHAR(20) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    is_default BOOLEAN NOT NULL DEFAULT false,
+    is_active BOOLEAN NOT NULL DEFAULT true,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Local padrão: vendas e cadastros sem local informado usam a loja
+CREATE UNIQUE INDEX uk_stock_locations_default ON stock_locations(is_default) WHERE is_default;
+
+INSERT INTO stock_locations (code, name, is_default) VALUES ('LOJA', 'Loja', true);
+
+CREATE TABLE inventory_locations (
+    id BIGSERIAL PRIMARY KEY,
+    inventory_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    location_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_inventory_locations_inventory FOREIGN KEY (inventory_id) REFERENCES inventory(id) ON DELETE CASCADE,
+    CONSTRAINT fk_inventory_locations_location FOREIGN KEY (location_id) REFERENCES stock_locations(id),
+    CONSTRAINT uk_inventory_locations_product_location UNIQUE (product_id, location_id),
+    CONSTRAINT chk_inventory_locations_quantity CHECK (quantity >= 0)
+);
+
+CREATE INDEX idx_inventory_locations_inventory ON inventory_locations(inventory_id);
+CREATE INDEX idx_inventory_locations_location ON inventory_locations(location_id);
+
+-- Todo o estoque atual fica no local padrão
+INSERT INTO inventory_locations (inventory_id, product_id, location_id, quantity)
+SELECT i.id, i.product_id, l.id, i.quantity
+FROM inventory i
+CROSS JOIN stock_locations l
+WHERE l.is_default;
+
+-- Local da movimentação; NULL nas movimentações anteriores a esta migração,
+-- que aconteceram todas no local padrão
+ALTER TABLE inventory_movements ADD COLUMN location_id BIGINT;
+ALTER TABLE inventory_movements
+    ADD CONSTRAINT fk_movements_location FOREIGN KEY (location_id) REFERENCES stock_locations(id);
+
+ALTER TABLE inventory DROP COLUMN quantity;
+
+-- Visão agregada com o mesmo formato da tabela antiga, para as consultas SQL
+CREATE VIEW inventory_stock AS
+SELECT i.id, i.product_id,
+       COALESCE((SELECT SUM(il.quantity) FROM inventory_locations il WHERE il.inventory_id = i.id), 0)::integer AS quantity,
+       i.min_stock, i.max_stock, i.location, i.last_update, i.created_at, i.updated_at
+FROM inventory i;
@@ -0,0 +1,29 @@
+-- Modo de alta concorrência por produto. Enquanto o produto está na tabela, o
+-- estoque do local fica em contadores na memória da instância e as
+-- movimentações vão para um log local (WAL) antes de serem gravadas em lote em
+-- inventory_locations e inventory_movements.
+CREATE TABLE hot_sku_products (
+    product_id BIGINT NOT NULL,
+    location_id BIGINT NOT NULL,
+    enabled_by BIGINT,
+    enabled_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (product_id, location_id),
+    CONSTRAINT fk_hot_sku_products_product FOREIGN KEY (product_id) REFERENCES products(id),
+    CONSTRAINT fk_hot_sku_products_location FOREIGN KEY (location_id) REFERENCES stock_locations(id),
+    CONSTRAINT fk_hot_sku_products_user FOREIGN KEY (enabled_by) REFERENCES users(id)
+);
+
+-- Maior sequência do WAL de cada instância até a qual tudo já foi gravado ou descartado
+CREATE TABLE hot_sku_checkpoints (
+    node_id VARCHAR(36) PRIMARY KEY,
+    last_seq BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Sequências já gravadas acima do checkpoint; evita reaplicar um registro do
+-- WAL se a instância cair entre o commit do lote e a limpeza da fila
+CREATE TABLE hot_sku_wal_applied (
+    node_id VARCHAR(36) NOT NULL,
+    seq BIGINT NOT NULL,
+    PRIMARY KEY (node_id, seq)
+);
@@ -0,0 +1,20 @@
+-- Alertas de estoque mantidos pelo consumidor "stock-alerts" do outbox.
+-- Um alerta fica aberto enquanto o total do produto estiver no mínimo ou abaixo
+-- (LOW) ou zerado (OUT); quando o estoque volta acima do mínimo ele é resolvido
+-- e a linha fica como histórico.
+CREATE TABLE stock_alerts (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    level VARCHAR(10) NOT NULL,
+    quantity INTEGER NOT NULL,
+    min_stock INTEGER NOT NULL,
+    last_event_id BIGINT NOT NULL,
+    opened_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    resolved_at TIMESTAMP,
+    CONSTRAINT fk_stock_alerts_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
+    CONSTRAINT chk_stock_alerts_level CHECK (level IN ('LOW', 'OUT'))
+);
+
+CREATE UNIQUE INDEX uq_stock_alerts_open ON stock_alerts(product_id) WHERE resolved_at IS NULL;
+CREATE INDEX idx_stock_alerts_opened_at ON stock_alerts(opened_at DESC);
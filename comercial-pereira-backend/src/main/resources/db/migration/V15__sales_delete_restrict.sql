@@ -0,0 +1,23 @@
+-- A V6 trocou a FK inventory_movements.sale_id -> sales por um trigger que só
+-- confere inserções e updates. Sem a FK, apagar uma venda deixava movimentações
+-- apontando para uma venda que não existe mais; este trigger devolve o
+-- comportamento de RESTRICT da FK original.
+--
+-- O arquivamento remove meses inteiros com DROP da partição, que não dispara
+-- triggers de linha; ele mesmo confere antes que nenhuma movimentação de outro
+-- mês referencia as vendas arquivadas.
+
+CREATE OR REPLACE FUNCTION restrict_sale_delete()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM inventory_movements WHERE sale_id = OLD.id) THEN
+        RAISE EXCEPTION 'Venda % possui movimentações de estoque e não pode ser removida', OLD.id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_sales_restrict_delete
+    BEFORE DELETE ON sales
+    FOR EACH ROW EXECUTE FUNCTION restrict_sale_delete();
@@ -0,0 +1,26 @@
+-- Ajustes gravados antes do razão com sinal (V8) não guardavam o sinal: a V8
+-- tratou todos como entrada, exceto as correções da reconciliação, que trazem
+-- o sinal no motivo. Esses deltas são um palpite; sign_inferred marca as
+-- linhas para que relatórios e reconciliação as tratem como aproximadas.
+ALTER TABLE inventory_movements
+    ADD COLUMN sign_inferred BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE inventory_movements m
+SET sign_inferred = TRUE
+WHERE m.type = 'ADJUSTMENT'
+  AND m.created_at < COALESCE(
+        (SELECT MIN(h.installed_on) FROM flyway_schema_history h WHERE h.version = '8' AND h.success),
+        '-infinity'::timestamp)
+  AND m.reason IS DISTINCT FROM 'Saldo de abertura do razão'
+  AND (m.reason IS NULL OR m.reason NOT LIKE 'Reconciliação: divergência de %');
+
+-- O saldo de abertura fecha o razão com a quantidade da época: se algum ajuste
+-- do produto teve o sinal deduzido, o saldo de abertura herda o mesmo erro
+UPDATE inventory_movements m
+SET sign_inferred = TRUE
+WHERE m.type = 'ADJUSTMENT'
+  AND m.reason = 'Saldo de abertura do razão'
+  AND EXISTS (SELECT 1 FROM inventory_movements x WHERE x.product_id = m.product_id AND x.sign_inferred);
+
+-- Poucas linhas legadas: os relatórios testam a existência por produto e período
+CREATE INDEX idx_movements_sign_inferred ON inventory_movements(product_id, created_at) WHERE sign_inferred;
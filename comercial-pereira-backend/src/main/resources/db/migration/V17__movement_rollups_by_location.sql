@@ -0,0 +1,54 @@
+-- Agregados de movimentações também por local.
+--
+-- A V9 assumia que as linhas de agregado atualizadas pelo trigger eram as
+-- mesmas que já disputavam o UPDATE em inventory. Com o estoque por local
+-- (V12), movimentações do mesmo produto em locais diferentes travam linhas
+-- diferentes de inventory_locations, mas ainda se encontravam na mesma linha
+-- (hora/dia, produto, tipo) do agregado, que ficava travada até o commit:
+-- vendas em lojas diferentes do mesmo produto voltavam a ser serializadas.
+--
+-- Com o local na chave, cada linha de agregado só é disputada por quem já
+-- disputa a mesma linha de inventory_locations. Os leitores somam por produto
+-- e não mudam. As linhas existentes ficam com location_id = 0 (agregadas antes
+-- da separação por local); movimentações sem local também caem no 0.
+
+ALTER TABLE movement_rollup_hourly ADD COLUMN location_id BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE movement_rollup_daily ADD COLUMN location_id BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE movement_rollup_hourly DROP CONSTRAINT movement_rollup_hourly_pkey;
+ALTER TABLE movement_rollup_hourly ADD PRIMARY KEY (bucket, product_id, type, location_id);
+
+ALTER TABLE movement_rollup_daily DROP CONSTRAINT movement_rollup_daily_pkey;
+ALTER TABLE movement_rollup_daily ADD PRIMARY KEY (bucket, product_id, type, location_id);
+
+-- Mesmo upsert em ordem fixa da V9, agora agrupado por local
+CREATE OR REPLACE FUNCTION rollup_inventory_movements()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO movement_rollup_hourly AS r (bucket, product_id, type, location_id,
+                                             movement_count, quantity_sum, delta_sum)
+    SELECT date_trunc('hour', created_at), product_id, type, COALESCE(location_id, 0),
+           COUNT(*), SUM(quantity), SUM(delta)
+    FROM new_movements
+    GROUP BY 1, 2, 3, 4
+    ORDER BY 1, 2, 3, 4
+    ON CONFLICT (bucket, product_id, type, location_id) DO UPDATE
+    SET movement_count = r.movement_count + EXCLUDED.movement_count,
+        quantity_sum = r.quantity_sum + EXCLUDED.quantity_sum,
+        delta_sum = r.delta_sum + EXCLUDED.delta_sum;
+
+    INSERT INTO movement_rollup_daily AS r (bucket, product_id, type, location_id,
+                                            movement_count, quantity_sum, delta_sum)
+    SELECT created_at::date, product_id, type, COALESCE(location_id, 0),
+           COUNT(*), SUM(quantity), SUM(delta)
+    FROM new_movements
+    GROUP BY 1, 2, 3, 4
+    ORDER BY 1, 2, 3, 4
+    ON CONFLICT (bucket, product_id, type, location_id) DO UPDATE
+    SET movement_count = r.movement_count + EXCLUDED.movement_count,
+        quantity_sum = r.quantity_sum + EXCLUDED.quantity_sum,
+        delta_sum = r.delta_sum + EXCLUDED.delta_sum;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,47 @@
+-- Contagens físicas de estoque. A sessão, as quantidades bipadas e os
+-- bloqueios de posição ficam no banco, então qualquer instância recebe
+-- bipagens, fecha ou cancela a contagem, e as movimentações conferem o
+-- bloqueio com a linha do local já travada.
+CREATE TABLE stock_count_sessions (
+    id BIGSERIAL PRIMARY KEY,
+    stock_location_id BIGINT NOT NULL,
+    locations TEXT[] NOT NULL,
+    zero_uncounted BOOLEAN NOT NULL DEFAULT false,
+    status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    scans_accepted BIGINT NOT NULL DEFAULT 0,
+    scans_rejected BIGINT NOT NULL DEFAULT 0,
+    unknown_barcodes TEXT[] NOT NULL DEFAULT '{}',
+    started_by BIGINT,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    closed_at TIMESTAMP,
+    CONSTRAINT fk_stock_count_sessions_location FOREIGN KEY (stock_location_id) REFERENCES stock_locations(id),
+    CONSTRAINT fk_stock_count_sessions_user FOREIGN KEY (started_by) REFERENCES users(id),
+    CONSTRAINT chk_stock_count_sessions_status CHECK (status IN ('OPEN', 'COMMITTED', 'CANCELLED'))
+);
+
+CREATE INDEX idx_stock_count_sessions_open ON stock_count_sessions(id) WHERE status = 'OPEN';
+
+-- Quantidade bipada por produto, somada a cada envio de bipagens
+CREATE TABLE stock_count_items (
+    session_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    counted INTEGER NOT NULL,
+    PRIMARY KEY (session_id, product_id),
+    CONSTRAINT fk_stock_count_items_session FOREIGN KEY (session_id) REFERENCES stock_count_sessions(id) ON DELETE CASCADE,
+    CONSTRAINT fk_stock_count_items_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+-- Posições bloqueadas enquanto a sessão está aberta; a chave impede duas
+-- contagens da mesma posição no mesmo local
+CREATE TABLE stock_count_freezes (
+    stock_location_id BIGINT NOT NULL,
+    location VARCHAR(100) NOT NULL,
+    session_id BIGINT NOT NULL,
+    PRIMARY KEY (stock_location_id, location),
+    CONSTRAINT fk_stock_count_freezes_location FOREIGN KEY (stock_location_id) REFERENCES stock_locations(id),
+    CONSTRAINT fk_stock_count_freezes_session FOREIGN KEY (session_id) REFERENCES stock_count_sessions(id) ON DELETE CASCADE
+);
+
+-- Mudança de posição do produto confere a posição em qualquer local
+CREATE INDEX idx_stock_count_freezes_location ON stock_count_freezes(location);
+CREATE INDEX idx_stock_count_freezes_session ON stock_count_freezes(session_id);
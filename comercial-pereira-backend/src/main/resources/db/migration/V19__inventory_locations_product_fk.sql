@@ -0,0 +1,7 @@
+-- inventory_locations.product_id repete o produto de inventory para travar e
+-- buscar a linha do local sem juntar com inventory; a chave estrangeira impede
+-- linha de local de um produto que não existe. Entra NOT VALID, sem ler as
+-- linhas antigas; a V23 valida em outra migração (outra transação), com trava
+-- que não bloqueia escritas.
+ALTER TABLE inventory_locations
+    ADD CONSTRAINT fk_inventory_locations_product FOREIGN KEY (product_id) REFERENCES products(id) NOT VALID;
@@ -0,0 +1,46 @@
+-- Modo de alta concorrência: confirmação pelo banco, dono do produto e fila de
+-- movimentações que não puderam ser gravadas.
+--
+-- Cada movimentação grava (instância, sequência do WAL) em hot_sku_wal_intents
+-- dentro da transação de quem a pediu. A linha existe se e somente se essa
+-- transação confirmou; o lote apaga a intenção ao gravar a movimentação, então
+-- a recuperação aplica só entradas do WAL com intenção e descarta as demais.
+-- Atualizar com a aplicação desligada normalmente: o desligamento grava a fila
+-- inteira e não sobram entradas do WAL sem intenção a reaplicar.
+CREATE TABLE hot_sku_wal_intents (
+    node_id VARCHAR(36) NOT NULL,
+    seq BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (node_id, seq)
+);
+
+-- A apagada da intenção no lote substitui o registro das sequências aplicadas
+DROP TABLE hot_sku_wal_applied;
+
+-- Instância cujos contadores e WAL guardam o saldo do produto; as demais
+-- recusam movimentações dele. Produtos já no modo são assumidos pela primeira
+-- instância que terminar a recuperação.
+ALTER TABLE hot_sku_products ADD COLUMN owner_node VARCHAR(36);
+
+-- Movimentações confirmadas que o lote não conseguiu aplicar (saldo negativo,
+-- linha do local removida). Ficam aqui para acerto manual; o lote segue.
+CREATE TABLE hot_sku_dead_letters (
+    id BIGSERIAL PRIMARY KEY,
+    node_id VARCHAR(36) NOT NULL,
+    seq BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    location_id BIGINT NOT NULL,
+    inventory_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    delta INTEGER NOT NULL,
+    quantity_before INTEGER,
+    reason VARCHAR(500),
+    user_id BIGINT,
+    sale_id BIGINT,
+    moved_at TIMESTAMP NOT NULL,
+    error VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_hot_sku_dead_letters_seq UNIQUE (node_id, seq)
+);
+
+CREATE INDEX idx_hot_sku_dead_letters_product ON hot_sku_dead_letters(product_id, created_at DESC);
@@ -0,0 +1,19 @@
+-- Versão de cada conjunto de entidades, base das ETags do catálogo.
+--
+-- O id do log é reservado no INSERT, não no commit: uma transação com id menor
+-- pode confirmar depois de outra com id maior, e a versão máxima já vista não
+-- mudaria. O contador por entidade é incrementado na própria transação que
+-- escreve; a trava da linha ordena os incrementos na ordem dos commits.
+CREATE TABLE entity_versions (
+    entity VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+-- Parte do maior id já usado, para não repetir ETags já entregues
+INSERT INTO entity_versions (entity, version)
+SELECT entity, MAX(id) FROM cache_invalidation_log GROUP BY entity;
+
+-- Versão da entidade gravada junto com a invalidação, para o reprocessamento
+ALTER TABLE cache_invalidation_log ADD COLUMN entity_version BIGINT;
+UPDATE cache_invalidation_log SET entity_version = id;
+ALTER TABLE cache_invalidation_log ALTER COLUMN entity_version SET NOT NULL;
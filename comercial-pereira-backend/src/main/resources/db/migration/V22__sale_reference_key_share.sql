@@ -0,0 +1,34 @@
+-- Os triggers que substituem as FKs para sales (V6 e V15) conferiam com um
+-- EXISTS simples. Em READ COMMITTED, a inserção de um item ou movimentação e a
+-- remoção da venda não enxergam a linha ainda não confirmada uma da outra, e a
+-- referência órfã passava. Como a FK do Postgres, a inserção agora trava a
+-- venda com FOR KEY SHARE; a remoção trava a venda antes de conferir, então
+-- espera a inserção confirmar e enxerga a movimentação (ou a inserção espera a
+-- remoção e não encontra mais a venda).
+
+CREATE OR REPLACE FUNCTION check_sale_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.sale_id IS NULL THEN
+        RETURN NEW;
+    END IF;
+    PERFORM 1 FROM sales WHERE id = NEW.sale_id FOR KEY SHARE;
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'Venda % não encontrada', NEW.sale_id USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION restrict_sale_delete()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- Espera quem inseriu movimentação desta venda (FOR KEY SHARE) terminar
+    PERFORM 1 FROM sales WHERE id = OLD.id FOR UPDATE;
+    IF EXISTS (SELECT 1 FROM inventory_movements WHERE sale_id = OLD.id) THEN
+        RAISE EXCEPTION 'Venda % possui movimentações de estoque e não pode ser removida', OLD.id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
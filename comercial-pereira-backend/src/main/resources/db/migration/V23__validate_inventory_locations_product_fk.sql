@@ -0,0 +1,5 @@
+-- Valida a chave adicionada NOT VALID na V19. Fica numa migração própria: o
+-- Flyway roda cada uma em sua transação, então as travas do ADD CONSTRAINT já
+-- foram liberadas, e o VALIDATE só pede SHARE UPDATE EXCLUSIVE em
+-- inventory_locations e ROW SHARE em products, sem bloquear movimentações.
+ALTER TABLE inventory_locations VALIDATE CONSTRAINT fk_inventory_locations_product;
@@ -0,0 +1,11 @@
+-- Movimentações gravam só a linha do local (inventory_locations.updated_at); a
+-- última atualização do estoque é a mais recente entre a linha de inventory e
+-- as dos locais, derivada como a quantidade.
+CREATE OR REPLACE VIEW inventory_stock AS
+SELECT i.id, i.product_id,
+       COALESCE((SELECT SUM(il.quantity) FROM inventory_locations il WHERE il.inventory_id = i.id), 0)::integer AS quantity,
+       i.min_stock, i.max_stock, i.location,
+       GREATEST(i.last_update, i.updated_at,
+                (SELECT MAX(il.updated_at) FROM inventory_locations il WHERE il.inventory_id = i.id)) AS last_update,
+       i.created_at, i.updated_at
+FROM inventory i;
@@ -0,0 +1,7 @@
+-- Busca de fornecedores por trecho de texto (ILIKE '%termo%') usando índices trigram
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_suppliers_name_trgm ON suppliers USING gin (name gin_trgm_ops);
+CREATE INDEX idx_suppliers_contact_person_trgm ON suppliers USING gin (contact_person gin_trgm_ops);
+CREATE INDEX idx_suppliers_email_trgm ON suppliers USING gin (email gin_trgm_ops);
+CREATE INDEX idx_suppliers_city_trgm ON suppliers USING gin (city gin_trgm_ops);
@@ -0,0 +1,14 @@
+-- Log de invalidação de cache entre instâncias.
+-- O id funciona como versão: cada escrita confirmada gera uma linha e um NOTIFY
+-- no canal cache_invalidation; instâncias que perderam notificações reprocessam
+-- as linhas com id maior que a última versão vista.
+CREATE TABLE cache_invalidation_log (
+    id BIGSERIAL PRIMARY KEY,
+    entity VARCHAR(50) NOT NULL,
+    entity_id BIGINT,
+    origin VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_cache_invalidation_entity ON cache_invalidation_log(entity, id);
+CREATE INDEX idx_cache_invalidation_created_at ON cache_invalidation_log(created_at);
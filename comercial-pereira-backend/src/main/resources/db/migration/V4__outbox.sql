@@ -0,0 +1,24 @@
+-- Outbox de eventos de domínio (estoque e vendas).
+-- Os eventos são gravados na mesma transação da alteração; o relay entrega em
+-- ordem de (tx_id, id) apenas transações já encerradas, então um id menor
+-- confirmado depois de um maior não é pulado.
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    tx_id BIGINT NOT NULL DEFAULT txid_current(),
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT,
+    event_type VARCHAR(50) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_outbox_events_cursor ON outbox_events(tx_id, id);
+CREATE INDEX idx_outbox_events_created_at ON outbox_events(created_at);
+
+-- Posição de entrega de cada consumidor; a linha é travada durante o lote
+CREATE TABLE outbox_offsets (
+    consumer VARCHAR(100) PRIMARY KEY,
+    last_tx_id BIGINT NOT NULL DEFAULT 0,
+    last_event_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,18 @@
+-- Auditoria de operações. As linhas chegam em lote a partir do journal local
+-- de cada instância; (journal_id, sequence) torna o reenvio idempotente.
+CREATE TABLE audit_log (
+    id BIGSERIAL PRIMARY KEY,
+    journal_id VARCHAR(64) NOT NULL,
+    sequence BIGINT NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    user_id BIGINT,
+    action VARCHAR(50) NOT NULL,
+    entity VARCHAR(50) NOT NULL,
+    entity_id BIGINT,
+    data JSONB,
+    CONSTRAINT uk_audit_log_journal_sequence UNIQUE (journal_id, sequence)
+);
+
+CREATE INDEX idx_audit_log_entity ON audit_log(entity, entity_id, occurred_at DESC);
+CREATE INDEX idx_audit_log_user ON audit_log(user_id, occurred_at DESC);
+CREATE INDEX idx_audit_log_occurred_at ON audit_log(occurred_at DESC);
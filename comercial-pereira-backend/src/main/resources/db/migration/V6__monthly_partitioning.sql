@@ -0,0 +1,221 @@
+-- Particionamento mensal por intervalo de sales(sale_date) e
+-- inventory_movements(created_at).
+--
+-- A chave primária de uma tabela particionada precisa incluir a coluna de
+-- partição, então passa a ser (id, data). O id continua vindo da mesma sequence
+-- e segue único; como não há mais UNIQUE só em sales(id), as FKs que apontavam
+-- para sales viram triggers de verificação.
+
+-- =================== FUNÇÕES DE PARTIÇÃO ===================
+
+-- Cria (se não existir) a partição do mês de month_start. Linhas desse intervalo
+-- que tenham caído na partição default são movidas antes do ATTACH.
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent TEXT, month_start DATE)
+RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month_start)::date;
+    end_date DATE := (date_trunc('month', month_start) + INTERVAL '1 month')::date;
+    partition_name TEXT := format('%s_y%sm%s', parent, to_char(start_date, 'YYYY'), to_char(start_date, 'MM'));
+    default_name TEXT := parent || '_default';
+    key_column TEXT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    SELECT a.attname INTO key_column
+    FROM pg_partitioned_table pt
+    JOIN pg_attribute a ON a.attrelid = pt.partrelid AND a.attnum = pt.partattrs[0]
+    WHERE pt.partrelid = parent::regclass;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent);
+
+    IF to_regclass(default_name) IS NOT NULL THEN
+        EXECUTE format(
+            'WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+            default_name, key_column, start_date, key_column, end_date, partition_name);
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition_name, start_date, end_date);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Garante partições do mês corrente até months_ahead meses à frente
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent TEXT, months_ahead INTEGER)
+RETURNS SETOF TEXT AS $$
+DECLARE
+    month_offset INTEGER;
+BEGIN
+    FOR month_offset IN 0..months_ahead LOOP
+        RETURN NEXT create_monthly_partition(parent,
+            (date_trunc('month', CURRENT_DATE) + make_interval(months => month_offset))::date);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Desanexa as partições mensais que terminam antes de older_than. As tabelas
+-- continuam existindo com o mesmo nome para arquivamento ou DROP.
+CREATE OR REPLACE FUNCTION detach_monthly_partitions(parent TEXT, older_than DATE)
+RETURNS SETOF TEXT AS $$
+DECLARE
+    part RECORD;
+    month_start DATE;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent::regclass
+          AND c.relname ~ ('^' || parent || '_y[0-9]{4}m[0-9]{2}$')
+        ORDER BY c.relname
+    LOOP
+        month_start := make_date(substring(part.relname from '_y([0-9]{4})m')::int,
+                                 substring(part.relname from 'm([0-9]{2})$')::int, 1);
+        IF (month_start + INTERVAL '1 month')::date <= older_than THEN
+            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, part.relname);
+            RETURN NEXT part.relname;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- =================== SALES ===================
+
+ALTER TABLE sale_items DROP CONSTRAINT fk_sale_items_sale;
+ALTER TABLE inventory_movements DROP CONSTRAINT fk_movements_sale;
+
+ALTER TABLE sales RENAME TO sales_legacy;
+ALTER INDEX sales_pkey RENAME TO sales_legacy_pkey;
+ALTER TABLE sales_legacy ALTER COLUMN id DROP DEFAULT;
+ALTER SEQUENCE sales_id_seq OWNED BY NONE;
+
+CREATE TABLE sales (
+    id BIGINT NOT NULL DEFAULT nextval('sales_id_seq'),
+    user_id BIGINT NOT NULL,
+    customer_id BIGINT NOT NULL,
+    total DECIMAL(10,2) NOT NULL,
+    discount DECIMAL(10,2) DEFAULT 0.00,
+    tax DECIMAL(10,2) DEFAULT 0.00,
+    status VARCHAR(20) NOT NULL DEFAULT 'DRAFT',
+    notes TEXT,
+    sale_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT sales_pkey PRIMARY KEY (id, sale_date),
+    CONSTRAINT fk_sales_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT fk_sales_customer FOREIGN KEY (customer_id) REFERENCES customers(id),
+    CONSTRAINT chk_total_positive CHECK (total > 0),
+    CONSTRAINT chk_discount_non_negative CHECK (discount >= 0),
+    CONSTRAINT chk_tax_non_negative CHECK (tax >= 0)
+) PARTITION BY RANGE (sale_date);
+
+ALTER SEQUENCE sales_id_seq OWNED BY sales.id;
+
+CREATE TABLE sales_default PARTITION OF sales DEFAULT;
+
+-- =================== INVENTORY MOVEMENTS ===================
+
+ALTER TABLE inventory_movements RENAME TO inventory_movements_legacy;
+ALTER INDEX inventory_movements_pkey RENAME TO inventory_movements_legacy_pkey;
+ALTER TABLE inventory_movements_legacy ALTER COLUMN id DROP DEFAULT;
+ALTER SEQUENCE inventory_movements_id_seq OWNED BY NONE;
+
+CREATE TABLE inventory_movements (
+    id BIGINT NOT NULL DEFAULT nextval('inventory_movements_id_seq'),
+    inventory_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    quantity INTEGER NOT NULL,
+    reason VARCHAR(500),
+    user_id BIGINT,
+    sale_id BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT inventory_movements_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_movements_inventory FOREIGN KEY (inventory_id) REFERENCES inventory(id),
+    CONSTRAINT fk_movements_product FOREIGN KEY (product_id) REFERENCES products(id),
+    CONSTRAINT fk_movements_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT chk_quantity_positive CHECK (quantity > 0)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE inventory_movements_id_seq OWNED BY inventory_movements.id;
+
+CREATE TABLE inventory_movements_default PARTITION OF inventory_movements DEFAULT;
+
+-- =================== PARTIÇÕES INICIAIS E CARGA ===================
+
+DO $$
+DECLARE
+    first_month DATE;
+    month_start DATE;
+BEGIN
+    SELECT date_trunc('month', LEAST(
+               (SELECT MIN(sale_date) FROM sales_legacy),
+               (SELECT MIN(created_at) FROM inventory_movements_legacy),
+               CURRENT_TIMESTAMP))::date
+    INTO first_month;
+
+    month_start := first_month;
+    WHILE month_start < date_trunc('month', CURRENT_DATE)::date LOOP
+        PERFORM create_monthly_partition('sales', month_start);
+        PERFORM create_monthly_partition('inventory_movements', month_start);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+
+    PERFORM ensure_monthly_partitions('sales', 3);
+    PERFORM ensure_monthly_partitions('inventory_movements', 3);
+END;
+$$;
+
+INSERT INTO sales SELECT * FROM sales_legacy;
+INSERT INTO inventory_movements SELECT * FROM inventory_movements_legacy;
+
+DROP TABLE sales_legacy;
+DROP TABLE inventory_movements_legacy;
+
+-- Índices particionados: criados no pai, replicados em cada partição
+CREATE INDEX idx_sales_user_id ON sales(user_id);
+CREATE INDEX idx_sales_customer_id ON sales(customer_id);
+CREATE INDEX idx_sales_status ON sales(status);
+CREATE INDEX idx_sales_date ON sales(sale_date);
+CREATE INDEX idx_sales_id ON sales(id);
+
+CREATE INDEX idx_movements_product_id ON inventory_movements(product_id);
+CREATE INDEX idx_movements_type ON inventory_movements(type);
+CREATE INDEX idx_movements_created_at ON inventory_movements(created_at);
+CREATE INDEX idx_movements_sale_id ON inventory_movements(sale_id);
+
+-- =================== INTEGRIDADE COM SALES ===================
+
+CREATE OR REPLACE FUNCTION check_sale_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.sale_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM sales WHERE id = NEW.sale_id) THEN
+        RAISE EXCEPTION 'Venda % não encontrada', NEW.sale_id USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_sale_items_sale_reference
+    BEFORE INSERT OR UPDATE OF sale_id ON sale_items
+    FOR EACH ROW EXECUTE FUNCTION check_sale_reference();
+
+CREATE TRIGGER trg_movements_sale_reference
+    BEFORE INSERT OR UPDATE OF sale_id ON inventory_movements
+    FOR EACH ROW EXECUTE FUNCTION check_sale_reference();
+
+-- Substitui o ON DELETE CASCADE de sale_items
+CREATE OR REPLACE FUNCTION delete_sale_items()
+RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM sale_items WHERE sale_id = OLD.id;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_sales_delete_items
+    AFTER DELETE ON sales
+    FOR EACH ROW EXECUTE FUNCTION delete_sale_items();
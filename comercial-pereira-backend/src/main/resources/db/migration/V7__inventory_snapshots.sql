@@ -0,0 +1,19 @@
+-- Fechamento diário de estoque por produto: quantidade ao fim de snapshot_date.
+-- unsigned_adjustments conta os ajustes entre o fechamento e o momento do
+-- cálculo; como movimentações ADJUSTMENT não guardam o sinal, a quantidade
+-- desses dias é aproximada.
+CREATE TABLE inventory_snapshots (
+    snapshot_date DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(8,2) NOT NULL,
+    unsigned_adjustments INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (snapshot_date, product_id),
+    CONSTRAINT fk_inventory_snapshots_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_inventory_snapshots_product_date ON inventory_snapshots(product_id, snapshot_date DESC);
+
+-- Replay das movimentações de um produto num intervalo curto
+CREATE INDEX idx_movements_product_created_at ON inventory_movements(product_id, created_at);
@@ -0,0 +1,77 @@
+-- Razão de movimentações com sinal: delta (positivo entra, negativo sai) e as
+-- quantidades antes/depois. quantity continua guardando o módulo.
+ALTER TABLE inventory_movements
+    ADD COLUMN delta INTEGER,
+    ADD COLUMN quantity_before INTEGER,
+    ADD COLUMN quantity_after INTEGER;
+
+-- Sinal das movimentações existentes. Ajustes antigos não guardavam o sinal:
+-- só as correções da reconciliação o trazem no motivo; os demais viram entrada.
+CREATE TEMPORARY TABLE legacy_movement_delta ON COMMIT DROP AS
+SELECT m.id, m.created_at, m.product_id,
+       CASE m.type
+           WHEN 'IN' THEN m.quantity
+           WHEN 'OUT' THEN -m.quantity
+           WHEN 'ADJUSTMENT' THEN
+               CASE WHEN m.reason LIKE 'Reconciliação: divergência de -%' THEN -m.quantity ELSE m.quantity END
+       END AS delta
+FROM inventory_movements m;
+
+-- Saldo de abertura: o que a quantidade atual tem a mais (ou a menos) que o
+-- razão, como estoque inicial sem movimentação ou alterações diretas. Com ele,
+-- SUM(delta) por produto é igual a inventory.quantity.
+INSERT INTO inventory_movements (inventory_id, product_id, type, quantity, delta, reason, created_at, updated_at)
+SELECT i.id, i.product_id, 'ADJUSTMENT', ABS(i.quantity - COALESCE(l.net, 0)), i.quantity - COALESCE(l.net, 0),
+       'Saldo de abertura do razão',
+       LEAST(i.created_at, COALESCE(l.first_at, i.created_at)) - INTERVAL '1 second',
+       CURRENT_TIMESTAMP
+FROM inventory i
+LEFT JOIN (
+    SELECT product_id, SUM(delta) AS net, MIN(created_at) AS first_at
+    FROM legacy_movement_delta
+    GROUP BY product_id
+) l ON l.product_id = i.product_id
+WHERE i.quantity <> COALESCE(l.net, 0);
+
+-- Uma única reescrita da tabela: sinal e saldo corrente por produto
+UPDATE inventory_movements m
+SET delta = l.delta,
+    quantity_after = l.running,
+    quantity_before = l.running - l.delta
+FROM (
+    SELECT x.id, x.created_at, x.delta,
+           SUM(x.delta) OVER (PARTITION BY x.product_id ORDER BY x.created_at, x.id) AS running
+    FROM (
+        SELECT mv.id, mv.created_at, mv.product_id, COALESCE(mv.delta, d.delta) AS delta
+        FROM inventory_movements mv
+        LEFT JOIN legacy_movement_delta d ON d.id = mv.id AND d.created_at = mv.created_at
+    ) x
+) l
+WHERE m.id = l.id AND m.created_at = l.created_at;
+
+ALTER TABLE inventory_movements
+    ALTER COLUMN delta SET NOT NULL,
+    ALTER COLUMN quantity_before SET NOT NULL,
+    ALTER COLUMN quantity_after SET NOT NULL;
+
+ALTER TABLE inventory_movements
+    ADD CONSTRAINT chk_movements_delta CHECK (
+        delta <> 0
+        AND quantity = ABS(delta)
+        AND quantity_after = quantity_before + delta
+        AND (type <> 'IN' OR delta > 0)
+        AND (type <> 'OUT' OR delta < 0)
+    );
+
+-- Índices de cobertura: saldo líquido por produto, dia ou usuário vira SUM(delta)
+-- respondido só pelo índice
+DROP INDEX idx_movements_product_created_at;
+CREATE INDEX idx_movements_product_created_at ON inventory_movements(product_id, created_at) INCLUDE (delta);
+
+DROP INDEX idx_movements_created_at;
+CREATE INDEX idx_movements_created_at ON inventory_movements(created_at) INCLUDE (product_id, type, delta);
+
+CREATE INDEX idx_movements_user_created_at ON inventory_movements(user_id, created_at) INCLUDE (delta);
+
+-- Com o sinal no razão, o fechamento diário é exato
+ALTER TABLE inventory_snapshots DROP COLUMN unsigned_adjustments;
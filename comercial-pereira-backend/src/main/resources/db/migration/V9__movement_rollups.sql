@@ -0,0 +1,72 @@
+-- Agregados de movimentações por hora e por dia (produto x tipo x período),
+-- mantidos por trigger a cada INSERT em inventory_movements. Os gráficos de
+-- fluxo leem só estas tabelas.
+CREATE TABLE movement_rollup_hourly (
+    bucket TIMESTAMP NOT NULL,
+    product_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    movement_count BIGINT NOT NULL,
+    quantity_sum BIGINT NOT NULL,
+    delta_sum BIGINT NOT NULL,
+    PRIMARY KEY (bucket, product_id, type)
+);
+
+CREATE TABLE movement_rollup_daily (
+    bucket DATE NOT NULL,
+    product_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    movement_count BIGINT NOT NULL,
+    quantity_sum BIGINT NOT NULL,
+    delta_sum BIGINT NOT NULL,
+    PRIMARY KEY (bucket, product_id, type)
+);
+
+CREATE INDEX idx_movement_rollup_hourly_product ON movement_rollup_hourly(product_id, bucket);
+CREATE INDEX idx_movement_rollup_daily_product ON movement_rollup_daily(product_id, bucket);
+
+-- Carga inicial a partir do razão atual
+INSERT INTO movement_rollup_hourly (bucket, product_id, type, movement_count, quantity_sum, delta_sum)
+SELECT date_trunc('hour', created_at), product_id, type, COUNT(*), SUM(quantity), SUM(delta)
+FROM inventory_movements
+GROUP BY 1, 2, 3;
+
+INSERT INTO movement_rollup_daily (bucket, product_id, type, movement_count, quantity_sum, delta_sum)
+SELECT bucket::date, product_id, type, SUM(movement_count), SUM(quantity_sum), SUM(delta_sum)
+FROM movement_rollup_hourly
+GROUP BY 1, 2, 3;
+
+-- Trigger por comando: um INSERT com muitas linhas (importação, correções)
+-- vira um upsert por chave, em ordem fixa para não gerar deadlock entre
+-- transações concorrentes. As linhas atualizadas são as mesmas que já
+-- disputam o UPDATE em inventory, então não há contenção nova.
+CREATE OR REPLACE FUNCTION rollup_inventory_movements()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO movement_rollup_hourly AS r (bucket, product_id, type, movement_count, quantity_sum, delta_sum)
+    SELECT date_trunc('hour', created_at), product_id, type, COUNT(*), SUM(quantity), SUM(delta)
+    FROM new_movements
+    GROUP BY 1, 2, 3
+    ORDER BY 1, 2, 3
+    ON CONFLICT (bucket, product_id, type) DO UPDATE
+    SET movement_count = r.movement_count + EXCLUDED.movement_count,
+        quantity_sum = r.quantity_sum + EXCLUDED.quantity_sum,
+        delta_sum = r.delta_sum + EXCLUDED.delta_sum;
+
+    INSERT INTO movement_rollup_daily AS r (bucket, product_id, type, movement_count, quantity_sum, delta_sum)
+    SELECT created_at::date, product_id, type, COUNT(*), SUM(quantity), SUM(delta)
+    FROM new_movements
+    GROUP BY 1, 2, 3
+    ORDER BY 1, 2, 3
+    ON CONFLICT (bucket, product_id, type) DO UPDATE
+    SET movement_count = r.movement_count + EXCLUDED.movement_count,
+        quantity_sum = r.quantity_sum + EXCLUDED.quantity_sum,
+        delta_sum = r.delta_sum + EXCLUDED.delta_sum;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_inventory_movements_rollup
+    AFTER INSERT ON inventory_movements
+    REFERENCING NEW TABLE AS new_movements
+    FOR EACH STATEMENT EXECUTE FUNCTION rollup_inventory_movements();
@@ -0,0 +1,103 @@
+package br.com.comercialpereira.repository;
+
+import br.com.comercialpereira.dto.product.ProductFilters;
+import br.com.comercialpereira.services.ProductSpecification;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que os filtros de produto geram apenas os predicados informados e que
+ * o planejador do Postgres usa o índice de categoria para a consulta resultante.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "br.com.comercialpereira.repository.ProductFilterQueryPlanTest$CapturingStatementInspector")
+@Transactional
+class ProductFilterQueryPlanTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long categoryId;
+
+    @BeforeEach
+    void seedCatalog() {
+        jdbcTemplate.update("""
+                INSERT INTO categories (name, is_active)
+                SELECT 'Categoria plano ' || g, true FROM generate_series(1, 200) g
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO products (name, price, code, category_id, is_active)
+                SELECT 'Produto plano ' || g, 10.00, 'PL-' || c.id || '-' || g, c.id, true
+                FROM categories c CROSS JOIN generate_series(1, 100) g
+                WHERE c.name LIKE 'Categoria plano %'
+                """);
+        jdbcTemplate.execute("ANALYZE products");
+
+        categoryId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM categories WHERE name LIKE 'Categoria plano %'", Long.class);
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void categoryFilterUsesCategoryIndex() {
+        ProductFilters filters = ProductFilters.builder().categoryId(categoryId).build();
+
+        assertThat(productRepository.findAll(ProductSpecification.withFilters(filters))).hasSize(100);
+
+        String sql = lastProductSelect().replace("?", String.valueOf(categoryId));
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+
+        assertThat(plan).contains("idx_products_category_id");
+    }
+
+    @Test
+    void onlyActiveFiltersReachSql() {
+        ProductFilters filters = ProductFilters.builder().search("plano").build();
+
+        productRepository.findAll(ProductSpecification.withFilters(filters));
+
+        String where = lastProductSelect().toLowerCase();
+        where = where.substring(where.indexOf(" where "));
+
+        assertThat(where)
+                .contains("like")
+                .doesNotContain("category_id")
+                .doesNotContain("supplier_id")
+                .doesNotContain("is null");
+    }
+
+    private String lastProductSelect() {
+        List<String> statements = CapturingStatementInspector.STATEMENTS;
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            String sql = statements.get(i);
+            if (sql.toLowerCase().startsWith("select") && sql.toLowerCase().contains("from products")) {
+                return sql;
+            }
+        }
+        throw new AssertionError("Nenhuma consulta em products foi capturada");
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package br.com.comercialpereira.services.archive;
+
+import br.com.comercialpereira.dto.movement.MovementResponse;
+import br.com.comercialpereira.dto.sale.SaleResponse;
+import br.com.comercialpereira.enums.MovementType;
+import br.com.comercialpereira.enums.SaleStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ida e volta dos codecs colunares do arquivo morto, direto e através de um
+ * segmento gravado em disco e lido pelo {@link ArchiveStore}.
+ */
+class ArchiveCodecTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 5, 10, 14, 30, 15, 123_000_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void salesRoundTrip() {
+        List<SaleResponse> sales = List.of(
+                sale(100, 2, "Entrega às 18h, portão \"B\""),
+                sale(101, 0, null),
+                sale(250, 1, ""));
+
+        List<SaleResponse> decoded = SaleArchiveCodec.decode(ByteBuffer.wrap(SaleArchiveCodec.encode(sales)), sales.size());
+
+        assertThat(decoded).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(sales);
+    }
+
+    @Test
+    void movementsRoundTrip() {
+        List<MovementResponse> movements = List.of(
+                movement(7, 900, MovementType.OUT, -3, true),
+                movement(7, 850, MovementType.IN, 10, false),
+                movement(12, 901, MovementType.ADJUSTMENT, -1, true));
+
+        List<MovementResponse> decoded = MovementArchiveCodec.decode(
+                ByteBuffer.wrap(MovementArchiveCodec.encode(movements)), movements.size(), ArchiveSegmentWriter.VERSION);
+
+        assertThat(decoded).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(movements);
+    }
+
+    @Test
+    void segmentRoundTripThroughStore() throws IOException {
+        ArchiveStore store = new ArchiveStore(directory.toString());
+        YearMonth month = YearMonth.of(2024, 5);
+
+        List<SaleResponse> sales = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            sales.add(sale(id * 3, (int) (id % 4), "venda " + id));
+        }
+        Path salesFile = store.segmentPath(ArchiveStore.SALES, month);
+        try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(salesFile)) {
+            for (int from = 0; from < sales.size(); from += 10) {
+                List<SaleResponse> block = sales.subList(from, Math.min(from + 10, sales.size()));
+                writer.writeBlock(block.get(0).getId(), block.get(block.size() - 1).getId(), block.size(),
+                        SaleArchiveCodec.encode(block));
+            }
+            writer.finish();
+        }
+
+        // Produto 7 atravessa a fronteira entre o primeiro e o segundo bloco
+        List<MovementResponse> movements = List.of(
+                movement(3, 10, MovementType.IN, 5, false),
+                movement(7, 14, MovementType.OUT, -2, true),
+                movement(7, 13, MovementType.OUT, -1, true),
+                movement(7, 11, MovementType.IN, 8, false),
+                movement(9, 12, MovementType.ADJUSTMENT, 1, false));
+        Path movementsFile = store.segmentPath(ArchiveStore.MOVEMENTS, month);
+        try (ArchiveSegmentWriter writer = new ArchiveSegmentWriter(movementsFile)) {
+            writer.writeBlock(3, 7, 3, MovementArchiveCodec.encode(movements.subList(0, 3)));
+            writer.writeBlock(7, 9, 2, MovementArchiveCodec.encode(movements.subList(3, 5)));
+            writer.finish();
+        }
+
+        ArchiveSegmentReader salesReader = ArchiveSegmentReader.open(salesFile);
+        assertThat(salesReader.getRecordCount()).isEqualTo(25);
+        assertThat(salesReader.blockCount()).isEqualTo(3);
+
+        store.register(ArchiveStore.SALES, month, salesReader);
+        store.register(ArchiveStore.MOVEMENTS, month, ArchiveSegmentReader.open(movementsFile));
+
+        assertThat(store.findSale(36)).get().usingRecursiveComparison().isEqualTo(sales.get(11));
+        assertThat(store.findSale(75)).get().usingRecursiveComparison().isEqualTo(sales.get(24));
+        assertThat(store.findSale(37)).isEmpty();
+        assertThat(store.findProductMovements(7, 10))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(movements.subList(1, 4));
+        assertThat(store.findProductMovements(7, 2)).extracting(MovementResponse::getId).containsExactly(14L, 13L);
+
+        // Uma nova instância encontra os segmentos gravados no diretório
+        ArchiveStore reloaded = new ArchiveStore(directory.toString());
+        reloaded.load();
+        assertThat(reloaded.findSale(3)).get().usingRecursiveComparison().isEqualTo(sales.get(0));
+    }
+
+    private static SaleResponse sale(long id, int itemCount, String notes) {
+        List<SaleResponse.SaleItemInfo> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            items.add(SaleResponse.SaleItemInfo.builder()
+                    .id(id * 10 + i)
+                    .quantity(i + 1)
+                    .unitPrice(new BigDecimal("19.90"))
+                    .total(new BigDecimal("19.90").multiply(BigDecimal.valueOf(i + 1)))
+                    .discount(i == 0 ? null : new BigDecimal("0.50"))
+                    .product(SaleResponse.SaleItemInfo.ProductInfo.builder()
+                            .id(500L + i)
+                            .name("Parafuso " + i)
+                            .code("PRF-" + i)
+                            .categoryName(i == 1 ? null : "Ferragens")
+                            .build())
+                    .build());
+        }
+
+        return SaleResponse.builder()
+                .id(id)
+                .total(new BigDecimal("1234.56"))
+                .discount(new BigDecimal("0.01"))
+                .tax(null)
+                .status(id % 2 == 0 ? SaleStatus.COMPLETED : SaleStatus.CANCELLED)
+                .notes(notes)
+                .saleDate(BASE.plusMinutes(id))
+                .createdAt(BASE)
+                .updatedAt(id % 3 == 0 ? null : BASE.plusDays(1))
+                .user(SaleResponse.UserInfo.builder().id(5L).name("Vendedora").build())
+                .customer(SaleResponse.CustomerInfo.builder()
+                        .id(40L + id)
+                        .name("Cliente " + id)
+                        .type("PESSOA_FISICA")
+                        .document(id % 2 == 0 ? "123.456.789-00" : null)
+                        .build())
+                .items(items)
+                .itemCount(itemCount)
+                .build();
+    }
+
+    private static MovementResponse movement(long productId, long id, MovementType type, int delta, boolean withSale) {
+        return MovementResponse.builder()
+                .id(id)
+                .type(type)
+                .quantity(Math.abs(delta))
+                .delta(delta)
+                .quantityBefore(20)
+                .quantityAfter(20 + delta)
+                .signInferred(type == MovementType.ADJUSTMENT)
+                .reason(withSale ? null : "Ajuste de inventário")
+                .createdAt(BASE.minusHours(id))
+                .product(MovementResponse.ProductInfo.builder()
+                        .id(productId)
+                        .name("Produto " + productId)
+                        .code("P" + productId)
+                        .build())
+                .user(withSale ? null : MovementResponse.UserInfo.builder().id(5L).name("Estoquista").build())
+                .sale(withSale ? MovementResponse.SaleInfo.builder().id(id + 1000).customerName("Cliente").build() : null)
+                .location(productId == 12 ? null : MovementResponse.LocationInfo.builder()
+                        .id(2L)
+                        .code("DEP")
+                        .name("Depósito")
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.comercialpereira.services.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Arquivamento de um mês contra o Postgres configurado: os segmentos só entram
+ * na leitura depois do commit e somem do disco quando a transação é desfeita.
+ */
+@SpringBootTest(properties = "comercial.archive.dir=target/test-archive")
+class ArchiveServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2001, 1);
+    private static final String PARTITION = "sales_y2001m01";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ArchiveStore archiveStore;
+
+    private long saleId;
+    private Path salesFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jdbcTemplate.queryForObject("SELECT create_monthly_partition('sales', DATE '2001-01-01')", String.class);
+        saleId = jdbcTemplate.queryForObject("""
+                INSERT INTO sales (user_id, customer_id, total, status, sale_date)
+                VALUES ((SELECT MIN(id) FROM users), (SELECT MIN(id) FROM customers), 10.00, 'COMPLETED', TIMESTAMP '2001-01-15 10:00')
+                RETURNING id
+                """, Long.class);
+        salesFile = archiveStore.segmentPath(ArchiveStore.SALES, MONTH);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (partitionExists()) {
+            jdbcTemplate.execute("ALTER TABLE sales DETACH PARTITION " + PARTITION);
+            jdbcTemplate.execute("DROP TABLE " + PARTITION);
+        }
+        Files.deleteIfExists(salesFile);
+    }
+
+    @Test
+    void rolledBackArchiveLeavesNoSegment() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(archiveService.archiveMonth(MONTH)).isTrue();
+            assertThat(salesFile).exists();
+            status.setRollbackOnly();
+        });
+
+        assertThat(salesFile).doesNotExist();
+        assertThat(partitionExists()).isTrue();
+        assertThat(archiveStore.hasSegment(ArchiveStore.SALES, MONTH)).isFalse();
+        assertThat(archiveStore.findSale(saleId)).isEmpty();
+    }
+
+    @Test
+    void committedArchiveIsReadable() {
+        Boolean archived = new TransactionTemplate(transactionManager).execute(status -> {
+            boolean result = archiveService.archiveMonth(MONTH);
+            // Antes do commit o segmento ainda não é lido
+            assertThat(archiveStore.findSale(saleId)).isEmpty();
+            return result;
+        });
+
+        assertThat(archived).isTrue();
+
+        assertThat(partitionExists()).isFalse();
+        assertThat(salesFile).exists();
+        assertThat(archiveStore.findSale(saleId)).get()
+                .satisfies(sale -> assertThat(sale.getTotal()).isEqualByComparingTo("10.00"));
+    }
+
+    private boolean partitionExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, PARTITION));
+    }
+}
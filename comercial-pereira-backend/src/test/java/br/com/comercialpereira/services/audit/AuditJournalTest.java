@@ -0,0 +1,114 @@
+package br.com.comercialpereira.services.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Journal de auditoria em diretório temporário: ida e volta dos registros,
+ * troca de segmento, checkpoint e recuperação após um quadro gravado pela metade.
+ */
+class AuditJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackAppendedRecords() throws IOException {
+        AuditJournal journal = open(1);
+        journal.append(new AuditRecord(0, 1_000L, 5L, "CREATE", "PRODUCTS", 12L, "{\"nome\":\"Café \\\"especial\\\"\"}"));
+        journal.append(new AuditRecord(0, 2_000L, null, "DELETE", "USERS", null, null));
+        journal.append(new AuditRecord(0, 3_000L, 7L, "UPDATE", "INVENTORY", 3L, ""));
+
+        JournalPosition start = journal.loadCheckpoint();
+        JournalBatch batch = journal.read(start, 10);
+
+        assertThat(batch.getRecords()).extracting(AuditRecord::getSequence).containsExactly(1L, 2L, 3L);
+        AuditRecord first = batch.getRecords().get(0);
+        assertThat(first.getOccurredAt()).isEqualTo(1_000L);
+        assertThat(first.getUserId()).isEqualTo(5L);
+        assertThat(first.getData()).isEqualTo("{\"nome\":\"Café \\\"especial\\\"\"}");
+        AuditRecord second = batch.getRecords().get(1);
+        assertThat(second.getUserId()).isNull();
+        assertThat(second.getEntityId()).isNull();
+        assertThat(second.getData()).isNull();
+        assertThat(batch.getRecords().get(2).getData()).isEmpty();
+
+        JournalBatch empty = journal.read(batch.getNext(), 10);
+        assertThat(empty.getRecords()).isEmpty();
+        assertThat(empty.getNext()).isEqualTo(batch.getNext());
+
+        // Leitura limitada continua de onde parou
+        JournalBatch partial = journal.read(start, 2);
+        assertThat(partial.getRecords()).hasSize(2);
+        assertThat(journal.read(partial.getNext(), 10).getRecords())
+                .extracting(AuditRecord::getSequence).containsExactly(3L);
+        journal.close();
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesShippedOnes() throws IOException {
+        AuditJournal journal = open(1);
+        String data = "x".repeat(200 * 1024);
+        for (int i = 0; i < 12; i++) {
+            journal.append(new AuditRecord(0, i, 1L, "UPDATE", "PRODUCTS", (long) i, data));
+        }
+
+        JournalBatch batch = journal.read(journal.loadCheckpoint(), 100);
+        assertThat(batch.getRecords()).extracting(AuditRecord::getEntityId)
+                .containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+        assertThat(batch.getNext().getSegment()).isGreaterThan(2);
+
+        journal.saveCheckpoint(batch.getNext());
+        journal.deleteSegmentsBefore(batch.getNext().getSegment());
+        assertThat(segments()).hasSize(1);
+        assertThat(journal.loadCheckpoint()).isEqualTo(batch.getNext());
+        journal.close();
+    }
+
+    @Test
+    void recoversAfterTornFrameAndKeepsSequence() throws IOException {
+        AuditJournal journal = open(1);
+        journal.append(new AuditRecord(0, 1L, 1L, "CREATE", "PRODUCTS", 1L, null));
+        journal.append(new AuditRecord(0, 2L, 1L, "CREATE", "PRODUCTS", 2L, null));
+        JournalPosition end = journal.read(journal.loadCheckpoint(), 10).getNext();
+        String journalId = journal.getJournalId();
+        journal.close();
+
+        // Quadro interrompido: tamanho gravado, CRC e conteúdo não
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 64), end.getOffset());
+        }
+
+        AuditJournal reopened = open(1);
+        assertThat(reopened.getJournalId()).isEqualTo(journalId);
+        reopened.append(new AuditRecord(0, 3L, 1L, "CREATE", "PRODUCTS", 3L, null));
+
+        JournalBatch batch = reopened.read(reopened.loadCheckpoint(), 10);
+        assertThat(batch.getRecords()).extracting(AuditRecord::getSequence).containsExactly(1L, 2L, 3L);
+        assertThat(batch.getRecords()).extracting(AuditRecord::getEntityId).containsExactly(1L, 2L, 3L);
+        reopened.close();
+    }
+
+    private AuditJournal open(int segmentSizeMb) throws IOException {
+        AuditJournal journal = new AuditJournal(directory.toString(), segmentSizeMb);
+        journal.open();
+        return journal;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.comercialpereira.services.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Envio do journal para audit_log no Postgres configurado: COPY em lotes,
+ * checkpoint e reenvio do mesmo trecho sem duplicar registros.
+ */
+@SpringBootTest
+class AuditLogShipperTest {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AuditJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            jdbcTemplate.update("DELETE FROM audit_log WHERE journal_id = ?", journal.getJournalId());
+            journal.close();
+        }
+    }
+
+    @Test
+    void shipsJournalInBatchesWithoutDuplicates() throws IOException {
+        journal = new AuditJournal(directory.toString(), 1);
+        journal.open();
+        for (int i = 1; i <= 5; i++) {
+            journal.append(new AuditRecord(0, 1_700_000_000_000L + i, i % 2 == 0 ? null : 5L, "UPDATE", "PRODUCTS",
+                    (long) i, "{\"texto\":\"aspas \\\" e, vírgula\",\"i\":" + i + "}"));
+        }
+
+        AuditLogShipper shipper = new AuditLogShipper(journal, jdbcTemplate, transactionManager, 2, 20);
+        shipper.ship();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT sequence, user_id, entity_id, data->>'texto' AS texto FROM audit_log WHERE journal_id = ? ORDER BY sequence",
+                journal.getJournalId());
+        assertThat(rows).extracting(row -> ((Number) row.get("sequence")).longValue()).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(rows.get(0).get("user_id")).isNotNull();
+        assertThat(rows.get(1).get("user_id")).isNull();
+        assertThat(rows.get(2).get("texto")).isEqualTo("aspas \" e, vírgula");
+
+        // Queda entre o commit e o checkpoint: o mesmo trecho é enviado de novo
+        journal.saveCheckpoint(new JournalPosition(1, 0));
+        journal.append(new AuditRecord(0, 1_700_000_000_100L, 5L, "DELETE", "PRODUCTS", 6L, null));
+        shipper.ship();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_log WHERE journal_id = ?",
+                Long.class, journal.getJournalId())).isEqualTo(6);
+        assertThat(journal.loadCheckpoint()).isEqualTo(journal.read(journal.loadCheckpoint(), 10).getNext());
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.comercialpereira.services.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Buffer circular da auditoria: descarte com o buffer cheio, ordem de saída e
+ * vários produtores concorrentes com um único consumidor.
+ */
+class AuditRingBufferTest {
+
+    @Test
+    void dropsRecordsWhenFullAndAcceptsAgainAfterDrain() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        assertThat(buffer.capacity()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(record(i))).isTrue();
+        }
+        assertThat(buffer.offer(record(4))).isFalse();
+        assertThat(buffer.offer(record(5))).isFalse();
+        assertThat(buffer.dropped()).isEqualTo(2);
+        assertThat(buffer.size()).isEqualTo(4);
+
+        List<Long> drained = new ArrayList<>();
+        assertThat(buffer.drain(r -> drained.add(r.getEntityId()), 2)).isEqualTo(2);
+        assertThat(drained).containsExactly(0L, 1L);
+
+        assertThat(buffer.offer(record(6))).isTrue();
+        assertThat(buffer.offer(record(7))).isTrue();
+        assertThat(buffer.offer(record(8))).isFalse();
+
+        buffer.drain(r -> drained.add(r.getEntityId()), 10);
+        assertThat(drained).containsExactly(0L, 1L, 2L, 3L, 6L, 7L);
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.dropped()).isEqualTo(3);
+    }
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new AuditRingBuffer(1000).capacity()).isEqualTo(1024);
+        assertThat(new AuditRingBuffer(1024).capacity()).isEqualTo(1024);
+        assertThat(new AuditRingBuffer(1).capacity()).isEqualTo(4);
+    }
+
+    @Test
+    void deliversEveryAcceptedRecordOnceWithConcurrentProducers() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(256);
+        int producers = 8;
+        int perProducer = 20_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> accepted = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            accepted.add(executor.submit(() -> {
+                start.await();
+                int count = 0;
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(record(base + i))) {
+                        count++;
+                    }
+                }
+                return count;
+            }));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<Long> duplicates = new ArrayList<>();
+        start.countDown();
+        executor.shutdown();
+        while (!executor.isTerminated() || buffer.size() > 0) {
+            buffer.drain(r -> {
+                if (!seen.add(r.getEntityId())) {
+                    duplicates.add(r.getEntityId());
+                }
+            }, 64);
+        }
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        int totalAccepted = 0;
+        for (var future : accepted) {
+            totalAccepted += future.get();
+        }
+        assertThat(duplicates).isEmpty();
+        assertThat(seen).hasSize(totalAccepted);
+        assertThat(totalAccepted + buffer.dropped()).isEqualTo((long) producers * perProducer);
+    }
+
+    private static AuditRecord record(long id) {
+        return new AuditRecord(0, 0, 1L, "TEST", "TEST", id, null);
+    }
+}
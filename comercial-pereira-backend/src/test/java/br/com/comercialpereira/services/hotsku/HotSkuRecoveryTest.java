@@ -0,0 +1,172 @@
+package br.com.comercialpereira.services.hotsku;
+
+import br.com.comercialpereira.enums.MovementType;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.repository.StockLocationRepository;
+import br.com.comercialpereira.services.InventoryService;
+import br.com.comercialpereira.services.audit.AuditService;
+import br.com.comercialpereira.services.count.LocationFreezeRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Recuperação do modo de alta concorrência contra o Postgres configurado: só
+ * entradas do WAL com intenção gravada chegam ao banco, a que deixaria o saldo
+ * negativo vai para a fila de erro sem travar as demais, e produto de outra
+ * instância não é carregado nem aceita movimentação comum.
+ */
+@SpringBootTest
+class HotSkuRecoveryTest {
+
+    private static final int INITIAL_QUANTITY = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HotSkuFlusher flusher;
+
+    @Autowired
+    private StockLocationRepository stockLocationRepository;
+
+    @Autowired
+    private LocationFreezeRegistry freezeRegistry;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @TempDir
+    Path walDirectory;
+
+    private long productId;
+    private long inventoryId;
+    private long locationId;
+    private String nodeId;
+    private HotSkuService service;
+
+    @BeforeEach
+    void setUp() {
+        productId = jdbcTemplate.queryForObject("""
+                INSERT INTO products (name, price, code, category_id)
+                VALUES ('Produto teste alta concorrência', 1.00, ?, (SELECT MIN(id) FROM categories))
+                RETURNING id
+                """, Long.class, "HOT-" + Long.toString(System.nanoTime(), 36));
+        inventoryId = jdbcTemplate.queryForObject("""
+                INSERT INTO inventory (product_id, min_stock, location, last_update)
+                VALUES (?, 0, 'TESTE', CURRENT_TIMESTAMP)
+                RETURNING id
+                """, Long.class, productId);
+        locationId = jdbcTemplate.queryForObject("SELECT id FROM stock_locations WHERE is_default", Long.class);
+        jdbcTemplate.update("INSERT INTO inventory_locations (inventory_id, product_id, location_id, quantity) VALUES (?, ?, ?, ?)",
+                inventoryId, productId, locationId, INITIAL_QUANTITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+        }
+        if (nodeId != null) {
+            jdbcTemplate.update("DELETE FROM hot_sku_dead_letters WHERE node_id = ?", nodeId);
+            jdbcTemplate.update("DELETE FROM hot_sku_wal_intents WHERE node_id = ?", nodeId);
+            jdbcTemplate.update("DELETE FROM hot_sku_checkpoints WHERE node_id = ?", nodeId);
+        }
+        jdbcTemplate.update("DELETE FROM hot_sku_products WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = 'inventory' AND aggregate_id = ?", inventoryId);
+        jdbcTemplate.update("DELETE FROM inventory_movements WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM movement_rollup_hourly WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM movement_rollup_daily WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM inventory_locations WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM inventory WHERE id = ?", inventoryId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+    }
+
+    @Test
+    void recoveryAppliesEntriesWithIntentAndQuarantinesNegativeBalance() throws Exception {
+        HotSkuWal wal = new HotSkuWal(walDirectory.toString(), 1, false);
+        wal.open();
+        nodeId = wal.getNodeId();
+        long sold = wal.append(entry(-2));
+        long oversold = wal.append(entry(-10));
+        wal.append(entry(-1));
+        long received = wal.append(entry(3));
+        wal.close();
+
+        // A entrada de -1 fica sem intenção: a transação de quem pediu não confirmou
+        flusher.recordIntent(nodeId, sold);
+        flusher.recordIntent(nodeId, oversold);
+        flusher.recordIntent(nodeId, received);
+        jdbcTemplate.update("INSERT INTO hot_sku_products (product_id, location_id, owner_node) VALUES (?, ?, ?)",
+                productId, locationId, nodeId);
+
+        service = newService(new HotSkuWal(walDirectory.toString(), 1, false));
+        service.start();
+
+        assertThat(quantity()).isEqualTo(INITIAL_QUANTITY - 2 + 3);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT delta FROM inventory_movements WHERE product_id = ? ORDER BY id", Integer.class, productId))
+                .containsExactly(-2, 3);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT seq FROM hot_sku_dead_letters WHERE node_id = ?", Long.class, nodeId))
+                .containsExactly(oversold);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM hot_sku_wal_intents WHERE node_id = ?", Integer.class, nodeId)).isZero();
+
+        // Contador parte do banco já em dia com o WAL
+        assertThat(service.isHot(productId, locationId)).isTrue();
+        assertThat(service.counterQuantity(productId, locationId)).isEqualTo(INITIAL_QUANTITY - 2 + 3);
+    }
+
+    @Test
+    void productOwnedByAnotherInstanceIsNotLoadedAndRejectsMovements() {
+        jdbcTemplate.update("INSERT INTO hot_sku_products (product_id, location_id, owner_node) VALUES (?, ?, ?)",
+                productId, locationId, "outra-instancia");
+
+        HotSkuWal wal = new HotSkuWal(walDirectory.toString(), 1, false);
+        service = newService(wal);
+        service.start();
+        nodeId = wal.getNodeId();
+
+        assertThat(service.isHot(productId, locationId)).isFalse();
+        assertThat(service.counterQuantity(productId, locationId)).isNull();
+
+        Long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        assertThatThrownBy(() -> inventoryService.addStock(productId, 1, "Teste", userId))
+                .isInstanceOf(ApiException.class)
+                .hasMessageContaining("outra instância");
+        assertThat(quantity()).isEqualTo(INITIAL_QUANTITY);
+    }
+
+    private HotSkuService newService(HotSkuWal wal) {
+        return new HotSkuService(wal, flusher, jdbcTemplate,
+                transactionManager, stockLocationRepository, freezeRegistry, auditService, 100, 4, 1000);
+    }
+
+    private HotSkuEntry entry(int delta) {
+        return new HotSkuEntry(0, productId, locationId, inventoryId, delta,
+                delta < 0 ? MovementType.OUT : MovementType.IN, null, null, System.currentTimeMillis(), "Teste");
+    }
+
+    private int quantity() {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity FROM inventory_locations WHERE product_id = ? AND location_id = ?",
+                Integer.class, productId, locationId);
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.comercialpereira.services.hotsku;
+
+import br.com.comercialpereira.enums.MovementType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recuperação do WAL: entradas e marcadores sobrevivem à reabertura e um quadro
+ * cortado no fim do segmento é ignorado sem perder os anteriores.
+ */
+class HotSkuWalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEntriesAndMarkersAfterReopen() throws Exception {
+        HotSkuWal wal = new HotSkuWal(directory.toString(), 1, true);
+        wal.open();
+        long sold = wal.append(entry(-2, 10L));
+        long received = wal.append(entry(5, null));
+        long lost = wal.append(entry(-1, 11L));
+        wal.sync(lost);
+        // Marcador de versões anteriores: lido e ignorado
+        wal.mark(HotSkuWal.COMMIT, sold);
+        wal.mark(HotSkuWal.ABORT, received);
+        String nodeId = wal.getNodeId();
+        wal.close();
+
+        HotSkuWal reopened = new HotSkuWal(directory.toString(), 1, true);
+        WalReplay replay = reopened.open();
+
+        assertThat(reopened.getNodeId()).isEqualTo(nodeId);
+        assertThat(replay.getEntries()).extracting(HotSkuEntry::getSequence).containsExactly(sold, received, lost);
+        assertThat(replay.getEntries().get(0).getDelta()).isEqualTo(-2);
+        assertThat(replay.getEntries().get(0).getSaleId()).isEqualTo(10L);
+        assertThat(replay.getEntries().get(1).getSaleId()).isNull();
+        assertThat(replay.getEntries().get(1).getReason()).isEqualTo("Promoção");
+        assertThat(replay.getAborted()).containsExactly(received);
+
+        // A numeração continua depois da última sequência lida
+        assertThat(reopened.append(entry(-1, null))).isEqualTo(lost + 1);
+        reopened.close();
+    }
+
+    @Test
+    void ignoresTornTailAndDeletesCheckpointedSegments() throws Exception {
+        HotSkuWal wal = new HotSkuWal(directory.toString(), 1, true);
+        wal.open();
+        long first = wal.append(entry(-1, null));
+        long second = wal.append(entry(-1, null));
+        wal.close();
+
+        // Simula queda no meio da gravação do próximo quadro
+        Path segment = segments().get(0);
+        Files.write(segment, new byte[]{0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        HotSkuWal reopened = new HotSkuWal(directory.toString(), 1, true);
+        WalReplay replay = reopened.open();
+        assertThat(replay.getEntries()).extracting(HotSkuEntry::getSequence).containsExactly(first, second);
+
+        reopened.track(first);
+        reopened.track(second);
+        assertThat(reopened.resolvedThrough(Set.of(first))).isEqualTo(first);
+        assertThat(reopened.resolvedThrough(Set.of(first, second))).isEqualTo(second);
+
+        reopened.resolve(Set.of(first, second));
+        reopened.deleteSegmentsThrough(second);
+        assertThat(segments()).hasSize(1).doesNotContain(segment);
+        reopened.close();
+    }
+
+    private HotSkuEntry entry(int delta, Long saleId) {
+        return new HotSkuEntry(0, 7, 1, 3, delta, delta < 0 ? MovementType.OUT : MovementType.IN, 5L, saleId,
+                System.currentTimeMillis(), "Promoção");
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.comercialpereira.services.hotsku;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dispara retiradas e entradas concorrentes no contador e confere que a soma
+ * das retiradas aceitas nunca passa do estoque que entrou (sem venda a mais) e
+ * que o saldo final fecha com entradas menos saídas.
+ */
+class StripedStockCounterStressTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    void concurrentTakesNeverOversell() throws Exception {
+        long initial = 20_000;
+        StripedStockCounter counter = new StripedStockCounter(initial, 8);
+        AtomicLong taken = new AtomicLong();
+
+        runConcurrently(THREADS, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int misses = 0;
+            // Continua tentando um pouco depois da primeira recusa para disputar o resto do saldo
+            while (misses < 50) {
+                int quantity = 1 + random.nextInt(3);
+                if (counter.tryTake(quantity)) {
+                    taken.addAndGet(quantity);
+                } else {
+                    misses++;
+                }
+            }
+        });
+
+        assertThat(taken.get()).isLessThanOrEqualTo(initial);
+        assertThat(counter.get()).isEqualTo(initial - taken.get());
+        // Sem entradas concorrentes, a recusa só acontece com o saldo realmente menor que o pedido
+        assertThat(counter.get()).isLessThan(3);
+    }
+
+    @Test
+    void lastUnitsGoToExactlyOneBuyer() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            StripedStockCounter counter = new StripedStockCounter(5, 16);
+            AtomicLong sold = new AtomicLong();
+
+            runConcurrently(THREADS, () -> {
+                if (counter.tryTake(1)) {
+                    sold.incrementAndGet();
+                }
+            });
+
+            assertThat(sold.get()).isEqualTo(5);
+            assertThat(counter.get()).isZero();
+        }
+    }
+
+    @Test
+    void mixedInboundAndOutboundKeepBalance() throws Exception {
+        long initial = 1_000;
+        StripedStockCounter counter = new StripedStockCounter(initial, 16);
+        AtomicLong taken = new AtomicLong();
+        AtomicLong added = new AtomicLong();
+        AtomicBoolean negativeSeen = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+
+        Thread observer = new Thread(() -> {
+            while (!done.get()) {
+                if (counter.get() < 0) {
+                    negativeSeen.set(true);
+                }
+            }
+        });
+        observer.start();
+
+        runConcurrently(THREADS, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 20_000; i++) {
+                int quantity = 1 + random.nextInt(5);
+                if (random.nextInt(10) == 0) {
+                    counter.add(quantity);
+                    added.addAndGet(quantity);
+                } else if (counter.tryTake(quantity)) {
+                    taken.addAndGet(quantity);
+                }
+            }
+        });
+
+        done.set(true);
+        observer.join();
+
+        assertThat(negativeSeen).isFalse();
+        assertThat(taken.get()).isLessThanOrEqualTo(initial + added.get());
+        assertThat(counter.get()).isEqualTo(initial + added.get() - taken.get());
+    }
+
+    @Test
+    void refusesTakeAboveBalance() {
+        StripedStockCounter counter = new StripedStockCounter(10, 4);
+
+        assertThat(counter.tryTake(11)).isFalse();
+        assertThat(counter.get()).isEqualTo(10);
+        assertThat(counter.tryTake(10)).isTrue();
+        assertThat(counter.tryTake(1)).isFalse();
+        assertThat(counter.get()).isZero();
+        assertThat(counter.stripes()).isEqualTo(4);
+    }
+
+    // Libera todas as threads juntas para maximizar a disputa pelas mesmas faixas
+    private void runConcurrently(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
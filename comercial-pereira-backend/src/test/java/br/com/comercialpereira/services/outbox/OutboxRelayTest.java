@@ -0,0 +1,181 @@
+package br.com.comercialpereira.services.outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Entrega do outbox contra o Postgres configurado: ordem por transação
+ * confirmada, reentrega do lote quando o consumidor falha e posição travada
+ * por outra instância. O relay agendado da aplicação fica desligado; cada
+ * teste usa um consumidor novo que só aceita os eventos que ele mesmo gravou.
+ */
+@SpringBootTest(properties = "comercial.outbox.relay.enabled=false")
+class OutboxRelayTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    private TransactionTemplate transactionTemplate;
+    private RecordingListener listener;
+    private OutboxRelay relay;
+    private long startOffset;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        String tag = "teste-" + Long.toString(System.nanoTime(), 36);
+        listener = new RecordingListener(tag);
+        relay = new OutboxRelay(jdbcTemplate, transactionManager, List.of(listener), true, 100, 20, 72);
+
+        // Começa depois do último evento existente, para não reler o outbox inteiro
+        jdbcTemplate.update("""
+                INSERT INTO outbox_offsets (consumer, last_tx_id, last_event_id)
+                SELECT ?, COALESCE(MAX(tx_id), 0), COALESCE(MAX(id), 0) FROM outbox_events
+                """, listener.consumerName());
+        startOffset = offset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Consumidor esquecido em outbox_offsets seguraria a limpeza do outbox
+        jdbcTemplate.update("DELETE FROM outbox_offsets WHERE consumer = ?", listener.consumerName());
+        jdbcTemplate.update("DELETE FROM outbox_events WHERE aggregate_type = ?", listener.tag);
+    }
+
+    @Test
+    void deliversOnlyCommittedTransactionsInCommitOrder() throws Exception {
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        // Transação mais antiga ainda aberta quando a mais nova confirma
+        CompletableFuture<Void> older = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            publish(1L);
+            firstWritten.countDown();
+            await(releaseFirst);
+        }));
+        assertThat(firstWritten.await(10, TimeUnit.SECONDS)).isTrue();
+        transactionTemplate.executeWithoutResult(status -> publish(2L));
+
+        relay.poll();
+        assertThat(listener.received).isEmpty();
+
+        releaseFirst.countDown();
+        older.get(10, TimeUnit.SECONDS);
+        relay.poll();
+
+        assertThat(listener.received).containsExactly(1L, 2L);
+
+        relay.poll();
+        assertThat(listener.received).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void redeliversBatchWhenListenerFails() {
+        transactionTemplate.executeWithoutResult(status -> {
+            publish(1L);
+            publish(2L);
+        });
+        listener.failuresLeft.set(1);
+
+        relay.poll();
+        assertThat(listener.received).isEmpty();
+        assertThat(offset()).isEqualTo(startOffset);
+
+        relay.poll();
+        assertThat(listener.received).containsExactly(1L, 2L);
+        assertThat(listener.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void skipsConsumerClaimedByAnotherInstance() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> publish(1L));
+
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> otherInstance = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT consumer FROM outbox_offsets WHERE consumer = ? FOR UPDATE",
+                    listener.consumerName());
+            claimed.countDown();
+            await(release);
+        }));
+        assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // SKIP LOCKED: volta na hora, sem esperar a outra instância
+        CompletableFuture.runAsync(relay::poll).get(5, TimeUnit.SECONDS);
+        assertThat(listener.received).isEmpty();
+
+        release.countDown();
+        otherInstance.get(10, TimeUnit.SECONDS);
+        relay.poll();
+        assertThat(listener.received).containsExactly(1L);
+    }
+
+    private void publish(long aggregateId) {
+        outboxPublisher.publish(listener.tag, aggregateId, OutboxEventType.SALE_COMPLETED, Map.of("label", aggregateId));
+    }
+
+    private long offset() {
+        return jdbcTemplate.queryForObject("SELECT last_event_id FROM outbox_offsets WHERE consumer = ?",
+                Long.class, listener.consumerName());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class RecordingListener implements OutboxEventListener {
+        private final String tag;
+        private final List<Long> received = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failuresLeft = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private RecordingListener(String tag) {
+            this.tag = tag;
+        }
+
+        @Override
+        public String consumerName() {
+            return tag;
+        }
+
+        @Override
+        public boolean accepts(OutboxEvent event) {
+            return tag.equals(event.getAggregateType());
+        }
+
+        @Override
+        public void onEvents(List<OutboxEvent> events) {
+            calls.incrementAndGet();
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("Falha simulada do consumidor");
+            }
+            events.forEach(event -> received.add(event.getAggregateId()));
+        }
+    }
+}
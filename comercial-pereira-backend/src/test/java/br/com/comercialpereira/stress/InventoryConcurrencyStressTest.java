@@ -0,0 +1,474 @@
+package br.com.comercialpereira.stress;
+
+import br.com.comercialpereira.dto.inventory.StockAdjustmentRequest;
+import br.com.comercialpereira.dto.inventory.TransferStockRequest;
+import br.com.comercialpereira.exception.ApiException;
+import br.com.comercialpereira.services.InventoryService;
+import br.com.comercialpereira.services.hotsku.HotSkuService;
+import br.com.comercialpereira.services.sale.SaleService;
+import br.com.comercialpereira.stress.StressReport.Outcome;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga concorrente de saídas, ajustes, transferências entre locais e
+ * conclusões de venda em poucos produtos, contra o Postgres configurado (use um
+ * banco descartável: os dados da rodada ficam gravados). As vendas têm vários
+ * itens, com produtos em comum entre elas e gravados em ordem aleatória, então
+ * duas conclusões disputam as mesmas linhas em ordens diferentes. Roda uma vez
+ * com a trava de linha e outra com o modo de alta concorrência e confere, em
+ * cada uma e para cada produto/local:
+ *
+ * - nenhum estoque negativo, nem no saldo final nem em qualquer movimentação;
+ * - nenhuma atualização perdida: saldo final = inicial + soma das operações aceitas;
+ * - soma do razão (delta) = saldo, com quantidades antes/depois encadeadas;
+ * - transferências somam zero no produto;
+ * - venda concluída tem uma saída por item no razão; venda recusada não baixou nada.
+ *
+ * Em rodadas à parte, todas as threads disputam a mesma venda: só conclusões, ou
+ * conclusões e cancelamentos misturados. Exatamente uma chamada é aceita por
+ * venda, e o razão dos produtos dela registra uma única baixa (ou nenhuma, se o
+ * cancelamento venceu).
+ *
+ * No modo de alta concorrência o local padrão fica nos contadores e as
+ * transferências correm entre os demais locais. Vazão e p99 de cada operação vão
+ * para o log. Só roda com -Pstress; tamanho da carga em -Dstress.threads,
+ * -Dstress.operations, -Dstress.products, -Dstress.locations, -Dstress.initial-stock e
+ * -Dstress.sale-races (vendas disputadas por rodada).
+ */
+@SpringBootTest(properties = {
+        "comercial.inventory.hot-sku.wal.dir=target/stress/hot-sku",
+        "comercial.audit.journal.dir=target/stress/audit"
+})
+@Tag("stress")
+@Slf4j
+class InventoryConcurrencyStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 32);
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 4000);
+    private static final int PRODUCTS = Integer.getInteger("stress.products", 4);
+    private static final int LOCATIONS = Integer.getInteger("stress.locations", 3);
+    private static final int INITIAL_STOCK = Integer.getInteger("stress.initial-stock", 1500);
+    private static final int SALE_RACES = Integer.getInteger("stress.sale-races", 50);
+
+    private static final String REMOVE = "remove";
+    private static final String ADJUST = "adjust";
+    private static final String SALE = "sale";
+    private static final String TRANSFER = "transfer";
+    private static final String CANCEL = "cancel";
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private HotSkuService hotSkuService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String run = Long.toString(System.currentTimeMillis(), 36);
+
+    private long userId;
+    private String userEmail;
+    private long customerId;
+    private long categoryId;
+    private long defaultLocationId;
+
+    @BeforeEach
+    void seedActors() {
+        userEmail = "estresse-" + run + "@teste.local";
+        userId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, email, password, role) VALUES ('Estresse', ?, 'x', 'ADMIN') RETURNING id",
+                Long.class, userEmail);
+        customerId = jdbcTemplate.queryForObject(
+                "INSERT INTO customers (name) VALUES ('Cliente estresse ' || ?) RETURNING id", Long.class, run);
+        categoryId = jdbcTemplate.queryForObject(
+                "INSERT INTO categories (name) VALUES ('Estresse ' || ?) RETURNING id", Long.class, run);
+        defaultLocationId = jdbcTemplate.queryForObject(
+                "SELECT id FROM stock_locations WHERE is_default", Long.class);
+    }
+
+    @Test
+    void rowLockStrategyKeepsInvariants() throws Exception {
+        runStrategy("row-lock", false);
+    }
+
+    @Test
+    void hotSkuStrategyKeepsInvariants() throws Exception {
+        runStrategy("hot-sku", true);
+    }
+
+    @Test
+    void concurrentCompletionsOfTheSameSaleRemoveStockOnce() throws Exception {
+        raceSales("complete-race", false);
+    }
+
+    @Test
+    void completeRacingCancelSettlesOnOneOutcome() throws Exception {
+        raceSales("cancel-race", true);
+    }
+
+    private void runStrategy(String strategy, boolean hot) throws Exception {
+        List<Long> locations = seedLocations(strategy);
+        List<Long> products = seedProducts(strategy, locations);
+        Map<Long, Map<Long, Integer>> saleItems = new HashMap<>();
+        List<Long> sales = seedSales(products, OPERATIONS / 5, saleItems);
+
+        if (hot) {
+            products.forEach(productId -> hotSkuService.enable(productId, userId));
+        }
+        // O local padrão de um produto no modo só movimenta pelos contadores
+        List<Long> transferLocations = hot ? locations.subList(1, locations.size()) : locations;
+
+        StressReport report = new StressReport(strategy);
+        Map<Long, Map<Long, LongAdder>> accepted = new ConcurrentHashMap<>();
+        products.forEach(productId -> {
+            Map<Long, LongAdder> byLocation = new ConcurrentHashMap<>();
+            locations.forEach(locationId -> byLocation.put(locationId, new LongAdder()));
+            accepted.put(productId, byLocation);
+        });
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+        AtomicInteger remaining = new AtomicInteger(OPERATIONS);
+        AtomicInteger nextSale = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit((Callable<Void>) () -> {
+                // A conclusão de venda identifica o vendedor pelo contexto de segurança
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(userEmail, null, List.of()));
+                start.await();
+
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (remaining.getAndDecrement() > 0) {
+                    long productId = products.get(random.nextInt(products.size()));
+                    int dice = random.nextInt(10);
+                    int saleIndex;
+
+                    if (dice < 2 && (saleIndex = nextSale.getAndIncrement()) < sales.size()) {
+                        long saleId = sales.get(saleIndex);
+                        execute(report, errors, SALE, () -> saleService.complete(saleId),
+                                () -> saleItems.get(saleId).forEach((itemProductId, quantity) ->
+                                        accepted.get(itemProductId).get(defaultLocationId).add(-quantity)));
+                    } else if (dice < 4) {
+                        int quantity = random.nextInt(1, 6) * (random.nextBoolean() ? 1 : -1);
+                        execute(report, errors, ADJUST, () -> inventoryService.adjustStock(StockAdjustmentRequest.builder()
+                                        .productId(productId)
+                                        .quantity(quantity)
+                                        .reason("Estresse " + run)
+                                        .build(), userId),
+                                () -> accepted.get(productId).get(defaultLocationId).add(quantity));
+                    } else if (dice < 6 && transferLocations.size() > 1) {
+                        int fromIndex = random.nextInt(transferLocations.size());
+                        int toIndex = (fromIndex + random.nextInt(1, transferLocations.size())) % transferLocations.size();
+                        long fromLocationId = transferLocations.get(fromIndex);
+                        long toLocationId = transferLocations.get(toIndex);
+                        int quantity = random.nextInt(1, 6);
+                        execute(report, errors, TRANSFER, () -> inventoryService.transfer(TransferStockRequest.builder()
+                                        .productId(productId)
+                                        .fromLocationId(fromLocationId)
+                                        .toLocationId(toLocationId)
+                                        .quantity(quantity)
+                                        .reason("Estresse " + run)
+                                        .build(), userId),
+                                () -> {
+                                    accepted.get(productId).get(fromLocationId).add(-quantity);
+                                    accepted.get(productId).get(toLocationId).add(quantity);
+                                });
+                    } else {
+                        int quantity = random.nextInt(1, 4);
+                        execute(report, errors, REMOVE,
+                                () -> inventoryService.removeStock(productId, quantity, "Estresse " + run, userId, null),
+                                () -> accepted.get(productId).get(defaultLocationId).add(-quantity));
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        // Desativar grava as movimentações que ainda estão no WAL
+        if (hot) {
+            products.forEach(productId -> hotSkuService.disable(productId, userId));
+        }
+
+        log.info("Carga de estoque ({} threads, {} operações, {} produtos, {} locais, estoque inicial {}):{}",
+                THREADS, OPERATIONS, PRODUCTS, locations.size(), INITIAL_STOCK, report.format(elapsed));
+
+        assertThat(errors).as("exceções inesperadas").isEmpty();
+        assertInvariants(products, locations, accepted);
+        assertSales(sales, report);
+    }
+
+    // Para cada venda, todas as threads chamam conclusão (e, com cancel, metade chama cancelamento) ao mesmo tempo
+    private void raceSales(String strategy, boolean cancel) throws Exception {
+        List<Long> products = seedProducts(strategy, List.of(defaultLocationId));
+        Map<Long, Map<Long, Integer>> saleItems = new HashMap<>();
+        List<Long> sales = seedSales(products, SALE_RACES, saleItems);
+
+        StressReport report = new StressReport(strategy);
+        Map<Long, Map<Long, LongAdder>> accepted = new HashMap<>();
+        products.forEach(productId -> accepted.put(productId, Map.of(defaultLocationId, new LongAdder())));
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        int completed = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            for (Long saleId : sales) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    boolean cancelling = cancel && i % 2 == 1;
+                    futures.add(executor.submit(() -> {
+                        SecurityContextHolder.getContext().setAuthentication(
+                                new UsernamePasswordAuthenticationToken(userEmail, null, List.of()));
+                        start.await();
+                        return cancelling
+                                ? execute(report, errors, CANCEL, () -> saleService.cancel(saleId), () -> { })
+                                : execute(report, errors, SALE, () -> saleService.complete(saleId), () -> { });
+                    }));
+                }
+                start.countDown();
+
+                int succeeded = 0;
+                for (Future<Boolean> future : futures) {
+                    succeeded += future.get(1, TimeUnit.MINUTES) ? 1 : 0;
+                }
+                assertThat(succeeded).as("chamadas aceitas na venda %d", saleId).isEqualTo(1);
+
+                String status = jdbcTemplate.queryForObject("SELECT status FROM sales WHERE id = ?", String.class, saleId);
+                Map<String, Object> ledger = jdbcTemplate.queryForMap(
+                        "SELECT COUNT(*) AS movements, COALESCE(SUM(delta), 0) AS total FROM inventory_movements WHERE sale_id = ?",
+                        saleId);
+                Map<Long, Integer> items = saleItems.get(saleId);
+                int units = items.values().stream().mapToInt(Integer::intValue).sum();
+
+                if ("COMPLETED".equals(status)) {
+                    completed++;
+                    items.forEach((productId, quantity) -> accepted.get(productId).get(defaultLocationId).add(-quantity));
+                    assertThat(((Number) ledger.get("movements")).intValue())
+                            .as("saídas da venda %d", saleId).isEqualTo(items.size());
+                    assertThat(((Number) ledger.get("total")).intValue())
+                            .as("baixa da venda %d", saleId).isEqualTo(-units);
+                } else {
+                    assertThat(cancel).as("venda %d ficou %s sem cancelamento na disputa", saleId, status).isTrue();
+                    assertThat(status).isEqualTo("CANCELLED");
+                    assertThat(((Number) ledger.get("movements")).intValue())
+                            .as("saídas da venda cancelada %d", saleId).isZero();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        log.info("Disputa de vendas ({} threads por venda, {} vendas, {} concluídas):{}",
+                THREADS, sales.size(), completed, report.format(elapsed));
+
+        assertThat(errors).as("exceções inesperadas").isEmpty();
+        assertInvariants(products, List.of(defaultLocationId), accepted);
+    }
+
+    private boolean execute(StressReport report, ConcurrentLinkedQueue<Throwable> errors, String operation,
+                            Runnable action, Runnable onSuccess) {
+        long started = System.nanoTime();
+        Outcome outcome;
+        try {
+            action.run();
+            onSuccess.run();
+            outcome = Outcome.OK;
+        } catch (ApiException e) {
+            // Estoque insuficiente é recusa esperada sob carga; o resto é falha
+            outcome = e.getStatus().is4xxClientError() ? Outcome.REJECTED : Outcome.ERROR;
+            if (outcome == Outcome.ERROR) {
+                errors.add(e);
+            }
+        } catch (RuntimeException e) {
+            outcome = Outcome.ERROR;
+            errors.add(e);
+        }
+        report.record(operation, outcome, System.nanoTime() - started);
+        return outcome == Outcome.OK;
+    }
+
+    private void assertInvariants(List<Long> products, List<Long> locations,
+                                  Map<Long, Map<Long, LongAdder>> accepted) {
+        for (Long productId : products) {
+            for (Long locationId : locations) {
+                int quantity = jdbcTemplate.queryForObject(
+                        "SELECT quantity FROM inventory_locations WHERE product_id = ? AND location_id = ?",
+                        Integer.class, productId, locationId);
+                Map<String, Object> ledger = jdbcTemplate.queryForMap("""
+                        SELECT COALESCE(SUM(delta), 0) AS total, MIN(quantity_after) AS lowest
+                        FROM inventory_movements
+                        WHERE product_id = ? AND location_id = ?
+                        """, productId, locationId);
+                Integer brokenLinks = jdbcTemplate.queryForObject("""
+                        SELECT COUNT(*) FROM (
+                            SELECT quantity_before, LAG(quantity_after) OVER (ORDER BY id) AS previous
+                            FROM inventory_movements
+                            WHERE product_id = ? AND location_id = ?
+                        ) m
+                        WHERE previous IS NOT NULL AND previous <> quantity_before
+                        """, Integer.class, productId, locationId);
+
+                assertThat(quantity).as("estoque do produto %d no local %d", productId, locationId)
+                        .isGreaterThanOrEqualTo(0);
+                assertThat(((Number) ledger.get("lowest")).intValue())
+                        .as("menor saldo no razão do produto %d no local %d", productId, locationId)
+                        .isGreaterThanOrEqualTo(0);
+                assertThat(quantity).as("atualizações perdidas no produto %d no local %d", productId, locationId)
+                        .isEqualTo(INITIAL_STOCK + accepted.get(productId).get(locationId).intValue());
+                assertThat(((Number) ledger.get("total")).intValue())
+                        .as("soma do razão do produto %d no local %d", productId, locationId).isEqualTo(quantity);
+                assertThat(brokenLinks)
+                        .as("quantidades antes/depois encadeadas no produto %d no local %d", productId, locationId)
+                        .isZero();
+            }
+
+            Integer transferred = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(delta), 0) FROM inventory_movements WHERE product_id = ? AND type = 'TRANSFER'",
+                    Integer.class, productId);
+            assertThat(transferred).as("transferências do produto %d somam zero", productId).isZero();
+        }
+    }
+
+    private void assertSales(List<Long> sales, StressReport report) {
+        Long[] ids = sales.toArray(Long[]::new);
+        Integer completed = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sales WHERE id = ANY(?) AND status = 'COMPLETED'", Integer.class, (Object) ids);
+        Integer withMovement = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT sale_id) FROM inventory_movements WHERE sale_id = ANY(?)", Integer.class,
+                (Object) ids);
+        Integer movementsOfOpenSales = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM inventory_movements m
+                JOIN sales s ON s.id = m.sale_id
+                WHERE s.id = ANY(?) AND s.status <> 'COMPLETED'
+                """, Integer.class, (Object) ids);
+        Integer partialSales = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM sales s
+                WHERE s.id = ANY(?) AND s.status = 'COMPLETED'
+                  AND (SELECT COUNT(*) FROM inventory_movements m WHERE m.sale_id = s.id)
+                      <> (SELECT COUNT(*) FROM sale_items i WHERE i.sale_id = s.id)
+                """, Integer.class, (Object) ids);
+
+        assertThat(completed.longValue()).as("vendas concluídas").isEqualTo(report.count(SALE, Outcome.OK));
+        assertThat(withMovement).as("vendas concluídas com saída no razão").isEqualTo(completed);
+        assertThat(partialSales).as("vendas concluídas sem a saída de algum item").isZero();
+        assertThat(movementsOfOpenSales).as("saídas de vendas recusadas").isZero();
+    }
+
+    // =================== DADOS DA RODADA ===================
+
+    // Local padrão primeiro, seguido dos locais criados para a rodada
+    private List<Long> seedLocations(String strategy) {
+        List<Long> locations = new ArrayList<>();
+        locations.add(defaultLocationId);
+        for (int i = 1; i < LOCATIONS; i++) {
+            locations.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO stock_locations (code, name) VALUES (?, ?) RETURNING id", Long.class,
+                    "ST" + run + strategy.charAt(0) + "L" + i, "Estresse " + strategy + " " + i));
+        }
+        return locations;
+    }
+
+    private List<Long> seedProducts(String strategy, List<Long> locations) {
+        List<Long> products = new ArrayList<>();
+        for (int i = 1; i <= PRODUCTS; i++) {
+            long productId = jdbcTemplate.queryForObject("""
+                    INSERT INTO products (name, price, code, category_id, is_active)
+                    VALUES (?, 10.00, ?, ?, true) RETURNING id
+                    """, Long.class, "Estresse " + strategy + " " + i, "ST" + run + strategy.charAt(0) + i, categoryId);
+            long inventoryId = jdbcTemplate.queryForObject(
+                    "INSERT INTO inventory (product_id, min_stock, location) VALUES (?, 0, 'Estresse') RETURNING id",
+                    Long.class, productId);
+            for (Long locationId : locations) {
+                jdbcTemplate.update("""
+                        INSERT INTO inventory_locations (inventory_id, product_id, location_id, quantity)
+                        VALUES (?, ?, ?, ?)
+                        """, inventoryId, productId, locationId, INITIAL_STOCK);
+                // Estoque inicial também no razão, para a soma dos deltas fechar com o saldo
+                jdbcTemplate.update("""
+                        INSERT INTO inventory_movements (inventory_id, product_id, location_id, type, quantity, delta,
+                                                         quantity_before, quantity_after, reason, user_id)
+                        VALUES (?, ?, ?, 'IN', ?, ?, 0, ?, 'Estoque inicial', ?)
+                        """, inventoryId, productId, locationId, INITIAL_STOCK, INITIAL_STOCK, INITIAL_STOCK, userId);
+            }
+            products.add(productId);
+        }
+        return products;
+    }
+
+    // Vendas pendentes de dois a quatro produtos distintos, sorteados entre os mesmos
+    // poucos produtos e gravados em ordem aleatória; concluídas durante a carga
+    private List<Long> seedSales(List<Long> products, int count, Map<Long, Map<Long, Integer>> saleItems) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> sales = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Long> shuffled = new ArrayList<>(products);
+            Collections.shuffle(shuffled, random);
+            Map<Long, Integer> items = new LinkedHashMap<>();
+            int size = Math.min(shuffled.size(), random.nextInt(2, 5));
+            for (Long productId : shuffled.subList(0, size)) {
+                items.put(productId, random.nextInt(1, 3));
+            }
+            int units = items.values().stream().mapToInt(Integer::intValue).sum();
+
+            long saleId = jdbcTemplate.queryForObject("""
+                    INSERT INTO sales (user_id, customer_id, total, status, notes)
+                    VALUES (?, ?, ?, 'PENDING', ?) RETURNING id
+                    """, Long.class, userId, customerId, 10.00 * units, "Estresse " + run);
+            items.forEach((productId, quantity) -> jdbcTemplate.update("""
+                    INSERT INTO sale_items (sale_id, product_id, quantity, unit_price, total)
+                    VALUES (?, ?, ?, 10.00, ?)
+                    """, saleId, productId, quantity, 10.00 * quantity));
+            sales.add(saleId);
+            saleItems.put(saleId, items);
+        }
+        return sales;
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.comercialpereira.stress;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latências e resultados por tipo de operação de uma rodada de carga.
+ * Recusas de negócio (estoque insuficiente) contam como resultado esperado;
+ * qualquer outra exceção é erro.
+ */
+class StressReport {
+
+    enum Outcome { OK, REJECTED, ERROR }
+
+    private final String strategy;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    StressReport(String strategy) {
+        this.strategy = strategy;
+    }
+
+    void record(String operation, Outcome outcome, long nanos) {
+        operations.computeIfAbsent(operation, name -> new Operation()).record(outcome, nanos);
+    }
+
+    long count(String operation, Outcome outcome) {
+        Operation stats = operations.get(operation);
+        return stats != null ? stats.outcomes[outcome.ordinal()].get() : 0;
+    }
+
+    long total(Outcome outcome) {
+        return operations.values().stream().mapToLong(stats -> stats.outcomes[outcome.ordinal()].get()).sum();
+    }
+
+    String format(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n=== %s: %.2f s ===%n", strategy, seconds));
+        out.append(String.format("%-10s %8s %8s %8s %6s %10s %9s %9s %9s%n",
+                "operação", "total", "ok", "recusa", "erro", "ops/s", "p50 ms", "p99 ms", "máx ms"));
+
+        long all = 0;
+        for (Map.Entry<String, Operation> entry : new TreeMap<>(operations).entrySet()) {
+            Operation stats = entry.getValue();
+            long[] latencies = stats.sorted();
+            all += latencies.length;
+            out.append(String.format("%-10s %8d %8d %8d %6d %10.0f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), latencies.length,
+                    stats.outcomes[Outcome.OK.ordinal()].get(),
+                    stats.outcomes[Outcome.REJECTED.ordinal()].get(),
+                    stats.outcomes[Outcome.ERROR.ordinal()].get(),
+                    latencies.length / seconds,
+                    millis(percentile(latencies, 0.50)),
+                    millis(percentile(latencies, 0.99)),
+                    millis(latencies.length > 0 ? latencies[latencies.length - 1] : 0)));
+        }
+        out.append(String.format("%-10s %8d %37.0f%n", "todas", all, all / seconds));
+        return out.toString();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static class Operation {
+        private final AtomicLong[] outcomes = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        private void record(Outcome outcome, long nanos) {
+            outcomes[outcome.ordinal()].incrementAndGet();
+            latencies.add(nanos);
+        }
+
+        private long[] sorted() {
+            long[] values = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(values);
+            return values;
+        }
+    }
+}
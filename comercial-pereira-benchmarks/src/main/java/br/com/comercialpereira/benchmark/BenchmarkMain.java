@@ -0,0 +1,50 @@
+package br.com.comercialpereira.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entrada do benchmarks.jar: aceita as opções normais do JMH, mas sempre liga o
+ * profiler de GC (alocação por operação em gc.alloc.rate.norm) e grava o
+ * resultado em JSON, para comparar antes e depois de uma otimização.
+ */
+public final class BenchmarkMain {
+
+    private static final String DEFAULT_RESULT = "target/jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+
+        // Listagens e ajuda não executam benchmarks
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+                || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+
+        boolean gcRequested = cli.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc")
+                        || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcRequested) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT);
+        }
+        if (!cli.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+package br.com.comercialpereira.benchmark;
+
+import br.com.comercialpereira.entity.Category;
+import br.com.comercialpereira.entity.Customer;
+import br.com.comercialpereira.entity.Inventory;
+import br.com.comercialpereira.entity.Product;
+import br.com.comercialpereira.entity.Sale;
+import br.com.comercialpereira.entity.SaleItem;
+import br.com.comercialpereira.entity.Supplier;
+import br.com.comercialpereira.entity.User;
+import br.com.comercialpereira.enums.CustomerType;
+import br.com.comercialpereira.enums.SaleStatus;
+import org.springframework.objenesis.ObjenesisStd;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Massa de dados em memória para os benchmarks, no formato que o Hibernate
+ * entrega aos serviços: produto com categoria, fornecedor (nem todos) e estoque.
+ * A semente é fixa para que rodadas diferentes meçam os mesmos dados.
+ */
+public final class Catalog {
+
+    private static final int CATEGORIES = 12;
+    private static final int SUPPLIERS = 8;
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 15, 10, 0);
+
+    private Catalog() {
+    }
+
+    public static List<Product> products(int size) {
+        Random random = new Random(42);
+        List<Category> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 1; i <= CATEGORIES; i++) {
+            Category category = Category.builder()
+                    .name("Categoria " + i)
+                    .description("Descrição da categoria " + i)
+                    .isActive(true)
+                    .build();
+            category.setId((long) i);
+            categories.add(category);
+        }
+        List<Supplier> suppliers = new ArrayList<>(SUPPLIERS);
+        for (int i = 1; i <= SUPPLIERS; i++) {
+            Supplier supplier = Supplier.builder()
+                    .name("Fornecedor " + i)
+                    .contactPerson("Contato " + i)
+                    .isActive(true)
+                    .build();
+            supplier.setId((long) i);
+            suppliers.add(supplier);
+        }
+
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Product product = Product.builder()
+                    .name("Produto " + i)
+                    .description("Descrição do produto " + i)
+                    .price(BigDecimal.valueOf(100 + random.nextInt(99_900), 2))
+                    .code(String.format("PRD%06d", i))
+                    .barcode(String.format("789%010d", i))
+                    .isActive(true)
+                    .category(categories.get(random.nextInt(CATEGORIES)))
+                    // Um terço do catálogo sem fornecedor, para exercitar os dois ramos
+                    .supplier(i % 3 == 0 ? null : suppliers.get(random.nextInt(SUPPLIERS)))
+                    .build();
+            product.setId((long) i);
+            product.setCreatedAt(NOW);
+            product.setUpdatedAt(NOW);
+
+            int quantity = random.nextInt(200);
+            Inventory inventory = Inventory.builder()
+                    .product(product)
+                    .quantity(quantity)
+                    .minStock(10)
+                    .maxStock(i % 4 == 0 ? null : 150)
+                    .location("Corredor " + (char) ('A' + random.nextInt(6)))
+                    .lastUpdate(NOW)
+                    .build();
+            inventory.setId((long) i);
+            inventory.setCreatedAt(NOW);
+            inventory.setUpdatedAt(NOW);
+            product.setInventory(inventory);
+
+            products.add(product);
+        }
+        return products;
+    }
+
+    public static List<Inventory> inventories(List<Product> products) {
+        return products.stream().map(Product::getInventory).toList();
+    }
+
+    /**
+     * Venda com itens sorteados do catálogo. Com storedTotals=false os itens
+     * ficam sem total gravado e o subtotal é calculado item a item.
+     */
+    public static Sale sale(List<Product> catalog, int itemCount, boolean storedTotals, long seed) {
+        Random random = new Random(seed);
+
+        User user = User.builder().name("Vendedor").email("vendedor@comercialpereira.com").build();
+        user.setId(1L);
+        Customer customer = Customer.builder()
+                .name("Cliente " + seed)
+                .type(CustomerType.RETAIL)
+                .document("12345678909")
+                .build();
+        customer.setId(seed);
+
+        Sale sale = Sale.builder()
+                .user(user)
+                .customer(customer)
+                .discount(BigDecimal.ZERO)
+                .tax(BigDecimal.ZERO)
+                .status(SaleStatus.PENDING)
+                .saleDate(NOW)
+                .items(new ArrayList<>(itemCount + 1))
+                .build();
+        sale.setId(seed);
+        sale.setCreatedAt(NOW);
+        sale.setUpdatedAt(NOW);
+
+        for (int i = 1; i <= itemCount; i++) {
+            SaleItem item = item(sale, catalog.get(random.nextInt(catalog.size())), 1 + random.nextInt(5), storedTotals);
+            item.setId(seed * 10_000 + i);
+            sale.getItems().add(item);
+        }
+        sale.recalculateTotal();
+        return sale;
+    }
+
+    public static SaleItem item(Sale sale, Product product, int quantity, boolean storedTotal) {
+        BigDecimal discount = quantity > 3 ? new BigDecimal("1.50") : BigDecimal.ZERO;
+        BigDecimal total = product.getPrice().multiply(BigDecimal.valueOf(quantity)).subtract(discount);
+        return SaleItem.builder()
+                .sale(sale)
+                .product(product)
+                .quantity(quantity)
+                .unitPrice(product.getPrice())
+                .discount(discount)
+                .total(storedTotal ? total : null)
+                .build();
+    }
+
+    /**
+     * Instancia um serviço sem passar pelo construtor: os métodos de mapeamento
+     * medidos não usam repositórios nem outras dependências injetadas.
+     */
+    public static <T> T service(Class<T> type) {
+        return new ObjenesisStd().newInstance(type);
+    }
+}
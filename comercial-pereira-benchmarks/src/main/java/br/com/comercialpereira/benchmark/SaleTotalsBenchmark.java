@@ -0,0 +1,81 @@
+package br.com.comercialpereira.benchmark;
+
+import br.com.comercialpereira.entity.Product;
+import br.com.comercialpereira.entity.Sale;
+import br.com.comercialpereira.entity.SaleItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totais da venda em BigDecimal. Toda inclusão ou alteração de item chama
+ * recalculateTotal, que percorre todos os itens de novo; os benchmarks de
+ * mutação reproduzem o que addItem e updateItem fazem antes de salvar.
+ * itemTotals=computed mede itens sem total gravado (multiplicação por item).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleTotalsBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int itemCount;
+
+    @Param({"stored", "computed"})
+    public String itemTotals;
+
+    private Sale sale;
+    private Product extraProduct;
+    private int nextItem;
+
+    @Setup
+    public void setUp() {
+        List<Product> catalog = Catalog.products(1000);
+        sale = Catalog.sale(catalog, itemCount, "stored".equals(itemTotals), 11);
+        extraProduct = catalog.get(0);
+    }
+
+    @Benchmark
+    public BigDecimal calculateSubtotal() {
+        return sale.calculateSubtotal();
+    }
+
+    @Benchmark
+    public BigDecimal recalculateTotal() {
+        sale.recalculateTotal();
+        return sale.getTotal();
+    }
+
+    @Benchmark
+    public BigDecimal addItemAndRecalculate() {
+        List<SaleItem> items = sale.getItems();
+        items.add(Catalog.item(sale, extraProduct, 2, "stored".equals(itemTotals)));
+        sale.recalculateTotal();
+        // Remove o item para manter o tamanho da venda igual entre as operações
+        items.remove(items.size() - 1);
+        return sale.getTotal();
+    }
+
+    @Benchmark
+    public BigDecimal updateItemAndRecalculate() {
+        SaleItem item = sale.getItems().get(nextItem++ % itemCount);
+        item.setQuantity(item.getQuantity() % 5 + 1);
+        sale.recalculateTotal();
+        return sale.getTotal();
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.comercialpereira.services;
+
+import br.com.comercialpereira.benchmark.Catalog;
+import br.com.comercialpereira.entity.Inventory;
+import br.com.comercialpereira.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento entidade -> resposta de estoque e de produto sobre o catálogo
+ * inteiro, como nas listagens e exportações. Cada operação mapeia catalogSize
+ * itens; divida tempo e gc.alloc.rate.norm por catalogSize para o custo por item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"20", "1000", "10000"})
+    public int catalogSize;
+
+    private InventoryService inventoryService;
+    private ProductService productService;
+    private List<Product> products;
+    private List<Inventory> inventories;
+
+    @Setup
+    public void setUp() {
+        inventoryService = Catalog.service(InventoryService.class);
+        productService = Catalog.service(ProductService.class);
+        products = Catalog.products(catalogSize);
+        inventories = Catalog.inventories(products);
+    }
+
+    @Benchmark
+    public void inventoryResponses(Blackhole blackhole) {
+        for (Inventory inventory : inventories) {
+            blackhole.consume(inventoryService.mapToInventoryResponse(inventory));
+        }
+    }
+
+    @Benchmark
+    public void productResponses(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(productService.convertToProductResponse(product));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.comercialpereira.services.sale;
+
+import br.com.comercialpereira.benchmark.Catalog;
+import br.com.comercialpereira.dto.sale.SaleResponse;
+import br.com.comercialpereira.entity.Product;
+import br.com.comercialpereira.entity.Sale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resposta de venda: detalhada (com itens, usada em toda alteração de item) e
+ * resumida (listagens). Os itens são sorteados de um catálogo de catalogSize
+ * produtos, o que muda a localidade de memória dos produtos referenciados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleResponseBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int itemCount;
+
+    @Param({"1000", "10000"})
+    public int catalogSize;
+
+    private SaleService saleService;
+    private Sale sale;
+
+    @Setup
+    public void setUp() {
+        saleService = Catalog.service(SaleService.class);
+        List<Product> catalog = Catalog.products(catalogSize);
+        sale = Catalog.sale(catalog, itemCount, true, 7);
+    }
+
+    @Benchmark
+    public SaleResponse withItems() {
+        return saleService.toSaleResponse(sale, true);
+    }
+
+    @Benchmark
+    public SaleResponse summary() {
+        return saleService.toSaleResponse(sale, false);
+    }
+}